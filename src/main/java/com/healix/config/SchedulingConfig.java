@@ -0,0 +1,12 @@
+package com.healix.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} jobs (e.g. the nightly duplicate patient scan).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
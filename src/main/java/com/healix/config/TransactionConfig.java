@@ -0,0 +1,18 @@
+package com.healix.config;
+
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+@Configuration
+public class TransactionConfig {
+
+    /**
+     * Allow JDBC savepoints inside JPA transactions (used by chunked batch registration to isolate rows).
+     */
+    @Bean
+    public TransactionManagerCustomizer<JpaTransactionManager> savepointCustomizer() {
+        return transactionManager -> transactionManager.setNestedTransactionAllowed(true);
+    }
+}
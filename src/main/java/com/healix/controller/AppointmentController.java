@@ -3,22 +3,29 @@ package com.healix.controller;
 import com.healix.api.AppointmentManagementApi;
 import com.healix.dto.AppointmentAuditDTO;
 import com.healix.dto.AvailableSlotDTO;
+import com.healix.mapper.PageMapper;
 import com.healix.model.*;
 import com.healix.service.AppointmentAuditService;
 import com.healix.service.AppointmentService;
 import com.healix.service.AvailabilityService;
+import com.healix.service.CriticalVitalsAlertService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 
 @RestController
@@ -29,11 +36,17 @@ public class AppointmentController implements AppointmentManagementApi {
     private final AppointmentService appointmentService;
     private final AppointmentAuditService appointmentAuditService;
     private final AvailabilityService availabilityService;
+    private final PageMapper pageMapper;
+    private final CriticalVitalsAlertService criticalVitalsAlertService;
 
-    public AppointmentController(AppointmentService appointmentService, AppointmentAuditService appointmentAuditService, AvailabilityService availabilityService) {
+    public AppointmentController(AppointmentService appointmentService, AppointmentAuditService appointmentAuditService,
+                                 AvailabilityService availabilityService, PageMapper pageMapper,
+                                 CriticalVitalsAlertService criticalVitalsAlertService) {
         this.appointmentService = appointmentService;
         this.appointmentAuditService = appointmentAuditService;
         this.availabilityService = availabilityService;
+        this.pageMapper = pageMapper;
+        this.criticalVitalsAlertService = criticalVitalsAlertService;
     }
 
     @Override
@@ -120,6 +133,27 @@ public class AppointmentController implements AppointmentManagementApi {
         return ResponseEntity.ok(response);
     }
 
+    @Override
+    public ResponseEntity<AppointmentSliceResponse> getAppointmentsByCursor(
+            String patientName,
+            Long patientId,
+            String contactNumber,
+            LocalDate appointmentDate,
+            Long physicianId,
+            AppointmentStatus status,
+            String cursor,
+            Integer size) {
+
+        log.info("Fetching appointments by cursor");
+
+        long beforeId = pageMapper.decodeCursor(cursor);
+        Slice<AppointmentResponse> appointments = appointmentService.getAppointmentsSlice(
+                patientId, physicianId, status, appointmentDate, contactNumber, patientName,
+                beforeId, size != null ? size : 20);
+
+        return ResponseEntity.ok(pageMapper.toAppointmentSliceResponse(appointments));
+    }
+
     @Override
     public ResponseEntity<AppointmentResponse> updateAppointmentStatus(
             Long id, UpdateAppointmentStatusRequest updateAppointmentStatusRequest) {
@@ -153,6 +187,37 @@ public class AppointmentController implements AppointmentManagementApi {
         return ResponseEntity.ok(response);
     }
 
+    @Override
+    public ResponseEntity<List<WaitingRoomEntry>> getWaitingRoom(LocalDate date, AppointmentStatus status,
+                                                                 Long departmentId, Long physicianId) {
+        log.info("Fetching waiting room for date: {}, status: {}", date, status);
+
+        List<WaitingRoomEntry> response = appointmentService.getWaitingRoom(date, status, departmentId, physicianId);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<List<CriticalVitalsAlertResponse>> getCriticalVitalsAlerts(OffsetDateTime since) {
+        log.info("Fetching critical vitals alerts since: {}", since);
+
+        List<CriticalVitalsAlertResponse> response = criticalVitalsAlertService.getAlerts(
+                since != null ? since.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime() : null);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Server-sent events of new critical vitals alerts for nurse stations (event name "critical-vitals").
+     * Not part of the generated API: the generator has no streaming response type.
+     */
+    @GetMapping(value = "/api/appointments/critical-vitals-alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCriticalVitalsAlerts(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Critical vitals alert subscriber connected (last event: {})", lastEventId);
+
+        return criticalVitalsAlertService.subscribe(lastEventId);
+    }
+
     // Note: Prescription, Investigation, Referral, Admit, and Discharge methods
     // are placeholders and should be implemented similarly to vitals and examination
 
@@ -1,6 +1,7 @@
 package com.healix.controller;
 
 import com.healix.api.DropdownLookupApi;
+import com.healix.model.BatchDropdownLookupResponse;
 import com.healix.model.DropdownLookupRequest;
 import com.healix.model.DropdownLookupResponse;
 import com.healix.service.DropdownLookupService;
@@ -24,6 +25,15 @@ public class DropdownLookupController implements DropdownLookupApi {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @Override
+    public ResponseEntity<BatchDropdownLookupResponse> importDropdowns(List<DropdownLookupRequest> dropdownLookupRequest) {
+        BatchDropdownLookupResponse response = service.importBulk(dropdownLookupRequest);
+
+        // Return 207 Multi-Status if any entry was rejected, 201 Created otherwise
+        HttpStatus status = response.getFailureCount() > 0 ? HttpStatus.MULTI_STATUS : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(response);
+    }
+
     @Override
     public ResponseEntity<Void> deleteDropdownById(Long id) {
         service.deleteById(id);
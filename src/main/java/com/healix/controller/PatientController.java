@@ -4,14 +4,29 @@ import com.healix.api.PatientManagementApi;
 import com.healix.mapper.PageMapper;
 import com.healix.model.*;
 import com.healix.service.CsvPatientService;
+import com.healix.service.PatientCache;
+import com.healix.service.PatientDuplicateDetectionService;
+import com.healix.service.PatientDuplicateReviewService;
+import com.healix.service.ImportErrorReportService;
+import com.healix.service.PatientExportService;
+import com.healix.service.PatientImportJobService;
+import com.healix.service.PatientMedicalTagService;
+import com.healix.service.PatientPhoneticSearchService;
+import com.healix.service.PatientSearchIndex;
 import com.healix.service.PatientService;
+import com.healix.service.PatientTimelineService;
+import com.healix.service.VitalSeriesService;
 import com.healix.util.PatientValidator;
+import com.healix.util.StreamingResource;
+import com.healix.validation.ParallelValidationStage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -20,6 +35,10 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +51,21 @@ public class PatientController implements PatientManagementApi {
     private final PatientService patientService;
     private final PageMapper pageMapper;
     private final CsvPatientService csvPatientService;
+    private final PatientImportJobService patientImportJobService;
+    private final ImportErrorReportService importErrorReportService;
+    private final PatientExportService patientExportService;
+    private final PatientTimelineService patientTimelineService;
+    private final VitalSeriesService vitalSeriesService;
+    private final PatientMedicalTagService patientMedicalTagService;
+    private final PatientSearchIndex patientSearchIndex;
+    private final PatientCache patientCache;
+    private final PatientPhoneticSearchService patientPhoneticSearchService;
+    private final PatientDuplicateDetectionService patientDuplicateDetectionService;
+    private final PatientDuplicateReviewService patientDuplicateReviewService;
+    private final ParallelValidationStage validationStage;
+    // Longest an export or timeline may take to stream before it is cut off
+    @Value("${healix.streaming.write-timeout-ms:600000}")
+    private long streamingTimeoutMillis;
 
     @Override
     public ResponseEntity<BatchPatientResponse> registerPatient(
@@ -40,15 +74,14 @@ public class PatientController implements PatientManagementApi {
         log.info("Batch patient registration request received for {} patients",
                 requests.size());
 
-        // Validate insurance fields for each request
+        // Validate insurance fields for each request (in parallel, reported in request order)
+        List<List<String>> missingFieldsByRequest = validationStage.validate(requests,
+                req -> req != null ? PatientValidator.validateInsurance(req.getInsurance()) : List.of());
         List<String> validationErrors = new ArrayList<>();
-        for (int i = 0; i < requests.size(); i++) {
-            PatientRegistrationRequest req = requests.get(i);
-            if (req != null) {
-                List<String> missingFields = PatientValidator.validateInsurance(req.getInsurance());
-                if (!missingFields.isEmpty()) {
-                    validationErrors.add("request[" + i + "] missing: " + String.join(",", missingFields));
-                }
+        for (int i = 0; i < missingFieldsByRequest.size(); i++) {
+            List<String> missingFields = missingFieldsByRequest.get(i);
+            if (!missingFields.isEmpty()) {
+                validationErrors.add("request[" + i + "] missing: " + String.join(",", missingFields));
             }
         }
 
@@ -118,12 +151,189 @@ public class PatientController implements PatientManagementApi {
     }
 
     @Override
-    public ResponseEntity<CsvUploadResponse> uploadPatientsCsv(MultipartFile file) {
-        log.info("CSV upload request received: {}", file.getOriginalFilename());
-        CsvUploadResponse response = csvPatientService.processCsvFile(file);
+    public ResponseEntity<PatientSliceResponse> getPatientsByCursor(String query, String cursor, Integer size) {
+        long beforeId = pageMapper.decodeCursor(cursor);
+        Slice<PatientResponse> slice = patientService.getPatientsSlice(query, beforeId, size != null ? size : 20);
+        return ResponseEntity.ok(pageMapper.toPatientSliceResponse(slice));
+    }
+
+    @Override
+    public ResponseEntity<PatientSummaryPageResponse> getPatientSummaries(String query, Integer page, Integer size) {
+        Pageable pageable = createPageable(page, size, null);
+        Page<PatientSummary> summaries = patientService.getPatientSummaries(query, pageable);
+
+        PatientSummaryPageResponse response = new PatientSummaryPageResponse();
+        response.setContent(summaries.getContent());
+        response.setTotalElements(summaries.getTotalElements());
+        response.setTotalPages(summaries.getTotalPages());
+        response.setCurrentPage(summaries.getNumber());
+        response.setSize(summaries.getSize());
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<List<PatientResponse>> quickSearchPatients(String query, Integer limit) {
+        return ResponseEntity.ok(patientService.quickSearchPatients(query, limit != null ? limit : 10));
+    }
+
+    @Override
+    public ResponseEntity<List<PatientPhoneticMatch>> searchPatientsPhonetic(
+            String name, LocalDate dateOfBirth, String mobileNumber, Integer limit) {
+        return ResponseEntity.ok(patientPhoneticSearchService.search(
+                name, dateOfBirth, mobileNumber, limit != null ? limit : 10));
+    }
+
+    @Override
+    public ResponseEntity<PatientCacheStats> getPatientCacheStats() {
+        return ResponseEntity.ok(patientCache.stats());
+    }
+
+    @Override
+    public ResponseEntity<Void> clearPatientCache() {
+        log.info("Patient cache clear requested");
+        patientCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    @Override
+    public ResponseEntity<PatientSearchIndexStatus> getPatientSearchIndexStatus() {
+        return ResponseEntity.ok(patientSearchIndex.status());
+    }
+
+    @Override
+    public ResponseEntity<PatientSearchIndexStatus> rebuildPatientSearchIndex() {
+        log.info("Patient search index rebuild requested");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientSearchIndex.startRebuild());
+    }
+
+    @Override
+    public ResponseEntity<PatientSummaryPageResponse> getPatientsByMedicalTags(
+            List<String> allergies, List<String> conditions, List<String> medications, String district,
+            Integer page, Integer size) {
+        Pageable pageable = createPageable(page, size, null);
+        Page<PatientSummary> patients = patientMedicalTagService.findPatients(
+                allergies, conditions, medications, district, pageable);
+
+        PatientSummaryPageResponse response = new PatientSummaryPageResponse();
+        response.setContent(patients.getContent());
+        response.setTotalElements(patients.getTotalElements());
+        response.setTotalPages(patients.getTotalPages());
+        response.setCurrentPage(patients.getNumber());
+        response.setSize(patients.getSize());
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<MedicalTagIndexStatus> getMedicalTagIndexStatus() {
+        return ResponseEntity.ok(patientMedicalTagService.status());
+    }
+
+    @Override
+    public ResponseEntity<MedicalTagIndexStatus> rebuildMedicalTags(Boolean retagAll) {
+        log.info("Medical tag rebuild requested (retagAll={})", retagAll);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(patientMedicalTagService.startRebuild(retagAll == null || retagAll));
+    }
+
+    @Override
+    public ResponseEntity<DuplicateCandidatePageResponse> getDuplicateCandidates(
+            DuplicateCandidateStatus status, Integer page, Integer size) {
+        Pageable pageable = createPageable(page, size, null);
+        Page<DuplicateCandidateResponse> candidates = patientDuplicateReviewService.getCandidates(status, pageable);
+
+        DuplicateCandidatePageResponse response = new DuplicateCandidatePageResponse();
+        response.setContent(candidates.getContent());
+        response.setTotalElements(candidates.getTotalElements());
+        response.setTotalPages(candidates.getTotalPages());
+        response.setCurrentPage(candidates.getNumber());
+        response.setSize(candidates.getSize());
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<DuplicateScanStatus> getDuplicateScanStatus() {
+        return ResponseEntity.ok(patientDuplicateDetectionService.status());
+    }
+
+    @Override
+    public ResponseEntity<DuplicateScanStatus> startDuplicateScan() {
+        log.info("Duplicate patient scan requested");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientDuplicateDetectionService.startScan());
+    }
+
+    @Override
+    public ResponseEntity<DuplicateCandidateResponse> dismissDuplicateCandidate(Long candidateId) {
+        return ResponseEntity.ok(patientDuplicateReviewService.dismiss(candidateId));
+    }
+
+    @Override
+    public ResponseEntity<PatientMergeResponse> mergeDuplicatePatients(Long candidateId, MergePatientsRequest request) {
+        return ResponseEntity.ok(patientDuplicateReviewService.merge(candidateId, request.getSurvivorId()));
+    }
+
+    @Override
+    public ResponseEntity<CsvUploadResponse> uploadPatientsCsv(MultipartFile file, String resultMode) {
+        log.info("CSV upload request received: {} (resultMode={})", file.getOriginalFilename(), resultMode);
+        CsvUploadResponse response = csvPatientService.processCsvFile(file, "REPORT".equals(resultMode));
         return ResponseEntity.ok(response);
     }
 
+    @Override
+    public ResponseEntity<PatientImportJobResponse> startPatientImportJob(MultipartFile file) {
+        log.info("CSV import job requested: {}", file.getOriginalFilename());
+        PatientImportJobResponse response = patientImportJobService.startImport(file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @Override
+    public ResponseEntity<PatientImportJobResponse> getPatientImportJob(String jobId) {
+        return ResponseEntity.ok(patientImportJobService.getJob(jobId));
+    }
+
+    @Override
+    public ResponseEntity<Resource> downloadImportErrorReport(String reportId) {
+        Resource report = importErrorReportService.getReport(reportId);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=import_errors_" + reportId + ".ndjson")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(report);
+    }
+
+    @Override
+    public ResponseEntity<Resource> exportPatients(String format, Boolean includeInsurance, Boolean includeContacts) {
+        PatientExportService.Format exportFormat;
+        try {
+            exportFormat = PatientExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("format must be one of: CSV, NDJSON");
+        }
+        log.info("Patient export requested: format={}", exportFormat);
+
+        boolean csv = exportFormat == PatientExportService.Format.CSV;
+        Resource export = StreamingResource.of("patient-export", Duration.ofMillis(streamingTimeoutMillis),
+                out -> patientExportService.export(exportFormat, Boolean.TRUE.equals(includeInsurance),
+                        Boolean.TRUE.equals(includeContacts), out));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=patients." + (csv ? "csv" : "ndjson"))
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .body(export);
+    }
+
+    @Override
+    public ResponseEntity<Resource> getPatientTimeline(Long id, String cursor, Integer limit) {
+        // Unknown patients and bad cursors get their error status before anything is streamed
+        patientTimelineService.validate(id, cursor);
+
+        Resource timeline = StreamingResource.of("patient-timeline-" + id, Duration.ofMillis(streamingTimeoutMillis),
+                out -> patientTimelineService.writeTimeline(id, cursor, limit, out));
+        return ResponseEntity.ok()
+                .contentType(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .body(timeline);
+    }
+
     @Override
     public ResponseEntity<Resource> downloadCsvTemplate() {
         log.info("CSV template download requested");
@@ -156,10 +366,23 @@ public class PatientController implements PatientManagementApi {
     }
 
     @Override
-    public ResponseEntity<MedicalHistoryResponse> getPatientMedicalHistory(Long id) {
+    public ResponseEntity<MedicalHistoryResponse> getPatientMedicalHistory(Long id, OffsetDateTime asOf) {
         log.info("Get medical history request received for patient ID: {}", id);
 
-        MedicalHistoryResponse response = patientService.getPatientMedicalHistory(id);
+        MedicalHistoryResponse response = patientService.getPatientMedicalHistory(id,
+                asOf != null ? asOf.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime() : null);
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<VitalSeriesResponse> getPatientVitalSeries(Long id, List<String> metrics, OffsetDateTime from,
+                                                                     OffsetDateTime to, Integer points) {
+        log.info("Vital series request received for patient ID: {} metrics: {}", id, metrics);
+
+        VitalSeriesResponse response = vitalSeriesService.getSeries(id, metrics,
+                from != null ? from.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime() : null,
+                to != null ? to.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime() : null,
+                points);
         return ResponseEntity.ok(response);
     }
 
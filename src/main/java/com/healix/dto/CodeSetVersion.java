@@ -0,0 +1,17 @@
+package com.healix.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Count, highest id and latest update of a set of dropdown codes; equal versions mean unchanged codes.
+ */
+@Data
+@AllArgsConstructor
+public class CodeSetVersion {
+    private Long count;
+    private Long maxId;
+    private LocalDateTime lastUpdatedAt;
+}
@@ -0,0 +1,35 @@
+package com.healix.dto;
+
+import com.healix.entity.Vitals;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Triage columns of an appointment's most recent vitals, selected without loading the entity or its symptoms.
+ */
+@Data
+@AllArgsConstructor
+public class LatestVitalsRow {
+    private Long appointmentId;
+    private Long vitalsId;
+    private LocalDateTime recordedAt;
+    private String recordedByName;
+    private Double temperature;
+    private String temperatureUnit;
+    private Integer heartRate;
+    private Double respiratoryRate;
+    private Integer systolicBp;
+    private Integer diastolicBp;
+    private Double spo2;
+    private Double randomBloodSugar;
+    private Integer painLevel;
+
+    public static LatestVitalsRow of(Long appointmentId, Vitals vitals) {
+        return new LatestVitalsRow(appointmentId, vitals.getId(), vitals.getRecordedAt(), vitals.getRecordedByName(),
+                vitals.getTemperature(), vitals.getTemperatureUnit(), vitals.getHeartRate(),
+                vitals.getRespiratoryRate(), vitals.getSystolicBp(), vitals.getDiastolicBp(), vitals.getSpo2(),
+                vitals.getRandomBloodSugar(), vitals.getPainLevel());
+    }
+}
@@ -0,0 +1,37 @@
+package com.healix.dto;
+
+import com.healix.model.BloodGroup;
+import com.healix.model.Gender;
+import com.healix.model.PatientStatus;
+import com.healix.model.PreferredContactMethod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Patient columns read by the export query (a projection, so no entity or lazy association is loaded).
+ */
+@Data
+@AllArgsConstructor
+public class PatientExportRow {
+    private Long id;
+    private String patientId;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private Gender gender;
+    private BloodGroup bloodGroup;
+    private String aadharNumber;
+    private String mobileNumber;
+    private String emailId;
+    private PreferredContactMethod preferredContactMethod;
+    private String addressLine1;
+    private String city;
+    private String district;
+    private String state;
+    private String pinCode;
+    private PatientStatus status;
+    private OffsetDateTime createdAt;
+}
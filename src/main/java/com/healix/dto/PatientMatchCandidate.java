@@ -0,0 +1,22 @@
+package com.healix.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Patient columns used to score fuzzy name matches and duplicate candidates.
+ */
+@Data
+@AllArgsConstructor
+public class PatientMatchCandidate {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String firstNameKey;
+    private String lastNameKey;
+    private LocalDate dateOfBirth;
+    private String mobileNumber;
+    private String pinCode;
+}
@@ -0,0 +1,23 @@
+package com.healix.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Name and date of birth of a patient, for screens that show a patient next to other records without
+ * loading the patient itself.
+ */
+@Data
+@AllArgsConstructor
+public class PatientNameRow {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+}
@@ -0,0 +1,17 @@
+package com.healix.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Searchable patient columns read when (re)building the patient search index.
+ */
+@Data
+@AllArgsConstructor
+public class PatientSearchRow {
+    private Long id;
+    private String patientId;
+    private String firstName;
+    private String lastName;
+    private String mobileNumber;
+}
@@ -0,0 +1,24 @@
+package com.healix.dto;
+
+import com.healix.model.Gender;
+import com.healix.model.PatientStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Patient list columns, selected without loading the entity or its associations.
+ */
+@Data
+@AllArgsConstructor
+public class PatientSummaryRow {
+    private Long id;
+    private String patientId;
+    private String firstName;
+    private String lastName;
+    private String mobileNumber;
+    private Gender gender;
+    private LocalDate dateOfBirth;
+    private PatientStatus status;
+}
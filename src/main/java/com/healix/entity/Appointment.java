@@ -14,7 +14,11 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointment_patient_date", columnList = "patient_id, appointment_date"),
+        @Index(name = "idx_appointment_physician_date", columnList = "physician_id, appointment_date"),
+        @Index(name = "idx_appointment_status_date", columnList = "status, appointment_date")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,7 +26,8 @@ import java.time.LocalTime;
 public class Appointment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -17,7 +17,8 @@ import java.time.LocalTime;
 public class AppointmentAudit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_audit_seq")
+    @SequenceGenerator(name = "appointment_audit_seq", sequenceName = "appointment_audit_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "appointment_id", nullable = false)
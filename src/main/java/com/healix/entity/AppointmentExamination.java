@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class AppointmentExamination {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_examination_seq")
+    @SequenceGenerator(name = "appointment_examination_seq", sequenceName = "appointment_examination_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
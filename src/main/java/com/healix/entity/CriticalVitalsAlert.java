@@ -0,0 +1,77 @@
+package com.healix.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alert raised for vitals with critical values. Patient name, appointment number and room are copied in
+ * so nurse stations can list alerts without further lookups.
+ */
+@Entity
+@Table(name = "critical_vitals_alerts",
+        indexes = {
+                @Index(name = "idx_critical_alert_raised", columnList = "raised_at"),
+                @Index(name = "idx_critical_alert_patient", columnList = "patient_id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CriticalVitalsAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "critical_vitals_alerts_seq")
+    @SequenceGenerator(name = "critical_vitals_alerts_seq", sequenceName = "critical_vitals_alerts_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "patient_name", length = 255)
+    private String patientName;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    @Column(name = "appointment_number", length = 50)
+    private String appointmentNumber;
+
+    @Column(name = "consultation_room", length = 50)
+    private String consultationRoom;
+
+    @Column(name = "vitals_id", nullable = false)
+    private Long vitalsId;
+
+    /**
+     * Critical metrics, comma separated
+     */
+    @Column(name = "metrics", nullable = false, length = 255)
+    private String metrics;
+
+    /**
+     * One line per critical metric
+     */
+    @Column(name = "findings", nullable = false, length = 1000)
+    private String findings;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    @Column(name = "raised_at", nullable = false)
+    private LocalDateTime raisedAt;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    /**
+     * Later recordings with the same critical findings folded into this alert
+     */
+    @Column(name = "repeat_count")
+    @Builder.Default
+    private Integer repeatCount = 0;
+}
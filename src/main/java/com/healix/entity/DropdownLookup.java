@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class DropdownLookup {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dropdown_lookup_seq")
+    @SequenceGenerator(name = "dropdown_lookup_seq", sequenceName = "dropdown_lookup_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "type", nullable = false, length = 50)
@@ -4,9 +4,11 @@ import com.healix.model.BloodGroup;
 import com.healix.model.Gender;
 import com.healix.model.PatientStatus;
 import com.healix.model.PreferredContactMethod;
+import com.healix.util.PhoneticKey;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.validator.constraints.Length;
 
 import java.time.LocalDate;
@@ -15,11 +17,29 @@ import java.time.Period;
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Fetch graphs for the {@code PatientResponse} shape. The inverse one-to-ones cannot be lazy proxies, so
+ * without a graph Hibernate loads insurance and medical history with one query each per patient.
+ * Paged reads use {@code Patient.list}: to-one joins keep SQL pagination intact and emergency contacts
+ * are batch-loaded for the whole page.
+ */
+@NamedEntityGraph(name = Patient.GRAPH_DETAIL, attributeNodes = {
+        @NamedAttributeNode("emergencyContacts"),
+        @NamedAttributeNode(value = "insurance", subgraph = "insurance"),
+        @NamedAttributeNode("medicalHistory")
+}, subgraphs = @NamedSubgraph(name = "insurance", attributeNodes = @NamedAttributeNode("scheme")))
+@NamedEntityGraph(name = Patient.GRAPH_LIST, attributeNodes = {
+        @NamedAttributeNode(value = "insurance", subgraph = "insurance"),
+        @NamedAttributeNode("medicalHistory")
+}, subgraphs = @NamedSubgraph(name = "insurance", attributeNodes = @NamedAttributeNode("scheme")))
 @Entity
 @Table(name = "patients", indexes = {
         @Index(name = "idx_patient_mobile", columnList = "mobile_number"),
         @Index(name = "idx_patient_aadhar", columnList = "aadhar_number"),
-        @Index(name = "idx_patient_id", columnList = "patient_id")
+        @Index(name = "idx_patient_id", columnList = "patient_id"),
+        @Index(name = "idx_patient_name_keys", columnList = "last_name_key, first_name_key"),
+        @Index(name = "idx_patient_first_name_key", columnList = "first_name_key"),
+        @Index(name = "idx_patient_key_dob", columnList = "last_name_key, date_of_birth")
 })
 @Getter
 @Setter
@@ -28,8 +48,12 @@ import java.util.Set;
 @Builder
 public class Patient {
 
+    public static final String GRAPH_DETAIL = "Patient.detail";
+    public static final String GRAPH_LIST = "Patient.list";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "patient_id", unique = true, length = 20)
@@ -44,6 +68,13 @@ public class Patient {
     @Column(name = "last_name", nullable = false, length = 100)
     private String lastName;
 
+    // Phonetic keys of the name parts (see PhoneticKey), maintained on every insert and update
+    @Column(name = "first_name_key", length = PhoneticKey.MAX_LENGTH)
+    private String firstNameKey;
+
+    @Column(name = "last_name_key", length = PhoneticKey.MAX_LENGTH)
+    private String lastNameKey;
+
     @NotNull(message = "Date of birth is required")
     @Past(message = "Date of birth must be in the past")
     @Column(name = "date_of_birth", nullable = false)
@@ -104,6 +135,7 @@ public class Patient {
 
     // Relationships
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @Builder.Default
     private Set<PatientEmergencyContact> emergencyContacts = new HashSet<>();
 
@@ -144,11 +176,18 @@ public class Patient {
     @PrePersist
     protected void onCreate() {
         createdAt = OffsetDateTime.now();
+        updatePhoneticKeys();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = OffsetDateTime.now();
+        updatePhoneticKeys();
+    }
+
+    private void updatePhoneticKeys() {
+        firstNameKey = PhoneticKey.encode(firstName);
+        lastNameKey = PhoneticKey.encode(lastName);
     }
 
     public void setEmergencyContacts(Set<PatientEmergencyContact> contacts) {
@@ -0,0 +1,66 @@
+package com.healix.entity;
+
+import com.healix.model.DuplicateCandidateStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pair of patients the duplicate scan thinks may be the same person, awaiting review.
+ * Patients are referenced by id only so the decision survives the merged record being deleted.
+ */
+@Entity
+@Table(name = "patient_duplicate_candidates",
+        uniqueConstraints = @UniqueConstraint(name = "uq_duplicate_pair", columnNames = {"patient_a_id", "patient_b_id"}),
+        indexes = @Index(name = "idx_duplicate_status_score", columnList = "status, score"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientDuplicateCandidate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_duplicate_candidates_seq")
+    @SequenceGenerator(name = "patient_duplicate_candidates_seq", sequenceName = "patient_duplicate_candidates_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Lower patient id of the pair
+     */
+    @Column(name = "patient_a_id", nullable = false)
+    private Long patientAId;
+
+    @Column(name = "patient_b_id", nullable = false)
+    private Long patientBId;
+
+    @Column(name = "score", nullable = false)
+    private Integer score;
+
+    /**
+     * Comma-separated reasons behind the score
+     */
+    @Column(name = "reasons")
+    private String reasons;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 15)
+    @Builder.Default
+    private DuplicateCandidateStatus status = DuplicateCandidateStatus.PENDING;
+
+    @Column(name = "detected_at")
+    @Builder.Default
+    private LocalDateTime detectedAt = LocalDateTime.now();
+
+    @Column(name = "reviewed_by")
+    private Long reviewedBy;
+
+    @Column(name = "reviewed_at")
+    private LocalDateTime reviewedAt;
+
+    @Column(name = "survivor_patient_id")
+    private Long survivorPatientId;
+}
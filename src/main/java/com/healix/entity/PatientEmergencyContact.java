@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class PatientEmergencyContact {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_emergency_contacts_seq")
+    @SequenceGenerator(name = "patient_emergency_contacts_seq", sequenceName = "patient_emergency_contacts_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class PatientInsurance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_insurance_seq")
+    @SequenceGenerator(name = "patient_insurance_seq", sequenceName = "patient_insurance_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
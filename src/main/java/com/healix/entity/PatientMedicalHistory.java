@@ -1,6 +1,6 @@
 package com.healix.entity;
 
-import com.healix.util.StringListConverter;
+import com.healix.util.CompactStringListConverter;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -17,7 +17,8 @@ import java.util.List;
 public class PatientMedicalHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_medical_history_seq")
+    @SequenceGenerator(name = "patient_medical_history_seq", sequenceName = "patient_medical_history_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -25,12 +26,12 @@ public class PatientMedicalHistory {
     private Patient patient;
 
     @Column(name = "known_allergies", columnDefinition = "TEXT")
-    @Convert(converter = StringListConverter.class)
+    @Convert(converter = CompactStringListConverter.class)
     @Builder.Default
     private List<String> knownAllergies = new ArrayList<>();
 
     @Column(name = "current_medications", columnDefinition = "TEXT")
-    @Convert(converter = StringListConverter.class)
+    @Convert(converter = CompactStringListConverter.class)
     @Builder.Default
     private List<String> currentMedications = new ArrayList<>();
 
@@ -49,6 +50,19 @@ public class PatientMedicalHistory {
     @Column(name = "social_history", columnDefinition = "TEXT")
     private String socialHistory;
 
+    /**
+     * Number of audited changes so far; see {@link PatientMedicalHistoryAudit#getHistoryVersion()}
+     */
+    @Column(name = "audit_version")
+    @Builder.Default
+    private Integer auditVersion = 0;
+
+    /**
+     * When medical tags were last derived from this history; null until then, which queues it for the backfill
+     */
+    @Column(name = "tagged_at")
+    private LocalDateTime taggedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updated_by")
     private Staff updatedBy;
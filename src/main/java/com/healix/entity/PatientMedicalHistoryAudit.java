@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class PatientMedicalHistoryAudit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_medical_history_audit_seq")
+    @SequenceGenerator(name = "patient_medical_history_audit_seq", sequenceName = "patient_medical_history_audit_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,6 +38,13 @@ public class PatientMedicalHistoryAudit {
     @Column(name = "new_value", columnDefinition = "TEXT")
     private String newValue;
 
+    /**
+     * Medical history audit version this change produced (all fields changed by one save share it);
+     * null for rows carried over from a merged patient
+     */
+    @Column(name = "history_version")
+    private Integer historyVersion;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "changed_by")
     private Staff changedBy;
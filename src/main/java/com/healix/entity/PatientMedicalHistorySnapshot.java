@@ -0,0 +1,59 @@
+package com.healix.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Full copy of a patient's medical history as of an audit version. Written every few audited changes so
+ * a point-in-time view needs only the nearest earlier snapshot plus the audit rows after it.
+ * List fields hold the stored column text of {@link PatientMedicalHistory}.
+ */
+@Entity
+@Table(name = "patient_medical_history_snapshots",
+        indexes = @Index(name = "idx_history_snapshot_patient_taken", columnList = "patient_id, taken_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientMedicalHistorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_medical_history_snapshots_seq")
+    @SequenceGenerator(name = "patient_medical_history_snapshots_seq", sequenceName = "patient_medical_history_snapshots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "history_version", nullable = false)
+    private Integer historyVersion;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(name = "known_allergies", columnDefinition = "TEXT")
+    private String knownAllergies;
+
+    @Column(name = "current_medications", columnDefinition = "TEXT")
+    private String currentMedications;
+
+    @Column(name = "past_surgeries", columnDefinition = "TEXT")
+    private String pastSurgeries;
+
+    @Column(name = "chronic_conditions", columnDefinition = "TEXT")
+    private String chronicConditions;
+
+    @Column(name = "family_medical_history", columnDefinition = "TEXT")
+    private String familyMedicalHistory;
+
+    @Column(name = "disability", columnDefinition = "TEXT")
+    private String disability;
+
+    @Column(name = "social_history", columnDefinition = "TEXT")
+    private String socialHistory;
+}
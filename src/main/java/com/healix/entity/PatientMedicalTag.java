@@ -0,0 +1,51 @@
+package com.healix.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A coded allergy, medication or chronic condition of a patient, derived from the free-text medical history.
+ * The code is a {@link DropdownLookup} row whose type is the category.
+ */
+@Entity
+@Table(name = "patient_medical_tags",
+        uniqueConstraints = @UniqueConstraint(name = "uq_medical_tag", columnNames = {"patient_id", "code_id"}),
+        indexes = {
+                @Index(name = "idx_medical_tag_code_patient", columnList = "code_id, patient_id"),
+                @Index(name = "idx_medical_tag_patient_category", columnList = "patient_id, category")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientMedicalTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_medical_tags_seq")
+    @SequenceGenerator(name = "patient_medical_tags_seq", sequenceName = "patient_medical_tags_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    /**
+     * Id of the dropdown_lookup code
+     */
+    @Column(name = "code_id", nullable = false)
+    private Long codeId;
+
+    /**
+     * ALLERGY, MEDICATION or CHRONIC_CONDITION (the dropdown type of the code)
+     */
+    @Column(name = "category", nullable = false, length = 20)
+    private String category;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,94 @@
+package com.healix.entity;
+
+import com.healix.enums.VitalRuleMetric;
+import com.healix.enums.VitalRuleSeverity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One threshold rule for vitals: a reading below {@code lowLimit} or above {@code highLimit} produces the
+ * matching message at the rule's severity. Rules are compiled by {@link com.healix.validation.VitalsRuleEngine}
+ * and picked up again whenever a rule is added, removed or has its updated_at bumped.
+ */
+@Entity
+@Table(name = "vital_rules")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vital_rules_seq")
+    @SequenceGenerator(name = "vital_rules_seq", sequenceName = "vital_rules_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "severity", nullable = false, length = 10)
+    private VitalRuleSeverity severity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 30)
+    private VitalRuleMetric metric;
+
+    /**
+     * Rules sharing a group (e.g. BLOOD_PRESSURE) only apply when all of the group's readings were taken, and
+     * produce one message: the low one if any reading is low, otherwise the high one if any reading is high
+     */
+    @Column(name = "rule_group", length = 30)
+    private String ruleGroup;
+
+    @Column(name = "min_age_months", nullable = false)
+    @Builder.Default
+    private Integer minAgeMonths = 0;
+
+    /**
+     * Exclusive; null for no upper age limit
+     */
+    @Column(name = "max_age_months")
+    private Integer maxAgeMonths;
+
+    @Column(name = "low_limit")
+    private Double lowLimit;
+
+    /**
+     * Whether a reading equal to the low limit fires too
+     */
+    @Column(name = "low_inclusive", nullable = false)
+    @Builder.Default
+    private Boolean lowInclusive = false;
+
+    @Column(name = "low_message", length = 255)
+    private String lowMessage;
+
+    @Column(name = "high_limit")
+    private Double highLimit;
+
+    /**
+     * Whether a reading equal to the high limit fires too
+     */
+    @Column(name = "high_inclusive", nullable = false)
+    @Builder.Default
+    private Boolean highInclusive = false;
+
+    @Column(name = "high_message", length = 255)
+    private String highMessage;
+
+    /**
+     * Order of messages within a severity
+     */
+    @Column(name = "sort_order", nullable = false)
+    private Integer sortOrder;
+
+    @Column(name = "active", nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
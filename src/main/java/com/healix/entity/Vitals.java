@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "vitals")
+@Table(name = "vitals",
+        indexes = @Index(name = "idx_vitals_appointment_recorded", columnList = "appointment_id, recorded_at DESC"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,7 +21,8 @@ import java.util.List;
 public class Vitals {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vitals_seq")
+    @SequenceGenerator(name = "vitals_seq", sequenceName = "vitals_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
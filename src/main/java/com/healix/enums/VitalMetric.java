@@ -0,0 +1,54 @@
+package com.healix.enums;
+
+import com.healix.entity.Vitals;
+
+import java.util.function.Function;
+
+/**
+ * Vital signs kept as per-patient time series. {@code code} is what the vital_readings table stores, so
+ * existing codes must never change; temperature is stored in Fahrenheit whatever unit it was taken in.
+ */
+public enum VitalMetric {
+    WEIGHT(1, "kg", v -> toDouble(v.getWeight())),
+    HEIGHT(2, "cm", v -> toDouble(v.getHeight())),
+    HEAD_CIRCUMFERENCE(3, "cm", v -> toDouble(v.getHeadCircumference())),
+    TEMPERATURE(4, "F", v -> v.getTemperature() == null ? null
+            : "C".equals(v.getTemperatureUnit()) ? v.getTemperature() * 9 / 5 + 32 : v.getTemperature()),
+    HEART_RATE(5, "bpm", v -> toDouble(v.getHeartRate())),
+    RESPIRATORY_RATE(6, "breaths/min", v -> toDouble(v.getRespiratoryRate())),
+    SYSTOLIC_BP(7, "mmHg", v -> toDouble(v.getSystolicBp())),
+    DIASTOLIC_BP(8, "mmHg", v -> toDouble(v.getDiastolicBp())),
+    SPO2(9, "%", v -> toDouble(v.getSpo2())),
+    RANDOM_BLOOD_SUGAR(10, "mg/dL", v -> toDouble(v.getRandomBloodSugar())),
+    BMI(11, "kg/m2", v -> toDouble(v.getBmi())),
+    PAIN_LEVEL(12, "0-10", v -> toDouble(v.getPainLevel()));
+
+    private final int code;
+    private final String unit;
+    private final Function<Vitals, Double> reading;
+
+    VitalMetric(int code, String unit, Function<Vitals, Double> reading) {
+        this.code = code;
+        this.unit = unit;
+        this.reading = reading;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * This metric's value in a vitals record, or null when it was not taken
+     */
+    public Double readingOf(Vitals vitals) {
+        return reading.apply(vitals);
+    }
+
+    private static Double toDouble(Number value) {
+        return value != null ? value.doubleValue() : null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.healix.enums;
+
+import com.healix.entity.Vitals;
+import com.healix.model.VitalsRequest;
+
+import java.util.Arrays;
+
+/**
+ * Values vitals rules test, by their name in the vital_rules table. Temperature is split by the unit it
+ * was taken in, so each unit has its own thresholds; PULSE_PRESSURE (systolic minus diastolic) is only
+ * there when both pressures are. {@code findingKey} names the metric in critical vitals alerts.
+ */
+public enum VitalRuleMetric {
+    WEIGHT("WEIGHT"),
+    HEIGHT("HEIGHT"),
+    HEAD_CIRCUMFERENCE("HEAD_CIRCUMFERENCE"),
+    TEMPERATURE_F("TEMPERATURE"),
+    TEMPERATURE_C("TEMPERATURE"),
+    HEART_RATE("HEART_RATE"),
+    RESPIRATORY_RATE("RESPIRATORY_RATE"),
+    SYSTOLIC_BP("SYSTOLIC_BP"),
+    DIASTOLIC_BP("DIASTOLIC_BP"),
+    PULSE_PRESSURE("PULSE_PRESSURE"),
+    SPO2("SPO2"),
+    RANDOM_BLOOD_SUGAR("RANDOM_BLOOD_SUGAR"),
+    PAIN_LEVEL("PAIN_LEVEL");
+
+    private static final VitalRuleMetric[] VALUES = values();
+
+    private final String findingKey;
+
+    VitalRuleMetric(String findingKey) {
+        this.findingKey = findingKey;
+    }
+
+    public String getFindingKey() {
+        return findingKey;
+    }
+
+    /**
+     * Readings of a vitals request indexed by ordinal, NaN where not taken. Temperature without a unit is
+     * taken as Fahrenheit, as the form defaults to it.
+     */
+    public static double[] readingsOf(VitalsRequest request) {
+        String unit = request.getTemperatureUnit() != null ? request.getTemperatureUnit().getValue() : "F";
+        return readings(request.getWeight(), request.getHeight(), request.getHeadCircumference(),
+                request.getTemperature(), unit, request.getHeartRate(), request.getRespiratoryRate(),
+                request.getSystolicBp(), request.getDiastolicBp(), request.getSpo2(),
+                request.getRandomBloodSugar(), request.getPainLevel());
+    }
+
+    /**
+     * Readings of saved vitals indexed by ordinal, NaN where not taken
+     */
+    public static double[] readingsOf(Vitals vitals) {
+        return readings(vitals.getWeight(), vitals.getHeight(), vitals.getHeadCircumference(),
+                vitals.getTemperature(), vitals.getTemperatureUnit(), vitals.getHeartRate(),
+                vitals.getRespiratoryRate(), vitals.getSystolicBp(), vitals.getDiastolicBp(), vitals.getSpo2(),
+                vitals.getRandomBloodSugar(), vitals.getPainLevel());
+    }
+
+    private static double[] readings(Number weight, Number height, Number headCircumference,
+                                     Number temperature, String temperatureUnit, Number heartRate,
+                                     Number respiratoryRate, Number systolicBp, Number diastolicBp,
+                                     Number spo2, Number randomBloodSugar, Number painLevel) {
+        double[] readings = new double[VALUES.length];
+        Arrays.fill(readings, Double.NaN);
+        set(readings, WEIGHT, weight);
+        set(readings, HEIGHT, height);
+        set(readings, HEAD_CIRCUMFERENCE, headCircumference);
+        if ("F".equals(temperatureUnit)) {
+            set(readings, TEMPERATURE_F, temperature);
+        } else if ("C".equals(temperatureUnit)) {
+            set(readings, TEMPERATURE_C, temperature);
+        }
+        set(readings, HEART_RATE, heartRate);
+        set(readings, RESPIRATORY_RATE, respiratoryRate);
+        set(readings, SYSTOLIC_BP, systolicBp);
+        set(readings, DIASTOLIC_BP, diastolicBp);
+        if (systolicBp != null && diastolicBp != null) {
+            readings[PULSE_PRESSURE.ordinal()] = systolicBp.doubleValue() - diastolicBp.doubleValue();
+        }
+        set(readings, SPO2, spo2);
+        set(readings, RANDOM_BLOOD_SUGAR, randomBloodSugar);
+        set(readings, PAIN_LEVEL, painLevel);
+        return readings;
+    }
+
+    private static void set(double[] readings, VitalRuleMetric metric, Number value) {
+        if (value != null) {
+            readings[metric.ordinal()] = value.doubleValue();
+        }
+    }
+}
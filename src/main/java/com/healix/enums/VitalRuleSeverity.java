@@ -0,0 +1,9 @@
+package com.healix.enums;
+
+/**
+ * What a vitals rule produces when it fires: ERROR rejects the vitals, WARNING is logged with them and
+ * CRITICAL raises a critical vitals alert.
+ */
+public enum VitalRuleSeverity {
+    ERROR, WARNING, CRITICAL
+}
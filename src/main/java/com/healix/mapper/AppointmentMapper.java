@@ -1,15 +1,24 @@
 package com.healix.mapper;
 
+import com.healix.dto.PatientNameRow;
 import com.healix.entity.Appointment;
 import com.healix.entity.AppointmentExamination;
+import com.healix.entity.Patient;
 import com.healix.entity.Staff;
 import com.healix.entity.Vitals;
 import com.healix.model.*;
+import com.healix.repository.PatientRepository;
 import com.healix.repository.StaffRepository;
+import org.hibernate.Hibernate;
 import org.mapstruct.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public abstract class AppointmentMapper {
@@ -17,6 +26,9 @@ public abstract class AppointmentMapper {
     @Autowired
     protected StaffRepository staffRepository;
 
+    @Autowired
+    protected PatientRepository patientRepository;
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "appointmentNumber", ignore = true)
     @Mapping(target = "patient", ignore = true)
@@ -30,13 +42,46 @@ public abstract class AppointmentMapper {
     public abstract Appointment toEntity(AppointmentRequest request);
 
     @Mapping(target = "patientId", source = "patient.id")
-    @Mapping(target = "patientName", expression = "java(getPatientFullName(appointment))")
+    @Mapping(target = "patientName", expression = "java(getPatientFullName(appointment, patientNames))")
     @Mapping(target = "physicianName", expression = "java(getPhysicianName(appointment))")
-    public abstract AppointmentResponse toResponse(Appointment appointment);
+    public abstract AppointmentResponse toResponse(Appointment appointment, @Context Map<Long, String> patientNames);
+
+    public AppointmentResponse toResponse(Appointment appointment) {
+        return toResponse(appointment, Map.of());
+    }
+
+    /**
+     * Names of the patients of {@code appointments} that are not loaded, by patient id, in one query; pass to
+     * {@link #toResponse(Appointment, Map)} when mapping a page of appointments
+     */
+    public Map<Long, String> patientNames(Collection<Appointment> appointments) {
+        Set<Long> ids = new HashSet<>();
+        for (Appointment appointment : appointments) {
+            Patient patient = appointment.getPatient();
+            if (patient != null && !Hibernate.isInitialized(patient)) {
+                ids.add(patient.getId());
+            }
+        }
+        Map<Long, String> names = new HashMap<>();
+        if (!ids.isEmpty()) {
+            patientRepository.findNamesByIdIn(ids).forEach(row -> names.put(row.getId(), row.getFullName()));
+        }
+        return names;
+    }
 
-    protected String getPatientFullName(Appointment appointment) {
-        if (appointment.getPatient() == null) return null;
-        return appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName();
+    protected String getPatientFullName(Appointment appointment, Map<Long, String> patientNames) {
+        Patient patient = appointment.getPatient();
+        if (patient == null) return null;
+
+        // A lazy patient is not initialised just for its name: that would load its one-to-ones as well
+        if (!Hibernate.isInitialized(patient)) {
+            String name = patientNames.get(patient.getId());
+            if (name != null) {
+                return name;
+            }
+            return patientRepository.findNameById(patient.getId()).map(PatientNameRow::getFullName).orElse(null);
+        }
+        return patient.getFirstName() + " " + patient.getLastName();
     }
 
     protected String getPhysicianName(Appointment appointment) {
@@ -98,6 +143,8 @@ public abstract class AppointmentMapper {
         };
     }
 
+    public abstract LatestVitals toLatestVitals(com.healix.dto.LatestVitalsRow row);
+
     // LocalDateTime -> OffsetDateTime (for entity to DTO)
     protected java.time.OffsetDateTime map(java.time.LocalDateTime value) {
         return value == null ? null : value.atOffset(java.time.ZoneOffset.UTC);
@@ -1,15 +1,25 @@
 package com.healix.mapper;
 
+import com.healix.model.AppointmentResponse;
+import com.healix.model.AppointmentSliceResponse;
 import com.healix.model.PatientPageResponse;
 import com.healix.model.PatientResponse;
+import com.healix.model.PatientSliceResponse;
 import com.healix.model.Pageable;
 import com.healix.model.Sort;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 @Component
 public class PageMapper {
 
+    // Cursor tokens are "v1:<last id>" in unpadded Base64URL; clients must treat them as opaque
+    private static final String CURSOR_PREFIX = "v1:";
+
     public PatientPageResponse toPatientPageResponse(Page<PatientResponse> page) {
         PatientPageResponse response = new PatientPageResponse();
 
@@ -32,6 +42,57 @@ public class PageMapper {
         return response;
     }
 
+    public PatientSliceResponse toPatientSliceResponse(Slice<PatientResponse> slice) {
+        PatientSliceResponse response = new PatientSliceResponse();
+        response.setContent(slice.getContent());
+        response.setSize(slice.getSize());
+        response.setNumberOfElements(slice.getNumberOfElements());
+        response.setHasNext(slice.hasNext());
+        if (slice.hasNext()) {
+            response.setNextCursor(encodeCursor(slice.getContent().get(slice.getNumberOfElements() - 1).getId()));
+        }
+        return response;
+    }
+
+    public AppointmentSliceResponse toAppointmentSliceResponse(Slice<AppointmentResponse> slice) {
+        AppointmentSliceResponse response = new AppointmentSliceResponse();
+        response.setContent(slice.getContent());
+        response.setSize(slice.getSize());
+        response.setNumberOfElements(slice.getNumberOfElements());
+        response.setHasNext(slice.hasNext());
+        if (slice.hasNext()) {
+            response.setNextCursor(encodeCursor(slice.getContent().get(slice.getNumberOfElements() - 1).getId()));
+        }
+        return response;
+    }
+
+    /**
+     * Continuation token for a slice whose last row has the given id
+     */
+    public String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Id to seek below for a continuation token; a missing token starts from the newest row
+     * @throws IllegalArgumentException if the token was not issued by {@link #encodeCursor}
+     */
+    public long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64 or not a number; reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
     /**
      * Convert Spring Pageable to OpenAPI Pageable
      */
@@ -1,10 +1,14 @@
 package com.healix.mapper;
 
+import com.healix.dto.PatientSummaryRow;
 import com.healix.entity.Patient;
 import com.healix.entity.PatientEmergencyContact;
 import com.healix.model.EmergencyContactRequest;
+import com.healix.model.EmergencyContactResponse;
+import com.healix.model.InsuranceResponse;
 import com.healix.model.PatientRegistrationRequest;
 import com.healix.model.PatientResponse;
+import com.healix.model.PatientSummary;
 import org.mapstruct.*;
 
 import java.util.HashSet;
@@ -26,6 +30,19 @@ public interface PatientMapper {
     @Mapping(target = "age", expression = "java(patient.getAge())")
     PatientResponse toResponse(Patient patient);
 
+    /**
+     * A deep copy: nested records and lists are new instances, so changing the copy never changes the original
+     */
+    PatientResponse copy(PatientResponse patient);
+
+    EmergencyContactResponse copy(EmergencyContactResponse contact);
+
+    InsuranceResponse copy(InsuranceResponse insurance);
+
+    com.healix.model.MedicalHistoryResponse copy(com.healix.model.MedicalHistoryResponse medicalHistory);
+
+    PatientSummary toSummary(PatientSummaryRow row);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "patient", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
@@ -4,6 +4,8 @@ import com.healix.entity.AppointmentExamination;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,5 +14,7 @@ public interface AppointmentExaminationRepository extends JpaRepository<Appointm
     Optional<AppointmentExamination> findByAppointmentId(Long appointmentId);
 
     boolean existsByAppointmentId(Long appointmentId);
+
+    List<AppointmentExamination> findByAppointmentIdIn(Collection<Long> appointmentIds);
 }
 
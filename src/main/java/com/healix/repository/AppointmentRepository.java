@@ -5,7 +5,9 @@ import com.healix.model.AppointmentStatus;
 import com.healix.model.AppointmentType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,7 +17,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment> {
 
     Optional<Appointment> findByAppointmentNumber(String appointmentNumber);
 
@@ -33,21 +35,6 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 
     boolean existsByPatientIdAndAppointmentDateAndStatusNotIn(Long patientId, LocalDate appointmentDate, List<AppointmentStatus> statuses);
 
-    @Query("SELECT a FROM Appointment a WHERE " +
-           "(:patientId IS NULL OR a.patient.id = :patientId) AND " +
-           "(:physicianId IS NULL OR a.physicianId = :physicianId) AND " +
-           "(:status IS NULL OR a.status = :status) AND " +
-           "(:appointmentDate IS NULL OR a.appointmentDate = :appointmentDate) AND " +
-           "(:appointmentType IS NULL OR a.appointmentType = :appointmentType)")
-    Page<Appointment> searchAppointments(
-            @Param("patientId") Long patientId,
-            @Param("physicianId") Long physicianId,
-            @Param("status") AppointmentStatus status,
-            @Param("appointmentDate") LocalDate appointmentDate,
-            @Param("appointmentType") AppointmentType appointmentType,
-            Pageable pageable
-    );
-
     @Query("SELECT a FROM Appointment a WHERE " +
            "LOWER(a.patient.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(a.patient.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -55,6 +42,15 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "a.patient.mobileNumber LIKE CONCAT('%', :search, '%')")
     Page<Appointment> searchByKeyword(@Param("search") String search, Pageable pageable);
 
+    @Query("SELECT a FROM Appointment a WHERE a.id < :beforeId AND (" +
+           "LOWER(a.patient.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(a.patient.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "a.appointmentNumber LIKE CONCAT('%', :search, '%') OR " +
+           "a.patient.mobileNumber LIKE CONCAT('%', :search, '%')) " +
+           "ORDER BY a.id DESC")
+    Slice<Appointment> searchByKeywordSliceBefore(@Param("search") String search, @Param("beforeId") Long beforeId,
+                                                  Pageable pageable);
+
     List<Appointment> findByPhysicianIdAndAppointmentDateAndStatus(
             Long physicianId,
             LocalDate appointmentDate,
@@ -72,4 +68,29 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     long countByPhysicianIdAndAppointmentDate(Long physicianId, LocalDate date);
 
     List<Appointment> findByPhysicianIdAndAppointmentDate(Long physicianId, LocalDate date);
+
+    /**
+     * Patients with an appointment on {@code date} (used to warm the patient cache)
+     */
+    @Query("SELECT DISTINCT a.patient.id FROM Appointment a WHERE a.appointmentDate = :date")
+    List<Long> findPatientIdsByAppointmentDate(@Param("date") LocalDate date, Pageable pageable);
+
+    /**
+     * A day's appointments in one status, by appointment time. The patient is not fetched: loading a Patient
+     * also loads its insurance and medical history, so names come from {@code AppointmentMapper.patientNames}
+     */
+    @Query("SELECT a FROM Appointment a WHERE a.appointmentDate = :date AND a.status = :status " +
+            "AND (:departmentId IS NULL OR a.departmentId = :departmentId) " +
+            "AND (:physicianId IS NULL OR a.physicianId = :physicianId) ORDER BY a.appointmentTime, a.id")
+    List<Appointment> findWaitingRoom(@Param("date") LocalDate date, @Param("status") AppointmentStatus status,
+                                      @Param("departmentId") Long departmentId, @Param("physicianId") Long physicianId);
+
+    /**
+     * A patient's appointments strictly older than ({@code beforeDate}, {@code beforeId}), newest first
+     */
+    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND " +
+            "(a.appointmentDate < :beforeDate OR (a.appointmentDate = :beforeDate AND a.id < :beforeId)) " +
+            "ORDER BY a.appointmentDate DESC, a.id DESC")
+    List<Appointment> findTimelinePage(@Param("patientId") Long patientId, @Param("beforeDate") LocalDate beforeDate,
+                                       @Param("beforeId") Long beforeId, Pageable pageable);
 }
@@ -0,0 +1,68 @@
+package com.healix.repository;
+
+import com.healix.entity.Appointment;
+import com.healix.model.AppointmentStatus;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Appointment search predicates. Only the filters actually supplied end up in the WHERE clause, so the
+ * planner sees plain equality predicates it can match to the composite (column, appointment_date) indexes
+ * instead of a catch-all {@code (:param IS NULL OR col = :param)} query that degrades to a scan.
+ */
+public final class AppointmentSpecifications {
+
+    private AppointmentSpecifications() {
+    }
+
+    /**
+     * Appointments matching every non-null filter; no filters matches all appointments
+     */
+    public static Specification<Appointment> matching(Long patientId, Long physicianId,
+                                                      AppointmentStatus status, LocalDate appointmentDate) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(4);
+            if (patientId != null) {
+                predicates.add(cb.equal(root.get("patient").get("id"), patientId));
+            }
+            if (physicianId != null) {
+                predicates.add(cb.equal(root.get("physicianId"), physicianId));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (appointmentDate != null) {
+                predicates.add(cb.equal(root.get("appointmentDate"), appointmentDate));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Appointments of any of the given patients; an empty list matches nothing
+     */
+    public static Specification<Appointment> patientIn(Collection<Long> patientIds) {
+        return (root, query, cb) -> patientIds.isEmpty()
+                ? cb.disjunction()
+                : root.get("patient").get("id").in(patientIds);
+    }
+
+    /**
+     * Appointments whose number contains {@code keyword}, like the keyword search
+     */
+    public static Specification<Appointment> appointmentNumberContains(String keyword) {
+        return (root, query, cb) -> cb.like(root.get("appointmentNumber"), "%" + keyword + "%");
+    }
+
+    /**
+     * Keyset bound: appointments with an id below {@code beforeId}
+     */
+    public static Specification<Appointment> idBefore(long beforeId) {
+        return (root, query, cb) -> cb.lessThan(root.get("id"), beforeId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.healix.repository;
+
+import com.healix.entity.CriticalVitalsAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CriticalVitalsAlertRepository extends JpaRepository<CriticalVitalsAlert, Long> {
+
+    List<CriticalVitalsAlert> findTop200ByRaisedAtGreaterThanEqualOrderByRaisedAtDescIdDesc(LocalDateTime since);
+
+    /**
+     * Alerts after {@code afterId}, for replay to a reconnecting stream
+     */
+    List<CriticalVitalsAlert> findTop100ByIdGreaterThanOrderByIdAsc(Long afterId);
+
+    @Modifying
+    @Query("UPDATE CriticalVitalsAlert a SET a.repeatCount = a.repeatCount + 1, a.lastSeenAt = :seenAt WHERE a.id = :id")
+    int recordRepeat(@Param("id") Long id, @Param("seenAt") LocalDateTime seenAt);
+}
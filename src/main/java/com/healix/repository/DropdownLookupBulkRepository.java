@@ -0,0 +1,23 @@
+package com.healix.repository;
+
+import com.healix.entity.DropdownLookup;
+
+import java.util.List;
+
+/**
+ * Set-based operations for bulk dropdown imports.
+ * Implemented with plain JDBC so that existence checks and inserts are not issued row by row.
+ */
+public interface DropdownLookupBulkRepository {
+
+    /**
+     * Find all rows matching any of the given (type, code) pairs using a single row-value IN query.
+     * Callers are expected to chunk the input.
+     */
+    List<DropdownLookup> findAllByTypeAndCodePairs(List<DropdownLookup> keys);
+
+    /**
+     * Insert the given entries using a single JDBC batch.
+     */
+    void batchInsert(List<DropdownLookup> entities);
+}
@@ -0,0 +1,75 @@
+package com.healix.repository;
+
+import com.healix.entity.DropdownLookup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class DropdownLookupBulkRepositoryImpl implements DropdownLookupBulkRepository {
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, type, code, description, active, display_order, created_at, updated_at FROM dropdown_lookup";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO dropdown_lookup (type, code, description, active, display_order, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final RowMapper<DropdownLookup> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return DropdownLookup.builder()
+                .id(rs.getLong("id"))
+                .type(rs.getString("type"))
+                .code(rs.getString("code"))
+                .description(rs.getString("description"))
+                .active(rs.getBoolean("active"))
+                .displayOrder(rs.getInt("display_order"))
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .updatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null)
+                .build();
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<DropdownLookup> findAllByTypeAndCodePairs(List<DropdownLookup> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // WHERE (type, code) IN ((?, ?), (?, ?), ...) - served by the (type, code) unique index
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE (type, code) IN (");
+        List<Object> params = new ArrayList<>(keys.size() * 2);
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+            params.add(keys.get(i).getType());
+            params.add(keys.get(i).getCode());
+        }
+        sql.append(')');
+
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, params.toArray());
+    }
+
+    @Override
+    public void batchInsert(List<DropdownLookup> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, entities, entities.size(), (ps, entity) -> {
+            ps.setString(1, entity.getType());
+            ps.setString(2, entity.getCode());
+            ps.setString(3, entity.getDescription());
+            ps.setBoolean(4, entity.getActive() == null || entity.getActive());
+            ps.setInt(5, entity.getDisplayOrder() == null ? 0 : entity.getDisplayOrder());
+            ps.setTimestamp(6, Timestamp.valueOf(entity.getCreatedAt() != null ? entity.getCreatedAt() : LocalDateTime.now()));
+        });
+    }
+}
@@ -1,15 +1,27 @@
 package com.healix.repository;
 
+import com.healix.dto.CodeSetVersion;
 import com.healix.entity.DropdownLookup;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DropdownLookupRepository extends JpaRepository<DropdownLookup, Long> {
+public interface DropdownLookupRepository extends JpaRepository<DropdownLookup, Long>, DropdownLookupBulkRepository {
     List<DropdownLookup> findByTypeAndActiveTrueOrderByDisplayOrder(String type);
     Optional<DropdownLookup> findByTypeAndCode(String type, String code);
+    List<DropdownLookup> findByTypeInAndActiveTrue(Collection<String> types);
+
+    /**
+     * Changes whenever a code of one of the types is added, removed or edited
+     */
+    @Query("SELECT new com.healix.dto.CodeSetVersion(COUNT(d), MAX(d.id), MAX(d.updatedAt)) " +
+            "FROM DropdownLookup d WHERE d.type IN :types")
+    CodeSetVersion findVersionByTypeIn(@Param("types") Collection<String> types);
 }
 
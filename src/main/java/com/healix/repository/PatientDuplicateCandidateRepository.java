@@ -0,0 +1,44 @@
+package com.healix.repository;
+
+import com.healix.entity.PatientDuplicateCandidate;
+import com.healix.model.DuplicateCandidateStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PatientDuplicateCandidateRepository extends JpaRepository<PatientDuplicateCandidate, Long> {
+
+    /**
+     * Load a candidate for review, locking it so two reviewers cannot merge or dismiss the same pair at once
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM PatientDuplicateCandidate c WHERE c.id = :id")
+    Optional<PatientDuplicateCandidate> findForReview(@Param("id") Long id);
+
+    Page<PatientDuplicateCandidate> findByStatusOrderByScoreDescIdAsc(DuplicateCandidateStatus status, Pageable pageable);
+
+    /**
+     * Every queued pair as {patientAId, patientBId}, whatever its status, so a scan never re-queues a reviewed pair
+     */
+    @Query("SELECT c.patientAId, c.patientBId FROM PatientDuplicateCandidate c")
+    List<Object[]> findAllPairs();
+
+    /**
+     * Drop other pending pairs that involve a patient removed by a merge
+     */
+    @Modifying
+    @Query("DELETE FROM PatientDuplicateCandidate c WHERE c.status = :status AND c.id <> :exceptId " +
+            "AND (c.patientAId = :patientId OR c.patientBId = :patientId)")
+    int deleteByStatusAndPatient(@Param("status") DuplicateCandidateStatus status,
+                                 @Param("patientId") Long patientId, @Param("exceptId") Long exceptId);
+}
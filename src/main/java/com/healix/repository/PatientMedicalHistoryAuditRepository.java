@@ -4,6 +4,7 @@ import com.healix.entity.PatientMedicalHistoryAudit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -12,5 +13,11 @@ public interface PatientMedicalHistoryAuditRepository extends JpaRepository<Pati
     List<PatientMedicalHistoryAudit> findByPatientIdOrderByChangedAtDesc(Long patientId);
 
     List<PatientMedicalHistoryAudit> findByAppointmentIdOrderByChangedAtDesc(Long appointmentId);
+
+    /**
+     * Changes after an audit version up to a point in time, oldest first (replayed onto a snapshot)
+     */
+    List<PatientMedicalHistoryAudit> findByPatientIdAndHistoryVersionGreaterThanAndChangedAtLessThanEqualOrderByHistoryVersionAscIdAsc(
+            Long patientId, Integer historyVersion, LocalDateTime at);
 }
 
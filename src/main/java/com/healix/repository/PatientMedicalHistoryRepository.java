@@ -1,7 +1,11 @@
 package com.healix.repository;
 
 import com.healix.entity.PatientMedicalHistory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,6 +15,12 @@ public interface PatientMedicalHistoryRepository extends JpaRepository<PatientMe
 
     Optional<PatientMedicalHistory> findByPatientId(Long patientId);
 
+    /**
+     * Load a history for update, locking it so concurrent edits are audited against the state they replace
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM PatientMedicalHistory h WHERE h.patient.id = :patientId")
+    Optional<PatientMedicalHistory> findForUpdateByPatientId(@Param("patientId") Long patientId);
+
     boolean existsByPatientId(Long patientId);
 }
-
@@ -0,0 +1,18 @@
+package com.healix.repository;
+
+import com.healix.entity.PatientMedicalHistorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PatientMedicalHistorySnapshotRepository extends JpaRepository<PatientMedicalHistorySnapshot, Long> {
+
+    /**
+     * Latest snapshot taken at or before {@code at}
+     */
+    Optional<PatientMedicalHistorySnapshot> findFirstByPatientIdAndTakenAtLessThanEqualOrderByTakenAtDescHistoryVersionDesc(
+            Long patientId, LocalDateTime at);
+}
@@ -0,0 +1,32 @@
+package com.healix.repository;
+
+import com.healix.entity.PatientMedicalTag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface PatientMedicalTagRepository extends JpaRepository<PatientMedicalTag, Long> {
+
+    List<PatientMedicalTag> findByPatientId(Long patientId);
+
+    @Modifying
+    @Query("DELETE FROM PatientMedicalTag t WHERE t.patientId = :patientId AND t.codeId IN :codeIds")
+    int deleteByPatientIdAndCodeIdIn(@Param("patientId") Long patientId, @Param("codeIds") Collection<Long> codeIds);
+
+    /**
+     * Forward-only stream of every tag as {codeId, patientId} (used to build the tag bitmap index).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.codeId, t.patientId FROM PatientMedicalTag t")
+    Stream<Object[]> streamAllCodePatientPairs();
+}
@@ -1,21 +1,71 @@
 package com.healix.repository;
 
+import com.healix.dto.PatientExportRow;
+import com.healix.dto.PatientMatchCandidate;
+import com.healix.dto.PatientNameRow;
+import com.healix.dto.PatientSearchRow;
+import com.healix.dto.PatientSummaryRow;
 import com.healix.entity.Patient;
+import com.healix.entity.PatientEmergencyContact;
+import com.healix.entity.PatientInsurance;
 import com.healix.model.PatientStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
 
+    // Patients that have a tag row for every requested code (served by idx_medical_tag_code_patient)
+    String TAGGED_WITH_ALL = "SELECT t.patientId FROM PatientMedicalTag t WHERE t.codeId IN :codeIds " +
+            "GROUP BY t.patientId HAVING COUNT(t) = :codeCount";
+
     Optional<Patient> findByPatientId(String patientId);
 
+    /**
+     * Patient with everything {@code PatientResponse} needs, in one query
+     */
+    @EntityGraph(Patient.GRAPH_DETAIL)
+    Optional<Patient> findWithDetailsById(Long id);
+
+    @EntityGraph(Patient.GRAPH_DETAIL)
+    Optional<Patient> findWithDetailsByPatientId(String patientId);
+
+    /**
+     * Patients by id (any order) with insurance and medical history joined and contacts batch-loaded
+     */
+    @EntityGraph(Patient.GRAPH_LIST)
+    List<Patient> findWithDetailsByIdIn(Collection<Long> ids);
+
+    @Override
+    @EntityGraph(Patient.GRAPH_LIST)
+    Page<Patient> findAll(Pageable pageable);
+
+    /**
+     * Names and dates of birth only; no associations are loaded
+     */
+    @Query("SELECT new com.healix.dto.PatientNameRow(p.id, p.firstName, p.lastName, p.dateOfBirth) " +
+            "FROM Patient p WHERE p.id IN :ids")
+    List<PatientNameRow> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.healix.dto.PatientNameRow(p.id, p.firstName, p.lastName, p.dateOfBirth) " +
+            "FROM Patient p WHERE p.id = :id")
+    Optional<PatientNameRow> findNameById(@Param("id") Long id);
+
     Optional<Patient> findByMobileNumber(String mobileNumber);
 
     Optional<Patient> findByAadharNumber(String aadharNumber);
@@ -24,8 +74,16 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     boolean existsByAadharNumber(String aadharNumber);
 
+    @Query("SELECT p.mobileNumber FROM Patient p WHERE p.mobileNumber IN :mobileNumbers")
+    List<String> findExistingMobileNumbers(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    @Query("SELECT p.aadharNumber FROM Patient p WHERE p.aadharNumber IN :aadharNumbers")
+    List<String> findExistingAadharNumbers(@Param("aadharNumbers") Collection<String> aadharNumbers);
+
+    @EntityGraph(Patient.GRAPH_LIST)
     Page<Patient> findByStatus(PatientStatus status, Pageable pageable);
 
+    @EntityGraph(Patient.GRAPH_LIST)
     @Query("SELECT p FROM Patient p WHERE " +
             "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -33,6 +91,157 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
             "p.mobileNumber LIKE CONCAT('%', :search, '%')")
     Page<Patient> searchPatients(@Param("search") String search, Pageable pageable);
 
+    /**
+     * Keyset slice: patients with an id below {@code beforeId}, newest first. No count query is issued.
+     */
+    @EntityGraph(Patient.GRAPH_LIST)
+    @Query("SELECT p FROM Patient p WHERE p.id < :beforeId ORDER BY p.id DESC")
+    Slice<Patient> findSliceBefore(@Param("beforeId") Long beforeId, Pageable pageable);
+
+    @EntityGraph(Patient.GRAPH_LIST)
+    @Query("SELECT p FROM Patient p WHERE p.id < :beforeId AND (" +
+            "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "p.patientId LIKE CONCAT('%', :search, '%') OR " +
+            "p.mobileNumber LIKE CONCAT('%', :search, '%')) " +
+            "ORDER BY p.id DESC")
+    Slice<Patient> searchSliceBefore(@Param("search") String search, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Patient list rows, newest first, as a constructor projection: no entities, associations or dirty tracking
+     */
+    @Query(value = "SELECT new com.healix.dto.PatientSummaryRow(p.id, p.patientId, p.firstName, p.lastName, " +
+            "p.mobileNumber, p.gender, p.dateOfBirth, p.status) FROM Patient p ORDER BY p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Patient p")
+    Page<PatientSummaryRow> findSummaries(Pageable pageable);
+
+    @Query(value = "SELECT new com.healix.dto.PatientSummaryRow(p.id, p.patientId, p.firstName, p.lastName, " +
+            "p.mobileNumber, p.gender, p.dateOfBirth, p.status) FROM Patient p WHERE " +
+            "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "p.patientId LIKE CONCAT('%', :search, '%') OR " +
+            "p.mobileNumber LIKE CONCAT('%', :search, '%') ORDER BY p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Patient p WHERE " +
+                    "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                    "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                    "p.patientId LIKE CONCAT('%', :search, '%') OR " +
+                    "p.mobileNumber LIKE CONCAT('%', :search, '%')")
+    Page<PatientSummaryRow> searchSummaries(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT new com.healix.dto.PatientSummaryRow(p.id, p.patientId, p.firstName, p.lastName, " +
+            "p.mobileNumber, p.gender, p.dateOfBirth, p.status) FROM Patient p WHERE p.id IN :ids")
+    List<PatientSummaryRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Patients tagged with all {@code codeCount} of {@code codeIds}, newest first
+     */
+    @Query(value = "SELECT new com.healix.dto.PatientSummaryRow(p.id, p.patientId, p.firstName, p.lastName, " +
+            "p.mobileNumber, p.gender, p.dateOfBirth, p.status) FROM Patient p WHERE p.id IN (" + TAGGED_WITH_ALL + ") " +
+            "ORDER BY p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Patient p WHERE p.id IN (" + TAGGED_WITH_ALL + ")")
+    Page<PatientSummaryRow> findSummariesByMedicalTags(@Param("codeIds") Collection<Long> codeIds,
+                                                       @Param("codeCount") long codeCount, Pageable pageable);
+
+    @Query(value = "SELECT new com.healix.dto.PatientSummaryRow(p.id, p.patientId, p.firstName, p.lastName, " +
+            "p.mobileNumber, p.gender, p.dateOfBirth, p.status) FROM Patient p WHERE p.district = :district " +
+            "AND p.id IN (" + TAGGED_WITH_ALL + ") ORDER BY p.id DESC",
+            countQuery = "SELECT COUNT(p) FROM Patient p WHERE p.district = :district " +
+                    "AND p.id IN (" + TAGGED_WITH_ALL + ")")
+    Page<PatientSummaryRow> findSummariesByMedicalTagsAndDistrict(@Param("codeIds") Collection<Long> codeIds,
+                                                                  @Param("codeCount") long codeCount,
+                                                                  @Param("district") String district,
+                                                                  Pageable pageable);
+
+    /**
+     * Forward-only stream of all patients in id order (used by the export).
+     * Selects a projection so the inverse one-to-one associations are never initialised per row.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.healix.dto.PatientExportRow(p.id, p.patientId, p.firstName, p.lastName, " +
+            "p.dateOfBirth, p.gender, p.bloodGroup, p.aadharNumber, p.mobileNumber, p.emailId, " +
+            "p.preferredContactMethod, p.addressLine1, p.city, p.district, p.state, p.pinCode, " +
+            "p.status, p.createdAt) FROM Patient p ORDER BY p.id")
+    Stream<PatientExportRow> streamAllForExport();
+
+    /**
+     * Forward-only stream of the searchable columns of every patient (used to build the search index).
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.healix.dto.PatientSearchRow(p.id, p.patientId, p.firstName, p.lastName, p.mobileNumber) " +
+            "FROM Patient p")
+    Stream<PatientSearchRow> streamAllForSearchIndex();
+
+    /**
+     * Search index columns of patients registered or edited since {@code since}
+     */
+    @Query("SELECT new com.healix.dto.PatientSearchRow(p.id, p.patientId, p.firstName, p.lastName, p.mobileNumber) " +
+            "FROM Patient p WHERE p.createdAt >= :since OR p.updatedAt >= :since")
+    List<PatientSearchRow> findForSearchIndexChangedSince(@Param("since") OffsetDateTime since);
+
+    /**
+     * Phonetic name probes (equality on the indexed name key columns), newest first.
+     */
+    @Query("SELECT new com.healix.dto.PatientMatchCandidate(p.id, p.firstName, p.lastName, p.firstNameKey, " +
+            "p.lastNameKey, p.dateOfBirth, p.mobileNumber, p.pinCode) FROM Patient p " +
+            "WHERE p.lastNameKey = :lastNameKey AND p.firstNameKey = :firstNameKey ORDER BY p.id DESC")
+    List<PatientMatchCandidate> findCandidatesByNameKeys(@Param("firstNameKey") String firstNameKey,
+                                                         @Param("lastNameKey") String lastNameKey, Pageable pageable);
+
+    @Query("SELECT new com.healix.dto.PatientMatchCandidate(p.id, p.firstName, p.lastName, p.firstNameKey, " +
+            "p.lastNameKey, p.dateOfBirth, p.mobileNumber, p.pinCode) FROM Patient p " +
+            "WHERE p.lastNameKey = :key ORDER BY p.id DESC")
+    List<PatientMatchCandidate> findCandidatesByLastNameKey(@Param("key") String key, Pageable pageable);
+
+    @Query("SELECT new com.healix.dto.PatientMatchCandidate(p.id, p.firstName, p.lastName, p.firstNameKey, " +
+            "p.lastNameKey, p.dateOfBirth, p.mobileNumber, p.pinCode) FROM Patient p " +
+            "WHERE p.firstNameKey = :key ORDER BY p.id DESC")
+    List<PatientMatchCandidate> findCandidatesByFirstNameKey(@Param("key") String key, Pageable pageable);
+
+    /**
+     * Forward-only stream for the duplicate scan, grouped into blocks of the same phonetic last name and date of birth.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.healix.dto.PatientMatchCandidate(p.id, p.firstName, p.lastName, p.firstNameKey, " +
+            "p.lastNameKey, p.dateOfBirth, p.mobileNumber, p.pinCode) FROM Patient p " +
+            "WHERE p.lastNameKey IS NOT NULL AND p.dateOfBirth IS NOT NULL " +
+            "ORDER BY p.lastNameKey, p.dateOfBirth, p.id")
+    Stream<PatientMatchCandidate> streamForDuplicateScanByDateOfBirth();
+
+    /**
+     * Forward-only stream for the duplicate scan, grouped into blocks of the same phonetic full name and pin code.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.healix.dto.PatientMatchCandidate(p.id, p.firstName, p.lastName, p.firstNameKey, " +
+            "p.lastNameKey, p.dateOfBirth, p.mobileNumber, p.pinCode) FROM Patient p " +
+            "WHERE p.lastNameKey IS NOT NULL AND p.firstNameKey IS NOT NULL AND p.pinCode IS NOT NULL " +
+            "ORDER BY p.lastNameKey, p.firstNameKey, p.pinCode, p.id")
+    Stream<PatientMatchCandidate> streamForDuplicateScanByPinCode();
+
+    /**
+     * Patients after {@code afterId} whose phonetic keys have not been computed yet, in id order.
+     */
+    @Query("SELECT new com.healix.dto.PatientSearchRow(p.id, p.patientId, p.firstName, p.lastName, p.mobileNumber) " +
+            "FROM Patient p WHERE p.id > :afterId AND (p.firstNameKey IS NULL OR p.lastNameKey IS NULL) ORDER BY p.id")
+    List<PatientSearchRow> findWithoutPhoneticKeys(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT i FROM PatientInsurance i LEFT JOIN FETCH i.scheme WHERE i.patient.id IN :patientIds")
+    List<PatientInsurance> findInsuranceByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+
+    @Query("SELECT c FROM PatientEmergencyContact c WHERE c.patient.id IN :patientIds ORDER BY c.id")
+    List<PatientEmergencyContact> findEmergencyContactsByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+
     @Query("SELECT MAX(p.patientId) FROM Patient p WHERE p.patientId LIKE :prefix")
     Optional<String> findLastPatientIdByPrefix(@Param("prefix") String prefix);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.healix.repository;
+
+import com.healix.entity.VitalRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VitalRuleRepository extends JpaRepository<VitalRule, Long> {
+
+    List<VitalRule> findByActiveTrueOrderBySortOrderAscIdAsc();
+
+    /**
+     * Latest rule change; with the rule count, tells whether the compiled rules are stale
+     */
+    @Query("SELECT MAX(r.updatedAt) FROM VitalRule r")
+    LocalDateTime findLastUpdatedAt();
+}
@@ -1,10 +1,15 @@
 package com.healix.repository;
 
+import com.healix.dto.LatestVitalsRow;
 import com.healix.entity.Vitals;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VitalsRepository extends JpaRepository<Vitals, Long> {
@@ -12,5 +17,30 @@ public interface VitalsRepository extends JpaRepository<Vitals, Long> {
     List<Vitals> findByAppointmentIdOrderByRecordedAtDesc(Long appointmentId);
 
     List<Vitals> findByAppointmentId(Long appointmentId);
+
+    String LATEST_VITALS_ROW = "SELECT new com.healix.dto.LatestVitalsRow(v.appointment.id, v.id, v.recordedAt, " +
+            "v.recordedByName, v.temperature, v.temperatureUnit, v.heartRate, v.respiratoryRate, v.systolicBp, " +
+            "v.diastolicBp, v.spo2, v.randomBloodSugar, v.painLevel) FROM Vitals v ";
+
+    /**
+     * Most recent vitals of an appointment; one row off the (appointment_id, recorded_at DESC) index
+     */
+    @Query(LATEST_VITALS_ROW + "WHERE v.appointment.id = :appointmentId ORDER BY v.recordedAt DESC, v.id DESC LIMIT 1")
+    Optional<LatestVitalsRow> findLatestByAppointmentId(@Param("appointmentId") Long appointmentId);
+
+    /**
+     * Most recent vitals of several appointments in one query. Vitals recorded at the same instant may
+     * both come back; callers keep the one with the higher id.
+     */
+    @Query(LATEST_VITALS_ROW + "WHERE v.appointment.id IN :appointmentIds AND v.recordedAt = " +
+            "(SELECT MAX(l.recordedAt) FROM Vitals l WHERE l.appointment.id = v.appointment.id)")
+    List<LatestVitalsRow> findLatestByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+    /**
+     * Vitals (with symptoms) of several appointments in one query, newest first
+     */
+    @Query("SELECT DISTINCT v FROM Vitals v LEFT JOIN FETCH v.symptoms " +
+            "WHERE v.appointment.id IN :appointmentIds ORDER BY v.recordedAt DESC")
+    List<Vitals> findByAppointmentIdsWithSymptoms(@Param("appointmentIds") Collection<Long> appointmentIds);
 }
 
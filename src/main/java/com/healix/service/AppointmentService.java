@@ -1,5 +1,7 @@
 package com.healix.service;
 
+import com.healix.dto.LatestVitalsRow;
+import com.healix.dto.PatientNameRow;
 import com.healix.entity.Appointment;
 import com.healix.entity.AppointmentExamination;
 import com.healix.entity.Patient;
@@ -9,14 +11,23 @@ import com.healix.mapper.AppointmentMapper;
 import com.healix.model.*;
 import com.healix.repository.AppointmentExaminationRepository;
 import com.healix.repository.AppointmentRepository;
+import com.healix.repository.AppointmentSpecifications;
 import com.healix.repository.PatientRepository;
 import com.healix.repository.VitalsRepository;
 import com.healix.util.CurrentUser;
+import com.healix.enums.VitalRuleMetric;
+import com.healix.enums.VitalRuleSeverity;
+import com.healix.validation.VitalsRuleEngine;
 import com.healix.validation.VitalsValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,6 +45,11 @@ import java.util.*;
 @Transactional
 public class AppointmentService {
 
+    /**
+     * Largest number of index-matched patients turned into an IN list for a name/contact search.
+     */
+    private static final int KEYWORD_PATIENT_LIMIT = 500;
+
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final AppointmentExaminationRepository examinationRepository;
@@ -42,7 +58,12 @@ public class AppointmentService {
     private final CurrentUser currentUser;
     private final AppointmentAuditService appointmentAuditService;
     private final VitalsValidator vitalsValidator;
+    private final VitalsRuleEngine vitalsRuleEngine;
+    private final VitalSeriesService vitalSeriesService;
+    private final LatestVitalsCache latestVitalsCache;
+    private final CriticalVitalsAlertService criticalVitalsAlertService;
     private final com.healix.repository.StaffRepository staffRepository;
+    private final PatientSearchIndex patientSearchIndex;
 
     /**
      * Generate unique appointment number
@@ -58,10 +79,11 @@ public class AppointmentService {
      * Create a new appointment
      */
     public AppointmentResponse createAppointment(AppointmentRequest request) {
-        // Validate patient exists
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Patient not found with ID: " + request.getPatientId()));
+        // Validate patient exists; the appointment only needs a reference to it
+        if (!patientRepository.existsById(request.getPatientId())) {
+            throw new ResourceNotFoundException("Patient not found with ID: " + request.getPatientId());
+        }
+        Patient patient = patientRepository.getReferenceById(request.getPatientId());
 
         // Check if patient already has an appointment on the same date with statuses
         boolean hasExistingAppointment = appointmentRepository.existsByPatientIdAndAppointmentDateAndStatusNotIn(
@@ -119,7 +141,8 @@ public class AppointmentService {
                 pageable.getPageNumber(), pageable.getPageSize());
 
         Page<Appointment> appointments = appointmentRepository.findAll(pageable);
-        return appointments.map(appointmentMapper::toResponse);
+        Map<Long, String> patientNames = appointmentMapper.patientNames(appointments.getContent());
+        return appointments.map(appointment -> appointmentMapper.toResponse(appointment, patientNames));
     }
 
     /**
@@ -319,17 +342,90 @@ public class AppointmentService {
         Page<Appointment> appointments;
 
         // If searching by name or contact, use keyword search
-        if (patientName != null && !patientName.trim().isEmpty()) {
-            appointments = appointmentRepository.searchByKeyword(patientName, pageable);
-        } else if (contactNumber != null && !contactNumber.trim().isEmpty()) {
-            appointments = appointmentRepository.searchByKeyword(contactNumber, pageable);
+        String keyword = keyword(patientName, contactNumber);
+        if (keyword != null) {
+            Optional<List<Long>> patientIds = matchingPatientIds(keyword);
+            appointments = patientIds.isPresent()
+                    ? appointmentRepository.findAll(keywordMatch(patientIds.get(), keyword), pageable)
+                    : appointmentRepository.searchByKeyword(keyword, pageable);
+        } else {
+            // Use specific criteria search; only the supplied filters become predicates
+            appointments = appointmentRepository.findAll(
+                    AppointmentSpecifications.matching(patientId, physicianId, status, appointmentDate), pageable);
+        }
+
+        Map<Long, String> patientNames = appointmentMapper.patientNames(appointments.getContent());
+        return appointments.map(appointment -> appointmentMapper.toResponse(appointment, patientNames));
+    }
+
+    /**
+     * Keyset slice of {@link #searchAppointments}: matching appointments with an id below {@code beforeId}, newest first
+     */
+    @Transactional(readOnly = true)
+    public Slice<AppointmentResponse> getAppointmentsSlice(
+            Long patientId,
+            Long physicianId,
+            AppointmentStatus status,
+            LocalDate appointmentDate,
+            String contactNumber,
+            String patientName,
+            long beforeId,
+            int size) {
+
+        log.info("Fetching appointment slice - before: {}, size: {}", beforeId, size);
+
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<Appointment> appointments;
+
+        String keyword = keyword(patientName, contactNumber);
+        if (keyword != null) {
+            Optional<List<Long>> patientIds = matchingPatientIds(keyword);
+            appointments = patientIds.isPresent()
+                    ? findSlice(keywordMatch(patientIds.get(), keyword)
+                            .and(AppointmentSpecifications.idBefore(beforeId)), size)
+                    : appointmentRepository.searchByKeywordSliceBefore(keyword, beforeId, pageable);
         } else {
-            // Use specific criteria search
-            appointments = appointmentRepository.searchAppointments(
-                    patientId, physicianId, status, appointmentDate, null, pageable);
+            appointments = findSlice(AppointmentSpecifications.matching(patientId, physicianId, status, appointmentDate)
+                    .and(AppointmentSpecifications.idBefore(beforeId)), size);
+        }
+
+        Map<Long, String> patientNames = appointmentMapper.patientNames(appointments.getContent());
+        return appointments.map(appointment -> appointmentMapper.toResponse(appointment, patientNames));
+    }
+
+    private static String keyword(String patientName, String contactNumber) {
+        if (patientName != null && !patientName.trim().isEmpty()) {
+            return patientName;
         }
+        if (contactNumber != null && !contactNumber.trim().isEmpty()) {
+            return contactNumber;
+        }
+        return null;
+    }
+
+    /**
+     * Patients matching a name/contact keyword, from the patient search index. Empty when the index cannot
+     * answer, cannot tell it found every match, or the keyword matches too many patients for an IN list,
+     * in which case the LIKE query is used.
+     */
+    private Optional<List<Long>> matchingPatientIds(String keyword) {
+        return patientSearchIndex.searchAll(keyword, KEYWORD_PATIENT_LIMIT);
+    }
+
+    // Same matches as the keyword LIKE query, with the patient columns answered by the search index
+    private static Specification<Appointment> keywordMatch(List<Long> patientIds, String keyword) {
+        return AppointmentSpecifications.patientIn(patientIds)
+                .or(AppointmentSpecifications.appointmentNumberContains(keyword));
+    }
 
-        return appointments.map(appointmentMapper::toResponse);
+    private Slice<Appointment> findSlice(Specification<Appointment> specification, int size) {
+        // Fetch one extra row to learn whether another slice follows, without a count query
+        List<Appointment> rows = appointmentRepository.findBy(specification, query -> query
+                .sortBy(Sort.by(Sort.Direction.DESC, "id"))
+                .limit(size + 1)
+                .all());
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
     }
 
     /**
@@ -468,20 +564,22 @@ public class AppointmentService {
         }
 
         // 3. Check if vitals were recently recorded (within last 5 minutes) to prevent duplicates
-        List<Vitals> recentVitals = vitalsRepository.findByAppointmentIdOrderByRecordedAtDesc(appointmentId);
-        if (!recentVitals.isEmpty()) {
-            Vitals lastVitals = recentVitals.getFirst();
+        Optional<LatestVitalsRow> lastVitals = latestVitalsCache.get(appointmentId);
+        if (lastVitals.isPresent()) {
             LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
-            if (lastVitals.getRecordedAt().isAfter(fiveMinutesAgo)) {
+            if (lastVitals.get().getRecordedAt().isAfter(fiveMinutesAgo)) {
                 log.warn("Vitals were recorded {} seconds ago for appointment {}",
-                    java.time.Duration.between(lastVitals.getRecordedAt(), LocalDateTime.now()).getSeconds(),
+                    java.time.Duration.between(lastVitals.get().getRecordedAt(), LocalDateTime.now()).getSeconds(),
                     appointmentId);
                 // This is a warning, not blocking - allowing multiple measurements in quick succession
             }
         }
 
-        // 4. Validate vitals data using custom validator
-        List<String> validationErrors = vitalsValidator.validate(request);
+        // 4. Validate vitals data against the rules for the patient's age
+        int ageMonths = VitalsRuleEngine.ageInMonths(patientRepository.findNameById(appointment.getPatient().getId())
+                .map(PatientNameRow::getDateOfBirth)
+                .orElse(null));
+        List<String> validationErrors = vitalsValidator.validate(request, ageMonths);
         if (!validationErrors.isEmpty()) {
             String errorMessage = "Vitals validation failed: " + String.join("; ", validationErrors);
             log.error(errorMessage);
@@ -489,7 +587,7 @@ public class AppointmentService {
         }
 
         // 5. Generate warnings for concerning values (logged but not blocking)
-        List<String> warnings = vitalsValidator.generateWarnings(request);
+        List<String> warnings = vitalsValidator.generateWarnings(request, ageMonths);
         if (!warnings.isEmpty()) {
             log.warn("Vitals recorded with concerning values for appointment {}: {}",
                 appointmentId, String.join("; ", warnings));
@@ -504,13 +602,16 @@ public class AppointmentService {
         vitals.setRecordedBy(currentUser.getCurrentUser().getId());
         vitals.setRecordedByName(username);
 
-        // 8. Save vitals (entity @PrePersist will calculate BMI automatically)
-        Vitals savedVitals = vitalsRepository.save(vitals);
+        // 8. Save vitals (entity @PrePersist will calculate BMI automatically) and add them to the patient's series
+        Vitals savedVitals = vitalsRepository.saveAndFlush(vitals);
+        vitalSeriesService.recordReadings(savedVitals, appointment.getPatient().getId());
+        latestVitalsCache.recordedAfterCommit(appointmentId, savedVitals);
         log.info("Vitals recorded successfully for appointment: {} by user: {}",
             appointmentId, username);
 
-        // 9. Log critical vital signs in audit trail
-        if (isCriticalVitals(savedVitals)) {
+        // 9. Log critical vital signs and raise an alert once the vitals are committed (in the background)
+        Map<String, String> criticalFindings = criticalFindings(savedVitals, ageMonths);
+        if (!criticalFindings.isEmpty()) {
             log.warn("CRITICAL VITALS RECORDED for appointment {}: HR={}, BP={}/{}, SpO2={}, Temp={}",
                 appointmentId,
                 savedVitals.getHeartRate(),
@@ -518,6 +619,9 @@ public class AppointmentService {
                 savedVitals.getDiastolicBp(),
                 savedVitals.getSpo2(),
                 savedVitals.getTemperature());
+            criticalVitalsAlertService.raiseAfterCommit(new CriticalVitalsEvent(appointment.getPatient().getId(),
+                appointmentId, appointment.getAppointmentNumber(), appointment.getConsultationRoom(),
+                savedVitals.getId(), savedVitals.getRecordedAt(), criticalFindings));
         }
 
         return appointmentMapper.toVitalsResponse(savedVitals);
@@ -534,6 +638,35 @@ public class AppointmentService {
         return appointmentMapper.toVitalsResponseList(vitals);
     }
 
+    /**
+     * A day's appointments in one status with their latest vitals, for triage dashboards. One query for the
+     * appointments, one for their patients' names; latest vitals come from {@link LatestVitalsCache}, with all
+     * misses in one more query.
+     */
+    @Transactional(readOnly = true)
+    public List<WaitingRoomEntry> getWaitingRoom(LocalDate date, AppointmentStatus status, Long departmentId, Long physicianId) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        AppointmentStatus inStatus = status != null ? status : AppointmentStatus.WAITING;
+        log.info("Fetching waiting room for {} ({}), department: {}, physician: {}", day, inStatus, departmentId, physicianId);
+
+        List<Appointment> appointments = appointmentRepository.findWaitingRoom(day, inStatus, departmentId, physicianId);
+        Map<Long, String> patientNames = appointmentMapper.patientNames(appointments);
+        Map<Long, LatestVitalsRow> latestVitals = latestVitalsCache.getAll(
+                appointments.stream().map(Appointment::getId).toList());
+
+        List<WaitingRoomEntry> entries = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            WaitingRoomEntry entry = new WaitingRoomEntry();
+            entry.setAppointment(appointmentMapper.toResponse(appointment, patientNames));
+            LatestVitalsRow vitals = latestVitals.get(appointment.getId());
+            if (vitals != null) {
+                entry.setLatestVitals(appointmentMapper.toLatestVitals(vitals));
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
     /**
      * Define allowed logical status transitions. Terminal states: COMPLETED, CANCELLED, NO_SHOW
      */
@@ -563,51 +696,25 @@ public class AppointmentService {
     }
 
     /**
-     * Check if vitals contain any critical values that require immediate attention
+     * Critical values that require immediate attention (the CRITICAL vitals rules), by metric, each with a
+     * line describing it
      */
-    private boolean isCriticalVitals(Vitals vitals) {
-        // Critical heart rate (bradycardia < 40 or tachycardia > 150)
-        if (vitals.getHeartRate() != null &&
-            (vitals.getHeartRate() < 40 || vitals.getHeartRate() > 150)) {
-            return true;
-        }
-
-        // Critical blood pressure (severe hypotension or hypertension)
-        if (vitals.getSystolicBp() != null && vitals.getDiastolicBp() != null) {
-            if (vitals.getSystolicBp() < 80 || vitals.getSystolicBp() > 180 ||
-                vitals.getDiastolicBp() < 50 || vitals.getDiastolicBp() > 110) {
-                return true;
-            }
-        }
-
-        // Critical oxygen saturation (< 90%)
-        if (vitals.getSpo2() != null && vitals.getSpo2() < 90) {
-            return true;
-        }
-
-        // Critical temperature (severe fever or hypothermia)
-        if (vitals.getTemperature() != null) {
-            String unit = vitals.getTemperatureUnit();
-            if ("F".equals(unit)) {
-                if (vitals.getTemperature() < 95 || vitals.getTemperature() > 104) {
-                    return true;
-                }
-            } else if ("C".equals(unit)) {
-                if (vitals.getTemperature() < 35 || vitals.getTemperature() > 40) {
-                    return true;
-                }
-            }
+    private Map<String, String> criticalFindings(Vitals vitals, int ageMonths) {
+        List<String> critical = vitalsRuleEngine.rules()
+                .findings(VitalRuleSeverity.CRITICAL, VitalRuleMetric.readingsOf(vitals), ageMonths);
+        Map<String, String> findings = new LinkedHashMap<>();
+        for (String metric : critical) {
+            findings.put(metric, switch (metric) {
+                case "HEART_RATE" -> "Heart rate " + vitals.getHeartRate() + " bpm";
+                case "BLOOD_PRESSURE" -> "Blood pressure " + vitals.getSystolicBp() + "/" + vitals.getDiastolicBp() + " mmHg";
+                case "SPO2" -> "SpO2 " + vitals.getSpo2() + "%";
+                case "TEMPERATURE" -> "Temperature " + vitals.getTemperature() + "°" + vitals.getTemperatureUnit();
+                case "RESPIRATORY_RATE" -> "Respiratory rate " + vitals.getRespiratoryRate() + " breaths/min";
+                case "RANDOM_BLOOD_SUGAR" -> "Random blood sugar " + vitals.getRandomBloodSugar() + " mg/dL";
+                default -> metric + " out of range";
+            });
         }
-
-        // Critical respiratory rate (< 8 or > 30)
-        if (vitals.getRespiratoryRate() != null &&
-            (vitals.getRespiratoryRate() < 8 || vitals.getRespiratoryRate() > 30)) {
-            return true;
-        }
-
-        // Critical blood sugar (severe hypoglycemia or hyperglycemia)
-        return vitals.getRandomBloodSugar() != null &&
-                (vitals.getRandomBloodSugar() < 50 || vitals.getRandomBloodSugar() > 400);
+        return findings;
     }
 
     /**
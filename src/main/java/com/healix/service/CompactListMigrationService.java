@@ -0,0 +1,141 @@
+package com.healix.service;
+
+import com.healix.util.CompactStringListConverter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Rewrites medical history allergy/medication lists still stored as JSON into the
+ * {@link CompactStringListConverter} form. Runs in the background after startup, one short transaction per
+ * batch with the batch rows locked, so the application keeps serving (both formats are readable meanwhile)
+ * and concurrent edits are not overwritten. Only rows still holding JSON are read, so once everything is
+ * converted a run is a single empty query.
+ */
+@Service
+@Slf4j
+public class CompactListMigrationService {
+
+    static final int MIGRATION_BATCH_SIZE = 500;
+
+    // Rows with a list column not yet in compact form; converted rows are neither read nor locked
+    private static final String SELECT_LEGACY_BATCH =
+            "SELECT id, known_allergies, current_medications FROM patient_medical_history WHERE id > ? AND (" +
+                    "(known_allergies <> '' AND known_allergies NOT LIKE '~%') OR " +
+                    "(current_medications <> '' AND current_medications NOT LIKE '~%')) " +
+                    "ORDER BY id LIMIT ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final boolean enabled;
+    private final ExecutorService migrationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "compact-list-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record Row(long id, String knownAllergies, String currentMedications) {
+    }
+
+    private record BatchResult(long lastId, int converted) {
+    }
+
+    public CompactListMigrationService(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${healix.medical-history.compact-lists.migrate:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void migrateOnStartup() {
+        if (enabled) {
+            migrationExecutor.execute(this::migrate);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        migrationExecutor.shutdownNow();
+    }
+
+    /**
+     * Convert every remaining JSON row
+     * @return number of rows rewritten
+     */
+    int migrate() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int converted = 0;
+        try {
+            while (true) {
+                long from = afterId;
+                BatchResult result = batchTransaction.execute(status -> migrateBatch(from));
+                if (result == null || result.lastId() < 0) {
+                    break;
+                }
+                converted += result.converted();
+                afterId = result.lastId();
+            }
+        } catch (Exception e) {
+            log.error("Compact list migration stopped after {} rows: {}", converted, e.getMessage(), e);
+            return converted;
+        }
+        if (converted > 0) {
+            log.info("Converted {} medical history rows to compact lists in {} ms",
+                    converted, System.currentTimeMillis() - start);
+        }
+        return converted;
+    }
+
+    private BatchResult migrateBatch(long afterId) {
+        List<Row> rows = jdbcTemplate.query(SELECT_LEGACY_BATCH,
+                (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("known_allergies"),
+                        rs.getString("current_medications")),
+                afterId, MIGRATION_BATCH_SIZE);
+        if (rows.isEmpty()) {
+            return new BatchResult(-1, 0);
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        for (Row row : rows) {
+            if (isLegacy(row.knownAllergies()) || isLegacy(row.currentMedications())) {
+                updates.add(new Object[]{reencode(row.knownAllergies()), reencode(row.currentMedications()), row.id()});
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE patient_medical_history SET known_allergies = ?, current_medications = ? WHERE id = ?",
+                    updates);
+        }
+        return new BatchResult(rows.get(rows.size() - 1).id(), updates.size());
+    }
+
+    private static boolean isLegacy(String value) {
+        return value != null && !value.isBlank() && !CompactStringListConverter.isCompact(value);
+    }
+
+    private static String reencode(String value) {
+        if (!isLegacy(value)) {
+            return value;
+        }
+        List<String> values = CompactStringListConverter.decode(value);
+        if (values.isEmpty()) {
+            // Unparseable JSON also decodes as empty; keep it as stored rather than lose it
+            return value.replaceAll("\\s", "").equals("[]") ? CompactStringListConverter.encode(values) : value;
+        }
+        return CompactStringListConverter.encode(values);
+    }
+}
@@ -0,0 +1,205 @@
+package com.healix.service;
+
+import com.healix.entity.CriticalVitalsAlert;
+import com.healix.model.CriticalVitalsAlertResponse;
+import com.healix.repository.CriticalVitalsAlertRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Critical vitals alert pipeline. Recording vitals only queues a {@link CriticalVitalsEvent} once its
+ * transaction commits; a single background thread then deduplicates it, persists the alert, pushes it to
+ * the {@link CriticalVitalsStream} and hands it to the active {@link CriticalVitalsNotifier}. An alert whose
+ * critical metrics are all covered by an alert raised for the same patient within
+ * {@code healix.alerts.dedupe-minutes} is folded into that alert instead of being raised again.
+ */
+@Service
+@Slf4j
+public class CriticalVitalsAlertService {
+
+    static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+    static final int REPLAY_LIMIT = 100;
+
+    private final CriticalVitalsAlertRepository alertRepository;
+    private final PatientCache patientCache;
+    private final CriticalVitalsStream stream;
+    private final CriticalVitalsNotifier notifier;
+    private final TransactionTemplate alertTransaction;
+    private final Duration dedupeWindow;
+    private final ExecutorService alertExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "critical-vitals-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Latest alert per patient within the dedupe window; only touched on the alert thread
+    private final Map<Long, Recent> recentByPatient = new HashMap<>();
+
+    private record Recent(long alertId, Set<String> metrics, LocalDateTime raisedAt) {
+    }
+
+    public CriticalVitalsAlertService(CriticalVitalsAlertRepository alertRepository,
+                                      PatientCache patientCache,
+                                      CriticalVitalsStream stream,
+                                      CriticalVitalsNotifier notifier,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${healix.alerts.dedupe-minutes:15}") long dedupeMinutes) {
+        this.alertRepository = alertRepository;
+        this.patientCache = patientCache;
+        this.stream = stream;
+        this.notifier = notifier;
+        this.alertTransaction = new TransactionTemplate(transactionManager);
+        this.dedupeWindow = Duration.ofMinutes(dedupeMinutes);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        alertExecutor.shutdown();
+    }
+
+    /**
+     * Queue an alert for once the current transaction commits; returns immediately
+     */
+    public void raiseAfterCommit(CriticalVitalsEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(event);
+                }
+            });
+        } else {
+            submit(event);
+        }
+    }
+
+    private void submit(CriticalVitalsEvent event) {
+        try {
+            alertExecutor.execute(() -> process(event));
+        } catch (RejectedExecutionException e) {
+            log.error("Critical vitals alert for vitals {} dropped during shutdown", event.vitalsId());
+        }
+    }
+
+    private void process(CriticalVitalsEvent event) {
+        CriticalVitalsAlertResponse alert;
+        try {
+            alert = record(event);
+        } catch (Exception e) {
+            log.error("Could not raise critical vitals alert for vitals {}: {}", event.vitalsId(), e.getMessage(), e);
+            return;
+        }
+        if (alert == null) {
+            return;
+        }
+        stream.publish(alert);
+        try {
+            notifier.notify(alert);
+        } catch (Exception e) {
+            log.error("Critical vitals notifier failed for alert {}: {}", alert.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Persist a new alert, or fold the event into a recent one
+     * @return the new alert, or null when it was a repeat
+     */
+    CriticalVitalsAlertResponse record(CriticalVitalsEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = now.minus(dedupeWindow);
+        recentByPatient.values().removeIf(recent -> recent.raisedAt().isBefore(windowStart));
+
+        Recent recent = recentByPatient.get(event.patientId());
+        if (recent != null && recent.metrics().containsAll(event.findings().keySet())) {
+            Integer updated = alertTransaction.execute(status -> alertRepository.recordRepeat(recent.alertId(), now));
+            if (updated != null && updated > 0) {
+                log.info("Critical vitals for patient {} folded into alert {}", event.patientId(), recent.alertId());
+                return null;
+            }
+            // The alert is gone (e.g. patient merged); raise afresh
+        }
+
+        String patientName = patientCache.getById(event.patientId())
+                .map(patient -> patient.getFirstName() + " " + patient.getLastName())
+                .orElse(null);
+        CriticalVitalsAlert alert = alertTransaction.execute(status -> alertRepository.save(CriticalVitalsAlert.builder()
+                .patientId(event.patientId())
+                .patientName(patientName)
+                .appointmentId(event.appointmentId())
+                .appointmentNumber(event.appointmentNumber())
+                .consultationRoom(event.consultationRoom())
+                .vitalsId(event.vitalsId())
+                .metrics(String.join(",", event.findings().keySet()))
+                .findings(String.join("\n", event.findings().values()))
+                .recordedAt(event.recordedAt())
+                .raisedAt(now)
+                .lastSeenAt(now)
+                .build()));
+        recentByPatient.put(event.patientId(), new Recent(alert.getId(), Set.copyOf(event.findings().keySet()), now));
+        return toResponse(alert);
+    }
+
+    /**
+     * Alerts raised at or after {@code since} (default: the last 24 hours), newest first
+     */
+    @Transactional(readOnly = true)
+    public List<CriticalVitalsAlertResponse> getAlerts(LocalDateTime since) {
+        LocalDateTime from = since != null ? since : LocalDateTime.now().minus(DEFAULT_RANGE);
+        return alertRepository.findTop200ByRaisedAtGreaterThanEqualOrderByRaisedAtDescIdDesc(from).stream()
+                .map(CriticalVitalsAlertService::toResponse)
+                .toList();
+    }
+
+    /**
+     * Live alert stream, first replaying alerts after {@code lastEventId} when the client is reconnecting
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(Long lastEventId) {
+        // Subscribe before reading what was missed, so an alert raised in between is not lost
+        SseEmitter emitter = stream.subscribe();
+        List<CriticalVitalsAlertResponse> missed = lastEventId == null ? List.of()
+                : alertRepository.findTop100ByIdGreaterThanOrderByIdAsc(lastEventId).stream()
+                .map(CriticalVitalsAlertService::toResponse)
+                .toList();
+        stream.replay(emitter, lastEventId, missed);
+        return emitter;
+    }
+
+    static CriticalVitalsAlertResponse toResponse(CriticalVitalsAlert alert) {
+        return CriticalVitalsAlertResponse.builder()
+                .id(alert.getId())
+                .patientId(alert.getPatientId())
+                .patientName(alert.getPatientName())
+                .appointmentId(alert.getAppointmentId())
+                .appointmentNumber(alert.getAppointmentNumber())
+                .consultationRoom(alert.getConsultationRoom())
+                .vitalsId(alert.getVitalsId())
+                .metrics(Arrays.asList(alert.getMetrics().split(",")))
+                .findings(Arrays.asList(alert.getFindings().split("\n")))
+                .recordedAt(alert.getRecordedAt().atOffset(ZoneOffset.UTC))
+                .raisedAt(alert.getRaisedAt().atOffset(ZoneOffset.UTC))
+                .lastSeenAt(alert.getLastSeenAt().atOffset(ZoneOffset.UTC))
+                .repeatCount(alert.getRepeatCount())
+                .build();
+    }
+}
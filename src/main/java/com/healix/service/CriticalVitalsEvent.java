@@ -0,0 +1,13 @@
+package com.healix.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Vitals with critical values, as recorded. {@code findings} maps each critical metric (e.g. HEART_RATE,
+ * BLOOD_PRESSURE) to a line describing it, in display order.
+ */
+public record CriticalVitalsEvent(Long patientId, Long appointmentId, String appointmentNumber,
+                                  String consultationRoom, Long vitalsId, LocalDateTime recordedAt,
+                                  Map<String, String> findings) {
+}
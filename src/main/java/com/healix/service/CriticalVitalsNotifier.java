@@ -0,0 +1,12 @@
+package com.healix.service;
+
+import com.healix.model.CriticalVitalsAlertResponse;
+
+/**
+ * Outbound channel for new critical vitals alerts (SMS, pager, messaging...). Exactly one implementation
+ * is active, chosen by {@code healix.alerts.notifier}; called on the alert thread, never on a request.
+ */
+public interface CriticalVitalsNotifier {
+
+    void notify(CriticalVitalsAlertResponse alert);
+}
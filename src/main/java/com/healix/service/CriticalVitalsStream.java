@@ -0,0 +1,181 @@
+package com.healix.service;
+
+import com.healix.model.CriticalVitalsAlertResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Server-sent event stream of new critical vitals alerts for nurse stations. Each event is named
+ * {@code critical-vitals} and carries the alert id as its event id, so a reconnecting client sends
+ * Last-Event-ID and is replayed what it missed.
+ * <p>
+ * Publishing only queues the alert for each subscriber; every subscriber is written to by its own virtual
+ * thread, so a slow client never holds up the alert thread or other clients. A subscriber whose backlog
+ * reaches {@link #MAX_BACKLOG} is disconnected and catches up through replay when it reconnects.
+ */
+@Service
+@Slf4j
+public class CriticalVitalsStream {
+
+    static final String EVENT_NAME = "critical-vitals";
+    static final int MAX_BACKLOG = 500;
+
+    private final long timeoutMillis;
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService sendExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("critical-vitals-send-", 0).factory());
+
+    public CriticalVitalsStream(@Value("${healix.alerts.stream-timeout-ms:1800000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * A new subscriber. Alerts published from now on are held back until {@link #replay} has been called for it,
+     * so register before reading what the client missed.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.put(emitter, new Subscriber(emitter));
+        return emitter;
+    }
+
+    /**
+     * Send {@code missed} to a new subscriber, then whatever was published since it subscribed, in id order and
+     * without duplicates
+     * @param lastEventId the last alert the client has seen, or null
+     */
+    public void replay(SseEmitter emitter, Long lastEventId, List<CriticalVitalsAlertResponse> missed) {
+        Subscriber subscriber = subscribers.get(emitter);
+        if (subscriber != null) {
+            subscriber.replay(lastEventId, missed);
+        }
+    }
+
+    public void publish(CriticalVitalsAlertResponse alert) {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.enqueue(alert);
+        }
+    }
+
+    private void drop(Subscriber subscriber, Exception e) {
+        subscribers.remove(subscriber.emitter);
+        subscriber.emitter.completeWithError(e);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Guarded by this
+        private final ArrayDeque<CriticalVitalsAlertResponse> backlog = new ArrayDeque<>();
+        private boolean replayed;
+        private boolean sending;
+        private long lastSentId = Long.MIN_VALUE;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void replay(Long lastEventId, List<CriticalVitalsAlertResponse> missed) {
+            synchronized (this) {
+                if (lastEventId != null) {
+                    lastSentId = lastEventId;
+                }
+                List<CriticalVitalsAlertResponse> pending = new ArrayList<>(missed);
+                pending.addAll(backlog);
+                pending.sort(Comparator.comparing(CriticalVitalsAlertResponse::getId));
+                backlog.clear();
+                backlog.addAll(pending);
+                replayed = true;
+                if (!startSending()) {
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        void enqueue(CriticalVitalsAlertResponse alert) {
+            synchronized (this) {
+                if (backlog.size() >= MAX_BACKLOG) {
+                    log.warn("Critical vitals subscriber fell {} alerts behind; disconnecting it", MAX_BACKLOG);
+                    subscribers.remove(emitter);
+                    backlog.clear();
+                    // Completing waits for a send in progress, so leave it to a sender thread
+                    try {
+                        sendExecutor.execute(emitter::complete);
+                    } catch (RejectedExecutionException e) {
+                        log.debug("Critical vitals stream is shutting down");
+                    }
+                    return;
+                }
+                backlog.add(alert);
+                if (!startSending()) {
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        // Whether the caller should start a sender; at most one runs at a time, keeping events in order
+        private boolean startSending() {
+            if (!replayed || sending || backlog.isEmpty()) {
+                return false;
+            }
+            sending = true;
+            return true;
+        }
+
+        private void schedule() {
+            try {
+                sendExecutor.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                drop(this, e);
+            }
+        }
+
+        private void send() {
+            while (true) {
+                CriticalVitalsAlertResponse alert;
+                synchronized (this) {
+                    alert = backlog.poll();
+                    if (alert == null) {
+                        sending = false;
+                        return;
+                    }
+                    if (alert.getId() <= lastSentId) {
+                        continue;
+                    }
+                    lastSentId = alert.getId();
+                }
+                try {
+                    emitter.send(SseEmitter.event().name(EVENT_NAME).id(String.valueOf(alert.getId())).data(alert));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping critical vitals subscriber: {}", e.getMessage());
+                    drop(this, e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.healix.service;
 
 import com.healix.exception.CsvProcessingException;
 import com.healix.model.*;
+import com.healix.util.PatientValidator;
+import com.healix.validation.ParallelValidationStage;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
@@ -15,11 +17,13 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +33,8 @@ public class CsvPatientService {
 
     private final PatientService patientService;
     private final Validator validator;
+    private final ParallelValidationStage validationStage;
+    private final ImportErrorReportService errorReportService;
 
     // CSV column names (case-insensitive)
     private static final String COL_FIRST_NAME = "firstName";
@@ -50,89 +56,80 @@ public class CsvPatientService {
             COL_GENDER, COL_MOBILE_NUMBER, COL_CITY, COL_PIN_CODE
     );
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    // Enum lookups by CSV value, so bad values are detected without exceptions
+    private static final Map<String, Gender> GENDERS = Arrays.stream(Gender.values())
+            .collect(Collectors.toMap(Gender::name, gender -> gender));
+    private static final Map<String, BloodGroup> BLOOD_GROUPS = Arrays.stream(BloodGroup.values())
+            .collect(Collectors.toMap(BloodGroup::getValue, bloodGroup -> bloodGroup));
 
     /**
      * Process uploaded CSV file and register patients
+     * @param reportMode when true, failed rows are streamed to an error report and the response carries
+     *                   only counts and the report link
      */
-    public CsvUploadResponse processCsvFile(MultipartFile file) {
+    public CsvUploadResponse processCsvFile(MultipartFile file, boolean reportMode) {
         log.info("Processing CSV file: {}, size: {} bytes", file.getOriginalFilename(), file.getSize());
 
         // Validate file
         validateFile(file);
 
-        List<PatientResponse> successfulRegistrations = new ArrayList<>();
-        List<CsvValidationError> validationErrors = new ArrayList<>();
-        int rowNumber = 0;
+        if (!reportMode) {
+            List<PatientResponse> successfulRegistrations = new ArrayList<>();
+            List<CsvValidationError> validationErrors = new ArrayList<>();
+            int totalRows = processRecords(file, successfulRegistrations::add, validationErrors::add);
+            validationErrors.sort(Comparator.comparingInt(CsvValidationError::getRowNumber));
+
+            log.info("CSV processing completed. Total: {}, Success: {}, Failed: {}",
+                    totalRows, successfulRegistrations.size(), validationErrors.size());
+
+            return CsvUploadResponse.builder()
+                    .fileName(file.getOriginalFilename())
+                    .totalRows(totalRows)
+                    .successCount(successfulRegistrations.size())
+                    .failureCount(validationErrors.size())
+                    .successfulRegistrations(successfulRegistrations)
+                    .validationErrors(validationErrors)
+                    .build();
+        }
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+        String reportId = UUID.randomUUID().toString();
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger failureCount = new AtomicInteger();
+        int totalRows;
+        try (ImportErrorReportService.ReportWriter report = errorReportService.open(reportId)) {
+            totalRows = processRecords(file, response -> successCount.incrementAndGet(), error -> {
+                failureCount.incrementAndGet();
+                report.write(error);
+            });
+        } catch (IOException e) {
+            throw new CsvProcessingException("Failed to write error report: " + e.getMessage());
+        }
 
-            // Parse CSV with case-insensitive headers
-            CSVParser csvParser = CSVFormat.DEFAULT
-                    .builder()
-                    .setHeader()
-                    .setSkipHeaderRecord(true)
-                    .setIgnoreHeaderCase(true)
-                    .setTrim(true)
-                    .build()
-                    .parse(reader);
+        log.info("CSV processing completed. Total: {}, Success: {}, Failed: {}, report: {}",
+                totalRows, successCount.get(), failureCount.get(), reportId);
 
-            // Validate headers
-            validateHeaders(csvParser.getHeaderMap());
+        return CsvUploadResponse.builder()
+                .fileName(file.getOriginalFilename())
+                .totalRows(totalRows)
+                .successCount(successCount.get())
+                .failureCount(failureCount.get())
+                .errorReportUrl(ImportErrorReportService.reportUrl(reportId))
+                .build();
+    }
 
-            // Process each row
+    /**
+     * Parse, validate and register every row of the file
+     * @return number of data rows in the file
+     */
+    private int processRecords(MultipartFile file, Consumer<PatientResponse> onSuccess,
+                               Consumer<CsvValidationError> onError) {
+        List<CSVRecord> records = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+
+            CSVParser csvParser = openParser(reader);
             for (CSVRecord record : csvParser) {
-                rowNumber++;
-
-                try {
-                    // Parse CSV record to PatientRegistrationRequest
-                    PatientRegistrationRequest request = parseRecord(record);
-
-                    // Validate request using Bean Validation
-                    List<String> errors = validateRequest(request);
-
-                    if (!errors.isEmpty()) {
-                        // Add validation errors
-                        CsvValidationError error = CsvValidationError.builder()
-                                .rowNumber(rowNumber)
-                                .rowData(recordToMap(record))
-                                .errors(errors)
-                                .errorType(CsvValidationError.ErrorTypeEnum.VALIDATION_ERROR)
-                                .build();
-                        validationErrors.add(error);
-                        log.warn("Validation failed for row {}: {}", rowNumber, errors);
-                    } else {
-                        // Try to register patient
-                        try {
-                            PatientResponse response = patientService.registerSinglePatient(request);
-                            successfulRegistrations.add(response);
-                            log.debug("Successfully registered patient from row {}: {}",
-                                    rowNumber, response.getPatientId());
-                        } catch (Exception e) {
-                            // Handle duplicate or other registration errors
-                            CsvValidationError error = CsvValidationError.builder()
-                                    .rowNumber(rowNumber)
-                                    .rowData(recordToMap(record))
-                                    .errors(List.of(e.getMessage()))
-                                    .errorType(determineCsvErrorType(e))
-                                    .build();
-                            validationErrors.add(error);
-                            log.warn("Failed to register patient from row {}: {}",
-                                    rowNumber, e.getMessage());
-                        }
-                    }
-                } catch (Exception e) {
-                    // Handle parsing errors
-                    CsvValidationError error = CsvValidationError.builder()
-                            .rowNumber(rowNumber)
-                            .rowData(recordToMap(record))
-                            .errors(List.of("Parsing error: " + e.getMessage()))
-                            .errorType(CsvValidationError.ErrorTypeEnum.PARSING_ERROR)
-                            .build();
-                    validationErrors.add(error);
-                    log.error("Error parsing row {}: {}", rowNumber, e.getMessage(), e);
-                }
+                records.add(record);
             }
 
         } catch (IOException e) {
@@ -140,25 +137,68 @@ public class CsvPatientService {
             throw new CsvProcessingException("Failed to read CSV file: " + e.getMessage());
         }
 
-        CsvUploadResponse response = CsvUploadResponse.builder()
-                .fileName(file.getOriginalFilename())
-                .totalRows(rowNumber)
-                .successCount(successfulRegistrations.size())
-                .failureCount(validationErrors.size())
-                .successfulRegistrations(successfulRegistrations)
-                .validationErrors(validationErrors)
-                .build();
+        // Rows that parsed and validated; registered together once the whole file has been read
+        List<PatientRegistrationRequest> validRequests = new ArrayList<>();
+        List<Integer> validRowNumbers = new ArrayList<>();
+
+        // Parse and validate every row on the parallel validation stage; results come back in row order
+        List<ScreenedRow> screenedRows = screenRecords(records);
+        for (int i = 0; i < screenedRows.size(); i++) {
+            ScreenedRow row = screenedRows.get(i);
+            if (row.isValid()) {
+                validRequests.add(row.request());
+                validRowNumbers.add(i + 1);
+            } else {
+                row.error().setRowNumber(i + 1);
+                onError.accept(row.error());
+                log.warn("Validation failed for row {}: {}", i + 1, row.error().getErrors());
+            }
+        }
 
-        log.info("CSV processing completed. Total: {}, Success: {}, Failed: {}",
-                rowNumber, successfulRegistrations.size(), validationErrors.size());
+        // Duplicates (against the database and within the file) are screened in bulk before any insert
+        patientService.registerInChunks(validRequests, new PatientService.RegistrationCallback() {
+            @Override
+            public void onSuccess(int index, PatientResponse response) {
+                onSuccess.accept(response);
+                log.debug("Successfully registered patient from row {}: {}",
+                        validRowNumbers.get(index), response.getPatientId());
+            }
+
+            @Override
+            public void onFailure(int index, Exception e) {
+                // Handle duplicate or other registration errors
+                int rowNumber = validRowNumbers.get(index);
+                CsvValidationError error = CsvValidationError.builder()
+                        .rowNumber(rowNumber)
+                        .rowData(recordToMap(records.get(rowNumber - 1)))
+                        .errors(List.of(e.getMessage()))
+                        .errorType(determineCsvErrorType(e))
+                        .build();
+                onError.accept(error);
+                log.warn("Failed to register patient from row {}: {}", rowNumber, e.getMessage());
+            }
+        });
 
-        return response;
+        return records.size();
     }
 
     /**
      * Validate uploaded file
      */
     private void validateFile(MultipartFile file) {
+        validateFileType(file);
+
+        // Check file size (e.g., max 10MB); larger files go through import jobs
+        long maxSizeBytes = 10 * 1024 * 1024; // 10MB
+        if (file.getSize() > maxSizeBytes) {
+            throw new CsvProcessingException("File size exceeds maximum limit of 10MB");
+        }
+    }
+
+    /**
+     * Validate that the upload is a non-empty CSV file
+     */
+    void validateFileType(MultipartFile file) {
         if (file.isEmpty()) {
             throw new CsvProcessingException("Uploaded file is empty");
         }
@@ -167,12 +207,23 @@ public class CsvPatientService {
         if (filename == null || !filename.toLowerCase().endsWith(".csv")) {
             throw new CsvProcessingException("Invalid file type. Only CSV files are allowed");
         }
+    }
 
-        // Check file size (e.g., max 10MB)
-        long maxSizeBytes = 10 * 1024 * 1024; // 10MB
-        if (file.getSize() > maxSizeBytes) {
-            throw new CsvProcessingException("File size exceeds maximum limit of 10MB");
-        }
+    /**
+     * Open a streaming parser with case-insensitive headers and check the required columns
+     */
+    CSVParser openParser(Reader reader) throws IOException {
+        CSVParser csvParser = CSVFormat.DEFAULT
+                .builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreHeaderCase(true)
+                .setTrim(true)
+                .build()
+                .parse(reader);
+
+        validateHeaders(csvParser.getHeaderMap());
+        return csvParser;
     }
 
     /**
@@ -196,22 +247,63 @@ public class CsvPatientService {
     }
 
     /**
-     * Parse CSV record to PatientRegistrationRequest
+     * Outcome of parsing and validating one CSV row: a request ready for registration, or the row's error
+     * (row number not yet set).
+     */
+    record ScreenedRow(PatientRegistrationRequest request, CsvValidationError error) {
+        boolean isValid() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Parse and validate records in parallel
+     * @return one result per record, in record order
+     */
+    List<ScreenedRow> screenRecords(List<CSVRecord> records) {
+        return validationStage.validate(records, this::screenRecord);
+    }
+
+    private ScreenedRow screenRecord(CSVRecord record) {
+        List<String> parseErrors = new ArrayList<>();
+        PatientRegistrationRequest request = parseRecord(record, parseErrors);
+        if (!parseErrors.isEmpty()) {
+            return new ScreenedRow(null, CsvValidationError.builder()
+                    .rowData(recordToMap(record))
+                    .errors(parseErrors.stream().map(error -> "Parsing error: " + error).toList())
+                    .errorType(CsvValidationError.ErrorTypeEnum.PARSING_ERROR)
+                    .build());
+        }
+
+        List<String> errors = validateRequest(request);
+        if (!errors.isEmpty()) {
+            return new ScreenedRow(null, CsvValidationError.builder()
+                    .rowData(recordToMap(record))
+                    .errors(errors)
+                    .errorType(CsvValidationError.ErrorTypeEnum.VALIDATION_ERROR)
+                    .build());
+        }
+        return new ScreenedRow(request, null);
+    }
+
+    /**
+     * Parse CSV record to PatientRegistrationRequest.
+     * Unparseable values are reported in {@code errors} (the field is left null) rather than thrown.
      */
-    private PatientRegistrationRequest parseRecord(CSVRecord record) {
+    private PatientRegistrationRequest parseRecord(CSVRecord record, List<String> errors) {
         PatientRegistrationRequest request = new PatientRegistrationRequest();
 
         // Required fields
         request.setFirstName(getStringValue(record, COL_FIRST_NAME));
         request.setLastName(getStringValue(record, COL_LAST_NAME));
-        request.setDateOfBirth(parseDate(record, COL_DATE_OF_BIRTH));
-        request.setGender(parseGender(record, COL_GENDER));
+        request.setDateOfBirth(parseDate(record, COL_DATE_OF_BIRTH, errors));
+        request.setGender(parseGender(record, COL_GENDER, errors));
         request.setMobileNumber(getStringValue(record, COL_MOBILE_NUMBER));
         request.setCity(getStringValue(record, COL_CITY));
         request.setPinCode(getStringValue(record, COL_PIN_CODE));
 
         // Optional fields
-        request.setBloodGroup(parseBloodGroup(record, COL_BLOOD_GROUP));
+        request.setBloodGroup(parseBloodGroup(record, COL_BLOOD_GROUP, errors));
         request.setAadharNumber(getStringValue(record, COL_AADHAR_NUMBER));
         request.setEmailId(getStringValue(record, COL_EMAIL_ID));
         request.setAddressLine1(getStringValue(record, COL_ADDRESS_LINE1));
@@ -222,7 +314,7 @@ public class CsvPatientService {
     }
 
     /**
-     * Validate request using Bean Validation
+     * Validate request using Bean Validation and the insurance rules
      */
     private List<String> validateRequest(PatientRegistrationRequest request) {
         List<String> errors = new ArrayList<>();
@@ -234,13 +326,18 @@ public class CsvPatientService {
             errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
         }
 
+        List<String> missingInsuranceFields = PatientValidator.validateInsurance(request.getInsurance());
+        if (!missingInsuranceFields.isEmpty()) {
+            errors.add("insurance missing: " + String.join(",", missingInsuranceFields));
+        }
+
         return errors;
     }
 
     /**
      * Determine CSV error type from exception
      */
-    private CsvValidationError.ErrorTypeEnum determineCsvErrorType(Exception e) {
+    CsvValidationError.ErrorTypeEnum determineCsvErrorType(Exception e) {
         if (e instanceof com.healix.exception.DuplicateResourceException) {
             return CsvValidationError.ErrorTypeEnum.DUPLICATE_ERROR;
         }
@@ -255,69 +352,97 @@ public class CsvPatientService {
     }
 
     private String getStringValue(CSVRecord record, String column, String defaultValue) {
-        try {
-            String value = record.get(column);
-            return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
-        } catch (IllegalArgumentException e) {
+        // Optional columns may be absent from the header or missing from a short row
+        if (!record.isSet(column)) {
             return defaultValue;
         }
+        String value = record.get(column);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
     }
 
     /**
-     * Parse date from CSV
+     * Parse date from CSV (yyyy-MM-dd)
      */
-    private LocalDate parseDate(CSVRecord record, String column) {
+    private LocalDate parseDate(CSVRecord record, String column, List<String> errors) {
         String value = getStringValue(record, column);
-        if (value == null || value.isEmpty()) {
-            throw new IllegalArgumentException(column + " is required");
+        if (value == null) {
+            errors.add(column + " is required");
+            return null;
+        }
+
+        LocalDate date = parseIsoDate(value);
+        if (date == null) {
+            errors.add(column + " must be in format yyyy-MM-dd (e.g., 1985-03-15)");
+        }
+        return date;
+    }
+
+    /**
+     * Parse yyyy-MM-dd without throwing
+     * @return the date, or null if the value is not a valid calendar date in that format
+     */
+    static LocalDate parseIsoDate(String value) {
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > YearMonth.of(year, month).lengthOfMonth()) {
+            return null;
         }
+        return LocalDate.of(year, month, day);
+    }
 
-        try {
-            return LocalDate.parse(value, DATE_FORMATTER);
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException(
-                    column + " must be in format yyyy-MM-dd (e.g., 1985-03-15)");
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
         }
+        return result;
     }
 
     /**
      * Parse gender enum
      */
-    private Gender parseGender(CSVRecord record, String column) {
+    private Gender parseGender(CSVRecord record, String column, List<String> errors) {
         String value = getStringValue(record, column);
-        if (value == null || value.isEmpty()) {
-            throw new IllegalArgumentException(column + " is required");
+        if (value == null) {
+            errors.add(column + " is required");
+            return null;
         }
 
-        try {
-            return Gender.valueOf(value.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException(
-                    column + " must be one of: MALE, FEMALE, OTHER");
+        Gender gender = GENDERS.get(value.toUpperCase());
+        if (gender == null) {
+            errors.add(column + " must be one of: MALE, FEMALE, OTHER");
         }
+        return gender;
     }
 
     /**
      * Parse blood group enum
      */
-    private BloodGroup parseBloodGroup(CSVRecord record, String column) {
+    private BloodGroup parseBloodGroup(CSVRecord record, String column, List<String> errors) {
         String value = getStringValue(record, column);
-        if (value == null || value.isEmpty()) {
+        if (value == null) {
             return null;
         }
 
-        try {
-            return BloodGroup.fromValue(value);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException(
-                    column + " must be one of: A+, A-, B+, B-, O+, O-, AB+, AB-");
+        BloodGroup bloodGroup = BLOOD_GROUPS.get(value);
+        if (bloodGroup == null) {
+            errors.add(column + " must be one of: A+, A-, B+, B-, O+, O-, AB+, AB-");
         }
+        return bloodGroup;
     }
 
     /**
      * Convert CSV record to Map for error reporting
      */
-    private Map<String, String> recordToMap(CSVRecord record) {
+    Map<String, String> recordToMap(CSVRecord record) {
         Map<String, String> map = new HashMap<>();
         record.toMap().forEach((key, value) -> map.put(key, value));
         return map;
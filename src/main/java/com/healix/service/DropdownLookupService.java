@@ -3,26 +3,43 @@ package com.healix.service;
 import com.healix.entity.DropdownLookup;
 import com.healix.exception.DuplicateResourceException;
 import com.healix.exception.ResourceNotFoundException;
+import com.healix.model.BatchDropdownLookupResponse;
 import com.healix.model.DropdownLookupRequest;
 import com.healix.model.DropdownLookupResponse;
+import com.healix.model.FailedDropdownLookup;
 import com.healix.repository.DropdownLookupRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.ZoneOffset;
-import java.util.List;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class DropdownLookupService {
 
+    /**
+     * Number of entries resolved per existence query and inserted per JDBC batch.
+     */
+    static final int BULK_CHUNK_SIZE = 500;
+
     private final DropdownLookupRepository repository;
+    private final PlatformTransactionManager transactionManager;
 
     public List<DropdownLookupResponse> createBulk(List<DropdownLookupRequest> requests) {
         // Validate duplicates inside incoming list (type+code)
@@ -33,18 +50,155 @@ public class DropdownLookupService {
             throw new DuplicateResourceException("Duplicate entries found in request payload (same type+code)");
         }
 
-        // Check DB for existing entries with same type+code
-        for (DropdownLookupRequest req : requests) {
-            repository.findByTypeAndCode(req.getType(), req.getCode()).ifPresent(existing -> {
-                throw new DuplicateResourceException("DropdownLookup", "type+code", req.getType() + ":" + req.getCode());
+        List<DropdownLookup> entities = requests.stream().map(this::toEntity).collect(Collectors.toList());
+
+        // Check DB for existing entries with same type+code (one set-based query per chunk)
+        for (int start = 0; start < entities.size(); start += BULK_CHUNK_SIZE) {
+            List<DropdownLookup> chunk = entities.subList(start, Math.min(start + BULK_CHUNK_SIZE, entities.size()));
+            repository.findAllByTypeAndCodePairs(chunk).stream().findFirst().ifPresent(existing -> {
+                throw new DuplicateResourceException("DropdownLookup", "type+code", existing.getType() + ":" + existing.getCode());
             });
         }
 
-        List<DropdownLookup> entities = requests.stream().map(this::toEntity).collect(Collectors.toList());
         List<DropdownLookup> saved = repository.saveAll(entities);
         return saved.stream().map(this::toResponse).collect(Collectors.toList());
     }
 
+    /**
+     * Import dropdown entries in bulk (e.g. ICD or medicine lists).
+     * Unlike {@link #createBulk}, duplicates do not abort the request; each rejected entry is reported
+     * with its index. Every chunk is checked with one existence query and inserted with one JDBC batch,
+     * and commits in its own transaction so earlier chunks survive a later failure.
+     * @param requests entries to import
+     * @return BatchDropdownLookupResponse with success and failure details
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchDropdownLookupResponse importBulk(List<DropdownLookupRequest> requests) {
+        log.info("Starting dropdown import for {} entries", requests.size());
+
+        List<DropdownLookupResponse> successfulEntries = new ArrayList<>();
+        List<FailedDropdownLookup> failedEntries = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+
+        for (int start = 0; start < requests.size(); start += BULK_CHUNK_SIZE) {
+            int end = Math.min(start + BULK_CHUNK_SIZE, requests.size());
+            importChunk(requests, start, end, seenKeys, successfulEntries, failedEntries);
+        }
+
+        failedEntries.sort(Comparator.comparingInt(FailedDropdownLookup::getRequestIndex));
+
+        BatchDropdownLookupResponse response = BatchDropdownLookupResponse.builder()
+                .totalRequested(requests.size())
+                .successCount(successfulEntries.size())
+                .failureCount(failedEntries.size())
+                .successfulEntries(successfulEntries)
+                .failedEntries(failedEntries)
+                .build();
+
+        log.info("Dropdown import completed: {} succeeded, {} failed",
+                response.getSuccessCount(), response.getFailureCount());
+
+        return response;
+    }
+
+    private void importChunk(List<DropdownLookupRequest> requests, int start, int end, Set<String> seenKeys,
+                             List<DropdownLookupResponse> successfulEntries, List<FailedDropdownLookup> failedEntries) {
+        // Screen out invalid entries and duplicates within the payload before touching the database
+        Map<String, Integer> indexByKey = new HashMap<>();
+        List<DropdownLookup> candidates = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            DropdownLookupRequest req = requests.get(i);
+            if (req == null || isBlank(req.getType()) || isBlank(req.getCode())) {
+                failedEntries.add(failure(i, req, "type and code are required",
+                        FailedDropdownLookup.ErrorCodeEnum.VALIDATION_ERROR));
+                continue;
+            }
+            String key = key(req.getType(), req.getCode());
+            if (!seenKeys.add(key)) {
+                failedEntries.add(failure(i, req, "Duplicate entry in request payload (same type+code): " +
+                        req.getType() + ":" + req.getCode(), FailedDropdownLookup.ErrorCodeEnum.DUPLICATE_ENTRY));
+                continue;
+            }
+            indexByKey.put(key, i);
+            candidates.add(toEntity(req));
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // One row-value IN query for the whole chunk
+        for (DropdownLookup existing : repository.findAllByTypeAndCodePairs(candidates)) {
+            Integer index = indexByKey.remove(key(existing.getType(), existing.getCode()));
+            if (index != null) {
+                failedEntries.add(failure(index, requests.get(index),
+                        new DuplicateResourceException("DropdownLookup", "type+code",
+                                existing.getType() + ":" + existing.getCode()).getMessage(),
+                        FailedDropdownLookup.ErrorCodeEnum.DUPLICATE_ENTRY));
+            }
+        }
+        candidates.removeIf(candidate -> !indexByKey.containsKey(key(candidate.getType(), candidate.getCode())));
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<DropdownLookup> inserted = candidates;
+        try {
+            tx.executeWithoutResult(status -> repository.batchInsert(candidates));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent writer inserted one of these keys after our check; retry this chunk row by row
+            log.warn("Batch insert failed for chunk starting at {}, retrying row by row: {}", start, e.getMessage());
+            inserted = new ArrayList<>();
+            for (DropdownLookup candidate : candidates) {
+                Integer index = indexByKey.get(key(candidate.getType(), candidate.getCode()));
+                try {
+                    tx.executeWithoutResult(status -> repository.batchInsert(List.of(candidate)));
+                    inserted.add(candidate);
+                } catch (DataIntegrityViolationException rowError) {
+                    failedEntries.add(failure(index, requests.get(index),
+                            new DuplicateResourceException("DropdownLookup", "type+code",
+                                    candidate.getType() + ":" + candidate.getCode()).getMessage(),
+                            FailedDropdownLookup.ErrorCodeEnum.DUPLICATE_ENTRY));
+                } catch (Exception rowError) {
+                    failedEntries.add(failure(index, requests.get(index), "Internal error: " + rowError.getMessage(),
+                            FailedDropdownLookup.ErrorCodeEnum.INTERNAL_ERROR));
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to import chunk starting at {}: {}", start, e.getMessage(), e);
+            for (DropdownLookup candidate : candidates) {
+                Integer index = indexByKey.get(key(candidate.getType(), candidate.getCode()));
+                failedEntries.add(failure(index, requests.get(index), "Internal error: " + e.getMessage(),
+                        FailedDropdownLookup.ErrorCodeEnum.INTERNAL_ERROR));
+            }
+            return;
+        }
+
+        // Read back generated ids with the same set-based query, keeping request order
+        repository.findAllByTypeAndCodePairs(inserted).stream()
+                .sorted(Comparator.comparingInt(d -> indexByKey.get(key(d.getType(), d.getCode()))))
+                .map(this::toResponse)
+                .forEach(successfulEntries::add);
+    }
+
+    private FailedDropdownLookup failure(int index, DropdownLookupRequest request, String message,
+                                         FailedDropdownLookup.ErrorCodeEnum errorCode) {
+        return FailedDropdownLookup.builder()
+                .requestIndex(index)
+                .entryData(request)
+                .errorMessage(message)
+                .errorCode(errorCode)
+                .build();
+    }
+
+    private static String key(String type, String code) {
+        return type + "::" + code;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
     public List<DropdownLookupResponse> getAll() {
         return repository.findAll().stream().map(this::toResponse).collect(Collectors.toList());
     }
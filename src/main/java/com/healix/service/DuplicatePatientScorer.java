@@ -0,0 +1,71 @@
+package com.healix.service;
+
+import com.healix.dto.PatientMatchCandidate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Pairwise similarity of two patient records, out of 100: 20 for the same phonetic last name and 30 for the
+ * same phonetic first name (5 more each if also spelled the same), 25 for the same date of birth, 5 for the
+ * same pin code and 10 for mobile numbers one digit apart (mobile numbers are unique, so never equal).
+ */
+final class DuplicatePatientScorer {
+
+    static final String SAME_LAST_NAME_SOUND = "last name sounds alike";
+    static final String SAME_FIRST_NAME_SOUND = "first name sounds alike";
+    static final String SAME_DATE_OF_BIRTH = "same date of birth";
+    static final String SAME_PIN_CODE = "same pin code";
+    static final String SIMILAR_MOBILE = "mobile differs by one digit";
+
+    record Result(int score, List<String> reasons) {
+    }
+
+    private DuplicatePatientScorer() {
+    }
+
+    static Result score(PatientMatchCandidate a, PatientMatchCandidate b) {
+        int score = 0;
+        List<String> reasons = new ArrayList<>(5);
+
+        if (a.getLastNameKey() != null && a.getLastNameKey().equals(b.getLastNameKey())) {
+            score += 20 + (equalsIgnoreCase(a.getLastName(), b.getLastName()) ? 5 : 0);
+            reasons.add(SAME_LAST_NAME_SOUND);
+        }
+        if (a.getFirstNameKey() != null && a.getFirstNameKey().equals(b.getFirstNameKey())) {
+            score += 30 + (equalsIgnoreCase(a.getFirstName(), b.getFirstName()) ? 5 : 0);
+            reasons.add(SAME_FIRST_NAME_SOUND);
+        }
+        if (a.getDateOfBirth() != null && a.getDateOfBirth().equals(b.getDateOfBirth())) {
+            score += 25;
+            reasons.add(SAME_DATE_OF_BIRTH);
+        }
+        if (a.getPinCode() != null && a.getPinCode().equals(b.getPinCode())) {
+            score += 5;
+            reasons.add(SAME_PIN_CODE);
+        }
+        if (differByOneDigit(a.getMobileNumber(), b.getMobileNumber())) {
+            score += 10;
+            reasons.add(SIMILAR_MOBILE);
+        }
+        return new Result(score, reasons);
+    }
+
+    private static boolean equalsIgnoreCase(String a, String b) {
+        return a != null && a.trim().equalsIgnoreCase(Objects.requireNonNullElse(b, "").trim());
+    }
+
+    private static boolean differByOneDigit(String a, String b) {
+        if (a == null || b == null || a.length() != b.length()) {
+            return false;
+        }
+        int differences = 0;
+        for (int i = 0; i < a.length() && differences <= 1; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                differences++;
+            }
+        }
+        return differences == 1;
+    }
+}
@@ -0,0 +1,130 @@
+package com.healix.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healix.exception.CsvProcessingException;
+import com.healix.exception.ResourceNotFoundException;
+import com.healix.model.CsvValidationError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.regex.Pattern;
+
+/**
+ * Error reports for CSV imports: failed rows are appended to an NDJSON file on local disk while the
+ * import runs, so they never accumulate in memory, and the file is served by the download endpoint.
+ */
+@Service
+@Slf4j
+public class ImportErrorReportService {
+
+    private static final String REPORT_SUFFIX = "-errors.ndjson";
+    private static final Duration REPORT_RETENTION = Duration.ofHours(24);
+    // Report ids are UUIDs; anything else must not be turned into a file path
+    private static final Pattern REPORT_ID = Pattern.compile("[0-9a-fA-F-]{36}");
+
+    private final ObjectMapper objectMapper;
+    private final Path reportDirectory;
+
+    public ImportErrorReportService(ObjectMapper objectMapper,
+                                    @Value("${healix.import.spool-dir:${java.io.tmpdir}/healix-imports}") String reportDirectory) {
+        this.objectMapper = objectMapper;
+        this.reportDirectory = Paths.get(reportDirectory);
+    }
+
+    /**
+     * Download path for a report
+     */
+    public static String reportUrl(String reportId) {
+        return "/api/patients/import-reports/" + reportId;
+    }
+
+    /**
+     * Create an empty report and open it for appending
+     */
+    public ReportWriter open(String reportId) {
+        deleteExpiredReports();
+        try {
+            Files.createDirectories(reportDirectory);
+            return new ReportWriter(Files.newBufferedWriter(reportFile(reportId), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.error("Failed to create error report {}: {}", reportId, e.getMessage(), e);
+            throw new CsvProcessingException("Failed to create error report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The report file for download
+     */
+    public Resource getReport(String reportId) {
+        if (!REPORT_ID.matcher(reportId).matches() || !Files.exists(reportFile(reportId))) {
+            throw new ResourceNotFoundException("Error report", "reportId", reportId);
+        }
+        return new FileSystemResource(reportFile(reportId));
+    }
+
+    private Path reportFile(String reportId) {
+        return reportDirectory.resolve(reportId + REPORT_SUFFIX);
+    }
+
+    private void deleteExpiredReports() {
+        if (!Files.isDirectory(reportDirectory)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(REPORT_RETENTION);
+        try (DirectoryStream<Path> reports = Files.newDirectoryStream(reportDirectory, "*" + REPORT_SUFFIX)) {
+            for (Path report : reports) {
+                if (Files.getLastModifiedTime(report).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(report);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up expired error reports: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Appends failed rows to a report, one JSON object per line. Safe to share between threads.
+     */
+    public class ReportWriter implements Closeable {
+        private final BufferedWriter writer;
+
+        private ReportWriter(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        public synchronized void write(CsvValidationError error) {
+            try {
+                writer.write(objectMapper.writeValueAsString(error));
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write error report", e);
+            }
+        }
+
+        /**
+         * Make rows written so far visible to downloads
+         */
+        public synchronized void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.healix.service;
+
+import com.healix.dto.LatestVitalsRow;
+import com.healix.entity.Vitals;
+import com.healix.repository.VitalsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latest vitals per appointment, so triage screens polling a waiting room mostly hit memory. Misses for a
+ * whole waiting room are loaded with one query. Newly recorded vitals are put once their transaction commits;
+ * an entry is only ever replaced by newer vitals, so a load that overlaps a write cannot bring back older ones.
+ * Least recently used entries go first.
+ *
+ * The cache is local to each node and only sees vitals recorded on this node, so entries expire after
+ * {@code healix.latest-vitals-cache.ttl-ms}: vitals recorded on another node show up within that time.
+ * Appointments without vitals are not cached, so their first vitals show up on the next read.
+ */
+@Service
+@Slf4j
+public class LatestVitalsCache {
+
+    private final VitalsRepository vitalsRepository;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Long, Entry> byAppointment = new LinkedHashMap<>(256, 0.75f, true);
+
+    private record Entry(LatestVitalsRow row, long cachedAt) {
+    }
+
+    public LatestVitalsCache(VitalsRepository vitalsRepository,
+                             @Value("${healix.latest-vitals-cache.max-entries:5000}") int maxEntries,
+                             @Value("${healix.latest-vitals-cache.ttl-ms:30000}") long ttlMillis) {
+        this.vitalsRepository = vitalsRepository;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Latest vitals of an appointment, loaded (and cached if found) on a miss
+     */
+    public Optional<LatestVitalsRow> get(Long appointmentId) {
+        LatestVitalsRow cached = cached(appointmentId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<LatestVitalsRow> loaded = vitalsRepository.findLatestByAppointmentId(appointmentId);
+        loaded.ifPresent(row -> put(appointmentId, row));
+        return loaded;
+    }
+
+    /**
+     * Latest vitals of each appointment that has any, by appointment id; misses are loaded in one query
+     */
+    public Map<Long, LatestVitalsRow> getAll(Collection<Long> appointmentIds) {
+        Map<Long, LatestVitalsRow> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long appointmentId : appointmentIds) {
+            LatestVitalsRow cached = cached(appointmentId);
+            if (cached == null) {
+                missing.add(appointmentId);
+            } else {
+                result.put(appointmentId, cached);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, LatestVitalsRow> loaded = new HashMap<>();
+        for (LatestVitalsRow row : vitalsRepository.findLatestByAppointmentIdIn(missing)) {
+            loaded.merge(row.getAppointmentId(), row, (a, b) -> isNewer(b, a) ? b : a);
+        }
+        loaded.forEach((appointmentId, row) -> {
+            put(appointmentId, row);
+            result.put(appointmentId, row);
+        });
+        return result;
+    }
+
+    /**
+     * Make just-saved vitals the appointment's latest once the current transaction commits
+     */
+    public void recordedAfterCommit(Long appointmentId, Vitals vitals) {
+        LatestVitalsRow row = LatestVitalsRow.of(appointmentId, vitals);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(appointmentId, row);
+                }
+            });
+        } else {
+            put(appointmentId, row);
+        }
+    }
+
+    // The cached row, or null when not cached or expired
+    private synchronized LatestVitalsRow cached(Long appointmentId) {
+        Entry entry = byAppointment.get(appointmentId);
+        if (entry == null) {
+            return null;
+        }
+        if (expired(entry)) {
+            byAppointment.remove(appointmentId);
+            return null;
+        }
+        return entry.row();
+    }
+
+    private synchronized void put(Long appointmentId, LatestVitalsRow row) {
+        Entry cached = byAppointment.get(appointmentId);
+        if (cached != null && !expired(cached) && !isNewer(row, cached.row())) {
+            return;
+        }
+        byAppointment.put(appointmentId, new Entry(row, System.nanoTime()));
+        if (byAppointment.size() > maxEntries) {
+            Long eldest = byAppointment.keySet().iterator().next();
+            byAppointment.remove(eldest);
+        }
+    }
+
+    private boolean expired(Entry entry) {
+        return System.nanoTime() - entry.cachedAt() >= ttlNanos;
+    }
+
+    static boolean isNewer(LatestVitalsRow candidate, LatestVitalsRow current) {
+        int byTime = candidate.getRecordedAt().compareTo(current.getRecordedAt());
+        return byTime > 0 || (byTime == 0 && candidate.getVitalsId() > current.getVitalsId());
+    }
+}
@@ -0,0 +1,22 @@
+package com.healix.service;
+
+import com.healix.model.CriticalVitalsAlertResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local stand-in for an outbound notifier: writes the alert to the log.
+ */
+@Component
+@ConditionalOnProperty(name = "healix.alerts.notifier", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LoggingCriticalVitalsNotifier implements CriticalVitalsNotifier {
+
+    @Override
+    public void notify(CriticalVitalsAlertResponse alert) {
+        log.warn("CRITICAL VITALS ALERT {} for patient {} ({}), appointment {} room {}: {}",
+                alert.getId(), alert.getPatientName(), alert.getPatientId(), alert.getAppointmentNumber(),
+                alert.getConsultationRoom(), String.join("; ", alert.getFindings()));
+    }
+}
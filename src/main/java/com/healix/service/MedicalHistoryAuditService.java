@@ -0,0 +1,282 @@
+package com.healix.service;
+
+import com.healix.entity.PatientMedicalHistory;
+import com.healix.entity.PatientMedicalHistoryAudit;
+import com.healix.entity.PatientMedicalHistorySnapshot;
+import com.healix.exception.ResourceNotFoundException;
+import com.healix.mapper.PatientMapper;
+import com.healix.model.MedicalHistoryResponse;
+import com.healix.repository.PatientMedicalHistoryAuditRepository;
+import com.healix.repository.PatientMedicalHistoryRepository;
+import com.healix.repository.PatientMedicalHistorySnapshotRepository;
+import com.healix.util.CompactStringListConverter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Field-level audit of medical history changes. A save records only the fields whose value changed, under
+ * the next audit version of the history. The rows of all changes made in a transaction are written in one
+ * JDBC batch just before it commits, so a change and its audit commit or roll back together. Every
+ * {@code healix.medical-history.audit.snapshot-interval} versions a full snapshot is written too, and a
+ * point-in-time view is the nearest earlier snapshot plus the changes after it.
+ */
+@Service
+@Slf4j
+public class MedicalHistoryAuditService {
+
+    static final String KNOWN_ALLERGIES = "known_allergies";
+    static final String CURRENT_MEDICATIONS = "current_medications";
+    static final String PAST_SURGERIES = "past_surgeries";
+    static final String CHRONIC_CONDITIONS = "chronic_conditions";
+    static final String FAMILY_MEDICAL_HISTORY = "family_medical_history";
+    static final String DISABILITY = "disability";
+    static final String SOCIAL_HISTORY = "social_history";
+
+    private static final CompactStringListConverter LIST_CONVERTER = new CompactStringListConverter();
+
+    private final PatientMedicalHistoryRepository medicalHistoryRepository;
+    private final PatientMedicalHistoryAuditRepository auditRepository;
+    private final PatientMedicalHistorySnapshotRepository snapshotRepository;
+    private final PatientMapper patientMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate writeTransaction;
+    private final int snapshotInterval;
+
+    record Delta(String field, String oldValue, String newValue) {
+    }
+
+    private record Snapshot(int version, LocalDateTime takenAt, Map<String, String> state) {
+    }
+
+    private record ChangeSet(long patientId, int version, Long changedBy, LocalDateTime changedAt, String reason,
+                             List<Delta> deltas, List<Snapshot> snapshots) {
+    }
+
+    /**
+     * Changes recorded in the current transaction, written just before it commits
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<ChangeSet> changes = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Rows the audit refers to (e.g. a patient registered in this transaction) must be in the database first
+            entityManager.flush();
+            write(changes);
+        }
+    }
+
+    public MedicalHistoryAuditService(PatientMedicalHistoryRepository medicalHistoryRepository,
+                                      PatientMedicalHistoryAuditRepository auditRepository,
+                                      PatientMedicalHistorySnapshotRepository snapshotRepository,
+                                      PatientMapper patientMapper,
+                                      JdbcTemplate jdbcTemplate,
+                                      EntityManager entityManager,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${healix.medical-history.audit.snapshot-interval:20}") int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("healix.medical-history.audit.snapshot-interval must be at least 1");
+        }
+        this.medicalHistoryRepository = medicalHistoryRepository;
+        this.auditRepository = auditRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.patientMapper = patientMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Audited fields of a history, by column name; list fields in their stored form, an empty list as null
+     * (so a history created with no items records no change for it)
+     */
+    public static Map<String, String> state(PatientMedicalHistory history) {
+        Map<String, String> state = emptyState();
+        if (history != null) {
+            state.put(KNOWN_ALLERGIES, listState(history.getKnownAllergies()));
+            state.put(CURRENT_MEDICATIONS, listState(history.getCurrentMedications()));
+            state.put(PAST_SURGERIES, history.getPastSurgeries());
+            state.put(CHRONIC_CONDITIONS, history.getChronicConditions());
+            state.put(FAMILY_MEDICAL_HISTORY, history.getFamilyMedicalHistory());
+            state.put(DISABILITY, history.getDisability());
+            state.put(SOCIAL_HISTORY, history.getSocialHistory());
+        }
+        return state;
+    }
+
+    private static String listState(List<String> values) {
+        return values == null || values.isEmpty() ? null : LIST_CONVERTER.convertToDatabaseColumn(values);
+    }
+
+    /**
+     * Record how {@code history} differs from {@code before} (taken with {@link #state} before the edit).
+     * Bumps the history's audit version when anything changed; call before the history is saved. The audit
+     * rows are written in the surrounding transaction just before it commits, or at once without one.
+     * @return the changed fields
+     */
+    public List<Delta> recordChange(Long patientId, PatientMedicalHistory history, Map<String, String> before,
+                                    Long changedBy, String reason) {
+        Map<String, String> after = state(history);
+        List<Delta> deltas = diff(before, after);
+        if (deltas.isEmpty()) {
+            return deltas;
+        }
+
+        int version = (history.getAuditVersion() != null ? history.getAuditVersion() : 0) + 1;
+        history.setAuditVersion(version);
+        LocalDateTime changedAt = LocalDateTime.now();
+
+        List<Snapshot> snapshots = new ArrayList<>(2);
+        if (version == 1 && before.values().stream().anyMatch(Objects::nonNull)) {
+            // History from before auditing started: keep what it held since it was created
+            LocalDateTime createdAt = history.getCreatedAt();
+            snapshots.add(new Snapshot(0, createdAt != null && createdAt.isBefore(changedAt) ? createdAt : changedAt, before));
+        }
+        if (version % snapshotInterval == 0) {
+            snapshots.add(new Snapshot(version, changedAt, after));
+        }
+
+        ChangeSet change = new ChangeSet(patientId, version, changedBy, changedAt, reason, deltas, snapshots);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingChanges().changes.add(change);
+        } else {
+            writeTransaction.executeWithoutResult(status -> write(List.of(change)));
+        }
+        return deltas;
+    }
+
+    // One per transaction; looked up among its synchronizations, so a suspended outer transaction keeps its own
+    private PendingChanges pendingChanges() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pendingChanges) {
+                return pendingChanges;
+            }
+        }
+        PendingChanges pendingChanges = new PendingChanges();
+        TransactionSynchronizationManager.registerSynchronization(pendingChanges);
+        return pendingChanges;
+    }
+
+    static List<Delta> diff(Map<String, String> before, Map<String, String> after) {
+        List<Delta> deltas = new ArrayList<>();
+        after.forEach((field, newValue) -> {
+            String oldValue = before.get(field);
+            if (!Objects.equals(oldValue, newValue)) {
+                deltas.add(new Delta(field, oldValue, newValue));
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * A patient's medical history as it was at {@code at}: the nearest earlier snapshot with the changes
+     * after it replayed.
+     */
+    @Transactional(readOnly = true)
+    public MedicalHistoryResponse getMedicalHistoryAsOf(Long patientId, LocalDateTime at) {
+        PatientMedicalHistory current = medicalHistoryRepository.findByPatientId(patientId)
+                .orElseThrow(() -> new ResourceNotFoundException("Medical history not found for patient ID: " + patientId));
+
+        Optional<PatientMedicalHistorySnapshot> snapshot = snapshotRepository
+                .findFirstByPatientIdAndTakenAtLessThanEqualOrderByTakenAtDescHistoryVersionDesc(patientId, at);
+        int fromVersion = snapshot.map(PatientMedicalHistorySnapshot::getHistoryVersion).orElse(0);
+        List<PatientMedicalHistoryAudit> changes = auditRepository
+                .findByPatientIdAndHistoryVersionGreaterThanAndChangedAtLessThanEqualOrderByHistoryVersionAscIdAsc(
+                        patientId, fromVersion, at);
+
+        if (snapshot.isEmpty() && changes.isEmpty()) {
+            // Never changed since it was created, or did not exist yet
+            boolean unaudited = current.getAuditVersion() == null || current.getAuditVersion() == 0;
+            if (unaudited && current.getCreatedAt() != null && !at.isBefore(current.getCreatedAt())) {
+                return patientMapper.toMedicalHistoryResponse(current);
+            }
+            throw new ResourceNotFoundException("Medical history not found for patient ID: " + patientId + " at " + at);
+        }
+
+        Map<String, String> state = snapshot.map(MedicalHistoryAuditService::state).orElseGet(MedicalHistoryAuditService::emptyState);
+        changes.forEach(change -> state.put(change.getFieldChanged(), change.getNewValue()));
+
+        PatientMedicalHistory asOf = PatientMedicalHistory.builder()
+                .id(current.getId())
+                .knownAllergies(CompactStringListConverter.decode(state.get(KNOWN_ALLERGIES)))
+                .currentMedications(CompactStringListConverter.decode(state.get(CURRENT_MEDICATIONS)))
+                .pastSurgeries(state.get(PAST_SURGERIES))
+                .chronicConditions(state.get(CHRONIC_CONDITIONS))
+                .familyMedicalHistory(state.get(FAMILY_MEDICAL_HISTORY))
+                .disability(state.get(DISABILITY))
+                .socialHistory(state.get(SOCIAL_HISTORY))
+                .build();
+        return patientMapper.toMedicalHistoryResponse(asOf);
+    }
+
+    private static Map<String, String> state(PatientMedicalHistorySnapshot snapshot) {
+        Map<String, String> state = emptyState();
+        state.put(KNOWN_ALLERGIES, snapshot.getKnownAllergies());
+        state.put(CURRENT_MEDICATIONS, snapshot.getCurrentMedications());
+        state.put(PAST_SURGERIES, snapshot.getPastSurgeries());
+        state.put(CHRONIC_CONDITIONS, snapshot.getChronicConditions());
+        state.put(FAMILY_MEDICAL_HISTORY, snapshot.getFamilyMedicalHistory());
+        state.put(DISABILITY, snapshot.getDisability());
+        state.put(SOCIAL_HISTORY, snapshot.getSocialHistory());
+        return state;
+    }
+
+    private static Map<String, String> emptyState() {
+        Map<String, String> state = new LinkedHashMap<>();
+        for (String field : List.of(KNOWN_ALLERGIES, CURRENT_MEDICATIONS, PAST_SURGERIES, CHRONIC_CONDITIONS,
+                FAMILY_MEDICAL_HISTORY, DISABILITY, SOCIAL_HISTORY)) {
+            state.put(field, null);
+        }
+        return state;
+    }
+
+    private void write(List<ChangeSet> changes) {
+        List<Object[]> auditRows = new ArrayList<>();
+        List<Object[]> snapshotRows = new ArrayList<>();
+        for (ChangeSet change : changes) {
+            Timestamp changedAt = Timestamp.valueOf(change.changedAt());
+            for (Delta delta : change.deltas()) {
+                auditRows.add(new Object[]{change.patientId(), delta.field(), delta.oldValue(), delta.newValue(),
+                        change.version(), change.changedBy(), changedAt, change.reason()});
+            }
+            for (Snapshot snapshot : change.snapshots()) {
+                Map<String, String> state = snapshot.state();
+                snapshotRows.add(new Object[]{change.patientId(), snapshot.version(), Timestamp.valueOf(snapshot.takenAt()),
+                        state.get(KNOWN_ALLERGIES), state.get(CURRENT_MEDICATIONS), state.get(PAST_SURGERIES),
+                        state.get(CHRONIC_CONDITIONS), state.get(FAMILY_MEDICAL_HISTORY), state.get(DISABILITY),
+                        state.get(SOCIAL_HISTORY)});
+            }
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO patient_medical_history_audit (patient_id, field_changed, old_value, " +
+                "new_value, history_version, changed_by, changed_at, reason) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", auditRows);
+        if (!snapshotRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO patient_medical_history_snapshots (patient_id, history_version, " +
+                    "taken_at, known_allergies, current_medications, past_surgeries, chronic_conditions, " +
+                    "family_medical_history, disability, social_history) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    snapshotRows);
+        }
+        log.debug("Wrote {} medical history audit rows and {} snapshots for {} changes",
+                auditRows.size(), snapshotRows.size(), changes.size());
+    }
+}
@@ -0,0 +1,82 @@
+package com.healix.service;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One bitmap of patient ids per medical tag code. A population query ANDs the bitmaps of the requested
+ * codes, so "diabetic and hypertensive" costs a few word-wise ANDs rather than a join. Bitmaps are indexed
+ * by patient id, which must fit in an int; callers check {@link #fits} and fall back to SQL otherwise.
+ * Safe for concurrent readers and writers.
+ */
+final class MedicalTagBitmaps {
+
+    private final Map<Long, BitSet> bitmaps = new HashMap<>();
+
+    static boolean fits(long patientId) {
+        return patientId >= 0 && patientId <= Integer.MAX_VALUE;
+    }
+
+    synchronized void add(long codeId, long patientId) {
+        bitmaps.computeIfAbsent(codeId, id -> new BitSet()).set((int) patientId);
+    }
+
+    synchronized void remove(long codeId, long patientId) {
+        BitSet bitmap = bitmaps.get(codeId);
+        if (bitmap != null) {
+            bitmap.clear((int) patientId);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(codeId);
+            }
+        }
+    }
+
+    /**
+     * Drop a patient from every code (e.g. after a merge deleted the record)
+     */
+    synchronized void removePatient(long patientId) {
+        bitmaps.values().forEach(bitmap -> bitmap.clear((int) patientId));
+        bitmaps.values().removeIf(BitSet::isEmpty);
+    }
+
+    /**
+     * Make {@code codeIds} the patient's only codes
+     */
+    synchronized void replacePatient(long patientId, Collection<Long> codeIds) {
+        removePatient(patientId);
+        codeIds.forEach(codeId -> add(codeId, patientId));
+    }
+
+    /**
+     * Patients tagged with every one of {@code codeIds}; a copy the caller may modify
+     */
+    synchronized BitSet matchingAll(Collection<Long> codeIds) {
+        BitSet result = null;
+        for (Long codeId : codeIds) {
+            BitSet bitmap = bitmaps.get(codeId);
+            if (bitmap == null) {
+                return new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) bitmap.clone();
+            } else {
+                result.and(bitmap);
+            }
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    synchronized int codeCount() {
+        return bitmaps.size();
+    }
+
+    synchronized long tagCount() {
+        long count = 0;
+        for (BitSet bitmap : bitmaps.values()) {
+            count += bitmap.cardinality();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,93 @@
+package com.healix.service;
+
+import com.healix.entity.DropdownLookup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps free-text medical history entries to medical tag codes. A code matches an entry when its code
+ * (underscores read as spaces) or its description appears in the entry as whole words, ignoring case and
+ * punctuation: "Metformin 500mg twice daily" is METFORMIN, "Type 2 diabetes" is DIABETES.
+ */
+final class MedicalTagMatcher {
+
+    static final String ALLERGY = "ALLERGY";
+    static final String MEDICATION = "MEDICATION";
+    static final String CHRONIC_CONDITION = "CHRONIC_CONDITION";
+    static final List<String> CATEGORIES = List.of(ALLERGY, MEDICATION, CHRONIC_CONDITION);
+
+    record Code(long id, String category, String code) {
+    }
+
+    private record Term(String words, Code code) {
+    }
+
+    private final Map<String, List<Term>> termsByCategory = new LinkedHashMap<>();
+
+    private MedicalTagMatcher() {
+    }
+
+    static MedicalTagMatcher of(Collection<DropdownLookup> codes) {
+        MedicalTagMatcher matcher = new MedicalTagMatcher();
+        for (DropdownLookup lookup : codes) {
+            Code code = new Code(lookup.getId(), lookup.getType(), lookup.getCode());
+            List<Term> terms = matcher.termsByCategory.computeIfAbsent(lookup.getType(), type -> new ArrayList<>());
+            String byCode = normalize(lookup.getCode().replace('_', ' '));
+            String byDescription = normalize(lookup.getDescription());
+            if (!byCode.isBlank()) {
+                terms.add(new Term(byCode, code));
+            }
+            if (!byDescription.isBlank() && !byDescription.equals(byCode)) {
+                terms.add(new Term(byDescription, code));
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * Codes found in a medical history, by code id
+     */
+    Map<Long, Code> match(List<String> allergies, List<String> medications, String chronicConditions) {
+        Map<Long, Code> found = new LinkedHashMap<>();
+        matchAll(ALLERGY, allergies, found);
+        matchAll(MEDICATION, medications, found);
+        if (chronicConditions != null) {
+            matchAll(CHRONIC_CONDITION, List.of(chronicConditions), found);
+        }
+        return found;
+    }
+
+    private void matchAll(String category, List<String> entries, Map<Long, Code> found) {
+        List<Term> terms = termsByCategory.get(category);
+        if (terms == null || entries == null) {
+            return;
+        }
+        for (String entry : entries) {
+            String text = normalize(entry);
+            if (text.isBlank()) {
+                continue;
+            }
+            for (Term term : terms) {
+                if (text.contains(term.words())) {
+                    found.putIfAbsent(term.code().id(), term.code());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lower-case words separated (and surrounded) by single spaces, so whole-word matching is a substring test
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String words = value.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return words.isEmpty() ? "" : " " + words + " ";
+    }
+}
@@ -0,0 +1,322 @@
+package com.healix.service;
+
+import com.healix.entity.Patient;
+import com.healix.mapper.PatientMapper;
+import com.healix.model.EmergencyContactResponse;
+import com.healix.model.MedicalHistoryResponse;
+import com.healix.model.PatientCacheStats;
+import com.healix.model.PatientResponse;
+import com.healix.repository.AppointmentRepository;
+import com.healix.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of {@link PatientResponse} keyed by database id, with a second index by patientId.
+ * Bounded by entry count and by an estimate of retained bytes; least recently used entries go first.
+ * Entries are dropped when a patient write on this node commits, and a load that overlaps a write is not
+ * cached, so readers on this node never see a stale record after the writing transaction has committed.
+ * Callers get their own copy of a cached record, with {@code age} as of today.
+ *
+ * The cache is local to each node and is not told about writes on other nodes, so entries expire after
+ * {@code healix.patient-cache.ttl-ms}: a change made on another node shows up within that time.
+ */
+@Service
+@Slf4j
+public class PatientCache {
+
+    private static final int WARM_UP_BATCH_SIZE = 200;
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final PatientMapper patientMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final int warmUpSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Long> idByPatientId = new HashMap<>();
+    private long estimatedBytes;
+    // Bumped by every invalidation; a load only populates the cache if no invalidation happened meanwhile
+    private long invalidationCount;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record Entry(PatientResponse patient, int bytes, long cachedAt) {
+    }
+
+    public PatientCache(PatientRepository patientRepository,
+                        AppointmentRepository appointmentRepository,
+                        PatientMapper patientMapper,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${healix.patient-cache.enabled:true}") boolean enabled,
+                        @Value("${healix.patient-cache.max-entries:20000}") int maxEntries,
+                        @Value("${healix.patient-cache.max-megabytes:64}") int maxMegabytes,
+                        @Value("${healix.patient-cache.warm-up-size:0}") int warmUpSize,
+                        @Value("${healix.patient-cache.ttl-ms:60000}") long ttlMillis) {
+        this.patientRepository = patientRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.patientMapper = patientMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxMegabytes * 1024L * 1024L;
+        this.warmUpSize = warmUpSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Patient by database id, loaded (and cached) on a miss
+     */
+    public Optional<PatientResponse> getById(Long id) {
+        if (enabled) {
+            PatientResponse cached = cached(id);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(copyOf(cached));
+            }
+            misses.incrementAndGet();
+        }
+        return load(() -> patientRepository.findWithDetailsById(id));
+    }
+
+    /**
+     * Patient by patient ID (e.g. SNG2025001), loaded (and cached) on a miss
+     */
+    public Optional<PatientResponse> getByPatientId(String patientId) {
+        if (enabled) {
+            PatientResponse cached;
+            synchronized (this) {
+                Long id = idByPatientId.get(patientId);
+                cached = id != null ? cached(id) : null;
+            }
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(copyOf(cached));
+            }
+            misses.incrementAndGet();
+        }
+        return load(() -> patientRepository.findWithDetailsByPatientId(patientId));
+    }
+
+    /**
+     * Drop a patient now and again once the current transaction completes, so neither the old record
+     * nor an uncommitted one outlives the write
+     */
+    public void invalidate(Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        remove(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(id);
+                }
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        idByPatientId.clear();
+        estimatedBytes = 0;
+        invalidationCount++;
+    }
+
+    public synchronized PatientCacheStats stats() {
+        long hitCount = hits.get();
+        long requests = hitCount + misses.get();
+        return PatientCacheStats.builder()
+                .enabled(enabled)
+                .entries(byId.size())
+                .maxEntries(maxEntries)
+                .estimatedBytes(estimatedBytes)
+                .maxBytes(maxBytes)
+                .hits(hitCount)
+                .misses(misses.get())
+                .hitRatio(requests == 0 ? 0.0 : (double) hitCount / requests)
+                .evictions(evictions.get())
+                .invalidations(invalidations.get())
+                .build();
+    }
+
+    /**
+     * Preload patients with appointments today, so the first check-ins of the day are already hits
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        if (!enabled || warmUpSize <= 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Long> ids = readOnlyTransaction.execute(status ->
+                appointmentRepository.findPatientIdsByAppointmentDate(LocalDate.now(), PageRequest.of(0, warmUpSize)));
+        for (int from = 0; ids != null && from < ids.size(); from += WARM_UP_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + WARM_UP_BATCH_SIZE, ids.size()));
+            long stamp = stamp();
+            List<PatientResponse> patients = readOnlyTransaction.execute(status ->
+                    patientRepository.findWithDetailsByIdIn(batch).stream().map(patientMapper::toResponse).toList());
+            if (patients != null) {
+                patients.forEach(patient -> put(patient, stamp));
+            }
+        }
+        log.info("Patient cache warmed up with {} patients in {} ms", stats().getEntries(),
+                System.currentTimeMillis() - start);
+    }
+
+    private Optional<PatientResponse> load(Supplier<Optional<Patient>> finder) {
+        long stamp = stamp();
+        Optional<PatientResponse> patient = readOnlyTransaction.execute(status -> finder.get().map(patientMapper::toResponse));
+        // Inside a read-write transaction the record may include this transaction's own uncommitted changes
+        if (patient != null && patient.isPresent() && enabled
+                && (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+            put(patient.get(), stamp);
+            // The loaded instance is now the cached one
+            return Optional.of(copyOf(patient.get()));
+        }
+        return patient != null ? patient : Optional.empty();
+    }
+
+    /**
+     * A deep copy, so callers cannot change the cached record, with age recomputed for today
+     */
+    PatientResponse copyOf(PatientResponse patient) {
+        PatientResponse copy = patientMapper.copy(patient);
+        if (copy.getDateOfBirth() != null) {
+            copy.setAge(Period.between(copy.getDateOfBirth(), LocalDate.now()).getYears());
+        }
+        return copy;
+    }
+
+    // The cached record, or null when not cached or expired
+    private synchronized PatientResponse cached(Long id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.cachedAt() >= ttlNanos) {
+            byId.remove(id);
+            idByPatientId.remove(entry.patient().getPatientId());
+            estimatedBytes -= entry.bytes();
+            return null;
+        }
+        return entry.patient();
+    }
+
+    private synchronized long stamp() {
+        return invalidationCount;
+    }
+
+    private synchronized void put(PatientResponse patient, long stamp) {
+        if (stamp != invalidationCount || patient.getId() == null) {
+            return;
+        }
+        Entry previous = byId.remove(patient.getId());
+        if (previous != null) {
+            estimatedBytes -= previous.bytes();
+            idByPatientId.remove(previous.patient().getPatientId());
+        }
+        Entry entry = new Entry(patient, estimateBytes(patient), System.nanoTime());
+        byId.put(patient.getId(), entry);
+        if (patient.getPatientId() != null) {
+            idByPatientId.put(patient.getPatientId(), patient.getId());
+        }
+        estimatedBytes += entry.bytes();
+
+        Iterator<Entry> eldest = byId.values().iterator();
+        while ((byId.size() > maxEntries || estimatedBytes > maxBytes) && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            idByPatientId.remove(evicted.patient().getPatientId());
+            estimatedBytes -= evicted.bytes();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        invalidationCount++;
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            idByPatientId.remove(entry.patient().getPatientId());
+            estimatedBytes -= entry.bytes();
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Rough retained size: fixed object overhead plus two bytes per character of the variable-length fields
+     */
+    static int estimateBytes(PatientResponse patient) {
+        int bytes = 600 + chars(patient.getPatientId(), patient.getFirstName(), patient.getLastName(),
+                patient.getAadharNumber(), patient.getPhotoUrl(), patient.getMobileNumber(), patient.getEmailId(),
+                patient.getAddressLine1(), patient.getCity(), patient.getDistrict(), patient.getState(),
+                patient.getPinCode()) * 2;
+        if (patient.getEmergencyContacts() != null) {
+            for (EmergencyContactResponse contact : patient.getEmergencyContacts()) {
+                bytes += 120 + chars(contact.getContactPersonName(), contact.getContactNumber()) * 2;
+            }
+        }
+        if (patient.getInsurance() != null) {
+            bytes += 400 + chars(patient.getInsurance().getSchemeName(), patient.getInsurance().getPolicyCardNumber(),
+                    patient.getInsurance().getPolicyHolderName(), patient.getInsurance().getInsuranceCardFrontUrl(),
+                    patient.getInsurance().getInsuranceCardBackUrl(), patient.getInsurance().getPmjayCardUrl()) * 2;
+        }
+        MedicalHistoryResponse history = patient.getMedicalHistory();
+        if (history != null) {
+            bytes += 300 + chars(history.getPastSurgeries(), history.getChronicConditions(),
+                    history.getFamilyMedicalHistory(), history.getDisability()) * 2;
+            bytes += listBytes(history.getKnownAllergies()) + listBytes(history.getCurrentMedications());
+        }
+        return bytes;
+    }
+
+    private static int listBytes(List<String> values) {
+        int bytes = 0;
+        if (values != null) {
+            for (String value : values) {
+                bytes += 56 + chars(value) * 2;
+            }
+        }
+        return bytes;
+    }
+
+    private static int chars(String... values) {
+        int chars = 0;
+        for (String value : values) {
+            if (value != null) {
+                chars += value.length();
+            }
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,273 @@
+package com.healix.service;
+
+import com.healix.dto.PatientMatchCandidate;
+import com.healix.entity.PatientDuplicateCandidate;
+import com.healix.model.DuplicateScanStatus;
+import com.healix.repository.PatientDuplicateCandidateRepository;
+import com.healix.repository.PatientRepository;
+import com.healix.validation.ParallelValidationStage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Finds likely duplicate patients and queues them for review. Comparing every pair is quadratic, so patients
+ * are only compared within blocks that share a blocking key: phonetic last name + date of birth, then phonetic
+ * full name + pin code. Each pass is one ordered scan over an index, blocks are scored in parallel and the
+ * per-block cost is bounded by {@link #MAX_BLOCK_SIZE}, so a run grows with the number of patients rather
+ * than its square. Pairs that were queued before (whatever their review outcome) are not queued again.
+ */
+@Service
+@Slf4j
+public class PatientDuplicateDetectionService {
+
+    /**
+     * Blocks larger than this (e.g. a common surname with a default date of birth) are skipped and counted.
+     */
+    static final int MAX_BLOCK_SIZE = 200;
+
+    /**
+     * Blocks handed to the parallel stage at a time.
+     */
+    static final int BLOCKS_PER_BATCH = 2000;
+
+    private static final int SAVE_BATCH_SIZE = 500;
+
+    private final PatientRepository patientRepository;
+    private final PatientDuplicateCandidateRepository candidateRepository;
+    private final ParallelValidationStage validationStage;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int threshold;
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "patient-duplicate-scan");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record Pair(long a, long b) {
+        static Pair of(long x, long y) {
+            return x < y ? new Pair(x, y) : new Pair(y, x);
+        }
+    }
+
+    private record Found(Pair pair, DuplicatePatientScorer.Result result) {
+    }
+
+    private DuplicateScanStatus.StatusEnum state = DuplicateScanStatus.StatusEnum.IDLE;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+    private long patientsScanned;
+    private long blocksScored;
+    private long oversizedBlocks;
+    private long pairsScored;
+    private long candidatesQueued;
+    private String errorMessage;
+
+    public PatientDuplicateDetectionService(PatientRepository patientRepository,
+                                            PatientDuplicateCandidateRepository candidateRepository,
+                                            ParallelValidationStage validationStage,
+                                            PlatformTransactionManager transactionManager,
+                                            @Value("${healix.duplicates.threshold:75}") int threshold) {
+        this.patientRepository = patientRepository;
+        this.candidateRepository = candidateRepository;
+        this.validationStage = validationStage;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.threshold = threshold;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scanExecutor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${healix.duplicates.cron:0 30 2 * * *}")
+    void nightlyScan() {
+        startScan();
+    }
+
+    /**
+     * Start a scan in the background unless one is already running
+     */
+    public synchronized DuplicateScanStatus startScan() {
+        if (state != DuplicateScanStatus.StatusEnum.RUNNING) {
+            state = DuplicateScanStatus.StatusEnum.RUNNING;
+            startedAt = OffsetDateTime.now();
+            finishedAt = null;
+            patientsScanned = 0;
+            blocksScored = 0;
+            oversizedBlocks = 0;
+            pairsScored = 0;
+            candidatesQueued = 0;
+            errorMessage = null;
+            scanExecutor.execute(this::scan);
+        }
+        return status();
+    }
+
+    public synchronized DuplicateScanStatus status() {
+        return DuplicateScanStatus.builder()
+                .status(state)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .patientsScanned(patientsScanned)
+                .blocksScored(blocksScored)
+                .oversizedBlocks(oversizedBlocks)
+                .pairsScored(pairsScored)
+                .candidatesQueued(candidatesQueued)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    private void scan() {
+        log.info("Starting duplicate patient scan (threshold {})", threshold);
+        try {
+            Set<Pair> known = new HashSet<>();
+            readOnlyTransaction.executeWithoutResult(status -> candidateRepository.findAllPairs()
+                    .forEach(row -> known.add(Pair.of((Long) row[0], (Long) row[1]))));
+
+            runPass(patientRepository::streamForDuplicateScanByDateOfBirth,
+                    candidate -> List.of(candidate.getLastNameKey(), candidate.getDateOfBirth()), known);
+            runPass(patientRepository::streamForDuplicateScanByPinCode,
+                    candidate -> List.of(candidate.getLastNameKey(), candidate.getFirstNameKey(), candidate.getPinCode()),
+                    known);
+
+            synchronized (this) {
+                state = DuplicateScanStatus.StatusEnum.COMPLETED;
+                finishedAt = OffsetDateTime.now();
+            }
+            log.info("Duplicate patient scan completed: {}", status());
+        } catch (Exception e) {
+            log.error("Duplicate patient scan failed: {}", e.getMessage(), e);
+            synchronized (this) {
+                state = DuplicateScanStatus.StatusEnum.FAILED;
+                finishedAt = OffsetDateTime.now();
+                errorMessage = e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * Read the patients in blocking-key order, cut the stream into blocks and score them batch by batch
+     */
+    private void runPass(Supplier<Stream<PatientMatchCandidate>> source,
+                         Function<PatientMatchCandidate, Object> blockKey, Set<Pair> known) {
+        List<Found> found = new ArrayList<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PatientMatchCandidate> patients = source.get()) {
+                List<List<PatientMatchCandidate>> blocks = new ArrayList<>(BLOCKS_PER_BATCH);
+                List<PatientMatchCandidate> block = new ArrayList<>();
+                Object currentKey = null;
+                long scanned = 0;
+
+                Iterator<PatientMatchCandidate> iterator = patients.iterator();
+                while (iterator.hasNext()) {
+                    PatientMatchCandidate patient = iterator.next();
+                    scanned++;
+                    Object key = blockKey.apply(patient);
+                    if (!key.equals(currentKey)) {
+                        addBlock(block, blocks);
+                        block = new ArrayList<>();
+                        currentKey = key;
+                        if (blocks.size() >= BLOCKS_PER_BATCH) {
+                            scoreBatch(blocks, known, found);
+                            blocks.clear();
+                        }
+                    }
+                    block.add(patient);
+                }
+                addBlock(block, blocks);
+                scoreBatch(blocks, known, found);
+
+                synchronized (this) {
+                    patientsScanned += scanned;
+                }
+            }
+        });
+
+        for (int start = 0; start < found.size(); start += SAVE_BATCH_SIZE) {
+            List<PatientDuplicateCandidate> batch = found.subList(start, Math.min(start + SAVE_BATCH_SIZE, found.size()))
+                    .stream()
+                    .map(match -> PatientDuplicateCandidate.builder()
+                            .patientAId(match.pair().a())
+                            .patientBId(match.pair().b())
+                            .score(match.result().score())
+                            .reasons(String.join(",", match.result().reasons()))
+                            .build())
+                    .toList();
+            writeTransaction.executeWithoutResult(status -> candidateRepository.saveAll(batch));
+            synchronized (this) {
+                candidatesQueued += batch.size();
+            }
+        }
+    }
+
+    private void addBlock(List<PatientMatchCandidate> block, List<List<PatientMatchCandidate>> blocks) {
+        if (block.size() < 2) {
+            return;
+        }
+        if (block.size() > MAX_BLOCK_SIZE) {
+            synchronized (this) {
+                oversizedBlocks++;
+            }
+            log.debug("Skipping oversized duplicate block of {} patients ({} {})", block.size(),
+                    block.get(0).getLastNameKey(), block.get(0).getDateOfBirth());
+            return;
+        }
+        blocks.add(block);
+    }
+
+    private void scoreBatch(List<List<PatientMatchCandidate>> blocks, Set<Pair> known, List<Found> found) {
+        if (blocks.isEmpty()) {
+            return;
+        }
+        long pairs = 0;
+        for (List<PatientMatchCandidate> block : blocks) {
+            pairs += (long) block.size() * (block.size() - 1) / 2;
+        }
+
+        List<List<Found>> results = validationStage.validate(blocks, this::scoreBlock);
+        // Pairs found by both passes, or already reviewed, are only queued once
+        results.forEach(matches -> matches.stream()
+                .filter(match -> known.add(match.pair()))
+                .forEach(found::add));
+
+        synchronized (this) {
+            blocksScored += blocks.size();
+            pairsScored += pairs;
+        }
+    }
+
+    private List<Found> scoreBlock(List<PatientMatchCandidate> block) {
+        List<Found> matches = new ArrayList<>();
+        for (int i = 0; i < block.size(); i++) {
+            for (int j = i + 1; j < block.size(); j++) {
+                PatientMatchCandidate a = block.get(i);
+                PatientMatchCandidate b = block.get(j);
+                DuplicatePatientScorer.Result result = DuplicatePatientScorer.score(a, b);
+                if (result.score() >= threshold) {
+                    matches.add(new Found(Pair.of(a.getId(), b.getId()), result));
+                }
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,266 @@
+package com.healix.service;
+
+import com.healix.entity.Patient;
+import com.healix.entity.PatientDuplicateCandidate;
+import com.healix.entity.PatientMedicalHistory;
+import com.healix.exception.ResourceNotFoundException;
+import com.healix.mapper.PatientMapper;
+import com.healix.model.DuplicateCandidateResponse;
+import com.healix.model.DuplicateCandidateStatus;
+import com.healix.model.PatientMergeResponse;
+import com.healix.repository.PatientDuplicateCandidateRepository;
+import com.healix.repository.PatientMedicalHistoryRepository;
+import com.healix.repository.PatientRepository;
+import com.healix.util.CurrentUser;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Review queue for duplicate patients found by {@link PatientDuplicateDetectionService}: list, dismiss, merge.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class PatientDuplicateReviewService {
+
+    private final PatientDuplicateCandidateRepository candidateRepository;
+    private final PatientRepository patientRepository;
+    private final PatientMedicalHistoryRepository medicalHistoryRepository;
+    private final PatientMapper patientMapper;
+    private final PatientSearchIndex patientSearchIndex;
+    private final PatientCache patientCache;
+    private final PatientMedicalTagService patientMedicalTagService;
+    private final MedicalHistoryAuditService medicalHistoryAuditService;
+    private final CurrentUser currentUser;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Candidates with the given status, highest score first
+     */
+    @Transactional(readOnly = true)
+    public Page<DuplicateCandidateResponse> getCandidates(DuplicateCandidateStatus status, Pageable pageable) {
+        Page<PatientDuplicateCandidate> candidates = candidateRepository.findByStatusOrderByScoreDescIdAsc(
+                status != null ? status : DuplicateCandidateStatus.PENDING, pageable);
+
+        Set<Long> patientIds = new HashSet<>();
+        candidates.forEach(candidate -> {
+            patientIds.add(candidate.getPatientAId());
+            patientIds.add(candidate.getPatientBId());
+        });
+        Map<Long, Patient> patients = patientRepository.findWithDetailsByIdIn(patientIds).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+        return candidates.map(candidate -> toResponse(candidate, patients));
+    }
+
+    /**
+     * Mark a pair as two different patients
+     */
+    public DuplicateCandidateResponse dismiss(Long candidateId) {
+        PatientDuplicateCandidate candidate = findPending(candidateId);
+        candidate.setStatus(DuplicateCandidateStatus.DISMISSED);
+        candidate.setReviewedBy(currentUserIdOrNull());
+        candidate.setReviewedAt(LocalDateTime.now());
+        candidateRepository.save(candidate);
+
+        log.info("Duplicate candidate {} dismissed", candidateId);
+        Map<Long, Patient> patients = patientRepository.findWithDetailsByIdIn(
+                        List.of(candidate.getPatientAId(), candidate.getPatientBId())).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return toResponse(candidate, patients);
+    }
+
+    /**
+     * Fold the other patient of the pair into {@code survivorId} and delete it. Appointments (and with them
+     * vitals, examinations, services and admission logs), prescriptions, investigation orders, emergency
+     * contacts and history audit rows are re-pointed; insurance moves over if the survivor has none;
+     * medical histories are combined. All of it commits or rolls back together.
+     */
+    public PatientMergeResponse merge(Long candidateId, Long survivorId) {
+        PatientDuplicateCandidate candidate = findPending(candidateId);
+        Long mergedId;
+        if (candidate.getPatientAId().equals(survivorId)) {
+            mergedId = candidate.getPatientBId();
+        } else if (candidate.getPatientBId().equals(survivorId)) {
+            mergedId = candidate.getPatientAId();
+        } else {
+            throw new IllegalArgumentException("Patient " + survivorId + " is not part of duplicate candidate " + candidateId);
+        }
+
+        Patient survivor = patientRepository.findById(survivorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient", "id", survivorId));
+        Patient merged = patientRepository.findById(mergedId)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient", "id", mergedId));
+        String mergedPatientId = merged.getPatientId();
+        log.info("Merging patient {} into {} (candidate {})", mergedPatientId, survivor.getPatientId(), candidateId);
+
+        boolean medicalHistoryMerged = mergeMedicalHistory(survivorId, mergedId, mergedPatientId);
+        // Push the combined history before the set-based updates below, which bypass the persistence context
+        entityManager.flush();
+
+        int appointmentsMoved = repoint("appointments", survivorId, mergedId);
+        repoint("prescriptions", survivorId, mergedId);
+        repoint("investigation_orders", survivorId, mergedId);
+        repoint("vital_readings", survivorId, mergedId);
+        repoint("critical_vitals_alerts", survivorId, mergedId);
+        // Audit rows of a history that was combined into the survivor's keep their text but leave its version line
+        jdbcTemplate.update("UPDATE patient_medical_history_audit SET patient_id = ?, history_version = NULL, " +
+                "reason = COALESCE(reason, ?) WHERE patient_id = ?", survivorId, "Merged from patient " + mergedPatientId, mergedId);
+        int emergencyContactsMoved = repoint("patient_emergency_contacts", survivorId, mergedId);
+
+        boolean insuranceMoved = false;
+        Integer survivorInsurance = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM patient_insurance WHERE patient_id = ?", Integer.class, survivorId);
+        if (survivorInsurance != null && survivorInsurance == 0) {
+            insuranceMoved = repoint("patient_insurance", survivorId, mergedId) > 0;
+        }
+
+        // Remaining insurance / history rows of the merged patient go with it (ON DELETE CASCADE)
+        jdbcTemplate.update("DELETE FROM patients WHERE id = ?", mergedId);
+        candidateRepository.deleteByStatusAndPatient(DuplicateCandidateStatus.PENDING, mergedId, candidateId);
+        entityManager.clear();
+
+        PatientDuplicateCandidate reviewed = candidateRepository.findById(candidateId).orElseThrow();
+        reviewed.setStatus(DuplicateCandidateStatus.MERGED);
+        reviewed.setSurvivorPatientId(survivorId);
+        reviewed.setReviewedBy(currentUserIdOrNull());
+        reviewed.setReviewedAt(LocalDateTime.now());
+        candidateRepository.save(reviewed);
+
+        if (medicalHistoryMerged) {
+            medicalHistoryRepository.findByPatientId(survivorId)
+                    .ifPresent(history -> patientMedicalTagService.retag(survivorId, history));
+        }
+        patientMedicalTagService.removePatientAfterCommit(mergedId);
+        patientSearchIndex.removeAfterCommit(mergedId);
+        patientCache.invalidate(mergedId);
+        patientCache.invalidate(survivorId);
+
+        Patient result = patientRepository.findWithDetailsById(survivorId).orElseThrow();
+        log.info("Merged patient {} into {}: {} appointments, {} emergency contacts moved",
+                mergedPatientId, result.getPatientId(), appointmentsMoved, emergencyContactsMoved);
+        return PatientMergeResponse.builder()
+                .survivor(patientMapper.toResponse(result))
+                .mergedId(mergedId)
+                .mergedPatientId(mergedPatientId)
+                .appointmentsMoved(appointmentsMoved)
+                .emergencyContactsMoved(emergencyContactsMoved)
+                .insuranceMoved(insuranceMoved)
+                .medicalHistoryMerged(medicalHistoryMerged)
+                .build();
+    }
+
+    /**
+     * Move the merged patient's history over, or combine it into the survivor's: list entries are unioned and
+     * differing free-text fields are kept one after the other. A moved history takes its audit trail with it;
+     * a combined one is audited as a change to the survivor's
+     */
+    private boolean mergeMedicalHistory(Long survivorId, Long mergedId, String mergedPatientId) {
+        PatientMedicalHistory from = medicalHistoryRepository.findByPatientId(mergedId).orElse(null);
+        if (from == null) {
+            return false;
+        }
+        PatientMedicalHistory into = medicalHistoryRepository.findByPatientId(survivorId).orElse(null);
+        if (into == null) {
+            repoint("patient_medical_history_audit", survivorId, mergedId);
+            repoint("patient_medical_history_snapshots", survivorId, mergedId);
+            return repoint("patient_medical_history", survivorId, mergedId) > 0;
+        }
+
+        Map<String, String> before = MedicalHistoryAuditService.state(into);
+
+        into.setKnownAllergies(union(into.getKnownAllergies(), from.getKnownAllergies()));
+        into.setCurrentMedications(union(into.getCurrentMedications(), from.getCurrentMedications()));
+        into.setPastSurgeries(combine(into.getPastSurgeries(), from.getPastSurgeries()));
+        into.setChronicConditions(combine(into.getChronicConditions(), from.getChronicConditions()));
+        into.setFamilyMedicalHistory(combine(into.getFamilyMedicalHistory(), from.getFamilyMedicalHistory()));
+        into.setDisability(combine(into.getDisability(), from.getDisability()));
+        into.setSocialHistory(combine(into.getSocialHistory(), from.getSocialHistory()));
+        medicalHistoryAuditService.recordChange(survivorId, into, before, currentUserIdOrNull(),
+                "Merged from patient " + mergedPatientId);
+        medicalHistoryRepository.save(into);
+        return true;
+    }
+
+    static List<String> union(List<String> first, List<String> second) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (List<String> list : Arrays.asList(first, second)) {
+            if (list != null) {
+                list.stream()
+                        .filter(value -> value != null && !value.isBlank())
+                        .forEach(value -> values.putIfAbsent(value.trim().toLowerCase(Locale.ROOT), value.trim()));
+            }
+        }
+        return new ArrayList<>(values.values());
+    }
+
+    static String combine(String first, String second) {
+        if (second == null || second.isBlank() || (first != null && first.trim().equalsIgnoreCase(second.trim()))) {
+            return first;
+        }
+        if (first == null || first.isBlank()) {
+            return second;
+        }
+        return first + "\n" + second;
+    }
+
+    private int repoint(String table, Long survivorId, Long mergedId) {
+        return jdbcTemplate.update("UPDATE " + table + " SET patient_id = ? WHERE patient_id = ?", survivorId, mergedId);
+    }
+
+    private PatientDuplicateCandidate findPending(Long candidateId) {
+        PatientDuplicateCandidate candidate = candidateRepository.findForReview(candidateId)
+                .orElseThrow(() -> new ResourceNotFoundException("Duplicate candidate", "id", candidateId));
+        if (candidate.getStatus() != DuplicateCandidateStatus.PENDING) {
+            throw new IllegalArgumentException("Duplicate candidate " + candidateId + " is already " + candidate.getStatus());
+        }
+        return candidate;
+    }
+
+    private Long currentUserIdOrNull() {
+        try {
+            return currentUser.getCurrentUser().getId();
+        } catch (Exception e) {
+            log.warn("Could not resolve reviewing staff: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private DuplicateCandidateResponse toResponse(PatientDuplicateCandidate candidate, Map<Long, Patient> patients) {
+        Patient a = patients.get(candidate.getPatientAId());
+        Patient b = patients.get(candidate.getPatientBId());
+        return DuplicateCandidateResponse.builder()
+                .id(candidate.getId())
+                .patientA(a != null ? patientMapper.toResponse(a) : null)
+                .patientB(b != null ? patientMapper.toResponse(b) : null)
+                .score(candidate.getScore())
+                .reasons(candidate.getReasons() == null || candidate.getReasons().isBlank()
+                        ? List.of() : List.of(candidate.getReasons().split(",")))
+                .status(candidate.getStatus())
+                .detectedAt(candidate.getDetectedAt() != null ? candidate.getDetectedAt().atOffset(ZoneOffset.UTC) : null)
+                .reviewedAt(candidate.getReviewedAt() != null ? candidate.getReviewedAt().atOffset(ZoneOffset.UTC) : null)
+                .survivorPatientId(candidate.getSurvivorPatientId())
+                .build();
+    }
+}
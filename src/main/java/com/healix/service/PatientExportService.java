@@ -0,0 +1,236 @@
+package com.healix.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healix.dto.PatientExportRow;
+import com.healix.entity.PatientEmergencyContact;
+import com.healix.entity.PatientInsurance;
+import com.healix.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams all patients as CSV or NDJSON. Patient rows are read from a forward-only cursor in id order and
+ * written in batches; insurance and emergency contacts for a batch are loaded with one query each, and
+ * the persistence context is cleared after every batch so memory stays constant.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientExportService {
+
+    /**
+     * Patients written per batch (child rows loaded, output flushed, persistence context cleared).
+     */
+    static final int EXPORT_BATCH_SIZE = 500;
+
+    public enum Format { CSV, NDJSON }
+
+    private static final List<String> PATIENT_COLUMNS = List.of(
+            "id", "patientId", "firstName", "lastName", "dateOfBirth", "gender", "bloodGroup",
+            "aadharNumber", "mobileNumber", "emailId", "preferredContactMethod", "addressLine1",
+            "city", "district", "state", "pinCode", "status", "createdAt");
+
+    private static final List<String> INSURANCE_COLUMNS = List.of(
+            "hasInsurance", "insuranceType", "schemeCode", "policyCardNumber", "insuranceProvider",
+            "policyHolderName", "relationshipToHolder", "policyExpiryDate");
+
+    private final PatientRepository patientRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write every patient to {@code out}
+     * @param includeInsurance add insurance details
+     * @param includeContacts add emergency contacts (CSV: one "name:relationship:number" list per row)
+     * @return number of patients written
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, boolean includeInsurance, boolean includeContacts, OutputStream out)
+            throws IOException {
+        log.info("Starting patient export: format={}, insurance={}, contacts={}", format, includeInsurance, includeContacts);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        BatchWriter batchWriter = format == Format.CSV
+                ? csvWriter(writer, includeInsurance, includeContacts)
+                : ndjsonWriter(writer);
+
+        long count = 0;
+        List<PatientExportRow> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+        try (Stream<PatientExportRow> patients = patientRepository.streamAllForExport()) {
+            var iterator = patients.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == EXPORT_BATCH_SIZE) {
+                    count += writeBatch(batch, includeInsurance, includeContacts, batchWriter);
+                    writer.flush();
+                }
+            }
+            count += writeBatch(batch, includeInsurance, includeContacts, batchWriter);
+        }
+        writer.flush();
+
+        log.info("Patient export completed: {} patients", count);
+        return count;
+    }
+
+    private int writeBatch(List<PatientExportRow> batch, boolean includeInsurance, boolean includeContacts,
+                           BatchWriter batchWriter) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(PatientExportRow::getId).toList();
+
+        Map<Long, PatientInsurance> insuranceByPatient = includeInsurance
+                ? patientRepository.findInsuranceByPatientIds(ids).stream()
+                        .collect(Collectors.toMap(i -> i.getPatient().getId(), i -> i))
+                : Map.of();
+        Map<Long, List<PatientEmergencyContact>> contactsByPatient = includeContacts
+                ? patientRepository.findEmergencyContactsByPatientIds(ids).stream()
+                        .collect(Collectors.groupingBy(c -> c.getPatient().getId()))
+                : Map.of();
+
+        for (PatientExportRow patient : batch) {
+            batchWriter.write(patient, insuranceByPatient.get(patient.getId()),
+                    includeContacts ? contactsByPatient.getOrDefault(patient.getId(), List.of()) : null);
+        }
+
+        int written = batch.size();
+        batch.clear();
+        // Detach the insurance / contact entities loaded for this batch; the cursor keeps going
+        entityManager.clear();
+        return written;
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(PatientExportRow patient, PatientInsurance insurance, List<PatientEmergencyContact> contacts) throws IOException;
+    }
+
+    private BatchWriter csvWriter(Writer writer, boolean includeInsurance, boolean includeContacts) throws IOException {
+        List<String> header = new ArrayList<>(PATIENT_COLUMNS);
+        if (includeInsurance) {
+            header.addAll(INSURANCE_COLUMNS);
+        }
+        if (includeContacts) {
+            header.add("emergencyContacts");
+        }
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                .setHeader(header.toArray(String[]::new))
+                .build());
+
+        return (patient, insurance, contacts) -> {
+            List<Object> row = new ArrayList<>(header.size());
+            row.add(patient.getId());
+            row.add(patient.getPatientId());
+            row.add(patient.getFirstName());
+            row.add(patient.getLastName());
+            row.add(patient.getDateOfBirth());
+            row.add(patient.getGender());
+            row.add(patient.getBloodGroup());
+            row.add(patient.getAadharNumber());
+            row.add(patient.getMobileNumber());
+            row.add(patient.getEmailId());
+            row.add(patient.getPreferredContactMethod());
+            row.add(patient.getAddressLine1());
+            row.add(patient.getCity());
+            row.add(patient.getDistrict());
+            row.add(patient.getState());
+            row.add(patient.getPinCode());
+            row.add(patient.getStatus());
+            row.add(patient.getCreatedAt());
+            if (includeInsurance) {
+                if (insurance != null) {
+                    row.add(insurance.getHasInsurance());
+                    row.add(insurance.getInsuranceType());
+                    row.add(insurance.getScheme() != null ? insurance.getScheme().getCode() : null);
+                    row.add(insurance.getPolicyCardNumber());
+                    row.add(insurance.getInsuranceProvider());
+                    row.add(insurance.getPolicyHolderName());
+                    row.add(insurance.getRelationshipToHolder());
+                    row.add(insurance.getPolicyExpiryDate());
+                } else {
+                    INSURANCE_COLUMNS.forEach(column -> row.add(null));
+                }
+            }
+            if (includeContacts) {
+                row.add(contacts.stream()
+                        .map(c -> c.getContactPersonName() + ":" + c.getRelationship() + ":" + c.getContactNumber())
+                        .collect(Collectors.joining("|")));
+            }
+            printer.printRecord(row);
+        };
+    }
+
+    private BatchWriter ndjsonWriter(Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        // One object per line; the underlying writer is flushed by the export loop
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        return (patient, insurance, contacts) -> {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", patient.getId());
+            json.put("patientId", patient.getPatientId());
+            json.put("firstName", patient.getFirstName());
+            json.put("lastName", patient.getLastName());
+            json.put("dateOfBirth", patient.getDateOfBirth());
+            json.put("gender", patient.getGender());
+            json.put("bloodGroup", patient.getBloodGroup());
+            json.put("aadharNumber", patient.getAadharNumber());
+            json.put("mobileNumber", patient.getMobileNumber());
+            json.put("emailId", patient.getEmailId());
+            json.put("preferredContactMethod", patient.getPreferredContactMethod());
+            json.put("addressLine1", patient.getAddressLine1());
+            json.put("city", patient.getCity());
+            json.put("district", patient.getDistrict());
+            json.put("state", patient.getState());
+            json.put("pinCode", patient.getPinCode());
+            json.put("status", patient.getStatus());
+            json.put("createdAt", patient.getCreatedAt());
+            if (insurance != null) {
+                Map<String, Object> insuranceJson = new LinkedHashMap<>();
+                insuranceJson.put("hasInsurance", insurance.getHasInsurance());
+                insuranceJson.put("insuranceType", insurance.getInsuranceType());
+                insuranceJson.put("schemeCode", insurance.getScheme() != null ? insurance.getScheme().getCode() : null);
+                insuranceJson.put("policyCardNumber", insurance.getPolicyCardNumber());
+                insuranceJson.put("insuranceProvider", insurance.getInsuranceProvider());
+                insuranceJson.put("policyHolderName", insurance.getPolicyHolderName());
+                insuranceJson.put("relationshipToHolder", insurance.getRelationshipToHolder());
+                insuranceJson.put("policyExpiryDate", insurance.getPolicyExpiryDate());
+                json.put("insurance", insuranceJson);
+            }
+            if (contacts != null) {
+                json.put("emergencyContacts", contacts.stream().map(c -> {
+                    Map<String, Object> contactJson = new LinkedHashMap<>();
+                    contactJson.put("contactPersonName", c.getContactPersonName());
+                    contactJson.put("relationship", c.getRelationship());
+                    contactJson.put("contactNumber", c.getContactNumber());
+                    contactJson.put("isPrimary", c.getIsPrimary());
+                    return contactJson;
+                }).toList());
+            }
+            generator.writeObject(json);
+            generator.flush();
+            writer.write('\n');
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.healix.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reserves application patient IDs (e.g. SNG2025001) before the patient row is inserted.
+ * Numbers are handed out from blocks reserved in patient_id_counters, so IDs are unique across
+ * nodes but may have gaps when a node restarts or a registration rolls back.
+ */
+@Service
+@Slf4j
+public class PatientIdAllocator {
+
+    private static final String RESERVE_SQL =
+            "UPDATE patient_id_counters SET next_value = next_value + ? WHERE clinic_code = ? AND id_year = ?";
+
+    private static final String SELECT_SQL =
+            "SELECT next_value FROM patient_id_counters WHERE clinic_code = ? AND id_year = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO patient_id_counters (clinic_code, id_year, next_value) VALUES (?, ?, ?)";
+
+    // Highest number already used for a prefix, so counters created for an existing year continue after it
+    private static final String MAX_EXISTING_SQL =
+            "SELECT MAX(CAST(SUBSTRING(patient_id, ?) AS BIGINT)) FROM patients WHERE patient_id LIKE ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reserveTransaction;
+    private final int blockSize;
+
+    private final Map<String, Block> blocks = new HashMap<>();
+
+    public PatientIdAllocator(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${healix.patient-id.block-size:20}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("healix.patient-id.block-size must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = blockSize;
+        // Reservations commit on their own so the counter row lock is held only for the UPDATE
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next patient ID for the given clinic in the current year
+     */
+    public String nextPatientId(String clinicCode) {
+        int year = LocalDate.now().getYear();
+        return format(clinicCode, year, nextNumber(clinicCode, year));
+    }
+
+    static String format(String clinicCode, int year, long number) {
+        return "%s%d%03d".formatted(clinicCode, year, number);
+    }
+
+    private synchronized long nextNumber(String clinicCode, int year) {
+        String key = clinicCode + year;
+        Block block = blocks.get(key);
+        if (block == null || block.exhausted()) {
+            block = reserveBlock(clinicCode, year);
+            blocks.put(key, block);
+        }
+        return block.next++;
+    }
+
+    private Block reserveBlock(String clinicCode, int year) {
+        Long end = reserve(clinicCode, year);
+        if (end == null) {
+            createCounter(clinicCode, year);
+            end = reserve(clinicCode, year);
+        }
+        log.debug("Reserved patient numbers {}..{} for {}{}", end - blockSize, end - 1, clinicCode, year);
+        return new Block(end - blockSize, end);
+    }
+
+    /**
+     * End (exclusive) of a newly reserved block, or null when the counter does not exist yet
+     */
+    private Long reserve(String clinicCode, int year) {
+        return reserveTransaction.execute(status -> jdbcTemplate.update(RESERVE_SQL, blockSize, clinicCode, year) == 0
+                ? null
+                : jdbcTemplate.queryForObject(SELECT_SQL, Long.class, clinicCode, year));
+    }
+
+    /**
+     * Create the counter in a transaction of its own, so losing the race to another node fails only that
+     * transaction (PostgreSQL aborts a transaction on any failed statement) and not the reservation
+     */
+    private void createCounter(String clinicCode, int year) {
+        String prefix = clinicCode + year;
+        try {
+            long start = reserveTransaction.execute(status -> {
+                Long maxExisting = jdbcTemplate.queryForObject(
+                        MAX_EXISTING_SQL, Long.class, prefix.length() + 1, prefix + "%");
+                long first = maxExisting != null ? maxExisting + 1 : 1;
+                jdbcTemplate.update(INSERT_SQL, clinicCode, year, first);
+                return first;
+            });
+            log.info("Created patient ID counter for {} starting at {}", prefix, start);
+        } catch (DuplicateKeyException e) {
+            // Another node created the row first; its value is just as good
+            log.debug("Patient ID counter for {} already created", prefix);
+        }
+    }
+
+    private static final class Block {
+        private long next;
+        private final long end;
+
+        private Block(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+
+        private boolean exhausted() {
+            return next >= end;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.healix.service;
+
+import com.healix.exception.CsvProcessingException;
+import com.healix.exception.ResourceNotFoundException;
+import com.healix.model.CsvValidationError;
+import com.healix.model.PatientImportJobResponse;
+import com.healix.model.PatientRegistrationRequest;
+import com.healix.model.PatientResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background CSV patient imports. Uploads are spooled to disk and streamed through
+ * parse -> validate -> dedupe -> batched insert, one chunk of rows at a time, so heap use does not
+ * grow with the file size. Failed rows go straight to the job's error report.
+ * Job state is kept in memory on the node that accepted the upload.
+ */
+@Service
+@Slf4j
+public class PatientImportJobService {
+
+    /**
+     * Number of parsed rows handed to the registration engine at a time.
+     */
+    static final int IMPORT_CHUNK_SIZE = 1000;
+
+    private static final Duration JOB_RETENTION = Duration.ofHours(24);
+
+    private final CsvPatientService csvPatientService;
+    private final PatientService patientService;
+    private final ImportErrorReportService errorReportService;
+    private final Path spoolDirectory;
+    private final ExecutorService executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public PatientImportJobService(CsvPatientService csvPatientService,
+                                   PatientService patientService,
+                                   ImportErrorReportService errorReportService,
+                                   @Value("${healix.import.spool-dir:${java.io.tmpdir}/healix-imports}") String spoolDirectory,
+                                   @Value("${healix.import.workers:2}") int workers) {
+        this.csvPatientService = csvPatientService;
+        this.patientService = patientService;
+        this.errorReportService = errorReportService;
+        this.spoolDirectory = Paths.get(spoolDirectory);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "patient-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Spool the upload to disk and queue it for import
+     * @return the new job (status QUEUED)
+     */
+    public PatientImportJobResponse startImport(MultipartFile file) {
+        csvPatientService.validateFileType(file);
+        evictFinishedJobs();
+
+        String jobId = UUID.randomUUID().toString();
+        Path spooled = spoolDirectory.resolve(jobId + ".csv");
+        try {
+            Files.createDirectories(spoolDirectory);
+            file.transferTo(spooled);
+        } catch (IOException e) {
+            log.error("Failed to spool import file {}: {}", file.getOriginalFilename(), e.getMessage(), e);
+            throw new CsvProcessingException("Failed to store uploaded file: " + e.getMessage());
+        }
+
+        ImportJob job = new ImportJob(jobId, file.getOriginalFilename());
+        jobs.put(jobId, job);
+        // Registration records the uploading staff member as creator, so carry the security context along
+        executor.execute(new DelegatingSecurityContextRunnable(() -> runImport(job, spooled)));
+
+        log.info("Queued patient import job {} for file {} ({} bytes)", jobId, file.getOriginalFilename(), file.getSize());
+        return job.toResponse();
+    }
+
+    /**
+     * Current progress of an import job
+     */
+    public PatientImportJobResponse getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", "jobId", jobId);
+        }
+        return job.toResponse();
+    }
+
+    private void runImport(ImportJob job, Path file) {
+        job.start();
+        log.info("Starting patient import job {}", job.jobId);
+
+        try (ImportErrorReportService.ReportWriter report = errorReportService.open(job.jobId);
+             Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             CSVParser parser = csvPatientService.openParser(reader)) {
+
+            job.report = report;
+
+            List<CSVRecord> records = new ArrayList<>(IMPORT_CHUNK_SIZE);
+            int firstRowNumber = 1;
+
+            for (CSVRecord record : parser) {
+                records.add(record);
+                if (records.size() == IMPORT_CHUNK_SIZE) {
+                    processChunk(job, records, firstRowNumber);
+                    report.flush();
+                    firstRowNumber += records.size();
+                    records.clear();
+                }
+            }
+            processChunk(job, records, firstRowNumber);
+
+            job.complete();
+            log.info("Patient import job {} completed: {} succeeded, {} failed",
+                    job.jobId, job.successCount.get(), job.failureCount.get());
+        } catch (Exception e) {
+            log.error("Patient import job {} failed: {}", job.jobId, e.getMessage(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled import file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void processChunk(ImportJob job, List<CSVRecord> records, int firstRowNumber) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // Parse and validate in parallel; only valid rows reach the registration engine
+        List<CsvPatientService.ScreenedRow> screenedRows = csvPatientService.screenRecords(records);
+        List<PatientRegistrationRequest> requests = new ArrayList<>(records.size());
+        List<Integer> recordIndexes = new ArrayList<>(records.size());
+        for (int i = 0; i < screenedRows.size(); i++) {
+            CsvPatientService.ScreenedRow row = screenedRows.get(i);
+            if (row.isValid()) {
+                requests.add(row.request());
+                recordIndexes.add(i);
+            } else {
+                row.error().setRowNumber(firstRowNumber + i);
+                job.failed(row.error());
+            }
+        }
+
+        // Earlier chunks are already committed, so duplicates across chunks are caught by the database screen
+        patientService.registerInChunks(requests, new PatientService.RegistrationCallback() {
+            @Override
+            public void onSuccess(int index, PatientResponse response) {
+                job.successCount.incrementAndGet();
+            }
+
+            @Override
+            public void onFailure(int index, Exception e) {
+                int recordIndex = recordIndexes.get(index);
+                job.failed(CsvValidationError.builder()
+                        .rowNumber(firstRowNumber + recordIndex)
+                        .rowData(csvPatientService.recordToMap(records.get(recordIndex)))
+                        .errors(List.of(e.getMessage()))
+                        .errorType(csvPatientService.determineCsvErrorType(e))
+                        .build());
+            }
+        });
+    }
+
+    private void evictFinishedJobs() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private final class ImportJob {
+        private final String jobId;
+        private final String fileName;
+        private final AtomicLong successCount = new AtomicLong();
+        private final AtomicLong failureCount = new AtomicLong();
+        private volatile ImportErrorReportService.ReportWriter report;
+        private volatile PatientImportJobResponse.StatusEnum status = PatientImportJobResponse.StatusEnum.QUEUED;
+        private volatile OffsetDateTime startedAt;
+        private volatile OffsetDateTime finishedAt;
+        private volatile String errorMessage;
+
+        private ImportJob(String jobId, String fileName) {
+            this.jobId = jobId;
+            this.fileName = fileName;
+        }
+
+        private void start() {
+            startedAt = OffsetDateTime.now();
+            status = PatientImportJobResponse.StatusEnum.RUNNING;
+        }
+
+        private void complete() {
+            finishedAt = OffsetDateTime.now();
+            status = PatientImportJobResponse.StatusEnum.COMPLETED;
+        }
+
+        private void fail(String message) {
+            errorMessage = message;
+            finishedAt = OffsetDateTime.now();
+            status = PatientImportJobResponse.StatusEnum.FAILED;
+        }
+
+        private void failed(CsvValidationError error) {
+            failureCount.incrementAndGet();
+            report.write(error);
+        }
+
+        private PatientImportJobResponse toResponse() {
+            long processed = successCount.get() + failureCount.get();
+            OffsetDateTime end = finishedAt != null ? finishedAt : OffsetDateTime.now();
+            double rate = 0;
+            if (startedAt != null) {
+                long millis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+                rate = processed * 1000.0 / millis;
+            }
+            return PatientImportJobResponse.builder()
+                    .jobId(jobId)
+                    .fileName(fileName)
+                    .status(status)
+                    .rowsProcessed(processed)
+                    .successCount(successCount.get())
+                    .failureCount(failureCount.get())
+                    .rowsPerSecond(rate)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .errorMessage(errorMessage)
+                    .errorReportUrl(ImportErrorReportService.reportUrl(jobId))
+                    .build();
+        }
+    }
+}
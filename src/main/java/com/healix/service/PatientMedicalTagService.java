@@ -0,0 +1,439 @@
+package com.healix.service;
+
+import com.healix.dto.CodeSetVersion;
+import com.healix.dto.PatientSummaryRow;
+import com.healix.entity.DropdownLookup;
+import com.healix.entity.PatientMedicalHistory;
+import com.healix.entity.PatientMedicalTag;
+import com.healix.mapper.PatientMapper;
+import com.healix.model.MedicalTagIndexStatus;
+import com.healix.model.PatientSummary;
+import com.healix.repository.DropdownLookupRepository;
+import com.healix.repository.PatientMedicalTagRepository;
+import com.healix.repository.PatientRepository;
+import com.healix.util.CompactStringListConverter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Coded allergies, medications and chronic conditions for population queries ("diabetic patients in Sangli",
+ * "patients allergic to penicillin"). Tags are derived from the free-text medical history with
+ * {@link MedicalTagMatcher} against the ALLERGY / MEDICATION / CHRONIC_CONDITION dropdown codes, stored in
+ * patient_medical_tags and mirrored in per-code bitmaps ({@link MedicalTagBitmaps}) kept current from
+ * commits. Histories not yet tagged (no tagged_at) are tagged in the background at startup; a rebuild
+ * re-tags everyone (e.g. after codes were added). The compiled matcher is kept until the codes change.
+ *
+ * The bitmaps are local to each node, so every {@code healix.medical-tags.sync-ms} the tags of histories
+ * tagged since the last sync are re-read, picking up other nodes' changes, and the bitmaps are rebuilt if
+ * their tag count no longer matches the table (deleted patients leave no history to sync from).
+ */
+@Service
+@Slf4j
+public class PatientMedicalTagService {
+
+    static final int BACKFILL_BATCH_SIZE = 500;
+    // Re-read histories tagged a little before the last sync too, for clock skew and late commits
+    static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final PatientMedicalTagRepository tagRepository;
+    private final DropdownLookupRepository dropdownLookupRepository;
+    private final PatientRepository patientRepository;
+    private final PatientMapper patientMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "medical-tag-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile MedicalTagBitmaps bitmaps = new MedicalTagBitmaps();
+    private volatile boolean ready;
+    private volatile OffsetDateTime lastRebuiltAt;
+    private volatile long lastRebuildMillis;
+    private volatile int lastBackfilledPatients;
+    // Histories tagged from this time on are re-read by the next sync; null until the first rebuild
+    private volatile LocalDateTime syncedFrom;
+    // Tag changes committed while a rebuild is reading the table; replayed onto the new bitmaps before the swap
+    private List<Consumer<MedicalTagBitmaps>> pendingDuringRebuild;
+    private volatile CompiledCodes compiledCodes;
+
+    private record CompiledCodes(CodeSetVersion version, MedicalTagMatcher matcher) {
+    }
+
+    private record HistoryRow(long id, long patientId, String knownAllergies, String currentMedications,
+                              String chronicConditions) {
+    }
+
+    public PatientMedicalTagService(PatientMedicalTagRepository tagRepository,
+                                    DropdownLookupRepository dropdownLookupRepository,
+                                    PatientRepository patientRepository,
+                                    PatientMapper patientMapper,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.tagRepository = tagRepository;
+        this.dropdownLookupRepository = dropdownLookupRepository;
+        this.patientRepository = patientRepository;
+        this.patientMapper = patientMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        startRebuild(false);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Bring a patient's tags in line with their medical history, and mark the (managed) history as tagged.
+     * Runs in the caller's transaction; the bitmaps follow once it commits.
+     */
+    public void retag(Long patientId, PatientMedicalHistory history) {
+        Map<Long, MedicalTagMatcher.Code> wanted = matcher().match(
+                history.getKnownAllergies(), history.getCurrentMedications(), history.getChronicConditions());
+        history.setTaggedAt(LocalDateTime.now());
+        Set<Long> existing = tagRepository.findByPatientId(patientId).stream()
+                .map(PatientMedicalTag::getCodeId)
+                .collect(Collectors.toSet());
+
+        List<Long> removed = existing.stream().filter(codeId -> !wanted.containsKey(codeId)).toList();
+        List<PatientMedicalTag> added = wanted.values().stream()
+                .filter(code -> !existing.contains(code.id()))
+                .map(code -> PatientMedicalTag.builder()
+                        .patientId(patientId)
+                        .codeId(code.id())
+                        .category(code.category())
+                        .build())
+                .toList();
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        if (!removed.isEmpty()) {
+            tagRepository.deleteByPatientIdAndCodeIdIn(patientId, removed);
+        }
+        tagRepository.saveAll(added);
+        log.debug("Medical tags for patient {}: +{} -{}", patientId, added.size(), removed.size());
+
+        List<Long> addedCodes = added.stream().map(PatientMedicalTag::getCodeId).toList();
+        if (!MedicalTagBitmaps.fits(patientId)) {
+            ready = false;
+        } else {
+            afterCommit(target -> {
+                addedCodes.forEach(codeId -> target.add(codeId, patientId));
+                removed.forEach(codeId -> target.remove(codeId, patientId));
+            });
+        }
+    }
+
+    /**
+     * Forget a patient whose record was deleted (its tag rows go with it)
+     */
+    public void removePatientAfterCommit(Long patientId) {
+        if (MedicalTagBitmaps.fits(patientId)) {
+            afterCommit(target -> target.removePatient(patientId));
+        }
+    }
+
+    /**
+     * Patients tagged with every given code, newest first. Codes are dropdown codes of the matching type.
+     * Answered from the bitmaps when possible; a district filter, or bitmaps still building, go to SQL.
+     */
+    @Transactional(readOnly = true)
+    public Page<PatientSummary> findPatients(List<String> allergies, List<String> conditions, List<String> medications,
+                                             String district, Pageable pageable) {
+        Set<Long> codeIds = new LinkedHashSet<>();
+        resolveCodes(MedicalTagMatcher.ALLERGY, allergies, codeIds);
+        resolveCodes(MedicalTagMatcher.CHRONIC_CONDITION, conditions, codeIds);
+        resolveCodes(MedicalTagMatcher.MEDICATION, medications, codeIds);
+        if (codeIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one allergy, condition or medication code is required");
+        }
+
+        Page<PatientSummaryRow> rows;
+        if (district == null || district.isBlank()) {
+            rows = ready
+                    ? pageFromBitmaps(bitmaps.matchingAll(codeIds), pageable)
+                    : patientRepository.findSummariesByMedicalTags(codeIds, codeIds.size(), pageable);
+        } else {
+            rows = patientRepository.findSummariesByMedicalTagsAndDistrict(
+                    codeIds, codeIds.size(), district.trim(), pageable);
+        }
+        return rows.map(patientMapper::toSummary);
+    }
+
+    /**
+     * Tag histories in the background (all of them, or only patients without tags) and then rebuild the
+     * bitmaps; queries keep using the current bitmaps, or SQL, meanwhile
+     */
+    public MedicalTagIndexStatus startRebuild(boolean retagAll) {
+        synchronized (this) {
+            if (pendingDuringRebuild == null) {
+                pendingDuringRebuild = new ArrayList<>();
+                rebuildExecutor.execute(() -> rebuild(retagAll));
+            }
+        }
+        return status();
+    }
+
+    public synchronized MedicalTagIndexStatus status() {
+        return MedicalTagIndexStatus.builder()
+                .ready(ready)
+                .rebuilding(pendingDuringRebuild != null)
+                .codeCount(bitmaps.codeCount())
+                .tagCount(bitmaps.tagCount())
+                .lastBackfilledPatients(lastBackfilledPatients)
+                .lastRebuiltAt(lastRebuiltAt)
+                .lastRebuildMillis(lastRebuildMillis)
+                .build();
+    }
+
+    /**
+     * The matcher for the current codes; recompiled only when a code was added, removed or edited
+     */
+    private MedicalTagMatcher matcher() {
+        CodeSetVersion version = dropdownLookupRepository.findVersionByTypeIn(MedicalTagMatcher.CATEGORIES);
+        CompiledCodes current = compiledCodes;
+        if (current == null || !current.version().equals(version)) {
+            // Read the version before the codes, so a change made while loading is picked up next time
+            current = new CompiledCodes(version,
+                    MedicalTagMatcher.of(dropdownLookupRepository.findByTypeInAndActiveTrue(MedicalTagMatcher.CATEGORIES)));
+            compiledCodes = current;
+        }
+        return current.matcher();
+    }
+
+    private void resolveCodes(String category, List<String> codes, Set<Long> codeIds) {
+        if (codes == null) {
+            return;
+        }
+        for (String code : codes) {
+            DropdownLookup lookup = dropdownLookupRepository.findByTypeAndCode(category, code.trim().toUpperCase(Locale.ROOT))
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown " + category + " code: " + code));
+            codeIds.add(lookup.getId());
+        }
+    }
+
+    private Page<PatientSummaryRow> pageFromBitmaps(BitSet matches, Pageable pageable) {
+        List<Long> ids = new ArrayList<>(pageable.getPageSize());
+        long skip = pageable.getOffset();
+        for (int id = matches.previousSetBit(matches.length() - 1);
+             id >= 0 && ids.size() < pageable.getPageSize();
+             id = matches.previousSetBit(id - 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                ids.add((long) id);
+            }
+        }
+        Map<Long, PatientSummaryRow> rows = ids.isEmpty() ? Map.of()
+                : patientRepository.findSummariesByIdIn(ids).stream()
+                        .collect(Collectors.toMap(PatientSummaryRow::getId, Function.identity()));
+        List<PatientSummaryRow> content = ids.stream().filter(rows::containsKey).map(rows::get).toList();
+        return new PageImpl<>(content, pageable, matches.cardinality());
+    }
+
+    /**
+     * Re-read the tags of histories tagged since the last sync, including those tagged by other nodes
+     */
+    @Scheduled(fixedDelayString = "${healix.medical-tags.sync-ms:60000}",
+            initialDelayString = "${healix.medical-tags.sync-ms:60000}")
+    void syncChanges() {
+        LocalDateTime from = syncedFrom;
+        synchronized (this) {
+            if (!ready || from == null || pendingDuringRebuild != null) {
+                return;
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, List<Long>> codesByPatient = new LinkedHashMap<>();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT h.patient_id, t.code_id FROM patient_medical_history h " +
+                        "LEFT JOIN patient_medical_tags t ON t.patient_id = h.patient_id WHERE h.tagged_at >= ?",
+                from.minus(SYNC_OVERLAP));
+        for (Map<String, Object> row : rows) {
+            List<Long> codes = codesByPatient.computeIfAbsent(
+                    ((Number) row.get("patient_id")).longValue(), patientId -> new ArrayList<>());
+            if (row.get("code_id") != null) {
+                codes.add(((Number) row.get("code_id")).longValue());
+            }
+        }
+        codesByPatient.forEach((patientId, codes) -> {
+            if (MedicalTagBitmaps.fits(patientId)) {
+                apply(target -> target.replacePatient(patientId, codes));
+            }
+        });
+        syncedFrom = now;
+        log.debug("Medical tag bitmaps synced {} retagged patients", codesByPatient.size());
+
+        if (tagRepository.count() != bitmaps.tagCount()) {
+            log.info("Medical tag bitmaps are out of step with patient_medical_tags, rebuilding");
+            startRebuild(false);
+        }
+    }
+
+    private void afterCommit(Consumer<MedicalTagBitmaps> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Consumer<MedicalTagBitmaps> change) {
+        change.accept(bitmaps);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(change);
+        }
+    }
+
+    private void rebuild(boolean retagAll) {
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            int tagged = backfill(retagAll);
+            lastBackfilledPatients = tagged;
+            if (tagged > 0) {
+                log.info("Tagged medical histories of {} patients", tagged);
+            }
+
+            MedicalTagBitmaps rebuilt = new MedicalTagBitmaps();
+            boolean complete = Boolean.TRUE.equals(readOnlyTransaction.execute(status -> {
+                try (Stream<Object[]> pairs = tagRepository.streamAllCodePatientPairs()) {
+                    for (Object[] pair : (Iterable<Object[]>) pairs::iterator) {
+                        long patientId = (Long) pair[1];
+                        if (!MedicalTagBitmaps.fits(patientId)) {
+                            return false;
+                        }
+                        rebuilt.add((Long) pair[0], patientId);
+                    }
+                }
+                return true;
+            }));
+
+            synchronized (this) {
+                pendingDuringRebuild.forEach(change -> change.accept(rebuilt));
+                bitmaps = rebuilt;
+                ready = complete;
+                syncedFrom = startedAt;
+                lastRebuiltAt = OffsetDateTime.now();
+                lastRebuildMillis = System.currentTimeMillis() - start;
+            }
+            if (complete) {
+                log.info("Medical tag bitmaps rebuilt: {} codes, {} tags in {} ms",
+                        rebuilt.codeCount(), rebuilt.tagCount(), lastRebuildMillis);
+            } else {
+                log.warn("Patient ids exceed the bitmap range; medical tag queries will use SQL");
+            }
+        } catch (Exception e) {
+            log.error("Medical tag rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Re-derive tags batch by batch, each batch in its own transaction with its history rows locked
+     * so a concurrent medical history update waits instead of interleaving. Processed histories are stamped
+     * with tagged_at, so those matching no code are not read again on the next startup.
+     * @return number of patients processed
+     */
+    private int backfill(boolean retagAll) {
+        MedicalTagMatcher matcher = readOnlyTransaction.execute(status -> matcher());
+        String untaggedOnly = retagAll ? "" : "AND h.tagged_at IS NULL ";
+        long afterId = 0;
+        int processed = 0;
+        while (true) {
+            long from = afterId;
+            List<HistoryRow> batch = batchTransaction.execute(status -> {
+                List<HistoryRow> rows = jdbcTemplate.query(
+                        "SELECT h.id, h.patient_id, h.known_allergies, h.current_medications, h.chronic_conditions " +
+                                "FROM patient_medical_history h WHERE h.id > ? " + untaggedOnly +
+                                "ORDER BY h.id LIMIT ? FOR UPDATE",
+                        (rs, rowNum) -> new HistoryRow(rs.getLong("id"), rs.getLong("patient_id"),
+                                rs.getString("known_allergies"), rs.getString("current_medications"),
+                                rs.getString("chronic_conditions")),
+                        from, BACKFILL_BATCH_SIZE);
+                writeTags(matcher, rows);
+                return rows;
+            });
+            if (batch == null || batch.isEmpty()) {
+                return processed;
+            }
+            processed += batch.size();
+            afterId = batch.get(batch.size() - 1).id();
+        }
+    }
+
+    private void writeTags(MedicalTagMatcher matcher, List<HistoryRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Object[]> patients = new ArrayList<>(rows.size());
+        List<Object[]> tags = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (HistoryRow row : rows) {
+            if (!seen.add(row.patientId())) {
+                continue;
+            }
+            patients.add(new Object[]{row.patientId()});
+            matcher.match(CompactStringListConverter.decode(row.knownAllergies()),
+                            CompactStringListConverter.decode(row.currentMedications()), row.chronicConditions())
+                    .values()
+                    .forEach(code -> tags.add(new Object[]{row.patientId(), code.id(), code.category()}));
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM patient_medical_tags WHERE patient_id = ?", patients);
+        if (!tags.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO patient_medical_tags (patient_id, code_id, category) VALUES (?, ?, ?)", tags);
+        }
+        jdbcTemplate.batchUpdate("UPDATE patient_medical_history SET tagged_at = CURRENT_TIMESTAMP WHERE id = ?",
+                rows.stream().map(row -> new Object[]{row.id()}).toList());
+    }
+}
@@ -0,0 +1,183 @@
+package com.healix.service;
+
+import com.healix.dto.PatientMatchCandidate;
+import com.healix.dto.PatientSearchRow;
+import com.healix.entity.Patient;
+import com.healix.mapper.PatientMapper;
+import com.healix.model.PatientPhoneticMatch;
+import com.healix.repository.PatientRepository;
+import com.healix.util.PhoneticKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fuzzy patient lookup by how a name sounds. Each name token is turned into a {@link PhoneticKey} and probed
+ * against the indexed first/last name key columns; the candidates are ranked by phonetic name agreement,
+ * date of birth and mobile number.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientPhoneticSearchService {
+
+    /**
+     * Rows read per key probe; common surnames are capped to the most recently registered patients.
+     */
+    static final int CANDIDATE_LIMIT = 500;
+
+    private static final int MAX_NAME_TOKENS = 3;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final PatientRepository patientRepository;
+    private final PatientMapper patientMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    record Score(int total, boolean nameMatch, boolean dateOfBirthMatch, boolean mobileMatch) {
+    }
+
+    /**
+     * Best phonetic matches for {@code name}, optionally boosted by date of birth and mobile number
+     */
+    @Transactional(readOnly = true)
+    public List<PatientPhoneticMatch> search(String name, LocalDate dateOfBirth, String mobileNumber, int limit) {
+        List<String> tokens = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (String token : name == null ? new String[0] : name.trim().split("\\s+")) {
+            String key = PhoneticKey.encode(token);
+            if (key != null && !keys.contains(key) && keys.size() < MAX_NAME_TOKENS) {
+                tokens.add(token);
+                keys.add(key);
+            }
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("Name must contain at least one letter");
+        }
+        log.debug("Phonetic patient search: {} -> {}", name, keys);
+
+        Pageable probe = PageRequest.of(0, CANDIDATE_LIMIT);
+        Map<Long, PatientMatchCandidate> candidates = new LinkedHashMap<>();
+        // Full-name probes first: they are the most selective and must not be crowded out by a common surname
+        for (int first = 0; first < keys.size(); first++) {
+            for (int last = 0; last < keys.size(); last++) {
+                if (first != last) {
+                    patientRepository.findCandidatesByNameKeys(keys.get(first), keys.get(last), probe)
+                            .forEach(candidate -> candidates.putIfAbsent(candidate.getId(), candidate));
+                }
+            }
+        }
+        for (String key : keys) {
+            patientRepository.findCandidatesByLastNameKey(key, probe)
+                    .forEach(candidate -> candidates.putIfAbsent(candidate.getId(), candidate));
+            patientRepository.findCandidatesByFirstNameKey(key, probe)
+                    .forEach(candidate -> candidates.putIfAbsent(candidate.getId(), candidate));
+        }
+
+        Map<Long, Score> scores = new LinkedHashMap<>();
+        candidates.values().forEach(candidate ->
+                scores.put(candidate.getId(), score(candidate, tokens, keys, dateOfBirth, mobileNumber)));
+        List<Long> ranked = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Score>comparingByValue(Comparator.comparingInt(Score::total)).reversed()
+                        .thenComparing(Map.Entry.<Long, Score>comparingByKey().reversed()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        Map<Long, Patient> patients = patientRepository.findWithDetailsByIdIn(ranked).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return ranked.stream()
+                .filter(patients::containsKey)
+                .map(id -> {
+                    Score score = scores.get(id);
+                    return PatientPhoneticMatch.builder()
+                            .patient(patientMapper.toResponse(patients.get(id)))
+                            .score(score.total())
+                            .nameMatch(score.nameMatch())
+                            .dateOfBirthMatch(score.dateOfBirthMatch())
+                            .mobileMatch(score.mobileMatch())
+                            .build();
+                })
+                .toList();
+    }
+
+    /**
+     * Out of 100: up to 60 for the name (25 per name part that sounds the same, 5 more if also spelled the same),
+     * 25 for the same date of birth (5 for the same year), 15 for the same mobile (5 for the same last four digits)
+     */
+    static Score score(PatientMatchCandidate candidate, List<String> tokens, List<String> keys,
+                       LocalDate dateOfBirth, String mobileNumber) {
+        int total = 0;
+        boolean firstMatched = false;
+        boolean lastMatched = false;
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            if (!lastMatched && key.equals(candidate.getLastNameKey())) {
+                lastMatched = true;
+                total += 25 + (tokens.get(i).equalsIgnoreCase(candidate.getLastName()) ? 5 : 0);
+            } else if (!firstMatched && key.equals(candidate.getFirstNameKey())) {
+                firstMatched = true;
+                total += 25 + (tokens.get(i).equalsIgnoreCase(candidate.getFirstName()) ? 5 : 0);
+            }
+        }
+
+        boolean dateOfBirthMatch = dateOfBirth != null && dateOfBirth.equals(candidate.getDateOfBirth());
+        if (dateOfBirthMatch) {
+            total += 25;
+        } else if (dateOfBirth != null && candidate.getDateOfBirth() != null
+                && dateOfBirth.getYear() == candidate.getDateOfBirth().getYear()) {
+            total += 5;
+        }
+
+        boolean mobileMatch = mobileNumber != null && mobileNumber.equals(candidate.getMobileNumber());
+        if (mobileMatch) {
+            total += 15;
+        } else if (mobileNumber != null && mobileNumber.length() >= 4 && candidate.getMobileNumber() != null
+                && candidate.getMobileNumber().endsWith(mobileNumber.substring(mobileNumber.length() - 4))) {
+            total += 5;
+        }
+
+        return new Score(total, firstMatched || lastMatched, dateOfBirthMatch, mobileMatch);
+    }
+
+    /**
+     * Compute phonetic keys for patients stored before the key columns existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void backfillPhoneticKeys() {
+        long afterId = 0;
+        int updated = 0;
+        List<PatientSearchRow> batch;
+        do {
+            batch = patientRepository.findWithoutPhoneticKeys(afterId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Object[]> rows = batch.stream()
+                    .map(row -> new Object[]{PhoneticKey.encode(row.getFirstName()),
+                            PhoneticKey.encode(row.getLastName()), row.getId()})
+                    .toList();
+            jdbcTemplate.batchUpdate("UPDATE patients SET first_name_key = ?, last_name_key = ? WHERE id = ?", rows);
+            updated += rows.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+
+        if (updated > 0) {
+            log.info("Backfilled phonetic name keys for {} patients", updated);
+        }
+    }
+}
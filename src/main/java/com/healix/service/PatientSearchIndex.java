@@ -0,0 +1,237 @@
+package com.healix.service;
+
+import com.healix.dto.PatientSearchRow;
+import com.healix.model.PatientSearchIndexStatus;
+import com.healix.repository.PatientRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Substring search over patient name, patientId and mobile number backed by an in-memory {@link TrigramIndex}.
+ * The index is built from the database at startup (and on demand), and kept current from patient writes
+ * once they commit. Until it is ready, or for queries too short for trigrams, callers fall back to SQL.
+ * The index is local to each node: patients registered or edited on other nodes are picked up every
+ * {@code healix.search.trigram.sync-ms}, and the index is rebuilt when it no longer holds as many patients
+ * as the table (e.g. after a merge elsewhere).
+ */
+@Service
+@Slf4j
+public class PatientSearchIndex {
+
+    /**
+     * How far before the previous sync a sync looks back, for commits that landed late and clock skew between nodes.
+     */
+    static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "patient-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready;
+    private volatile OffsetDateTime lastRebuiltAt;
+    private volatile long lastRebuildMillis;
+    // Patients changed from this time on are read again by the next sync
+    private volatile OffsetDateTime syncedFrom;
+    // Writes that land while a rebuild is reading the table; replayed onto the new index before it is swapped in
+    private List<Consumer<TrigramIndex>> pendingDuringRebuild;
+
+    public PatientSearchIndex(PatientRepository patientRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${healix.search.trigram.enabled:true}") boolean enabled) {
+        this.patientRepository = patientRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        if (enabled) {
+            startRebuild();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Ids of the best matches, best first; empty when the index cannot answer and the caller should query SQL
+     */
+    public Optional<List<Long>> search(String query, int limit) {
+        if (!ready || TrigramIndex.normalize(query).length() < TrigramIndex.MIN_QUERY_LENGTH) {
+            return Optional.empty();
+        }
+        return Optional.of(index.search(query, limit).stream().map(TrigramIndex.Match::id).toList());
+    }
+
+    /**
+     * Ids of every match when there are at most {@code limit}; empty when the index cannot answer, there are
+     * more, or the query was too unselective for every candidate to be looked at
+     */
+    public Optional<List<Long>> searchAll(String query, int limit) {
+        if (!ready || TrigramIndex.normalize(query).length() < TrigramIndex.MIN_QUERY_LENGTH) {
+            return Optional.empty();
+        }
+        TrigramIndex.Result result = index.find(query, limit + 1);
+        if (!result.complete() || result.matches().size() > limit) {
+            return Optional.empty();
+        }
+        return Optional.of(result.matches().stream().map(TrigramIndex.Match::id).toList());
+    }
+
+    /**
+     * Index a registered or edited patient once the current transaction commits
+     */
+    public void indexAfterCommit(Long id, String patientId, String firstName, String lastName, String mobileNumber) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(target -> target.put(id, patientId, firstName, lastName, mobileNumber));
+    }
+
+    /**
+     * Drop a patient from the index (e.g. after a merge removed the record)
+     */
+    public void removeAfterCommit(Long id) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(target -> target.remove(id));
+    }
+
+    /**
+     * Rebuild the index from the patients table in the background; searches keep using the current index meanwhile
+     */
+    public PatientSearchIndexStatus startRebuild() {
+        if (!enabled) {
+            throw new IllegalArgumentException("Patient search index is disabled (healix.search.trigram.enabled=false)");
+        }
+        synchronized (this) {
+            if (pendingDuringRebuild == null) {
+                pendingDuringRebuild = new ArrayList<>();
+                rebuildExecutor.execute(this::rebuild);
+            }
+        }
+        return status();
+    }
+
+    public synchronized PatientSearchIndexStatus status() {
+        return PatientSearchIndexStatus.builder()
+                .enabled(enabled)
+                .ready(ready)
+                .rebuilding(pendingDuringRebuild != null)
+                .documentCount(index.documentCount())
+                .trigramCount(index.trigramCount())
+                .lastRebuiltAt(lastRebuiltAt)
+                .lastRebuildMillis(lastRebuildMillis)
+                .build();
+    }
+
+    /**
+     * Index patients registered or edited since the last sync, including those written by other nodes
+     */
+    @Scheduled(fixedDelayString = "${healix.search.trigram.sync-ms:60000}",
+            initialDelayString = "${healix.search.trigram.sync-ms:60000}")
+    void syncChanges() {
+        OffsetDateTime from = syncedFrom;
+        synchronized (this) {
+            if (!enabled || !ready || from == null || pendingDuringRebuild != null) {
+                return;
+            }
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<PatientSearchRow> changed = readOnlyTransaction.execute(
+                status -> patientRepository.findForSearchIndexChangedSince(from.minus(SYNC_OVERLAP)));
+        for (PatientSearchRow row : changed) {
+            apply(target -> target.put(row.getId(), row.getPatientId(), row.getFirstName(), row.getLastName(),
+                    row.getMobileNumber()));
+        }
+        syncedFrom = now;
+        log.debug("Patient search index synced {} changed patients", changed.size());
+
+        // Deletes leave no row to sync from
+        if (patientRepository.count() != index.documentCount()) {
+            log.info("Patient search index is out of step with the patients table, rebuilding");
+            startRebuild();
+        }
+    }
+
+    private void afterCommit(Consumer<TrigramIndex> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Consumer<TrigramIndex> change) {
+        change.accept(index);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(change);
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        log.info("Rebuilding patient search index");
+        try {
+            TrigramIndex rebuilt = new TrigramIndex();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<PatientSearchRow> rows = patientRepository.streamAllForSearchIndex()) {
+                    rows.forEach(row -> rebuilt.put(row.getId(), row.getPatientId(),
+                            row.getFirstName(), row.getLastName(), row.getMobileNumber()));
+                }
+            });
+
+            synchronized (this) {
+                pendingDuringRebuild.forEach(change -> change.accept(rebuilt));
+                index = rebuilt;
+                ready = true;
+                syncedFrom = startedAt;
+                lastRebuiltAt = OffsetDateTime.now();
+                lastRebuildMillis = System.currentTimeMillis() - start;
+            }
+            log.info("Patient search index rebuilt: {} patients, {} trigrams in {} ms",
+                    rebuilt.documentCount(), rebuilt.trigramCount(), lastRebuildMillis);
+        } catch (Exception e) {
+            log.error("Patient search index rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+}
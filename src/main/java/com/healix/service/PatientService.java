@@ -1,5 +1,6 @@
 package com.healix.service;
 
+import com.healix.dto.PatientSummaryRow;
 import com.healix.entity.Patient;
 import com.healix.exception.ResourceNotFoundException;
 import com.healix.exception.DuplicateResourceException;
@@ -7,16 +8,32 @@ import com.healix.model.*;
 import com.healix.repository.PatientRepository;
 import com.healix.util.CurrentUser;
 import com.healix.mapper.PatientMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,14 +46,35 @@ public class PatientService {
     private final PatientMapper patientMapper;
     private final com.healix.repository.PatientMedicalHistoryRepository medicalHistoryRepository;
     private final com.healix.repository.StaffRepository staffRepository;
+    private final PatientIdAllocator patientIdAllocator;
+    private final PatientSearchIndex patientSearchIndex;
+    private final PatientCache patientCache;
+    private final PatientMedicalTagService patientMedicalTagService;
+    private final MedicalHistoryAuditService medicalHistoryAuditService;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
 
     private String clinicCode() {
         return "SNG";
     }
 
-    private String generatePatientId(Long dbId){
-        String year = String.valueOf(LocalDate.now().getYear());
-        return "%s%s%03d".formatted(clinicCode(), year, dbId);
+    /**
+     * Number of patients registered per transaction in batch registration.
+     */
+    static final int REGISTRATION_CHUNK_SIZE = 500;
+
+    /**
+     * Number of mobile / Aadhaar numbers resolved per IN query when pre-screening a batch.
+     */
+    static final int SCREENING_CHUNK_SIZE = 1000;
+
+    /**
+     * Receives the outcome of each row in {@link #registerInChunks}, by index into the request list.
+     */
+    public interface RegistrationCallback {
+        void onSuccess(int index, PatientResponse response);
+
+        void onFailure(int index, Exception e);
     }
 
     /**
@@ -44,66 +82,26 @@ public class PatientService {
      * @param requests List of patient registration requests
      * @return BatchPatientResponse with success and failure details
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BatchPatientResponse registerPatients(List<PatientRegistrationRequest> requests) {
         log.info("Starting batch patient registration for {} patients", requests.size());
 
         List<PatientResponse> successfulRegistrations = new ArrayList<>();
         List<FailedRegistration> failedRegistrations = new ArrayList<>();
 
-        for (int i = 0; i < requests.size(); i++) {
-            PatientRegistrationRequest request = requests.get(i);
-
-            try {
-                log.debug("Processing patient {}/{}: {} {}",
-                        i + 1, requests.size(), request.getFirstName(), request.getLastName());
-
-                // Validate and register patient
-                PatientResponse response = registerSinglePatient(request);
+        registerInChunks(requests, new RegistrationCallback() {
+            @Override
+            public void onSuccess(int index, PatientResponse response) {
                 successfulRegistrations.add(response);
+            }
 
-                log.info("Successfully registered patient {}: {}",
-                        i + 1, response.getPatientId());
-
-            } catch (DuplicateResourceException e) {
-                log.warn("Failed to register patient {} due to duplicate: {}",
-                        i + 1, e.getMessage());
-
-                FailedRegistration failure = FailedRegistration.builder()
-                        .requestIndex(i)
-                        .patientData(request)
-                        .errorMessage(e.getMessage())
-                        .errorCode(determineErrorCode(e))
-                        .build();
-
-                failedRegistrations.add(failure);
-
-            } catch (IllegalArgumentException e) {
-                log.warn("Failed to register patient {} due to validation error: {}",
-                        i + 1, e.getMessage());
-
-                FailedRegistration failure = FailedRegistration.builder()
-                        .requestIndex(i)
-                        .patientData(request)
-                        .errorMessage(e.getMessage())
-                        .errorCode(FailedRegistration.ErrorCodeEnum.VALIDATION_ERROR)
-                        .build();
-
-                failedRegistrations.add(failure);
-
-            } catch (Exception e) {
-                log.error("Failed to register patient {} due to unexpected error: {}",
-                        i + 1, e.getMessage(), e);
-
-                FailedRegistration failure = FailedRegistration.builder()
-                        .requestIndex(i)
-                        .patientData(request)
-                        .errorMessage("Internal error: " + e.getMessage())
-                        .errorCode(FailedRegistration.ErrorCodeEnum.INTERNAL_ERROR)
-                        .build();
-
-                failedRegistrations.add(failure);
+            @Override
+            public void onFailure(int index, Exception e) {
+                failedRegistrations.add(toFailedRegistration(index, requests.get(index), e));
             }
-        }
+        });
+
+        failedRegistrations.sort(Comparator.comparingInt(FailedRegistration::getRequestIndex));
 
         BatchPatientResponse response = BatchPatientResponse.builder()
                 .totalRequested(requests.size())
@@ -119,6 +117,169 @@ public class PatientService {
         return response;
     }
 
+    /**
+     * Register patients in chunks of {@link #REGISTRATION_CHUNK_SIZE}, committing after each chunk.
+     * A chunk's inserts go out in one flush at its end, so JDBC batching applies, and the persistence context
+     * is cleared after every chunk to keep memory flat. Rows rejected before the insert (validation) are left
+     * out of the chunk. If the chunk's flush fails (a row breaks a database constraint), the chunk is rolled
+     * back and registered again one transaction per row, so only the offending rows fail.
+     * Successes are reported only once their chunk (or row) has committed.
+     * Duplicate mobile / Aadhaar numbers are screened for the whole batch up front and reported as failures
+     * without reaching the insert stage.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void registerInChunks(List<PatientRegistrationRequest> requests, RegistrationCallback callback) {
+        Map<Integer, DuplicateResourceException> duplicates = screenDuplicates(requests);
+        duplicates.forEach(callback::onFailure);
+
+        for (int start = 0; start < requests.size(); start += REGISTRATION_CHUNK_SIZE) {
+            int end = Math.min(start + REGISTRATION_CHUNK_SIZE, requests.size());
+            registerChunk(requests, start, end, duplicates.keySet(), callback);
+        }
+    }
+
+    /**
+     * Find rows whose mobile or Aadhaar number already exists, either in the database (chunked IN queries)
+     * or earlier in the same batch. The first occurrence within the batch is kept.
+     * @return duplicate error per request index
+     */
+    Map<Integer, DuplicateResourceException> screenDuplicates(List<PatientRegistrationRequest> requests) {
+        Map<Integer, DuplicateResourceException> duplicates = new HashMap<>();
+        Set<String> seenMobiles = new HashSet<>();
+        Set<String> seenAadhars = new HashSet<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            PatientRegistrationRequest request = requests.get(i);
+            if (request == null) {
+                continue;
+            }
+            String mobile = request.getMobileNumber();
+            if (mobile != null && !seenMobiles.add(mobile)) {
+                duplicates.put(i, new DuplicateResourceException("Duplicate mobileNumber within upload: " + mobile));
+                continue;
+            }
+            String aadhar = request.getAadharNumber();
+            if (aadhar != null && !aadhar.isEmpty() && !seenAadhars.add(aadhar)) {
+                duplicates.put(i, new DuplicateResourceException("Duplicate aadharNumber within upload: " + aadhar));
+            }
+        }
+
+        Set<String> existingMobiles = findExisting(seenMobiles, patientRepository::findExistingMobileNumbers);
+        Set<String> existingAadhars = findExisting(seenAadhars, patientRepository::findExistingAadharNumbers);
+        if (existingMobiles.isEmpty() && existingAadhars.isEmpty()) {
+            return duplicates;
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            PatientRegistrationRequest request = requests.get(i);
+            if (request == null || duplicates.containsKey(i)) {
+                continue;
+            }
+            if (existingMobiles.contains(request.getMobileNumber())) {
+                duplicates.put(i, new DuplicateResourceException("Patient", "mobileNumber", request.getMobileNumber()));
+            } else if (existingAadhars.contains(request.getAadharNumber())) {
+                duplicates.put(i, new DuplicateResourceException("Patient", "aadharNumber", request.getAadharNumber()));
+            }
+        }
+        return duplicates;
+    }
+
+    private Set<String> findExisting(Set<String> values, Function<List<String>, List<String>> query) {
+        Set<String> existing = new HashSet<>();
+        List<String> candidates = new ArrayList<>(values);
+        for (int start = 0; start < candidates.size(); start += SCREENING_CHUNK_SIZE) {
+            existing.addAll(query.apply(candidates.subList(start, Math.min(start + SCREENING_CHUNK_SIZE, candidates.size()))));
+        }
+        return existing;
+    }
+
+    private void registerChunk(List<PatientRegistrationRequest> requests, int start, int end,
+                               Set<Integer> skipped, RegistrationCallback callback) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Map<Integer, PatientResponse> registered = new LinkedHashMap<>();
+        Map<Integer, Exception> rejected = new LinkedHashMap<>();
+        try {
+            tx.executeWithoutResult(status -> {
+                for (int i = start; i < end; i++) {
+                    if (skipped.contains(i)) {
+                        continue;
+                    }
+                    Patient patient = null;
+                    try {
+                        // Already screened for duplicates, so go straight to the insert
+                        patient = newPatient(requests.get(i));
+                        registered.put(i, persistNewPatient(patient));
+                        indexForSearch(patient);
+                    } catch (DuplicateResourceException | IllegalArgumentException e) {
+                        // Nothing of the row was flushed yet; stop it being flushed with the chunk
+                        if (patient != null && entityManager.contains(patient)) {
+                            entityManager.detach(patient);
+                        }
+                        registered.remove(i);
+                        rejected.put(i, e);
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            // Hibernate cannot continue a session after a failed flush, so the chunk was rolled back
+            entityManager.clear();
+            log.warn("Chunk {}-{} rolled back, registering it row by row: {}", start, end - 1, e.getMessage());
+            registerOneByOne(requests, start, end, skipped, tx, callback);
+            return;
+        }
+
+        rejected.forEach(callback::onFailure);
+        registered.forEach(callback::onSuccess);
+        log.debug("Committed registration chunk {}-{}: {} registered, {} rejected",
+                start, end - 1, registered.size(), rejected.size());
+    }
+
+    private void registerOneByOne(List<PatientRegistrationRequest> requests, int start, int end,
+                                  Set<Integer> excluded, TransactionTemplate tx, RegistrationCallback callback) {
+        for (int i = start; i < end; i++) {
+            if (excluded.contains(i)) {
+                continue;
+            }
+            PatientRegistrationRequest request = requests.get(i);
+            try {
+                callback.onSuccess(i, tx.execute(status -> registerSinglePatient(request)));
+            } catch (Exception rowError) {
+                entityManager.clear();
+                callback.onFailure(i, rowError);
+            }
+        }
+    }
+
+    private FailedRegistration toFailedRegistration(int index, PatientRegistrationRequest request, Exception e) {
+        if (e instanceof DuplicateResourceException duplicate) {
+            log.warn("Failed to register patient {} due to duplicate: {}", index + 1, e.getMessage());
+            return FailedRegistration.builder()
+                    .requestIndex(index)
+                    .patientData(request)
+                    .errorMessage(e.getMessage())
+                    .errorCode(determineErrorCode(duplicate))
+                    .build();
+        }
+        if (e instanceof IllegalArgumentException) {
+            log.warn("Failed to register patient {} due to validation error: {}", index + 1, e.getMessage());
+            return FailedRegistration.builder()
+                    .requestIndex(index)
+                    .patientData(request)
+                    .errorMessage(e.getMessage())
+                    .errorCode(FailedRegistration.ErrorCodeEnum.VALIDATION_ERROR)
+                    .build();
+        }
+        log.error("Failed to register patient {} due to unexpected error: {}", index + 1, e.getMessage(), e);
+        return FailedRegistration.builder()
+                .requestIndex(index)
+                .patientData(request)
+                .errorMessage("Internal error: " + e.getMessage())
+                .errorCode(FailedRegistration.ErrorCodeEnum.INTERNAL_ERROR)
+                .build();
+    }
+
     /**
      * Register a single patient (used by both direct registration and CSV import)
      * @param request Patient registration request
@@ -138,35 +299,21 @@ public class PatientService {
             throw new DuplicateResourceException("Patient", "aadharNumber", request.getAadharNumber());
         }
 
-        // Map request -> entity
-        Patient patient = mapToEntity(request);
-
-        // Detach child relations temporarily so they are not inserted before parent has a DB id
-        var insurance = patient.getInsurance();
-        var medicalHistory = patient.getMedicalHistory();
-        patient.setInsurance(null);
-        patient.setMedicalHistory(null);
-
-        // Persist parent and flush to obtain generated DB id
-        Patient saved = patientRepository.saveAndFlush(patient);
-
-        // Generate and set application patientId using the DB id
-        saved.setPatientId(generatePatientId(saved.getId()));
-
-        // Re-attach children and set their parent references so foreign key is populated
-        if (insurance != null) {
-            insurance.setPatient(saved);
-            saved.setInsurance(insurance);
-        }
-        if (medicalHistory != null) {
-            medicalHistory.setPatient(saved);
-            saved.setMedicalHistory(medicalHistory);
-        }
+        Patient patient = newPatient(request);
+        PatientResponse response = persistNewPatient(patient);
+        indexForSearch(patient);
+        return response;
+    }
 
-        // Save again to persist patientId and child rows with non-null patient_id
-        Patient finalSaved = patientRepository.save(saved);
+    private Patient newPatient(PatientRegistrationRequest request) {
+        // Map request -> entity; the patientId is reserved up front so patient and children insert in one flush
+        Patient patient = mapToEntity(request);
+        patient.setPatientId(patientIdAllocator.nextPatientId(clinicCode()));
+        return patient;
+    }
 
-        return mapToResponse(finalSaved);
+    private PatientResponse persistNewPatient(Patient patient) {
+        return mapToResponse(patientRepository.save(patient));
     }
 
     /**
@@ -185,25 +332,23 @@ public class PatientService {
     /**
      * Get patient by ID
      */
+    @Transactional(readOnly = true)
     public PatientResponse getPatientById(Long id) {
         log.debug("Fetching patient with id: {}", id);
 
-        Patient patient = patientRepository.findById(id)
+        return patientCache.getById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "id", id));
-
-        return mapToResponse(patient);
     }
 
     /**
      * Get patient by Patient ID
      */
+    @Transactional(readOnly = true)
     public PatientResponse getPatientByPatientId(String patientId) {
         log.debug("Fetching patient with patientId: {}", patientId);
 
-        Patient patient = patientRepository.findByPatientId(patientId)
+        return patientCache.getByPatientId(patientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "patientId", patientId));
-
-        return mapToResponse(patient);
     }
 
     /**
@@ -212,7 +357,7 @@ public class PatientService {
     public PatientResponse updatePatient(Long id, PatientRegistrationRequest request) {
         log.debug("Updating patient with id: {}", id);
 
-        Patient patient = patientRepository.findById(id)
+        Patient patient = patientRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "id", id));
 
         // Check for duplicate mobile (excluding current patient)
@@ -230,6 +375,8 @@ public class PatientService {
 
         updateEntityFromRequest(patient, request);
         Patient updatedPatient = patientRepository.save(patient);
+        indexForSearch(updatedPatient);
+        patientCache.invalidate(id);
 
         log.info("Patient updated successfully: {}", updatedPatient.getPatientId());
         return mapToResponse(updatedPatient);
@@ -246,6 +393,7 @@ public class PatientService {
 
         patient.setStatus(PatientStatus.INACTIVE);
         patientRepository.save(patient);
+        patientCache.invalidate(id);
 
         log.info("Patient deactivated successfully: {}", patient.getPatientId());
     }
@@ -256,11 +404,12 @@ public class PatientService {
     public PatientResponse activatePatient(Long id) {
         log.debug("Activating patient with id: {}", id);
 
-        Patient patient = patientRepository.findById(id)
+        Patient patient = patientRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "id", id));
 
         patient.setStatus(PatientStatus.ACTIVE);
         Patient saved = patientRepository.save(patient);
+        patientCache.invalidate(id);
 
         log.info("Patient activated successfully: {}", saved.getPatientId());
         return mapToResponse(saved);
@@ -287,6 +436,61 @@ public class PatientService {
                 .map(this::mapToResponse);
     }
 
+    /**
+     * Keyset slice of patients (optionally matching {@code query}) with an id below {@code beforeId}, newest first
+     */
+    public Slice<PatientResponse> getPatientsSlice(String query, long beforeId, int size) {
+        log.debug("Fetching patient slice - query: {}, before: {}, size: {}", query, beforeId, size);
+
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<Patient> patients = query == null || query.isBlank()
+                ? patientRepository.findSliceBefore(beforeId, pageable)
+                : patientRepository.searchSliceBefore(query.trim(), beforeId, pageable);
+        return patients.map(this::mapToResponse);
+    }
+
+    /**
+     * Patient list rows for grids and pickers, read as a projection
+     */
+    @Transactional(readOnly = true)
+    public Page<PatientSummary> getPatientSummaries(String query, Pageable pageable) {
+        log.debug("Fetching patient summaries - query: {}, page: {}, size: {}",
+                query, pageable.getPageNumber(), pageable.getPageSize());
+
+        Page<PatientSummaryRow> rows = query == null || query.isBlank()
+                ? patientRepository.findSummaries(pageable)
+                : patientRepository.searchSummaries(query.trim(), pageable);
+        return rows.map(patientMapper::toSummary);
+    }
+
+    /**
+     * Ranked type-ahead search; served by the search index, or by SQL while the index cannot answer
+     */
+    @Transactional(readOnly = true)
+    public List<PatientResponse> quickSearchPatients(String query, int limit) {
+        log.debug("Quick search for patients: {} (limit {})", query, limit);
+
+        Optional<List<Long>> rankedIds = patientSearchIndex.search(query, limit);
+        if (rankedIds.isEmpty()) {
+            return patientRepository.searchSliceBefore(query.trim(), Long.MAX_VALUE, PageRequest.of(0, limit))
+                    .map(this::mapToResponse)
+                    .getContent();
+        }
+
+        Map<Long, Patient> patients = patientRepository.findWithDetailsByIdIn(rankedIds.get()).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return rankedIds.get().stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    private void indexForSearch(Patient patient) {
+        patientSearchIndex.indexAfterCommit(patient.getId(), patient.getPatientId(),
+                patient.getFirstName(), patient.getLastName(), patient.getMobileNumber());
+    }
+
     private PatientResponse mapToResponse(Patient patient) {
         return patientMapper.toResponse(patient);
     }
@@ -331,12 +535,13 @@ public class PatientService {
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found with ID: " + patientId));
 
-        // Get existing medical history or create new
+        // Get existing medical history or create new; locked so concurrent edits get distinct audit versions
         com.healix.entity.PatientMedicalHistory medicalHistory =
-                medicalHistoryRepository.findByPatientId(patientId)
+                medicalHistoryRepository.findForUpdateByPatientId(patientId)
                         .orElse(com.healix.entity.PatientMedicalHistory.builder()
                                 .patient(patient)
                                 .build());
+        Map<String, String> before = MedicalHistoryAuditService.state(medicalHistory);
 
         // Update fields
         if (request.getKnownAllergies() != null) {
@@ -359,32 +564,40 @@ public class PatientService {
         }
 
         // Set updated by staff
+        Long currentUserId = null;
         try {
-            Long currentUserId = currentUser.getCurrentUser().getId();
+            currentUserId = currentUser.getCurrentUser().getId();
             staffRepository.findById(currentUserId).ifPresent(medicalHistory::setUpdatedBy);
         } catch (Exception e) {
             log.warn("Could not set updatedBy staff: {}", e.getMessage());
         }
 
-        // Save medical history
+        // Audit the changed fields, then save medical history
+        medicalHistoryAuditService.recordChange(patientId, medicalHistory, before, currentUserId, null);
         com.healix.entity.PatientMedicalHistory savedHistory = medicalHistoryRepository.save(medicalHistory);
+        patientMedicalTagService.retag(patientId, savedHistory);
+        patientCache.invalidate(patientId);
         log.info("Medical history updated successfully for patient ID: {}", patientId);
 
         return patientMapper.toMedicalHistoryResponse(savedHistory);
     }
 
     /**
-     * Get patient medical history
+     * Get patient medical history, as it is now or as it was at {@code asOf} (may be null)
      */
     @Transactional(readOnly = true)
-    public MedicalHistoryResponse getPatientMedicalHistory(Long patientId) {
-        log.info("Fetching medical history for patient ID: {}", patientId);
+    public MedicalHistoryResponse getPatientMedicalHistory(Long patientId, LocalDateTime asOf) {
+        log.info("Fetching medical history for patient ID: {}{}", patientId, asOf != null ? " as of " + asOf : "");
 
         // Validate patient exists
         if (!patientRepository.existsById(patientId)) {
             throw new ResourceNotFoundException("Patient not found with ID: " + patientId);
         }
 
+        if (asOf != null) {
+            return medicalHistoryAuditService.getMedicalHistoryAsOf(patientId, asOf);
+        }
+
         // Get medical history
         com.healix.entity.PatientMedicalHistory medicalHistory =
                 medicalHistoryRepository.findByPatientId(patientId)
@@ -0,0 +1,172 @@
+package com.healix.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healix.entity.Appointment;
+import com.healix.entity.AppointmentExamination;
+import com.healix.entity.Vitals;
+import com.healix.exception.ResourceNotFoundException;
+import com.healix.mapper.AppointmentMapper;
+import com.healix.repository.AppointmentExaminationRepository;
+import com.healix.repository.AppointmentRepository;
+import com.healix.repository.PatientRepository;
+import com.healix.repository.VitalsRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A patient's longitudinal record, one NDJSON line per visit, newest first. Visits are read in batches:
+ * each batch costs three queries (appointments, their vitals with symptoms, their examinations)
+ * however many visits it holds. Every line carries the cursor that resumes after it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PatientTimelineService {
+
+    /**
+     * Visits loaded per batch of queries.
+     */
+    static final int TIMELINE_BATCH_SIZE = 100;
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final String CURSOR_PREFIX = "v1:";
+    private static final LocalDate END_OF_TIME = LocalDate.of(9999, 12, 31);
+
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final VitalsRepository vitalsRepository;
+    private final AppointmentExaminationRepository examinationRepository;
+    private final AppointmentMapper appointmentMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    record Position(LocalDate date, long id) {
+    }
+
+    /**
+     * Fail fast (before the response is committed) for unknown patients and malformed cursors
+     */
+    @Transactional(readOnly = true)
+    public void validate(Long patientId, String cursor) {
+        if (!patientRepository.existsById(patientId)) {
+            throw new ResourceNotFoundException("Patient", "id", patientId);
+        }
+        decodeCursor(cursor);
+    }
+
+    /**
+     * Write up to {@code limit} visits older than {@code cursor} (or the newest ones) to {@code out}
+     * @return number of visits written
+     */
+    @Transactional(readOnly = true)
+    public int writeTimeline(Long patientId, String cursor, int limit, OutputStream out) throws IOException {
+        Position position = decodeCursor(cursor);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        int written = 0;
+        while (written < limit) {
+            int batchSize = Math.min(TIMELINE_BATCH_SIZE, limit - written);
+            List<Appointment> visits = appointmentRepository.findTimelinePage(
+                    patientId, position.date(), position.id(), PageRequest.of(0, batchSize));
+            if (visits.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = visits.stream().map(Appointment::getId).toList();
+            Map<Long, List<Vitals>> vitalsByVisit = vitalsRepository.findByAppointmentIdsWithSymptoms(ids).stream()
+                    .collect(Collectors.groupingBy(vitals -> vitals.getAppointment().getId()));
+            Map<Long, AppointmentExamination> examinationByVisit = examinationRepository.findByAppointmentIdIn(ids).stream()
+                    .collect(Collectors.toMap(examination -> examination.getAppointment().getId(), Function.identity()));
+
+            for (Appointment visit : visits) {
+                position = new Position(visit.getAppointmentDate(), visit.getId());
+                generator.writeObject(toLine(visit, vitalsByVisit.getOrDefault(visit.getId(), List.of()),
+                        examinationByVisit.get(visit.getId()), encodeCursor(position)));
+                generator.flush();
+                writer.write('\n');
+            }
+            written += visits.size();
+            writer.flush();
+            // Detach this batch; the next one starts from the last position
+            entityManager.clear();
+
+            if (visits.size() < batchSize) {
+                break;
+            }
+        }
+        writer.flush();
+        log.debug("Timeline for patient {}: {} visits written", patientId, written);
+        return written;
+    }
+
+    private Map<String, Object> toLine(Appointment visit, List<Vitals> vitals, AppointmentExamination examination,
+                                       String cursor) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("appointmentId", visit.getId());
+        line.put("appointmentNumber", visit.getAppointmentNumber());
+        line.put("appointmentDate", visit.getAppointmentDate());
+        line.put("appointmentTime", visit.getAppointmentTime());
+        line.put("appointmentType", visit.getAppointmentType());
+        line.put("status", visit.getStatus());
+        line.put("physicianId", visit.getPhysicianId());
+        line.put("physicianName", visit.getPhysicianName());
+        line.put("departmentName", visit.getDepartmentName());
+        line.put("chiefComplaint", visit.getChiefComplaint());
+        line.put("admissionDate", visit.getAdmissionDate());
+        line.put("dischargeDate", visit.getDischargeDate());
+        line.put("vitals", appointmentMapper.toVitalsResponseList(vitals));
+        line.put("examination", examination != null ? appointmentMapper.toExaminationResponse(examination) : null);
+        line.put("cursor", cursor);
+        return line;
+    }
+
+    static String encodeCursor(Position position) {
+        String raw = CURSOR_PREFIX + position.date() + ":" + position.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Position to continue from; no cursor starts after the latest possible visit
+     */
+    static Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new Position(END_OF_TIME, Long.MAX_VALUE);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            if (raw.startsWith(CURSOR_PREFIX)) {
+                String[] parts = raw.substring(CURSOR_PREFIX.length()).split(":");
+                if (parts.length == 2) {
+                    return new Position(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Not Base64, not a date or not a number; reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,310 @@
+package com.healix.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over patient name, patientId and mobile number. Each trigram maps to a sorted
+ * list of patient ids; a query intersects the lists of its trigrams, confirms the substring on the
+ * candidates and keeps the best {@code limit} matches. Safe for concurrent readers and writers.
+ * <p>
+ * Some trigrams are in nearly every document (the clinic prefix and year digits of patientIds), so a query
+ * made only of those would confirm every patient. The rarest list is therefore walked newest first and at
+ * most {@code maxCandidates} of its ids are looked at; past that the query is too unselective to rank the
+ * whole clinic, and the best matches among the newest candidates are returned. {@link #find} reports whether
+ * that happened.
+ */
+final class TrigramIndex {
+
+    /**
+     * Queries shorter than this have no trigrams and cannot be answered by the index.
+     */
+    static final int MIN_QUERY_LENGTH = 3;
+
+    /**
+     * Ids of the rarest trigram looked at per query, by default.
+     */
+    static final int DEFAULT_MAX_CANDIDATES = 20_000;
+
+    private static final int BEST_SCORE = 100;
+
+    private static final Comparator<Match> WORST_FIRST = Comparator.comparingInt(Match::score)
+            .thenComparingLong(Match::id);
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxCandidates;
+
+    record Match(long id, int score) {
+    }
+
+    /**
+     * @param complete whether every candidate was looked at, so no match is missing from {@code matches}
+     *                 beyond the {@code limit} best
+     */
+    record Result(List<Match> matches, boolean complete) {
+    }
+
+    private record Document(long id, String name, String patientId, String mobile) {
+    }
+
+    TrigramIndex() {
+        this(DEFAULT_MAX_CANDIDATES);
+    }
+
+    TrigramIndex(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Add or replace a patient
+     */
+    void put(long id, String patientId, String firstName, String lastName, String mobileNumber) {
+        String name = normalize(join(firstName, lastName));
+        Document document = new Document(id, name, normalize(patientId), normalize(mobileNumber));
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            documents.put(id, document);
+            for (long trigram : trigrams(document)) {
+                postings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches for a substring of name, patientId or mobile number, highest score first
+     * (ties go to the most recently registered patient)
+     */
+    List<Match> search(String query, int limit) {
+        return find(query, limit).matches();
+    }
+
+    /**
+     * {@link #search}, telling whether the candidate cap or a full set of best-scoring matches cut it short
+     */
+    Result find(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.length() < MIN_QUERY_LENGTH || limit <= 0) {
+            return new Result(List.of(), true);
+        }
+
+        lock.readLock().lock();
+        try {
+            long[] queryTrigrams = trigrams(needle);
+            PostingList[] lists = new PostingList[queryTrigrams.length];
+            for (int i = 0; i < queryTrigrams.length; i++) {
+                lists[i] = postings.get(queryTrigrams[i]);
+                if (lists[i] == null) {
+                    return new Result(List.of(), true);
+                }
+            }
+            // Drive the intersection from the rarest trigram
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+            PostingList rarest = lists[0];
+            // Newest first: a later (older) candidate only gets in by scoring higher than the worst kept
+            int last = Math.max(0, rarest.size - maxCandidates);
+            boolean complete = last == 0;
+            candidates:
+            for (int i = rarest.size - 1; i >= last; i--) {
+                if (best.size() == limit && best.peek().score() == BEST_SCORE) {
+                    complete = false;
+                    break;
+                }
+                long id = rarest.ids[i];
+                for (int j = 1; j < lists.length; j++) {
+                    if (!lists[j].contains(id)) {
+                        continue candidates;
+                    }
+                }
+                // Trigrams can all be present without the query being a contiguous substring
+                int score = score(documents.get(id), needle);
+                if (score > 0) {
+                    best.add(new Match(id, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(best);
+            matches.sort(WORST_FIRST.reversed());
+            return new Result(matches, complete);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (long trigram : trigrams(previous)) {
+            PostingList list = postings.get(trigram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Exact patientId / mobile beats a prefix, which beats a name match at the start of a word,
+     * which beats a match anywhere else
+     */
+    private static int score(Document document, String needle) {
+        if (document.patientId.equals(needle) || document.mobile.equals(needle)) {
+            return BEST_SCORE;
+        }
+        if (document.patientId.startsWith(needle) || document.mobile.startsWith(needle)) {
+            return 80;
+        }
+        int at = document.name.indexOf(needle);
+        if (at == 0) {
+            return 70;
+        }
+        if (at > 0) {
+            return document.name.charAt(at - 1) == ' ' ? 60 : 40;
+        }
+        if (document.patientId.contains(needle) || document.mobile.contains(needle)) {
+            return 30;
+        }
+        return 0;
+    }
+
+    private static long[] trigrams(Document document) {
+        long[] name = trigrams(document.name);
+        long[] patientId = trigrams(document.patientId);
+        long[] mobile = trigrams(document.mobile);
+        long[] all = new long[name.length + patientId.length + mobile.length];
+        System.arraycopy(name, 0, all, 0, name.length);
+        System.arraycopy(patientId, 0, all, name.length, patientId.length);
+        System.arraycopy(mobile, 0, all, name.length + patientId.length, mobile.length);
+        return distinct(all);
+    }
+
+    /**
+     * Distinct trigrams of a normalised string, each packed as three 16-bit chars
+     */
+    private static long[] trigrams(String value) {
+        if (value.length() < MIN_QUERY_LENGTH) {
+            return new long[0];
+        }
+        long[] trigrams = new long[value.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+        }
+        return distinct(trigrams);
+    }
+
+    private static long[] distinct(long[] values) {
+        if (values.length < 2) {
+            return values;
+        }
+        Arrays.sort(values);
+        int count = 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[count - 1]) {
+                values[count++] = values[i];
+            }
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    private static String join(String firstName, String lastName) {
+        if (firstName == null) {
+            return lastName;
+        }
+        return lastName == null ? firstName : firstName + " " + lastName;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sorted, growable list of ids. Patient ids mostly arrive in increasing order, so adds are appends.
+     */
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                insertAt(-at - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int at, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
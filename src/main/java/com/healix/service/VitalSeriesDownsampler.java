@@ -0,0 +1,87 @@
+package com.healix.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Folds readings of one metric into at most {@code buckets} equal time buckets over [from, to), keeping
+ * min / max / sum / count per bucket. Memory is fixed by the bucket count, however many readings stream
+ * through, so a two-year range becomes a few hundred chart points.
+ */
+final class VitalSeriesDownsampler {
+
+    record Point(LocalDateTime start, double min, double max, double avg, int count) {
+    }
+
+    private final LocalDateTime from;
+    private final long bucketSeconds;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final int[] count;
+    private int readings;
+
+    VitalSeriesDownsampler(LocalDateTime from, LocalDateTime to, int buckets) {
+        this.from = from;
+        this.bucketSeconds = bucketSeconds(from, to, buckets);
+        int used = (int) Math.min(buckets, Math.ceilDiv(Duration.between(from, to).toSeconds(), bucketSeconds));
+        this.min = new double[used];
+        this.max = new double[used];
+        this.sum = new double[used];
+        this.count = new int[used];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Width of each bucket: the range split into {@code buckets}, rounded up to whole seconds
+     */
+    static long bucketSeconds(LocalDateTime from, LocalDateTime to, int buckets) {
+        long rangeSeconds = Duration.between(from, to).toSeconds();
+        return Math.max(1, Math.ceilDiv(rangeSeconds, buckets));
+    }
+
+    long bucketSeconds() {
+        return bucketSeconds;
+    }
+
+    /**
+     * Add one reading; readings outside [from, to) are ignored
+     */
+    void add(LocalDateTime at, double value) {
+        long offset = Duration.between(from, at).toSeconds();
+        if (offset < 0) {
+            return;
+        }
+        long bucket = offset / bucketSeconds;
+        if (bucket >= count.length) {
+            return;
+        }
+        int i = (int) bucket;
+        min[i] = Math.min(min[i], value);
+        max[i] = Math.max(max[i], value);
+        sum[i] += value;
+        count[i]++;
+        readings++;
+    }
+
+    int readings() {
+        return readings;
+    }
+
+    /**
+     * Non-empty buckets in time order
+     */
+    List<Point> points() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < count.length; i++) {
+            if (count[i] > 0) {
+                points.add(new Point(from.plusSeconds(i * bucketSeconds), min[i], max[i], sum[i] / count[i], count[i]));
+            }
+        }
+        return points;
+    }
+}
@@ -0,0 +1,275 @@
+package com.healix.service;
+
+import com.healix.entity.Vitals;
+import com.healix.enums.VitalMetric;
+import com.healix.exception.ResourceNotFoundException;
+import com.healix.model.VitalSeries;
+import com.healix.model.VitalSeriesPoint;
+import com.healix.model.VitalSeriesResponse;
+import com.healix.repository.PatientRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-patient vitals time series. Every vitals record is split into one vital_readings row per metric
+ * taken, keyed for range scans by (patient, metric, time), and range queries fold the readings into a
+ * bounded number of min / max / avg buckets on the server. Vitals recorded before the table existed are
+ * backfilled in the background at startup; only vitals without readings are read, so once the backfill has
+ * run, later startups cost one index-only scan.
+ */
+@Service
+@Slf4j
+public class VitalSeriesService {
+
+    static final int DEFAULT_POINTS = 300;
+    static final int MAX_POINTS = 2000;
+    static final int DEFAULT_RANGE_YEARS = 2;
+    static final int BACKFILL_BATCH_SIZE = 1000;
+    // Retries of a batch whose readings were written concurrently before the run gives up
+    static final int MAX_BATCH_CONFLICTS = 3;
+
+    private static final String INSERT_READING = "INSERT INTO vital_readings " +
+            "(vitals_id, metric, patient_id, recorded_at, reading_value) VALUES (?, ?, ?, ?, ?)";
+
+    // For the backfill: readings another node's backfill (or a re-run) already wrote are left alone
+    private static final String MERGE_READING = "MERGE INTO vital_readings r USING (SELECT " +
+            "CAST(? AS BIGINT) AS vitals_id, CAST(? AS SMALLINT) AS metric, CAST(? AS BIGINT) AS patient_id, " +
+            "CAST(? AS TIMESTAMP) AS recorded_at, CAST(? AS DOUBLE PRECISION) AS reading_value) s " +
+            "ON r.vitals_id = s.vitals_id AND r.metric = s.metric " +
+            "WHEN NOT MATCHED THEN INSERT (vitals_id, metric, patient_id, recorded_at, reading_value) " +
+            "VALUES (s.vitals_id, s.metric, s.patient_id, s.recorded_at, s.reading_value)";
+
+    private final PatientRepository patientRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final boolean backfillEnabled;
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "vital-series-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record BatchResult(long lastId, int backfilled) {
+    }
+
+    public VitalSeriesService(PatientRepository patientRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${healix.vitals.series.backfill:true}") boolean backfillEnabled) {
+        this.patientRepository = patientRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.backfillEnabled = backfillEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void backfillOnStartup() {
+        if (backfillEnabled) {
+            backfillExecutor.execute(this::backfill);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    /**
+     * Add the readings of a newly saved (and flushed) vitals record; joins the caller's transaction
+     */
+    public void recordReadings(Vitals vitals, Long patientId) {
+        List<Object[]> rows = readings(vitals, patientId);
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_READING, rows);
+        }
+    }
+
+    private static List<Object[]> readings(Vitals vitals, long patientId) {
+        Timestamp recordedAt = Timestamp.valueOf(vitals.getRecordedAt());
+        List<Object[]> rows = new ArrayList<>();
+        for (VitalMetric metric : VitalMetric.values()) {
+            Double value = metric.readingOf(vitals);
+            if (value != null) {
+                rows.add(new Object[]{vitals.getId(), metric.getCode(), patientId, recordedAt, value});
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Readings of {@code metrics} in [from, to), at most {@code points} buckets per metric
+     */
+    @Transactional(readOnly = true)
+    public VitalSeriesResponse getSeries(Long patientId, List<String> metrics, LocalDateTime from, LocalDateTime to,
+                                         Integer points) {
+        Set<VitalMetric> requested = parseMetrics(metrics);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusYears(DEFAULT_RANGE_YEARS);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        int buckets = points != null ? points : DEFAULT_POINTS;
+        if (buckets < 1 || buckets > MAX_POINTS) {
+            throw new IllegalArgumentException("points must be between 1 and " + MAX_POINTS);
+        }
+        if (!patientRepository.existsById(patientId)) {
+            throw new ResourceNotFoundException("Patient not found with ID: " + patientId);
+        }
+
+        List<VitalSeries> series = new ArrayList<>();
+        long bucketSeconds = VitalSeriesDownsampler.bucketSeconds(start, end, buckets);
+        for (VitalMetric metric : requested) {
+            VitalSeriesDownsampler downsampler = new VitalSeriesDownsampler(start, end, buckets);
+            jdbcTemplate.query("SELECT recorded_at, reading_value FROM vital_readings " +
+                            "WHERE patient_id = ? AND metric = ? AND recorded_at >= ? AND recorded_at < ? ORDER BY recorded_at",
+                    rs -> {
+                        downsampler.add(rs.getTimestamp(1).toLocalDateTime(), rs.getDouble(2));
+                    },
+                    patientId, metric.getCode(), Timestamp.valueOf(start), Timestamp.valueOf(end));
+
+            series.add(VitalSeries.builder()
+                    .metric(metric.name())
+                    .unit(metric.getUnit())
+                    .readings(downsampler.readings())
+                    .points(downsampler.points().stream()
+                            .map(point -> VitalSeriesPoint.builder()
+                                    .time(point.start().atOffset(ZoneOffset.UTC))
+                                    .min(point.min())
+                                    .max(point.max())
+                                    .avg(point.avg())
+                                    .count(point.count())
+                                    .build())
+                            .toList())
+                    .build());
+        }
+
+        return VitalSeriesResponse.builder()
+                .patientId(patientId)
+                .from(start.atOffset(ZoneOffset.UTC))
+                .to(end.atOffset(ZoneOffset.UTC))
+                .bucketSeconds(bucketSeconds)
+                .series(series)
+                .build();
+    }
+
+    static Set<VitalMetric> parseMetrics(List<String> metrics) {
+        if (metrics == null || metrics.isEmpty()) {
+            throw new IllegalArgumentException("At least one metric is required");
+        }
+        Set<VitalMetric> parsed = new LinkedHashSet<>();
+        for (String metric : metrics) {
+            try {
+                parsed.add(VitalMetric.valueOf(metric.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown vital metric: " + metric);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Add readings for every vitals record that has none
+     * @return number of vitals records backfilled
+     */
+    int backfill() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int backfilled = 0;
+        int conflicts = 0;
+        try {
+            while (true) {
+                long from = afterId;
+                BatchResult result;
+                try {
+                    result = batchTransaction.execute(status -> backfillBatch(from));
+                } catch (DuplicateKeyException e) {
+                    // Another node inserted some of the batch's readings between the MERGE's check and insert;
+                    // the retry no longer selects those vitals
+                    if (++conflicts > MAX_BATCH_CONFLICTS) {
+                        throw e;
+                    }
+                    continue;
+                }
+                if (result == null || result.lastId() < 0) {
+                    break;
+                }
+                backfilled += result.backfilled();
+                afterId = result.lastId();
+            }
+        } catch (Exception e) {
+            log.error("Vital series backfill stopped after {} vitals records: {}", backfilled, e.getMessage(), e);
+            return backfilled;
+        }
+        if (backfilled > 0) {
+            log.info("Backfilled vital readings for {} vitals records in {} ms",
+                    backfilled, System.currentTimeMillis() - start);
+        }
+        return backfilled;
+    }
+
+    /**
+     * The next vitals records without readings, after {@code afterId}, and their readings. Records with no
+     * metric taken never get readings, so they are read again on every run; there are few of them.
+     */
+    private BatchResult backfillBatch(long afterId) {
+        List<Object[]> rows = new ArrayList<>();
+        long[] lastId = {-1};
+        int[] backfilled = {0};
+        jdbcTemplate.query("SELECT v.*, a.patient_id FROM vitals v JOIN appointments a ON a.id = v.appointment_id " +
+                        "WHERE v.id > ? AND NOT EXISTS (SELECT 1 FROM vital_readings r WHERE r.vitals_id = v.id) " +
+                        "ORDER BY v.id LIMIT ?",
+                rs -> {
+                    Vitals vitals = toVitals(rs);
+                    rows.addAll(readings(vitals, rs.getLong("patient_id")));
+                    lastId[0] = vitals.getId();
+                    backfilled[0]++;
+                },
+                afterId, BACKFILL_BATCH_SIZE);
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(MERGE_READING, rows);
+        }
+        return new BatchResult(lastId[0], backfilled[0]);
+    }
+
+    private static Vitals toVitals(ResultSet rs) throws SQLException {
+        return Vitals.builder()
+                .id(rs.getLong("id"))
+                .weight(rs.getObject("weight", Double.class))
+                .height(rs.getObject("height", Double.class))
+                .headCircumference(rs.getObject("head_circumference", Double.class))
+                .temperature(rs.getObject("temperature", Double.class))
+                .temperatureUnit(rs.getString("temperature_unit"))
+                .heartRate(rs.getObject("heart_rate", Integer.class))
+                .respiratoryRate(rs.getObject("respiratory_rate", Double.class))
+                .systolicBp(rs.getObject("systolic_bp", Integer.class))
+                .diastolicBp(rs.getObject("diastolic_bp", Integer.class))
+                .spo2(rs.getObject("spo2", Double.class))
+                .randomBloodSugar(rs.getObject("random_blood_sugar", Double.class))
+                .bmi(rs.getObject("bmi", Double.class))
+                .painLevel(rs.getObject("pain_level", Integer.class))
+                .recordedAt(rs.getTimestamp("recorded_at").toLocalDateTime())
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.healix.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * JPA Converter to store List<String> in a compact length-prefixed text form instead of JSON:
+ * {@code ~<count>|<length>:<item><length>:<item>...}, lengths in chars (-1 for a null item). An empty list is
+ * stored as {@code ~0|}, so it stays distinct from a NULL column; both read back as an empty list.
+ *
+ * Loading a row only wraps the stored text in a {@link LazyList}; it is decoded on first access, so entities
+ * whose lists are never read skip the parse entirely, and an untouched list is written back as the same text.
+ * Columns still holding JSON written by {@link StringListConverter} are read too and re-encoded on the next
+ * write (or by {@code CompactListMigrationService}).
+ */
+@Converter
+@Slf4j
+public class CompactStringListConverter implements AttributeConverter<List<String>, String> {
+
+    static final char MARKER = '~';
+
+    private static final StringListConverter LEGACY = new StringListConverter();
+
+    @Override
+    public String convertToDatabaseColumn(List<String> attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        if (attribute instanceof LazyList lazy && lazy.decoded == null && isCompact(lazy.stored)) {
+            return lazy.stored;
+        }
+        return encode(attribute);
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String dbData) {
+        if (dbData == null || dbData.isBlank()) {
+            return new ArrayList<>();
+        }
+        return new LazyList(dbData);
+    }
+
+    public static boolean isCompact(String dbData) {
+        return dbData != null && !dbData.isEmpty() && dbData.charAt(0) == MARKER;
+    }
+
+    public static String encode(List<String> values) {
+        int capacity = 8;
+        for (String value : values) {
+            capacity += 6 + (value != null ? value.length() : 0);
+        }
+        StringBuilder encoded = new StringBuilder(capacity).append(MARKER).append(values.size()).append('|');
+        for (String value : values) {
+            if (value == null) {
+                encoded.append("-1:");
+            } else {
+                encoded.append(value.length()).append(':').append(value);
+            }
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * Decode either format into a mutable list; unreadable data is logged and read as empty
+     */
+    public static List<String> decode(String dbData) {
+        if (dbData == null || dbData.isBlank()) {
+            return new ArrayList<>();
+        }
+        if (!isCompact(dbData)) {
+            return LEGACY.convertToEntityAttribute(dbData);
+        }
+        try {
+            int at = dbData.indexOf('|');
+            int count = Integer.parseInt(dbData, 1, at, 10);
+            List<String> values = new ArrayList<>(count);
+            at++;
+            for (int i = 0; i < count; i++) {
+                int colon = dbData.indexOf(':', at);
+                int length = Integer.parseInt(dbData, at, colon, 10);
+                if (length < 0) {
+                    values.add(null);
+                    at = colon + 1;
+                } else {
+                    values.add(dbData.substring(colon + 1, colon + 1 + length));
+                    at = colon + 1 + length;
+                }
+            }
+            return values;
+        } catch (RuntimeException e) {
+            log.error("Error decoding compact list", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Item count without decoding, or -1 when the format does not carry it
+     */
+    static int countOf(String dbData) {
+        if (!isCompact(dbData)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(dbData, 1, dbData.indexOf('|'), 10);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * List backed by the stored column text until it is first read or modified.
+     * Not thread-safe, like the entity that holds it.
+     */
+    public static final class LazyList extends AbstractList<String> implements RandomAccess {
+
+        private final String stored;
+        private List<String> decoded;
+
+        LazyList(String stored) {
+            this.stored = stored;
+        }
+
+        public boolean isDecoded() {
+            return decoded != null;
+        }
+
+        private List<String> values() {
+            if (decoded == null) {
+                decoded = decode(stored);
+            }
+            return decoded;
+        }
+
+        @Override
+        public String get(int index) {
+            return values().get(index);
+        }
+
+        @Override
+        public int size() {
+            if (decoded == null) {
+                int count = countOf(stored);
+                if (count >= 0) {
+                    return count;
+                }
+            }
+            return values().size();
+        }
+
+        @Override
+        public String set(int index, String element) {
+            return values().set(index, element);
+        }
+
+        @Override
+        public void add(int index, String element) {
+            values().add(index, element);
+            modCount++;
+        }
+
+        @Override
+        public String remove(int index) {
+            String removed = values().remove(index);
+            modCount++;
+            return removed;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            // Dirty checking compares the loaded snapshot with the entity value; avoid decoding both for that
+            if (other instanceof LazyList lazy && decoded == null && lazy.decoded == null) {
+                return stored.equals(lazy.stored) || super.equals(other);
+            }
+            return super.equals(other);
+        }
+    }
+}
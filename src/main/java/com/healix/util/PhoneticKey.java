@@ -0,0 +1,132 @@
+package com.healix.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Phonetic key for Indian names. Spelling variants that staff commonly type for the same Marathi/Hindi name
+ * ("Patil"/"Paatil"/"पाटील", "Deshmukh"/"Desmukh", "Lakshmi"/"Laxmi") get the same key, so a fuzzy name
+ * lookup is an equality probe on an indexed column.
+ *
+ * Steps: romanise Devanagari; strip accents and non-letters; collapse doubled letters (long vowels,
+ * geminates); fold aspirated and interchangeable consonants; drop vowels, 'h' and 'y' after the first
+ * letter (a leading vowel becomes 'A').
+ */
+public final class PhoneticKey {
+
+    public static final int MAX_LENGTH = 12;
+
+    // Applied in order, so longer clusters are folded before their parts
+    private static final String[][] FOLDS = {
+            {"ksh", "x"}, {"chh", "c"}, {"ch", "c"}, {"sh", "s"}, {"kh", "k"}, {"gh", "g"},
+            {"th", "t"}, {"dh", "d"}, {"bh", "b"}, {"ph", "f"}, {"jh", "j"}, {"ck", "k"},
+            {"q", "k"}, {"z", "j"}, {"w", "v"}
+    };
+
+    private static final Map<Character, String> DEVANAGARI_CONSONANTS = Map.ofEntries(
+            Map.entry('\u0915', "k"), Map.entry('\u0916', "kh"), Map.entry('\u0917', "g"), Map.entry('\u0918', "gh"),
+            Map.entry('\u0919', "n"), Map.entry('\u091A', "ch"), Map.entry('\u091B', "chh"), Map.entry('\u091C', "j"),
+            Map.entry('\u091D', "jh"), Map.entry('\u091E', "n"), Map.entry('\u091F', "t"), Map.entry('\u0920', "th"),
+            Map.entry('\u0921', "d"), Map.entry('\u0922', "dh"), Map.entry('\u0923', "n"), Map.entry('\u0924', "t"),
+            Map.entry('\u0925', "th"), Map.entry('\u0926', "d"), Map.entry('\u0927', "dh"), Map.entry('\u0928', "n"),
+            Map.entry('\u092A', "p"), Map.entry('\u092B', "ph"), Map.entry('\u092C', "b"), Map.entry('\u092D', "bh"),
+            Map.entry('\u092E', "m"), Map.entry('\u092F', "y"), Map.entry('\u0930', "r"), Map.entry('\u0932', "l"),
+            Map.entry('\u0933', "l"), Map.entry('\u0935', "v"), Map.entry('\u0936', "sh"), Map.entry('\u0937', "sh"),
+            Map.entry('\u0938', "s"), Map.entry('\u0939', "h"));
+
+    // Independent vowels and vowel signs; anusvara/chandrabindu are nasal 'n', visarga is 'h'
+    private static final Map<Character, String> DEVANAGARI_VOWELS = Map.ofEntries(
+            Map.entry('\u0905', "a"), Map.entry('\u0906', "a"), Map.entry('\u0907', "i"), Map.entry('\u0908', "i"),
+            Map.entry('\u0909', "u"), Map.entry('\u090A', "u"), Map.entry('\u090B', "ri"), Map.entry('\u090F', "e"),
+            Map.entry('\u0910', "ai"), Map.entry('\u0913', "o"), Map.entry('\u0914', "au"),
+            Map.entry('\u093E', "a"), Map.entry('\u093F', "i"), Map.entry('\u0940', "i"), Map.entry('\u0941', "u"),
+            Map.entry('\u0942', "u"), Map.entry('\u0943', "ri"), Map.entry('\u0947', "e"), Map.entry('\u0948', "ai"),
+            Map.entry('\u094B', "o"), Map.entry('\u094C', "au"),
+            Map.entry('\u0901', "n"), Map.entry('\u0902', "n"), Map.entry('\u0903', "h"));
+
+    // Virama and nukta only modify the preceding consonant
+    private static final String DEVANAGARI_SILENT = "\u094D\u093C";
+
+    private PhoneticKey() {
+    }
+
+    /**
+     * Key for one name part, or null if it has no letters
+     */
+    public static String encode(String name) {
+        if (name == null) {
+            return null;
+        }
+        String letters = Normalizer.normalize(transliterateDevanagari(name), Normalizer.Form.NFD)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z]", "");
+        if (letters.isEmpty()) {
+            return null;
+        }
+
+        String folded = collapseRepeats(letters);
+        for (String[] fold : FOLDS) {
+            folded = folded.replace(fold[0], fold[1]);
+        }
+
+        StringBuilder key = new StringBuilder(MAX_LENGTH);
+        char first = folded.charAt(0);
+        key.append(isVowel(first) ? 'A' : Character.toUpperCase(first));
+        for (int i = 1; i < folded.length() && key.length() < MAX_LENGTH; i++) {
+            char c = folded.charAt(i);
+            if (!isVowel(c) && c != 'h' && c != 'y') {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Romanise Devanagari so names typed in Marathi/Hindi script share keys with their Latin spellings.
+     * Consonants carry the inherent 'a' unless a vowel sign or virama follows.
+     */
+    static String transliterateDevanagari(String value) {
+        StringBuilder latin = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String consonant = DEVANAGARI_CONSONANTS.get(c);
+            String vowel = consonant == null ? DEVANAGARI_VOWELS.get(c) : null;
+            if (consonant == null && vowel == null && !DEVANAGARI_SILENT.contains(String.valueOf(c))) {
+                if (latin != null) {
+                    latin.append(c);
+                }
+                continue;
+            }
+            if (latin == null) {
+                latin = new StringBuilder(value.length() * 2).append(value, 0, i);
+            }
+            if (consonant != null) {
+                latin.append(consonant);
+                char next = i + 1 < value.length() ? value.charAt(i + 1) : ' ';
+                boolean modified = next == '\u094D' || next == '\u093C' || (next >= '\u093E' && next <= '\u094C')
+                        || next == '\u0962' || next == '\u0963';
+                if (!modified) {
+                    latin.append('a');
+                }
+            } else if (vowel != null) {
+                latin.append(vowel);
+            }
+        }
+        return latin == null ? value : latin.toString();
+    }
+
+    private static String collapseRepeats(String value) {
+        StringBuilder collapsed = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            if (i == 0 || value.charAt(i) != value.charAt(i - 1)) {
+                collapsed.append(value.charAt(i));
+            }
+        }
+        return collapsed.toString();
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
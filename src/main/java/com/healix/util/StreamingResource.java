@@ -0,0 +1,109 @@
+package com.healix.util;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A response body written to an OutputStream, as a {@link Resource} for generated API methods (which return
+ * {@code ResponseEntity<Resource>} for binary responses). The body is written on its own virtual thread into
+ * a pipe the response is copied from, so only the pipe buffer is held in memory and the body is sent chunked.
+ *
+ * The writer runs outside the request thread: it must not rely on the request's transaction or security context.
+ * If it fails, reading the resource fails too, so a broken body never looks like a complete one. Closing the
+ * resource's stream (Spring does once the response is sent or the client went away) closes the pipe and
+ * interrupts the writer, which stops at its next write. A writer still running after {@code timeout} is
+ * stopped the same way, which also covers a body that is never read.
+ */
+public final class StreamingResource {
+
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private StreamingResource() {
+    }
+
+    /**
+     * Start writing {@code body}
+     * @param name names the writer thread and the resource
+     * @param timeout longest the writer may run before it is stopped and the body fails
+     */
+    public static Resource of(String name, Duration timeout, Body body) {
+        PipedInputStream in = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream out;
+        try {
+            out = new PipedOutputStream(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        Thread writer = Thread.ofVirtual().name(name).start(() -> {
+            try {
+                body.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                // Set before closing, so the reader sees it instead of a clean end of stream
+                failure.set(e);
+            } finally {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Reader already closed the pipe
+                }
+            }
+        });
+
+        InputStream checked = new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                return checkEnd(super.read());
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return checkEnd(super.read(b, off, len));
+            }
+
+            private int checkEnd(int result) throws IOException {
+                if (result == -1 && failure.get() != null) {
+                    throw new IOException("Writing " + name + " failed", failure.get());
+                }
+                return result;
+            }
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                writer.interrupt();
+            }
+        };
+
+        Thread.ofVirtual().name(name + "-timeout").start(() -> {
+            try {
+                if (!writer.join(timeout)) {
+                    failure.compareAndSet(null, new TimeoutException("Not written within " + timeout));
+                    in.close();
+                    writer.interrupt();
+                }
+            } catch (InterruptedException | IOException ignored) {
+                // Nothing left to stop
+            }
+        });
+        // Exactly InputStreamResource, which Spring sends without a Content-Length
+        return new InputStreamResource(checked, name);
+    }
+}
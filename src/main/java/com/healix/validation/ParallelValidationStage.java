@@ -0,0 +1,64 @@
+package com.healix.validation;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Runs a per-row check over a list of rows on a dedicated fork-join pool, in chunks,
+ * and returns the results in the original row order.
+ * Checks must be side-effect free and must not depend on request-bound thread state.
+ */
+@Component
+public class ParallelValidationStage {
+
+    /**
+     * Rows checked per task; lists up to this size are checked on the calling thread.
+     */
+    static final int CHUNK_SIZE = 256;
+
+    private final ForkJoinPool pool;
+
+    public ParallelValidationStage(@Value("${healix.validation.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Apply {@code check} to every row
+     * @return one result per row, in row order
+     */
+    public <T, R> List<R> validate(List<T> rows, Function<T, R> check) {
+        if (rows.size() <= CHUNK_SIZE) {
+            List<R> results = new ArrayList<>(rows.size());
+            rows.forEach(row -> results.add(check.apply(row)));
+            return results;
+        }
+
+        List<ForkJoinTask<List<R>>> tasks = new ArrayList<>();
+        for (int start = 0; start < rows.size(); start += CHUNK_SIZE) {
+            List<T> chunk = rows.subList(start, Math.min(start + CHUNK_SIZE, rows.size()));
+            tasks.add(pool.submit(() -> {
+                List<R> results = new ArrayList<>(chunk.size());
+                chunk.forEach(row -> results.add(check.apply(row)));
+                return results;
+            }));
+        }
+
+        List<R> results = new ArrayList<>(rows.size());
+        for (ForkJoinTask<List<R>> task : tasks) {
+            results.addAll(task.join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,75 @@
+package com.healix.validation;
+
+import com.healix.entity.VitalRule;
+import com.healix.repository.VitalRuleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+/**
+ * Holds the compiled vitals rules from the vital_rules table. Every {@code healix.vitals.rules.refresh-ms}
+ * the rule count and latest updated_at are checked and, when either changed, the rules are recompiled and
+ * swapped in; rules that fail to compile are logged and the previous ones stay in use.
+ */
+@Component
+@Slf4j
+public class VitalsRuleEngine {
+
+    private final VitalRuleRepository ruleRepository;
+
+    private volatile VitalsRuleSet rules;
+    private String version;
+
+    public VitalsRuleEngine(VitalRuleRepository ruleRepository) {
+        this.ruleRepository = ruleRepository;
+    }
+
+    /**
+     * The rules in use, compiled on first use
+     */
+    public VitalsRuleSet rules() {
+        VitalsRuleSet current = rules;
+        if (current == null) {
+            refresh();
+            current = rules;
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${healix.vitals.rules.refresh-ms:30000}",
+            initialDelayString = "${healix.vitals.rules.refresh-ms:30000}")
+    public synchronized void refresh() {
+        // Read the version before the rules, so a change made while loading is picked up next time
+        LocalDateTime lastUpdated = ruleRepository.findLastUpdatedAt();
+        String latest = ruleRepository.count() + "@" + lastUpdated;
+        if (rules != null && latest.equals(version)) {
+            return;
+        }
+        version = latest;
+        List<VitalRule> active = ruleRepository.findByActiveTrueOrderBySortOrderAscIdAsc();
+        try {
+            rules = VitalsRuleSet.compile(active);
+            log.info("Compiled {} vitals rules", active.size());
+        } catch (IllegalArgumentException e) {
+            if (rules == null) {
+                throw e;
+            }
+            log.error("Vitals rules not reloaded, keeping the previous ones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Age in whole months for picking age-banded rules, or {@link VitalsRuleSet#UNKNOWN_AGE}
+     */
+    public static int ageInMonths(LocalDate dateOfBirth) {
+        if (dateOfBirth == null || dateOfBirth.isAfter(LocalDate.now())) {
+            return VitalsRuleSet.UNKNOWN_AGE;
+        }
+        return (int) Period.between(dateOfBirth, LocalDate.now()).toTotalMonths();
+    }
+}
@@ -0,0 +1,263 @@
+package com.healix.validation;
+
+import com.healix.entity.VitalRule;
+import com.healix.enums.VitalRuleMetric;
+import com.healix.enums.VitalRuleSeverity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Vitals rules compiled for evaluation. Every age at which some rule starts or stops splits the ages into
+ * bands; for each band the most specific rule of every metric is resolved up front and its limits laid out
+ * in flat primitive arrays, with inclusive limits turned into exclusive ones. Evaluating a reading is then
+ * one pass of double comparisons over the severity's rules, in sort order, with no lookups or boxing.
+ * Immutable, so a recompiled set can simply replace the old one.
+ */
+public final class VitalsRuleSet {
+
+    /**
+     * Age to pass when the patient's age is not known; the rules for the oldest ages apply
+     */
+    public static final int UNKNOWN_AGE = -1;
+
+    // Band i covers ages (in months) from bandStarts[i] up to bandStarts[i + 1]
+    private final int[] bandStarts;
+    private final Compiled[] bySeverity;
+
+    /**
+     * Rules of one severity. A slot is one metric, or one group of metrics, producing at most one message;
+     * members are the metrics of each slot. Limits are indexed [band * memberCount + member] and messages
+     * [band * slotCount + slot].
+     */
+    private static final class Compiled {
+        int slotCount;
+        int memberCount;
+        String[] findingKeys;
+        int[] memberStart;
+        int[] memberMetric;
+        boolean[] ruled;
+        double[] low;
+        double[] high;
+        String[] lowMessages;
+        String[] highMessages;
+    }
+
+    private VitalsRuleSet(int[] bandStarts, Compiled[] bySeverity) {
+        this.bandStarts = bandStarts;
+        this.bySeverity = bySeverity;
+    }
+
+    /**
+     * Compile active rules
+     * @throws IllegalArgumentException if a rule is incomplete or its limits or age band are inconsistent
+     */
+    public static VitalsRuleSet compile(List<VitalRule> rules) {
+        List<VitalRule> sorted = new ArrayList<>(rules);
+        sorted.sort(Comparator.comparing(VitalRule::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(VitalRule::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        TreeSet<Integer> starts = new TreeSet<>();
+        starts.add(0);
+        for (VitalRule rule : sorted) {
+            check(rule);
+            starts.add(rule.getMinAgeMonths());
+            if (rule.getMaxAgeMonths() != null) {
+                starts.add(rule.getMaxAgeMonths());
+            }
+        }
+        int[] bandStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+
+        Compiled[] bySeverity = new Compiled[VitalRuleSeverity.values().length];
+        for (VitalRuleSeverity severity : VitalRuleSeverity.values()) {
+            bySeverity[severity.ordinal()] = compile(bandStarts,
+                    sorted.stream().filter(rule -> rule.getSeverity() == severity).toList());
+        }
+        return new VitalsRuleSet(bandStarts, bySeverity);
+    }
+
+    private static void check(VitalRule rule) {
+        String name = "Vital rule " + rule.getId();
+        if (rule.getSeverity() == null || rule.getMetric() == null) {
+            throw new IllegalArgumentException(name + " needs a severity and a metric");
+        }
+        if (rule.getLowLimit() == null && rule.getHighLimit() == null) {
+            throw new IllegalArgumentException(name + " has neither a low nor a high limit");
+        }
+        if (rule.getLowLimit() != null && rule.getHighLimit() != null && rule.getLowLimit() > rule.getHighLimit()) {
+            throw new IllegalArgumentException(name + " has a low limit above its high limit");
+        }
+        if (rule.getMinAgeMonths() == null || rule.getMinAgeMonths() < 0) {
+            throw new IllegalArgumentException(name + " needs a minimum age of 0 months or more");
+        }
+        if (rule.getMaxAgeMonths() != null && rule.getMaxAgeMonths() <= rule.getMinAgeMonths()) {
+            throw new IllegalArgumentException(name + " has an empty age band");
+        }
+    }
+
+    private static Compiled compile(int[] bandStarts, List<VitalRule> rules) {
+        // Slot -> metric -> rules, in sort order of each slot's and metric's first rule
+        Map<String, Map<VitalRuleMetric, List<VitalRule>>> slots = new LinkedHashMap<>();
+        for (VitalRule rule : rules) {
+            String slot = rule.getRuleGroup() != null ? rule.getRuleGroup() : rule.getMetric().name();
+            slots.computeIfAbsent(slot, key -> new LinkedHashMap<>())
+                    .computeIfAbsent(rule.getMetric(), key -> new ArrayList<>())
+                    .add(rule);
+        }
+
+        Compiled compiled = new Compiled();
+        compiled.slotCount = slots.size();
+        compiled.memberCount = slots.values().stream().mapToInt(Map::size).sum();
+        int bands = bandStarts.length;
+        compiled.findingKeys = new String[compiled.slotCount];
+        compiled.memberStart = new int[compiled.slotCount + 1];
+        compiled.memberMetric = new int[compiled.memberCount];
+        compiled.ruled = new boolean[bands * compiled.memberCount];
+        compiled.low = new double[bands * compiled.memberCount];
+        compiled.high = new double[bands * compiled.memberCount];
+        compiled.lowMessages = new String[bands * compiled.slotCount];
+        compiled.highMessages = new String[bands * compiled.slotCount];
+
+        int slot = 0;
+        int member = 0;
+        for (Map<VitalRuleMetric, List<VitalRule>> metrics : slots.values()) {
+            VitalRule first = metrics.values().iterator().next().get(0);
+            compiled.findingKeys[slot] = first.getRuleGroup() != null ? first.getRuleGroup() : first.getMetric().getFindingKey();
+            compiled.memberStart[slot] = member;
+            for (Map.Entry<VitalRuleMetric, List<VitalRule>> metric : metrics.entrySet()) {
+                compiled.memberMetric[member] = metric.getKey().ordinal();
+                for (int band = 0; band < bands; band++) {
+                    VitalRule rule = mostSpecific(metric.getValue(), bandStarts[band]);
+                    if (rule == null) {
+                        continue;
+                    }
+                    int at = band * compiled.memberCount + member;
+                    compiled.ruled[at] = true;
+                    compiled.low[at] = lowerBound(rule);
+                    compiled.high[at] = upperBound(rule);
+                    int messageAt = band * compiled.slotCount + slot;
+                    if (compiled.lowMessages[messageAt] == null) {
+                        compiled.lowMessages[messageAt] = rule.getLowMessage();
+                    }
+                    if (compiled.highMessages[messageAt] == null) {
+                        compiled.highMessages[messageAt] = rule.getHighMessage();
+                    }
+                }
+                member++;
+            }
+            slot++;
+        }
+        compiled.memberStart[slot] = member;
+        return compiled;
+    }
+
+    /**
+     * The rule covering a band with the narrowest age range, or null when none covers it. Bands never cross a
+     * rule's age limits, so a rule covers the band exactly when it covers the band's first age.
+     */
+    private static VitalRule mostSpecific(List<VitalRule> rules, int bandStart) {
+        VitalRule best = null;
+        for (VitalRule rule : rules) {
+            if (rule.getMinAgeMonths() > bandStart
+                    || (rule.getMaxAgeMonths() != null && rule.getMaxAgeMonths() <= bandStart)) {
+                continue;
+            }
+            if (best == null || rule.getMinAgeMonths() > best.getMinAgeMonths()
+                    || (rule.getMinAgeMonths().equals(best.getMinAgeMonths()) && maxAge(rule) < maxAge(best))) {
+                best = rule;
+            }
+        }
+        return best;
+    }
+
+    private static int maxAge(VitalRule rule) {
+        return rule.getMaxAgeMonths() != null ? rule.getMaxAgeMonths() : Integer.MAX_VALUE;
+    }
+
+    // A reading fires low when below this
+    private static double lowerBound(VitalRule rule) {
+        if (rule.getLowLimit() == null) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return Boolean.TRUE.equals(rule.getLowInclusive()) ? Math.nextUp(rule.getLowLimit()) : rule.getLowLimit();
+    }
+
+    // A reading fires high when above this
+    private static double upperBound(VitalRule rule) {
+        if (rule.getHighLimit() == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Boolean.TRUE.equals(rule.getHighInclusive()) ? Math.nextDown(rule.getHighLimit()) : rule.getHighLimit();
+    }
+
+    /**
+     * Messages of the rules of a severity that fire, in sort order
+     * @param readings indexed by {@link VitalRuleMetric} ordinal, NaN where not taken
+     * @param ageMonths patient age in months, or {@link #UNKNOWN_AGE}
+     */
+    public List<String> messages(VitalRuleSeverity severity, double[] readings, int ageMonths) {
+        return evaluate(bySeverity[severity.ordinal()], readings, ageMonths, false);
+    }
+
+    /**
+     * Finding keys (the group, or the metric's finding key) of the rules of a severity that fire, in sort order
+     */
+    public List<String> findings(VitalRuleSeverity severity, double[] readings, int ageMonths) {
+        return evaluate(bySeverity[severity.ordinal()], readings, ageMonths, true);
+    }
+
+    private List<String> evaluate(Compiled compiled, double[] readings, int ageMonths, boolean findingKeys) {
+        int band = band(ageMonths);
+        int memberBase = band * compiled.memberCount;
+        int messageBase = band * compiled.slotCount;
+        List<String> results = null;
+        for (int slot = 0; slot < compiled.slotCount; slot++) {
+            boolean applies = false;
+            boolean low = false;
+            boolean high = false;
+            for (int member = compiled.memberStart[slot]; member < compiled.memberStart[slot + 1]; member++) {
+                int at = memberBase + member;
+                if (!compiled.ruled[at]) {
+                    continue;
+                }
+                double reading = readings[compiled.memberMetric[member]];
+                if (Double.isNaN(reading)) {
+                    // A slot applies only when all of its readings were taken
+                    applies = false;
+                    break;
+                }
+                applies = true;
+                if (reading < compiled.low[at]) {
+                    low = true;
+                } else if (reading > compiled.high[at]) {
+                    high = true;
+                }
+            }
+            if (!applies || !(low || high)) {
+                continue;
+            }
+            String result = findingKeys ? compiled.findingKeys[slot]
+                    : low ? compiled.lowMessages[messageBase + slot] : compiled.highMessages[messageBase + slot];
+            if (result != null) {
+                if (results == null) {
+                    results = new ArrayList<>();
+                }
+                results.add(result);
+            }
+        }
+        return results != null ? results : List.of();
+    }
+
+    private int band(int ageMonths) {
+        if (ageMonths < 0) {
+            return bandStarts.length - 1;
+        }
+        int found = Arrays.binarySearch(bandStarts, ageMonths);
+        return found >= 0 ? found : -found - 2;
+    }
+}
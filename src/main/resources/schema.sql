@@ -25,14 +25,35 @@ CREATE TABLE staff_roles (
         ON DELETE CASCADE
 );
 
+-- ID sequences for write-heavy tables.
+-- Hibernate reserves ids in blocks of 50 (pooled optimizer), so INCREMENT BY must match allocationSize
+-- on the entity. Sequences start at 1000 to leave room for seed rows inserted with explicit ids.
+CREATE SEQUENCE patients_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_emergency_contacts_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE dropdown_lookup_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_insurance_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_medical_history_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE appointments_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE appointment_audit_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE vitals_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE appointment_examination_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_medical_history_audit_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_duplicate_candidates_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_medical_tags_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE patient_medical_history_snapshots_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE critical_vitals_alerts_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE vital_rules_seq START WITH 1000 INCREMENT BY 50;
+
 -- Patient Registration Tables
 CREATE TABLE patients (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
-    patient_id VARCHAR(20) UNIQUE, -- e.g., SNG2025001 (Generated after insert)
+    id BIGINT DEFAULT NEXT VALUE FOR patients_seq PRIMARY KEY,
+    patient_id VARCHAR(20) UNIQUE, -- e.g., SNG2025001 (Reserved from patient_id_counters before insert)
 
     -- Personal Information
     first_name VARCHAR(100) NOT NULL,
     last_name VARCHAR(100) NOT NULL,
+    first_name_key VARCHAR(12), -- Phonetic keys (PhoneticKey), set by the application on insert/update
+    last_name_key VARCHAR(12),
     date_of_birth DATE NOT NULL,
     gender VARCHAR(10) NOT NULL, -- MALE, FEMALE, OTHER
     blood_group VARCHAR(5), -- A_POSITIVE, B_NEGATIVE, etc.
@@ -61,9 +82,18 @@ CREATE TABLE patients (
     CONSTRAINT fk_patient_created_by FOREIGN KEY (created_by) REFERENCES Staff(id)
 );
 
+-- Patient ID counters (one row per clinic and year).
+-- Nodes reserve blocks of patient numbers from here before insert; unused numbers in a block are skipped.
+CREATE TABLE patient_id_counters (
+    clinic_code VARCHAR(10) NOT NULL,
+    id_year INT NOT NULL,
+    next_value BIGINT NOT NULL,
+    PRIMARY KEY (clinic_code, id_year)
+);
+
 -- Emergency Contact Information
 CREATE TABLE patient_emergency_contacts (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR patient_emergency_contacts_seq PRIMARY KEY,
     patient_id BIGINT NOT NULL,
     contact_person_name VARCHAR(100) NOT NULL,
     relationship VARCHAR(20) NOT NULL, -- SPOUSE, PARENT, CHILD, SIBLING, FRIEND, OTHER
@@ -81,7 +111,7 @@ CREATE TABLE patient_emergency_contacts (
 
 -- Dropdown lookup table for generic reference data (replaces insurance_schemes)
 CREATE TABLE dropdown_lookup (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR dropdown_lookup_seq PRIMARY KEY,
     type VARCHAR(50) NOT NULL,
     code VARCHAR(50) NOT NULL,
     description VARCHAR(200),
@@ -95,7 +125,7 @@ CREATE TABLE dropdown_lookup (
 
 -- Insurance Information (references dropdown_lookup instead of insurance_schemes)
 CREATE TABLE patient_insurance (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR patient_insurance_seq PRIMARY KEY,
     patient_id BIGINT NOT NULL,
 
     has_insurance BOOLEAN NOT NULL DEFAULT FALSE,
@@ -122,16 +152,18 @@ CREATE TABLE patient_insurance (
 
 -- Medical History
 CREATE TABLE patient_medical_history (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR patient_medical_history_seq PRIMARY KEY,
     patient_id BIGINT NOT NULL,
 
-    known_allergies TEXT, -- JSON array of strings
-    current_medications TEXT, -- JSON array of strings
+    known_allergies TEXT, -- length-prefixed string list (older rows: JSON array)
+    current_medications TEXT, -- length-prefixed string list (older rows: JSON array)
     past_surgeries TEXT,
     chronic_conditions TEXT,
     family_medical_history TEXT,
     disability TEXT,
     social_history TEXT, -- Smoking, alcohol, occupation, living conditions
+    audit_version INT DEFAULT 0, -- Number of audited changes (patient_medical_history_audit.history_version)
+    tagged_at TIMESTAMP, -- When patient_medical_tags were last derived from this history; NULL until then
 
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP,
@@ -169,66 +201,71 @@ INSERT INTO staff_roles (staff_id, role) VALUES('2', 'RECEPTIONIST');
 INSERT INTO staff_roles (staff_id, role) VALUES('3', 'DOCTOR');
 
 -- Dropdown lookup seed data for insurance schemes (type = 'INSURANCE_SCHEME')
-INSERT INTO dropdown_lookup (type, code, description, display_order) VALUES
-('INSURANCE_SCHEME', 'MJPJAY', 'Mahatma Jyotiba Phule Jan Arogya Yojana (MJPJAY)', 1),
-('INSURANCE_SCHEME', 'PMJAY', 'Pradhan Mantri Jan Arogya Yojana (PM-JAY/Ayushman Bharat)', 2),
-('INSURANCE_SCHEME', 'ESI', 'Employee State Insurance (ESI)', 3),
-('INSURANCE_SCHEME', 'CGHS', 'Central Government Health Scheme (CGHS)', 4),
-('INSURANCE_SCHEME', 'RGJAY', 'Rajiv Gandhi Jeevandayee Arogya Yojana (RGJAY)', 5),
-('INSURANCE_SCHEME', 'OTHER', 'Other', 6),
-('INSURANCE_PROVIDER', 'STAR_HEALTH', 'Star Health', 7),
-('INSURANCE_PROVIDER', 'ICICI_LOMBARD', 'ICICI Lombard', 8),
-('INSURANCE_PROVIDER', 'HDFC_ERGO', 'HDFC Ergo', 9),
-('INSURANCE_PROVIDER', 'MAX_BUPA', 'Max Bupa', 10),
-('INSURANCE_PROVIDER', 'CARE_HEALTH', 'Care Health', 11),
-('INSURANCE_PROVIDER', 'OTHER', 'Other', 12);
+INSERT INTO dropdown_lookup (id, type, code, description, display_order) VALUES
+(1, 'INSURANCE_SCHEME', 'MJPJAY', 'Mahatma Jyotiba Phule Jan Arogya Yojana (MJPJAY)', 1),
+(2, 'INSURANCE_SCHEME', 'PMJAY', 'Pradhan Mantri Jan Arogya Yojana (PM-JAY/Ayushman Bharat)', 2),
+(3, 'INSURANCE_SCHEME', 'ESI', 'Employee State Insurance (ESI)', 3),
+(4, 'INSURANCE_SCHEME', 'CGHS', 'Central Government Health Scheme (CGHS)', 4),
+(5, 'INSURANCE_SCHEME', 'RGJAY', 'Rajiv Gandhi Jeevandayee Arogya Yojana (RGJAY)', 5),
+(6, 'INSURANCE_SCHEME', 'OTHER', 'Other', 6),
+(7, 'INSURANCE_PROVIDER', 'STAR_HEALTH', 'Star Health', 7),
+(8, 'INSURANCE_PROVIDER', 'ICICI_LOMBARD', 'ICICI Lombard', 8),
+(9, 'INSURANCE_PROVIDER', 'HDFC_ERGO', 'HDFC Ergo', 9),
+(10, 'INSURANCE_PROVIDER', 'MAX_BUPA', 'Max Bupa', 10),
+(11, 'INSURANCE_PROVIDER', 'CARE_HEALTH', 'Care Health', 11),
+(12, 'INSURANCE_PROVIDER', 'OTHER', 'Other', 12);
 
 -- Dropdown lookup seed data for departments (type = 'DEPARTMENT')
-INSERT INTO dropdown_lookup (type, code, description, display_order) VALUES
-('DEPARTMENT', 'CARDIOLOGY', 'Cardiology', 1),
-('DEPARTMENT', 'PEDIATRICS', 'Pediatrics', 2),
-('DEPARTMENT', 'ORTHOPEDICS', 'Orthopedics', 3),
-('DEPARTMENT', 'NEUROLOGY', 'Neurology', 4),
-('DEPARTMENT', 'GENERAL_MEDICINE', 'General Medicine', 5),
-('DEPARTMENT', 'SURGERY', 'Surgery', 6),
-('DEPARTMENT', 'GYNECOLOGY', 'Gynecology', 7),
-('DEPARTMENT', 'DERMATOLOGY', 'Dermatology', 8),
-('DEPARTMENT', 'ENT', 'ENT (Ear, Nose, Throat)', 9),
-('DEPARTMENT', 'OPHTHALMOLOGY', 'Ophthalmology', 10),
-('DEPARTMENT', 'PSYCHIATRY', 'Psychiatry', 11),
-('DEPARTMENT', 'RADIOLOGY', 'Radiology', 12),
-('DEPARTMENT', 'PATHOLOGY', 'Pathology', 13),
-('DEPARTMENT', 'EMERGENCY', 'Emergency', 14),
-('DEPARTMENT', 'ICU', 'Intensive Care Unit', 15);
+INSERT INTO dropdown_lookup (id, type, code, description, display_order) VALUES
+(13, 'DEPARTMENT', 'CARDIOLOGY', 'Cardiology', 1),
+(14, 'DEPARTMENT', 'PEDIATRICS', 'Pediatrics', 2),
+(15, 'DEPARTMENT', 'ORTHOPEDICS', 'Orthopedics', 3),
+(16, 'DEPARTMENT', 'NEUROLOGY', 'Neurology', 4),
+(17, 'DEPARTMENT', 'GENERAL_MEDICINE', 'General Medicine', 5),
+(18, 'DEPARTMENT', 'SURGERY', 'Surgery', 6),
+(19, 'DEPARTMENT', 'GYNECOLOGY', 'Gynecology', 7),
+(20, 'DEPARTMENT', 'DERMATOLOGY', 'Dermatology', 8),
+(21, 'DEPARTMENT', 'ENT', 'ENT (Ear, Nose, Throat)', 9),
+(22, 'DEPARTMENT', 'OPHTHALMOLOGY', 'Ophthalmology', 10),
+(23, 'DEPARTMENT', 'PSYCHIATRY', 'Psychiatry', 11),
+(24, 'DEPARTMENT', 'RADIOLOGY', 'Radiology', 12),
+(25, 'DEPARTMENT', 'PATHOLOGY', 'Pathology', 13),
+(26, 'DEPARTMENT', 'EMERGENCY', 'Emergency', 14),
+(27, 'DEPARTMENT', 'ICU', 'Intensive Care Unit', 15);
 
 -- Sample Patient Data
-INSERT INTO patients (patient_id, first_name, last_name, date_of_birth, gender, blood_group,
+INSERT INTO patients (id, patient_id, first_name, last_name, date_of_birth, gender, blood_group,
                      mobile_number, email_id, city, pin_code, created_by) VALUES
-('SNG2025001', 'Rahul', 'Patil', '1985-03-15', 'MALE', 'O_',
+(1, 'SNG2025001', 'Rahul', 'Patil', '1985-03-15', 'MALE', 'O_',
  '9876543210', 'rahul.patil@gmail.com', 'Sangli', '416416', 1),
-('SNG2025002', 'Priya', 'Deshmukh', '1990-07-22', 'FEMALE', 'A_',
+(2, 'SNG2025002', 'Priya', 'Deshmukh', '1990-07-22', 'FEMALE', 'A_',
  '9876543211', 'priya.d@gmail.com', 'Sangli', '416416', 1);
 
 -- Sample Emergency Contacts
-INSERT INTO patient_emergency_contacts (patient_id, contact_person_name, relationship, contact_number) VALUES
-(1, 'Sunita Patil', 'SPOUSE', '9876543220'),
-(2, 'Vijay Deshmukh', 'SPOUSE', '9876543221');
+INSERT INTO patient_emergency_contacts (id, patient_id, contact_person_name, relationship, contact_number) VALUES
+(1, 1, 'Sunita Patil', 'SPOUSE', '9876543220'),
+(2, 2, 'Vijay Deshmukh', 'SPOUSE', '9876543221');
 
 -- Sample Insurance
-INSERT INTO patient_insurance (patient_id, has_insurance, insurance_type, scheme_id, policy_card_number) VALUES
-(1, TRUE, 'GOVERNMENT', 1, 'MJPJAY123456'),
-(2, TRUE, 'GOVERNMENT', 2, 'PMJAY789012');
+INSERT INTO patient_insurance (id, patient_id, has_insurance, insurance_type, scheme_id, policy_card_number) VALUES
+(1, 1, TRUE, 'GOVERNMENT', 1, 'MJPJAY123456'),
+(2, 2, TRUE, 'GOVERNMENT', 2, 'PMJAY789012');
 
 -- Sample Medical History
-INSERT INTO patient_medical_history (patient_id, known_allergies, current_medications) VALUES
-(1, '["Penicillin", "Peanuts"]', '["Metformin 500mg"]'),
-(2, '[]', '[]');
+INSERT INTO patient_medical_history (id, patient_id, known_allergies, current_medications) VALUES
+(1, 1, '~2|10:Penicillin7:Peanuts', '~1|15:Metformin 500mg'),
+(2, 2, NULL, NULL);
 
 -- Create indexes for performance
 CREATE INDEX idx_patient_mobile ON patients(mobile_number);
 CREATE INDEX idx_patient_aadhar ON patients(aadhar_number);
 CREATE INDEX idx_patient_id ON patients(patient_id);
 CREATE INDEX idx_patient_status ON patients(status);
+CREATE INDEX idx_patient_name_keys ON patients(last_name_key, first_name_key);
+CREATE INDEX idx_patient_first_name_key ON patients(first_name_key);
+CREATE INDEX idx_patient_key_dob ON patients(last_name_key, date_of_birth); -- duplicate scan blocking
+CREATE INDEX idx_patient_district ON patients(district);
+CREATE INDEX idx_medical_history_untagged ON patient_medical_history(tagged_at, id); -- medical tag backfill
 
 -- ============================================
 -- APPOINTMENT MANAGEMENT SYSTEM
@@ -236,7 +273,7 @@ CREATE INDEX idx_patient_status ON patients(status);
 
 -- Appointments table (OPD & IPD)
 CREATE TABLE appointments (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR appointments_seq PRIMARY KEY,
     appointment_number VARCHAR(20) UNIQUE NOT NULL, -- Auto-generated: APT-YYYYMMDD-XXXXX
 
     -- Patient & Type
@@ -311,9 +348,10 @@ CREATE TABLE appointments (
 
 -- Create indexes for appointments table
 CREATE INDEX idx_appointment_date ON appointments(appointment_date);
-CREATE INDEX idx_appointment_patient ON appointments(patient_id);
-CREATE INDEX idx_appointment_physician ON appointments(physician_id);
-CREATE INDEX idx_appointment_status ON appointments(status);
+-- Composite (filter, date) indexes back the appointment search; their leading column also serves single-column lookups
+CREATE INDEX idx_appointment_patient_date ON appointments(patient_id, appointment_date);
+CREATE INDEX idx_appointment_physician_date ON appointments(physician_id, appointment_date);
+CREATE INDEX idx_appointment_status_date ON appointments(status, appointment_date);
 CREATE INDEX idx_appointment_number ON appointments(appointment_number);
 CREATE INDEX idx_appointment_specialty ON appointments(specialty);
 
@@ -387,7 +425,7 @@ CREATE INDEX idx_override_date ON schedule_overrides(override_date);
 
 -- Appointment Audit History (Track all status changes)
 CREATE TABLE appointment_audit (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR appointment_audit_seq PRIMARY KEY,
     appointment_id BIGINT NOT NULL,
 
     -- Change Details
@@ -418,7 +456,7 @@ CREATE INDEX idx_audit_changed_at ON appointment_audit(changed_at);
 
 -- Appointment Vitals (Clinical measurements)
 CREATE TABLE vitals (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR vitals_seq PRIMARY KEY,
     appointment_id BIGINT NOT NULL,
 
     -- Vitals
@@ -446,8 +484,8 @@ CREATE TABLE vitals (
     CONSTRAINT fk_vitals_recorded_by FOREIGN KEY (recorded_by) REFERENCES staff(id)
 );
 
--- Create index for vitals table
-CREATE INDEX idx_vitals_appointment ON vitals(appointment_id);
+-- Create index for vitals table (newest first per appointment, so the latest vitals are the first entry)
+CREATE INDEX idx_vitals_appointment_recorded ON vitals(appointment_id, recorded_at DESC);
 
 -- Vital Symptoms (ElementCollection for symptoms list)
 CREATE TABLE vital_symptoms (
@@ -459,9 +497,108 @@ CREATE TABLE vital_symptoms (
 -- Create index for vital_symptoms table
 CREATE INDEX idx_vital_symptoms_vital ON vital_symptoms(vital_id);
 
+-- Vital readings as per-patient time series: one narrow row per metric of each vitals record, so a chart
+-- of one metric over years is a range scan of the (patient, metric, time) index with no appointment join.
+-- metric holds VitalMetric codes; temperature is stored in Fahrenheit.
+CREATE TABLE vital_readings (
+    vitals_id BIGINT NOT NULL,
+    metric SMALLINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    recorded_at TIMESTAMP NOT NULL,
+    reading_value DOUBLE PRECISION NOT NULL,
+
+    PRIMARY KEY (vitals_id, metric),
+    CONSTRAINT fk_vital_readings_vitals FOREIGN KEY (vitals_id) REFERENCES vitals(id) ON DELETE CASCADE,
+    CONSTRAINT fk_vital_readings_patient FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE
+);
+
+-- Covers the range query (value included, so no row lookups)
+CREATE INDEX idx_vital_reading_series ON vital_readings(patient_id, metric, recorded_at, reading_value);
+
+-- Critical vitals alerts, raised in the background once the vitals are committed. Critical findings for a
+-- patient already covered by an alert raised within the dedupe window bump repeat_count on that alert
+-- instead of raising (and notifying) again.
+CREATE TABLE critical_vitals_alerts (
+    id BIGINT DEFAULT NEXT VALUE FOR critical_vitals_alerts_seq PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    patient_name VARCHAR(255),
+    appointment_id BIGINT NOT NULL,
+    appointment_number VARCHAR(50),
+    consultation_room VARCHAR(50),
+    vitals_id BIGINT NOT NULL,
+    metrics VARCHAR(255) NOT NULL, -- Critical metrics, comma separated (e.g. HEART_RATE,SPO2)
+    findings VARCHAR(1000) NOT NULL, -- One line per metric, e.g. "Heart rate 160 bpm"
+    recorded_at TIMESTAMP NOT NULL, -- When the vitals were taken
+    raised_at TIMESTAMP NOT NULL,
+    last_seen_at TIMESTAMP NOT NULL, -- Latest repeat
+    repeat_count INT DEFAULT 0,
+
+    CONSTRAINT fk_critical_alert_patient FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    CONSTRAINT fk_critical_alert_appointment FOREIGN KEY (appointment_id) REFERENCES appointments(id) ON DELETE CASCADE,
+    CONSTRAINT fk_critical_alert_vitals FOREIGN KEY (vitals_id) REFERENCES vitals(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_critical_alert_raised ON critical_vitals_alerts(raised_at);
+CREATE INDEX idx_critical_alert_patient ON critical_vitals_alerts(patient_id);
+
+-- Vitals rules: range limits (ERROR), warning thresholds (WARNING) and critical alert thresholds (CRITICAL),
+-- optionally per age band. A reading below low_limit (or equal, when low_inclusive) gives low_message, one
+-- above high_limit (or equal, when high_inclusive) gives high_message. metric holds VitalRuleMetric names.
+-- For an age, the rule of each metric with the narrowest band covering it applies. Rules are recompiled when
+-- the row count or the latest updated_at changes, so edits must set updated_at.
+CREATE TABLE vital_rules (
+    id BIGINT DEFAULT NEXT VALUE FOR vital_rules_seq PRIMARY KEY,
+    severity VARCHAR(10) NOT NULL, -- ERROR, WARNING, CRITICAL
+    metric VARCHAR(30) NOT NULL,
+    rule_group VARCHAR(30), -- Rules of a group apply only when all its readings were taken, with one message
+    min_age_months INT NOT NULL DEFAULT 0,
+    max_age_months INT, -- Exclusive; NULL for no upper limit
+    low_limit DOUBLE PRECISION,
+    low_inclusive BOOLEAN NOT NULL DEFAULT FALSE,
+    low_message VARCHAR(255),
+    high_limit DOUBLE PRECISION,
+    high_inclusive BOOLEAN NOT NULL DEFAULT FALSE,
+    high_message VARCHAR(255),
+    sort_order INT NOT NULL, -- Order of messages within a severity
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Default rules, for all ages. Critical rules need no messages: alerts describe the reading itself.
+INSERT INTO vital_rules (id, severity, metric, rule_group, low_limit, low_inclusive, low_message, high_limit, high_inclusive, high_message, sort_order) VALUES
+(1, 'ERROR', 'WEIGHT', NULL, 0, TRUE, 'Weight must be greater than 0 kg', 500, FALSE, 'Weight cannot exceed 500 kg', 10),
+(2, 'ERROR', 'HEIGHT', NULL, 10, FALSE, 'Height must be at least 10 cm', 300, FALSE, 'Height cannot exceed 300 cm', 20),
+(3, 'ERROR', 'HEAD_CIRCUMFERENCE', NULL, 10, FALSE, 'Head circumference must be at least 10 cm', 100, FALSE, 'Head circumference cannot exceed 100 cm', 30),
+(4, 'ERROR', 'TEMPERATURE_F', NULL, 77, FALSE, 'Temperature in Fahrenheit must be at least 77°F', 115, FALSE, 'Temperature in Fahrenheit cannot exceed 115°F', 40),
+(5, 'ERROR', 'TEMPERATURE_C', NULL, 25, FALSE, 'Temperature in Celsius must be at least 25°C', 46, FALSE, 'Temperature in Celsius cannot exceed 46°C', 41),
+(6, 'ERROR', 'HEART_RATE', NULL, 20, FALSE, 'Heart rate must be at least 20 bpm', 300, FALSE, 'Heart rate cannot exceed 300 bpm', 50),
+(7, 'ERROR', 'RESPIRATORY_RATE', NULL, 1, FALSE, 'Respiratory rate must be at least 1 breath/min', 100, FALSE, 'Respiratory rate cannot exceed 100 breaths/min', 60),
+(8, 'ERROR', 'SYSTOLIC_BP', NULL, 40, FALSE, 'Systolic BP must be at least 40 mmHg', 300, FALSE, 'Systolic BP cannot exceed 300 mmHg', 70),
+(9, 'ERROR', 'DIASTOLIC_BP', NULL, 20, FALSE, 'Diastolic BP must be at least 20 mmHg', 200, FALSE, 'Diastolic BP cannot exceed 200 mmHg', 80),
+(10, 'ERROR', 'PULSE_PRESSURE', NULL, 0, TRUE, 'Systolic BP must be greater than Diastolic BP', NULL, FALSE, NULL, 90),
+(11, 'ERROR', 'SPO2', NULL, 0, FALSE, 'SpO2 cannot be negative', 100, FALSE, 'SpO2 cannot exceed 100%', 100),
+(12, 'ERROR', 'RANDOM_BLOOD_SUGAR', NULL, 0, FALSE, 'Blood sugar cannot be negative', 1000, FALSE, 'Blood sugar value seems unrealistic (>1000 mg/dL)', 110),
+(13, 'ERROR', 'PAIN_LEVEL', NULL, 0, FALSE, 'Pain level must be between 0 and 10', 10, FALSE, 'Pain level must be between 0 and 10', 120),
+(21, 'WARNING', 'HEART_RATE', NULL, 50, FALSE, 'Heart rate is below normal range (<50 bpm - Bradycardia)', 120, FALSE, 'Heart rate is above normal range (>120 bpm - Tachycardia)', 10),
+(22, 'WARNING', 'SYSTOLIC_BP', 'BLOOD_PRESSURE', 90, FALSE, 'Blood pressure is low (Hypotension)', 140, TRUE, 'Blood pressure is high (Hypertension)', 20),
+(23, 'WARNING', 'DIASTOLIC_BP', 'BLOOD_PRESSURE', 60, FALSE, 'Blood pressure is low (Hypotension)', 90, TRUE, 'Blood pressure is high (Hypertension)', 21),
+(24, 'WARNING', 'SPO2', NULL, 95, FALSE, 'Oxygen saturation is below normal (<95%)', NULL, FALSE, NULL, 30),
+(25, 'WARNING', 'TEMPERATURE_F', NULL, 97, FALSE, 'Temperature is below normal (Hypothermia)', 100.4, TRUE, 'Temperature indicates fever', 40),
+(26, 'WARNING', 'TEMPERATURE_C', NULL, 36.1, FALSE, 'Temperature is below normal (Hypothermia)', 38, TRUE, 'Temperature indicates fever', 41),
+(27, 'WARNING', 'RESPIRATORY_RATE', NULL, 12, FALSE, 'Respiratory rate is below normal range (<12 breaths/min)', 20, FALSE, 'Respiratory rate is above normal range (>20 breaths/min)', 50),
+(28, 'WARNING', 'RANDOM_BLOOD_SUGAR', NULL, 70, FALSE, 'Blood sugar is low (Hypoglycemia)', 200, FALSE, 'Blood sugar is high (Hyperglycemia)', 60),
+(31, 'CRITICAL', 'HEART_RATE', NULL, 40, FALSE, NULL, 150, FALSE, NULL, 10),
+(32, 'CRITICAL', 'SYSTOLIC_BP', 'BLOOD_PRESSURE', 80, FALSE, NULL, 180, FALSE, NULL, 20),
+(33, 'CRITICAL', 'DIASTOLIC_BP', 'BLOOD_PRESSURE', 50, FALSE, NULL, 110, FALSE, NULL, 21),
+(34, 'CRITICAL', 'SPO2', NULL, 90, FALSE, NULL, NULL, FALSE, NULL, 30),
+(35, 'CRITICAL', 'TEMPERATURE_F', NULL, 95, FALSE, NULL, 104, FALSE, NULL, 40),
+(36, 'CRITICAL', 'TEMPERATURE_C', NULL, 35, FALSE, NULL, 40, FALSE, NULL, 41),
+(37, 'CRITICAL', 'RESPIRATORY_RATE', NULL, 8, FALSE, NULL, 30, FALSE, NULL, 50),
+(38, 'CRITICAL', 'RANDOM_BLOOD_SUGAR', NULL, 50, FALSE, NULL, 400, FALSE, NULL, 60);
+
 -- Appointment Examination (Doctor's examination notes - includes all assessment fields)
 CREATE TABLE appointment_examination (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR appointment_examination_seq PRIMARY KEY,
     appointment_id BIGINT NOT NULL UNIQUE,
 
     -- Current Visit Assessment (formerly in "triage")
@@ -670,13 +807,14 @@ CREATE INDEX idx_admission_log_appointment ON ipd_admission_logs(appointment_id)
 
 -- Medical History Audit Trail (Track all medical history changes)
 CREATE TABLE patient_medical_history_audit (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT DEFAULT NEXT VALUE FOR patient_medical_history_audit_seq PRIMARY KEY,
     patient_id BIGINT NOT NULL,
     appointment_id BIGINT, -- Which appointment triggered the change
 
     field_changed VARCHAR(100), -- known_allergies, chronic_conditions, etc.
     old_value TEXT,
     new_value TEXT,
+    history_version INT, -- audit_version the change produced; NULL for rows carried over from a merged patient
 
     changed_by BIGINT,
     changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -690,45 +828,129 @@ CREATE TABLE patient_medical_history_audit (
 -- Create indexes for patient_medical_history_audit
 CREATE INDEX idx_history_audit_patient ON patient_medical_history_audit(patient_id);
 CREATE INDEX idx_history_audit_changed_at ON patient_medical_history_audit(changed_at);
+CREATE INDEX idx_history_audit_patient_version ON patient_medical_history_audit(patient_id, history_version);
+
+-- Full copies of a patient's medical history every few audited changes, so a point-in-time view is
+-- the nearest earlier snapshot plus the audit rows after it (list columns use the patient_medical_history format)
+CREATE TABLE patient_medical_history_snapshots (
+    id BIGINT DEFAULT NEXT VALUE FOR patient_medical_history_snapshots_seq PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    history_version INT NOT NULL, -- audit_version the snapshot reflects
+    taken_at TIMESTAMP NOT NULL,
+
+    known_allergies TEXT,
+    current_medications TEXT,
+    past_surgeries TEXT,
+    chronic_conditions TEXT,
+    family_medical_history TEXT,
+    disability TEXT,
+    social_history TEXT,
+
+    CONSTRAINT fk_history_snapshot_patient FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_history_snapshot_patient_taken ON patient_medical_history_snapshots(patient_id, taken_at);
+
+-- Duplicate patient review queue (filled by the duplicate scan; one row per pair, patient_a_id < patient_b_id).
+-- No foreign keys: the merged patient is deleted but the decision is kept.
+CREATE TABLE patient_duplicate_candidates (
+    id BIGINT DEFAULT NEXT VALUE FOR patient_duplicate_candidates_seq PRIMARY KEY,
+    patient_a_id BIGINT NOT NULL,
+    patient_b_id BIGINT NOT NULL,
+    score INT NOT NULL,
+    reasons VARCHAR(255),
+    status VARCHAR(15) NOT NULL DEFAULT 'PENDING', -- PENDING, MERGED, DISMISSED
+    detected_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    reviewed_by BIGINT,
+    reviewed_at TIMESTAMP,
+    survivor_patient_id BIGINT,
+
+    CONSTRAINT uq_duplicate_pair UNIQUE (patient_a_id, patient_b_id)
+);
+
+CREATE INDEX idx_duplicate_status_score ON patient_duplicate_candidates(status, score);
+
+-- Coded allergies, medications and chronic conditions derived from patient_medical_history
+-- (codes are dropdown_lookup rows of type ALLERGY, MEDICATION, CHRONIC_CONDITION). Rewritten on every
+-- medical history update; the free-text columns stay the source of truth.
+CREATE TABLE patient_medical_tags (
+    id BIGINT DEFAULT NEXT VALUE FOR patient_medical_tags_seq PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    code_id BIGINT NOT NULL,
+    category VARCHAR(20) NOT NULL, -- ALLERGY, MEDICATION, CHRONIC_CONDITION
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uq_medical_tag UNIQUE (patient_id, code_id),
+    CONSTRAINT fk_medical_tag_patient FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE CASCADE,
+    CONSTRAINT fk_medical_tag_code FOREIGN KEY (code_id) REFERENCES dropdown_lookup(id)
+);
+
+CREATE INDEX idx_medical_tag_code_patient ON patient_medical_tags(code_id, patient_id); -- population queries
+CREATE INDEX idx_medical_tag_patient_category ON patient_medical_tags(patient_id, category);
 
 -- ============================================
 -- SEED DATA FOR APPOINTMENTS
 -- ============================================
 
 -- Add consultation room data
-INSERT INTO dropdown_lookup (type, code, description, display_order) VALUES
-('CONSULTATION_ROOM', 'ROOM_101', 'Consultation Room 101', 1),
-('CONSULTATION_ROOM', 'ROOM_102', 'Consultation Room 102', 2),
-('CONSULTATION_ROOM', 'ROOM_103', 'Consultation Room 103', 3),
-('CONSULTATION_ROOM', 'ROOM_201', 'Consultation Room 201', 4),
-('CONSULTATION_ROOM', 'ROOM_202', 'Consultation Room 202', 5);
+INSERT INTO dropdown_lookup (id, type, code, description, display_order) VALUES
+(28, 'CONSULTATION_ROOM', 'ROOM_101', 'Consultation Room 101', 1),
+(29, 'CONSULTATION_ROOM', 'ROOM_102', 'Consultation Room 102', 2),
+(30, 'CONSULTATION_ROOM', 'ROOM_103', 'Consultation Room 103', 3),
+(31, 'CONSULTATION_ROOM', 'ROOM_201', 'Consultation Room 201', 4),
+(32, 'CONSULTATION_ROOM', 'ROOM_202', 'Consultation Room 202', 5);
+
+-- Medical tag codes: matched as whole words against allergy / medication / chronic condition entries,
+-- by code (underscores as spaces) or description
+INSERT INTO dropdown_lookup (id, type, code, description, display_order) VALUES
+(33, 'ALLERGY', 'PENICILLIN', 'Penicillin', 1),
+(34, 'ALLERGY', 'SULFA', 'Sulfa drugs', 2),
+(35, 'ALLERGY', 'ASPIRIN', 'Aspirin', 3),
+(36, 'ALLERGY', 'PEANUTS', 'Peanuts', 4),
+(37, 'ALLERGY', 'LATEX', 'Latex', 5),
+(38, 'ALLERGY', 'DUST', 'Dust', 6),
+(39, 'CHRONIC_CONDITION', 'DIABETES', 'Diabetes mellitus', 1),
+(40, 'CHRONIC_CONDITION', 'HYPERTENSION', 'Hypertension', 2),
+(41, 'CHRONIC_CONDITION', 'ASTHMA', 'Asthma', 3),
+(42, 'CHRONIC_CONDITION', 'COPD', 'Chronic obstructive pulmonary disease', 4),
+(43, 'CHRONIC_CONDITION', 'CKD', 'Chronic kidney disease', 5),
+(44, 'CHRONIC_CONDITION', 'CORONARY_ARTERY_DISEASE', 'Coronary artery disease', 6),
+(45, 'CHRONIC_CONDITION', 'HYPOTHYROIDISM', 'Hypothyroidism', 7),
+(46, 'CHRONIC_CONDITION', 'TUBERCULOSIS', 'Tuberculosis', 8),
+(47, 'MEDICATION', 'METFORMIN', 'Metformin', 1),
+(48, 'MEDICATION', 'INSULIN', 'Insulin', 2),
+(49, 'MEDICATION', 'AMLODIPINE', 'Amlodipine', 3),
+(50, 'MEDICATION', 'TELMISARTAN', 'Telmisartan', 4),
+(51, 'MEDICATION', 'ATORVASTATIN', 'Atorvastatin', 5),
+(52, 'MEDICATION', 'LEVOTHYROXINE', 'Levothyroxine', 6),
+(53, 'MEDICATION', 'SALBUTAMOL', 'Salbutamol', 7);
 
 -- Sample Appointments
-INSERT INTO appointments (appointment_number, patient_id, appointment_type, appointment_date, appointment_time,
+INSERT INTO appointments (id, appointment_number, patient_id, appointment_type, appointment_date, appointment_time,
                          duration, department_id, physician_id, consultation_room, urgency_level, status,
                          chief_complaint, notes, created_by) VALUES
-('APT-20251111-00001', 1, 'OPD', '2025-11-11', '10:00:00', 30,
+(1, 'APT-20251111-00001', 1, 'OPD', '2025-11-11', '10:00:00', 30,
  (SELECT id FROM dropdown_lookup WHERE type='DEPARTMENT' AND code='GENERAL_MEDICINE' LIMIT 1),
  1, 'Room 101', 'NORMAL', 'CONFIRMED',
  'Fever and cough for 3 days', 'Patient has history of asthma', 1),
 
-('APT-20251111-00002', 2, 'OPD', '2025-11-11', '10:30:00', 30,
+(2, 'APT-20251111-00002', 2, 'OPD', '2025-11-11', '10:30:00', 30,
  (SELECT id FROM dropdown_lookup WHERE type='DEPARTMENT' AND code='GENERAL_MEDICINE' LIMIT 1),
  2, 'Room 102', 'NORMAL', 'WAITING',
  'Headache and nausea', 'Patient arrived early', 2),
 
-('APT-20251111-00003', 1, 'OPD', '2025-11-11', '11:00:00', 45,
+(3, 'APT-20251111-00003', 1, 'OPD', '2025-11-11', '11:00:00', 45,
  (SELECT id FROM dropdown_lookup WHERE type='DEPARTMENT' AND code='CARDIOLOGY' LIMIT 1),
  1, 'Room 201', 'URGENT', 'IN_CONSULTATION',
  'Chest pain and breathlessness', 'Requires ECG and echo', 1);
 
 -- Sample Vitals Data
-INSERT INTO vitals (appointment_id, weight, height, temperature, temperature_unit,
+INSERT INTO vitals (id, appointment_id, weight, height, temperature, temperature_unit,
                     heart_rate, respiratory_rate, systolic_bp, diastolic_bp, spo2,
                     random_blood_sugar, bmi, bmi_status, pain_level, recorded_by, recorded_by_name) VALUES
-(2, 65.5, 162, 98.6, 'F', 78, 16.5, 120, 80, 98.0, 95.0, 24.95, 'NORMAL', 7, 3, 'Nurse Aliya'),
+(1, 2, 65.5, 162, 98.6, 'F', 78, 16.5, 120, 80, 98.0, 95.0, 24.95, 'NORMAL', 7, 3, 'Nurse Aliya'),
 
-(3, 75.0, 175, 99.2, 'F', 95, 20.0, 140, 90, 96.0, 110.0, 24.49, 'NORMAL', 5, 3, 'Nurse Aliya');
+(2, 3, 75.0, 175, 99.2, 'F', 95, 20.0, 140, 90, 96.0, 110.0, 24.49, 'NORMAL', 5, 3, 'Nurse Aliya');
 
 -- Sample Vital Symptoms Data
 INSERT INTO vital_symptoms (vital_id, symptom) VALUES
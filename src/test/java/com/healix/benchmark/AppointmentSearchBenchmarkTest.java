@@ -0,0 +1,127 @@
+package com.healix.benchmark;
+
+import com.healix.entity.Appointment;
+import com.healix.model.AppointmentStatus;
+import com.healix.repository.AppointmentRepository;
+import com.healix.repository.AppointmentSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the old catch-all appointment search query with the specification-based search over one
+ * million appointments. Run with {@code mvn test -Dbenchmark=true -Dtest=AppointmentSearchBenchmarkTest}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentSearchBenchmarkTest {
+
+    private static final int APPOINTMENT_COUNT = 1_000_000;
+    private static final int PATIENT_COUNT = 2_000;
+    private static final long ID_BASE = 10_000_000L;
+    private static final int ITERATIONS = 50;
+
+    // The query the search used before it switched to specifications
+    private static final String CATCH_ALL_WHERE = " FROM Appointment a WHERE " +
+            "(:patientId IS NULL OR a.patient.id = :patientId) AND " +
+            "(:physicianId IS NULL OR a.physicianId = :physicianId) AND " +
+            "(:status IS NULL OR a.status = :status) AND " +
+            "(:appointmentDate IS NULL OR a.appointmentDate = :appointmentDate)";
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void filteredSearchAtOneMillionAppointments() {
+        seed();
+        try {
+            LocalDate date = LocalDate.of(2024, 3, 1);
+            compare("physician + date", null, 2L, null, date);
+            compare("patient", ID_BASE + 17, null, null, null);
+            compare("status + date", null, null, AppointmentStatus.COMPLETED, date);
+        } finally {
+            jdbcTemplate.update("DELETE FROM appointments WHERE id > ?", ID_BASE);
+            jdbcTemplate.update("DELETE FROM patients WHERE id > ?", ID_BASE);
+        }
+    }
+
+    private void compare(String label, Long patientId, Long physicianId, AppointmentStatus status, LocalDate date) {
+        long catchAllTotal = catchAll(patientId, physicianId, status, date);
+        long specificationTotal = appointmentRepository.findAll(
+                AppointmentSpecifications.matching(patientId, physicianId, status, date),
+                PageRequest.of(0, 20)).getTotalElements();
+        assertEquals(catchAllTotal, specificationTotal);
+
+        double catchAllMillis = time(() -> catchAll(patientId, physicianId, status, date));
+        double specificationMillis = time(() -> {
+            Page<Appointment> page = appointmentRepository.findAll(
+                    AppointmentSpecifications.matching(patientId, physicianId, status, date), PageRequest.of(0, 20));
+            return page.getTotalElements();
+        });
+
+        System.out.printf("[benchmark] appointment search by %s (%d matches): catch-all %.2f ms, specification %.2f ms%n",
+                label, specificationTotal, catchAllMillis, specificationMillis);
+    }
+
+    private long catchAll(Long patientId, Long physicianId, AppointmentStatus status, LocalDate date) {
+        entityManager.createQuery("SELECT a" + CATCH_ALL_WHERE, Appointment.class)
+                .setParameter("patientId", patientId)
+                .setParameter("physicianId", physicianId)
+                .setParameter("status", status)
+                .setParameter("appointmentDate", date)
+                .setMaxResults(20)
+                .getResultList();
+        return entityManager.createQuery("SELECT COUNT(a)" + CATCH_ALL_WHERE, Long.class)
+                .setParameter("patientId", patientId)
+                .setParameter("physicianId", physicianId)
+                .setParameter("status", status)
+                .setParameter("appointmentDate", date)
+                .getSingleResult();
+    }
+
+    private double time(Supplier<Long> search) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private void seed() {
+        long start = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO patients (id, patient_id, first_name, last_name, date_of_birth, gender, " +
+                "mobile_number, city, pin_code, created_by) " +
+                "SELECT ? + X, 'BNC' || X, 'Bench' || X, 'Patient', DATE '1980-01-01', 'MALE', " +
+                "CAST(6000000000 + X AS VARCHAR), 'Sangli', '416416', 1 FROM SYSTEM_RANGE(1, ?)",
+                ID_BASE, PATIENT_COUNT);
+        jdbcTemplate.update("INSERT INTO appointments (id, appointment_number, patient_id, appointment_type, " +
+                "appointment_date, appointment_time, duration, physician_id, status) " +
+                "SELECT ? + X, 'BNC-' || X, ? + MOD(X, ?) + 1, 'OPD', DATEADD('DAY', MOD(X, 730), DATE '2023-01-01'), " +
+                "TIME '09:00:00', 30, MOD(X, 3) + 1, " +
+                "CASE MOD(X, 5) WHEN 0 THEN 'CONFIRMED' WHEN 1 THEN 'WAITING' WHEN 2 THEN 'COMPLETED' " +
+                "WHEN 3 THEN 'CANCELLED' ELSE 'NO_SHOW' END FROM SYSTEM_RANGE(1, ?)",
+                ID_BASE, ID_BASE, PATIENT_COUNT, APPOINTMENT_COUNT);
+        System.out.printf("[benchmark] seeded %d appointments in %.1fs%n",
+                APPOINTMENT_COUNT, (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
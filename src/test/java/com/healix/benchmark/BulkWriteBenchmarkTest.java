@@ -0,0 +1,111 @@
+package com.healix.benchmark;
+
+import com.healix.entity.AppointmentAudit;
+import com.healix.model.BatchPatientResponse;
+import com.healix.model.Gender;
+import com.healix.model.PatientRegistrationRequest;
+import com.healix.repository.AppointmentAuditRepository;
+import com.healix.service.PatientService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput benchmark for write-heavy paths (bulk patient registration and audit writes).
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=BulkWriteBenchmarkTest}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkWriteBenchmarkTest {
+
+    private static final int PATIENT_COUNT = 2_000;
+    private static final int AUDIT_COUNT = 20_000;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentAuditRepository appointmentAuditRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("aap@gmail.com", null, List.of()));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void bulkPatientRegistration() {
+        List<PatientRegistrationRequest> requests = new ArrayList<>(PATIENT_COUNT);
+        for (int i = 0; i < PATIENT_COUNT; i++) {
+            requests.add(PatientRegistrationRequest.builder()
+                    .firstName("Bench" + i)
+                    .lastName("Patient")
+                    .dateOfBirth(LocalDate.of(1980, 1, 1).plusDays(i % 3650))
+                    .gender(Gender.MALE)
+                    .mobileNumber("%010d".formatted(7_000_000_000L + i))
+                    .city("Sangli")
+                    .pinCode("416416")
+                    .build());
+        }
+
+        long start = System.nanoTime();
+        BatchPatientResponse response = patientService.registerPatients(requests);
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(PATIENT_COUNT, response.getSuccessCount());
+        report("patient registration", PATIENT_COUNT, elapsed);
+    }
+
+    @Test
+    void bulkAppointmentAuditWrites() {
+        List<AppointmentAudit> audits = new ArrayList<>(AUDIT_COUNT);
+        for (int i = 0; i < AUDIT_COUNT; i++) {
+            AppointmentAudit audit = new AppointmentAudit();
+            audit.setAppointmentId((long) (i % 3) + 1);
+            audit.setAction("STATUS_CHANGED");
+            audit.setOldStatus("SCHEDULED");
+            audit.setNewStatus("CHECKED_IN");
+            audit.setChangedBy(1L);
+            audits.add(audit);
+        }
+
+        long start = System.nanoTime();
+        appointmentAuditRepository.saveAll(audits);
+        long elapsed = System.nanoTime() - start;
+
+        report("appointment audit writes", AUDIT_COUNT, elapsed);
+    }
+
+    private void report(String label, int rows, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("[benchmark] %s: %d rows in %.2fs (%.0f rows/s), %d statements, %d entity inserts%n",
+                label, rows, seconds, rows / seconds,
+                statistics.getPrepareStatementCount(), statistics.getEntityInsertCount());
+    }
+}
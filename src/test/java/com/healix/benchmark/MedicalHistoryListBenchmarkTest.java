@@ -0,0 +1,90 @@
+package com.healix.benchmark;
+
+import com.healix.util.CompactStringListConverter;
+import com.healix.util.StringListConverter;
+import jakarta.persistence.AttributeConverter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hydration cost of the medical history allergy/medication columns: JSON ({@link StringListConverter})
+ * against the length-prefixed lazy form ({@link CompactStringListConverter}), for reads that never touch
+ * the lists and reads that iterate them. Run with
+ * {@code mvn test -Dbenchmark=true -Dtest=MedicalHistoryListBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MedicalHistoryListBenchmarkTest {
+
+    private static final int ROW_COUNT = 100_000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    void hydrationCost() {
+        StringListConverter json = new StringListConverter();
+        CompactStringListConverter compact = new CompactStringListConverter();
+        List<String[]> jsonRows = new ArrayList<>(ROW_COUNT);
+        List<String[]> compactRows = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            List<String> allergies = List.of("Penicillin", "Sulfa drugs", "Peanuts " + i % 7);
+            List<String> medications = List.of("Metformin 500mg twice daily", "Amlodipine 5mg", "Atorvastatin 10mg",
+                    "Aspirin 75mg", "Pantoprazole 40mg before breakfast", "Telmisartan " + (20 + i % 3 * 20) + "mg");
+            jsonRows.add(new String[]{json.convertToDatabaseColumn(allergies), json.convertToDatabaseColumn(medications)});
+            compactRows.add(new String[]{compact.convertToDatabaseColumn(allergies),
+                    compact.convertToDatabaseColumn(medications)});
+        }
+
+        // Warm up both paths before timing
+        for (int round = 0; round < 3; round++) {
+            hydrate(json, jsonRows, true);
+            hydrate(compact, compactRows, true);
+        }
+
+        report("size only", json, jsonRows, compact, compactRows, false);
+        report("iterated", json, jsonRows, compact, compactRows, true);
+    }
+
+    private void report(String label, StringListConverter json, List<String[]> jsonRows,
+                        CompactStringListConverter compact, List<String[]> compactRows, boolean read) {
+        long jsonNanos = 0;
+        long compactNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long jsonChars = hydrate(json, jsonRows, read);
+            jsonNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long compactChars = hydrate(compact, compactRows, read);
+            compactNanos += System.nanoTime() - start;
+
+            assertEquals(jsonChars, compactChars);
+        }
+        System.out.printf("[benchmark] medical history lists, %s: %d rows, JSON %.1f ns/row, compact %.1f ns/row%n",
+                label, ROW_COUNT, (double) jsonNanos / ROUNDS / ROW_COUNT, (double) compactNanos / ROUNDS / ROW_COUNT);
+    }
+
+    /**
+     * Convert both columns of every row as entity hydration does; optionally read every item
+     */
+    private long hydrate(AttributeConverter<List<String>, String> converter, List<String[]> rows, boolean read) {
+        long chars = 0;
+        for (String[] row : rows) {
+            List<String> allergies = converter.convertToEntityAttribute(row[0]);
+            List<String> medications = converter.convertToEntityAttribute(row[1]);
+            chars += allergies.size() + medications.size();
+            if (read) {
+                for (String value : allergies) {
+                    chars += value.length();
+                }
+                for (String value : medications) {
+                    chars += value.length();
+                }
+            }
+        }
+        return chars;
+    }
+}
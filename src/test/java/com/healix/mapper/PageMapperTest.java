@@ -0,0 +1,50 @@
+package com.healix.mapper;
+
+import com.healix.model.PatientResponse;
+import com.healix.model.PatientSliceResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageMapperTest {
+
+    private final PageMapper pageMapper = new PageMapper();
+
+    private PatientResponse patient(long id) {
+        PatientResponse response = new PatientResponse();
+        response.setId(id);
+        return response;
+    }
+
+    @Test
+    void cursor_roundTripsLastId() {
+        String cursor = pageMapper.encodeCursor(1042L);
+
+        assertEquals(1042L, pageMapper.decodeCursor(cursor));
+        assertEquals(Long.MAX_VALUE, pageMapper.decodeCursor(null));
+        assertEquals(Long.MAX_VALUE, pageMapper.decodeCursor(" "));
+    }
+
+    @Test
+    void decodeCursor_rejectsForeignTokens() {
+        assertThrows(IllegalArgumentException.class, () -> pageMapper.decodeCursor("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> pageMapper.decodeCursor("MTA0Mg"));
+    }
+
+    @Test
+    void toPatientSliceResponse_setsNextCursorOnlyWhenMoreRowsExist() {
+        PatientSliceResponse middle = pageMapper.toPatientSliceResponse(
+                new SliceImpl<>(List.of(patient(9), patient(7)), PageRequest.of(0, 2), true));
+        PatientSliceResponse last = pageMapper.toPatientSliceResponse(
+                new SliceImpl<>(List.of(patient(3)), PageRequest.of(0, 2), false));
+
+        assertTrue(middle.getHasNext());
+        assertEquals(7L, pageMapper.decodeCursor(middle.getNextCursor()));
+        assertFalse(last.getHasNext());
+        assertNull(last.getNextCursor());
+    }
+}
@@ -0,0 +1,92 @@
+package com.healix.service;
+
+import com.healix.model.AppointmentStatus;
+import com.healix.model.WaitingRoomEntry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Appointment reads must cost a fixed number of SQL statements, whatever the number of appointments mapped.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class AppointmentReadStatementCountTest {
+
+    private static final long ID_BASE = 9_300_000L;
+    private static final int APPOINTMENT_COUNT = 30;
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() {
+        // Every patient has insurance and a medical history, which loading a Patient entity would pull in
+        jdbcTemplate.update("INSERT INTO patients (id, patient_id, first_name, last_name, date_of_birth, gender, " +
+                "mobile_number, city, pin_code, created_by) " +
+                "SELECT ? + X, 'WTR' || X, 'Waiting' || X, 'Patient', DATE '1980-01-01', 'FEMALE', " +
+                "CAST(7200000000 + X AS VARCHAR), 'Sangli', '416416', 1 FROM SYSTEM_RANGE(1, ?)",
+                ID_BASE, APPOINTMENT_COUNT);
+        jdbcTemplate.update("INSERT INTO patient_insurance (id, patient_id, has_insurance, insurance_type, " +
+                "policy_card_number) SELECT ? + X, ? + X, TRUE, 'PRIVATE', 'WTR' || X FROM SYSTEM_RANGE(1, ?)",
+                ID_BASE, ID_BASE, APPOINTMENT_COUNT);
+        jdbcTemplate.update("INSERT INTO patient_medical_history (id, patient_id, known_allergies) " +
+                "SELECT ? + X, ? + X, '~1|4:Dust' FROM SYSTEM_RANGE(1, ?)", ID_BASE, ID_BASE, APPOINTMENT_COUNT);
+        jdbcTemplate.update("INSERT INTO appointments (id, appointment_number, patient_id, appointment_type, " +
+                "appointment_date, appointment_time, duration, physician_id, physician_name, status) " +
+                "SELECT ? + X, 'WTR-' || X, ? + X, 'OPD', ?, DATEADD('MINUTE', X, TIME '09:00:00'), 30, 1, " +
+                "'Dr Count', 'WAITING' FROM SYSTEM_RANGE(1, ?)", ID_BASE, ID_BASE, DAY, APPOINTMENT_COUNT);
+        // Vitals for every other appointment
+        jdbcTemplate.update("INSERT INTO vitals (id, appointment_id, heart_rate, recorded_by) " +
+                "SELECT ? + X, ? + X, 72, 1 FROM SYSTEM_RANGE(1, ?) WHERE MOD(X, 2) = 0",
+                ID_BASE, ID_BASE, APPOINTMENT_COUNT);
+    }
+
+    @Test
+    void getWaitingRoom_isAppointmentsNamesAndVitals() {
+        // Appointments + one batch of patient names + one batch of latest vitals; no Patient entities
+        List<WaitingRoomEntry> entries = count(3,
+                () -> appointmentService.getWaitingRoom(DAY, AppointmentStatus.WAITING, null, null));
+
+        assertEquals(APPOINTMENT_COUNT, entries.size());
+        assertEquals("Waiting1 Patient", entries.get(0).getAppointment().getPatientName());
+        assertNull(entries.get(0).getLatestVitals());
+        assertNotNull(entries.get(1).getLatestVitals());
+    }
+
+    private <T> T count(long expectedStatements, Supplier<T> read) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        T result = read.get();
+
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount(),
+                "SQL statements issued: " + statistics.getPrepareStatementCount());
+        return result;
+    }
+}
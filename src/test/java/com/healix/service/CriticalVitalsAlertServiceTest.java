@@ -0,0 +1,99 @@
+package com.healix.service;
+
+import com.healix.entity.CriticalVitalsAlert;
+import com.healix.model.CriticalVitalsAlertResponse;
+import com.healix.repository.CriticalVitalsAlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CriticalVitalsAlertServiceTest {
+
+    @Mock
+    private CriticalVitalsAlertRepository alertRepository;
+    @Mock
+    private PatientCache patientCache;
+    @Mock
+    private CriticalVitalsStream stream;
+    @Mock
+    private CriticalVitalsNotifier notifier;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CriticalVitalsAlertService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CriticalVitalsAlertService(alertRepository, patientCache, stream, notifier, transactionManager, 15);
+        AtomicLong ids = new AtomicLong(1000);
+        lenient().when(alertRepository.save(any(CriticalVitalsAlert.class))).thenAnswer(invocation -> {
+            CriticalVitalsAlert alert = invocation.getArgument(0);
+            alert.setId(ids.getAndIncrement());
+            return alert;
+        });
+        lenient().when(patientCache.getById(any())).thenReturn(Optional.empty());
+    }
+
+    private static CriticalVitalsEvent event(long patientId, long vitalsId, String... metrics) {
+        Map<String, String> findings = new LinkedHashMap<>();
+        for (String metric : metrics) {
+            findings.put(metric, metric + " out of range");
+        }
+        return new CriticalVitalsEvent(patientId, 7L, "APT-1", "Room 101", vitalsId, LocalDateTime.now(), findings);
+    }
+
+    @Test
+    void record_foldsRepeatsForSamePatientIntoOpenAlert() {
+        when(alertRepository.recordRepeat(eq(1000L), any())).thenReturn(1);
+
+        CriticalVitalsAlertResponse first = service.record(event(1, 1, "HEART_RATE", "SPO2"));
+        CriticalVitalsAlertResponse repeat = service.record(event(1, 2, "SPO2"));
+
+        assertEquals(List.of("HEART_RATE", "SPO2"), first.getMetrics());
+        assertEquals(List.of("HEART_RATE out of range", "SPO2 out of range"), first.getFindings());
+        assertNull(repeat);
+        verify(alertRepository, times(1)).save(any());
+        verify(alertRepository).recordRepeat(eq(1000L), any());
+    }
+
+    @Test
+    void record_raisesAgainForNewMetricOrOtherPatient() {
+        assertNotNull(service.record(event(1, 1, "HEART_RATE")));
+        assertNotNull(service.record(event(1, 2, "HEART_RATE", "TEMPERATURE")));
+        assertNotNull(service.record(event(2, 3, "HEART_RATE")));
+
+        verify(alertRepository, times(3)).save(any());
+        verify(alertRepository, never()).recordRepeat(any(), any());
+    }
+
+    @Test
+    void subscribe_registersBeforeReadingMissedAlerts() {
+        SseEmitter emitter = new SseEmitter();
+        when(stream.subscribe()).thenReturn(emitter);
+        when(alertRepository.findTop100ByIdGreaterThanOrderByIdAsc(41L)).thenReturn(List.of());
+
+        assertSame(emitter, service.subscribe(41L));
+
+        InOrder inOrder = inOrder(stream, alertRepository);
+        inOrder.verify(stream).subscribe();
+        inOrder.verify(alertRepository).findTop100ByIdGreaterThanOrderByIdAsc(41L);
+        inOrder.verify(stream).replay(emitter, 41L, List.of());
+    }
+}
@@ -0,0 +1,27 @@
+package com.healix.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvPatientServiceTest {
+
+    @Test
+    void parseIsoDate_acceptsValidDates() {
+        assertEquals(LocalDate.of(1985, 3, 15), CsvPatientService.parseIsoDate("1985-03-15"));
+        assertEquals(LocalDate.of(2024, 2, 29), CsvPatientService.parseIsoDate("2024-02-29"));
+    }
+
+    @Test
+    void parseIsoDate_rejectsInvalidValuesWithoutThrowing() {
+        assertNull(CsvPatientService.parseIsoDate("15-03-1985"));
+        assertNull(CsvPatientService.parseIsoDate("1985/03/15"));
+        assertNull(CsvPatientService.parseIsoDate("'1985-03-1"));
+        assertNull(CsvPatientService.parseIsoDate("1985-13-01"));
+        assertNull(CsvPatientService.parseIsoDate("2023-02-29"));
+        assertNull(CsvPatientService.parseIsoDate("1985-00-10"));
+        assertNull(CsvPatientService.parseIsoDate("19a5-03-15"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.healix.service;
+
+import com.healix.entity.DropdownLookup;
+import com.healix.exception.DuplicateResourceException;
+import com.healix.model.BatchDropdownLookupResponse;
+import com.healix.model.DropdownLookupRequest;
+import com.healix.model.FailedDropdownLookup;
+import com.healix.repository.DropdownLookupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DropdownLookupServiceTest {
+
+    @Mock
+    private DropdownLookupRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private DropdownLookupService service;
+
+    @Test
+    void testImportBulk_ReportsExistingAndPayloadDuplicates() {
+        List<DropdownLookupRequest> requests = List.of(
+                request("ICD10", "E11"),
+                request("ICD10", "I10"),
+                request("ICD10", "E11"),
+                request("ICD10", "J45"));
+
+        DropdownLookup existing = DropdownLookup.builder().id(7L).type("ICD10").code("I10").build();
+        AtomicLong ids = new AtomicLong(100);
+        when(repository.findAllByTypeAndCodePairs(anyList()))
+                .thenReturn(List.of(existing))
+                .thenAnswer(invocation -> withIds(invocation.getArgument(0), ids));
+
+        BatchDropdownLookupResponse response = service.importBulk(requests);
+
+        assertEquals(4, response.getTotalRequested());
+        assertEquals(2, response.getSuccessCount());
+        assertEquals(2, response.getFailureCount());
+        assertEquals(List.of("E11", "J45"),
+                response.getSuccessfulEntries().stream().map(r -> r.getCode()).toList());
+        assertEquals(List.of(1, 2),
+                response.getFailedEntries().stream().map(FailedDropdownLookup::getRequestIndex).toList());
+        assertTrue(response.getFailedEntries().stream()
+                .allMatch(f -> f.getErrorCode() == FailedDropdownLookup.ErrorCodeEnum.DUPLICATE_ENTRY));
+        verify(repository, times(1)).batchInsert(anyList());
+        verify(repository, never()).findByTypeAndCode(any(), any());
+    }
+
+    @Test
+    void testImportBulk_OneExistenceQueryPerChunk() {
+        List<DropdownLookupRequest> requests = new ArrayList<>();
+        for (int i = 0; i < DropdownLookupService.BULK_CHUNK_SIZE * 2 + 1; i++) {
+            requests.add(request("MEDICINE", "M" + i));
+        }
+        AtomicLong ids = new AtomicLong(1);
+        when(repository.findAllByTypeAndCodePairs(anyList()))
+                .thenAnswer(invocation -> Collections.emptyList())
+                .thenAnswer(invocation -> withIds(invocation.getArgument(0), ids))
+                .thenAnswer(invocation -> Collections.emptyList())
+                .thenAnswer(invocation -> withIds(invocation.getArgument(0), ids))
+                .thenAnswer(invocation -> Collections.emptyList())
+                .thenAnswer(invocation -> withIds(invocation.getArgument(0), ids));
+
+        BatchDropdownLookupResponse response = service.importBulk(requests);
+
+        assertEquals(requests.size(), response.getSuccessCount());
+        assertEquals(0, response.getFailureCount());
+        // one existence check + one read-back per chunk
+        verify(repository, times(6)).findAllByTypeAndCodePairs(anyList());
+        verify(repository, times(3)).batchInsert(anyList());
+    }
+
+    @Test
+    void testImportBulk_BlankCodeIsValidationError() {
+        BatchDropdownLookupResponse response = service.importBulk(List.of(request("ICD10", " ")));
+
+        assertEquals(0, response.getSuccessCount());
+        assertEquals(FailedDropdownLookup.ErrorCodeEnum.VALIDATION_ERROR,
+                response.getFailedEntries().getFirst().getErrorCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testCreateBulk_ExistingEntryThrows() {
+        when(repository.findAllByTypeAndCodePairs(anyList()))
+                .thenReturn(List.of(DropdownLookup.builder().id(1L).type("ICD10").code("E11").build()));
+
+        assertThrows(DuplicateResourceException.class,
+                () -> service.createBulk(List.of(request("ICD10", "E11"))));
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    private static DropdownLookupRequest request(String type, String code) {
+        DropdownLookupRequest request = new DropdownLookupRequest();
+        request.setType(type);
+        request.setCode(code);
+        return request;
+    }
+
+    private static List<DropdownLookup> withIds(List<DropdownLookup> keys, AtomicLong ids) {
+        return keys.stream()
+                .map(k -> DropdownLookup.builder().id(ids.getAndIncrement()).type(k.getType()).code(k.getCode()).build())
+                .toList();
+    }
+}
@@ -0,0 +1,77 @@
+package com.healix.service;
+
+import com.healix.dto.PatientMatchCandidate;
+import com.healix.util.PhoneticKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicatePatientScorerTest {
+
+    private static final LocalDate DOB = LocalDate.of(1985, 3, 15);
+
+    private PatientMatchCandidate patient(long id, String firstName, String lastName, LocalDate dateOfBirth,
+                                          String mobile, String pinCode) {
+        return new PatientMatchCandidate(id, firstName, lastName, PhoneticKey.encode(firstName),
+                PhoneticKey.encode(lastName), dateOfBirth, mobile, pinCode);
+    }
+
+    @Test
+    void score_spellingVariantWithSameBirthDateReachesDefaultThreshold() {
+        PatientMatchCandidate a = patient(1, "Lakshmi", "Deshmukh", DOB, "9876543210", "416416");
+        PatientMatchCandidate b = patient(2, "Laxmi", "Desmukh", DOB, "9123456780", "411001");
+
+        DuplicatePatientScorer.Result result = DuplicatePatientScorer.score(a, b);
+
+        assertEquals(75, result.score());
+        assertEquals(List.of(DuplicatePatientScorer.SAME_LAST_NAME_SOUND, DuplicatePatientScorer.SAME_FIRST_NAME_SOUND,
+                DuplicatePatientScorer.SAME_DATE_OF_BIRTH), result.reasons());
+    }
+
+    @Test
+    void score_exactRecordWithMistypedMobileScoresFull() {
+        PatientMatchCandidate a = patient(1, "Rahul", "Patil", DOB, "9876543210", "416416");
+        PatientMatchCandidate b = patient(2, "Rahul", "Patil", DOB, "9876543218", "416416");
+
+        DuplicatePatientScorer.Result result = DuplicatePatientScorer.score(a, b);
+
+        assertEquals(100, result.score());
+        assertTrue(result.reasons().contains(DuplicatePatientScorer.SIMILAR_MOBILE));
+    }
+
+    @Test
+    void score_differentFirstNamesStayBelowThreshold() {
+        // Siblings: same surname, address and (twins) birth date
+        PatientMatchCandidate a = patient(1, "Rahul", "Patil", DOB, "9876543210", "416416");
+        PatientMatchCandidate b = patient(2, "Rohini", "Patil", DOB, "9876543211", "416416");
+
+        DuplicatePatientScorer.Result result = DuplicatePatientScorer.score(a, b);
+
+        assertEquals(65, result.score());
+        assertFalse(result.reasons().contains(DuplicatePatientScorer.SAME_FIRST_NAME_SOUND));
+    }
+
+    @Test
+    void score_mobileNumbersMoreThanOneDigitApartDoNotCount() {
+        PatientMatchCandidate a = patient(1, "Rahul", "Patil", null, "9876543210", null);
+        PatientMatchCandidate b = patient(2, "Rahul", "Patil", null, "9876543201", null);
+
+        assertEquals(60, DuplicatePatientScorer.score(a, b).score());
+    }
+
+    @Test
+    void union_keepsFirstSpellingAndIgnoresCaseAndBlanks() {
+        assertEquals(List.of("Penicillin", "Dust", "Sulfa"), PatientDuplicateReviewService.union(
+                List.of("Penicillin", "Dust"), List.of("penicillin ", "", "Sulfa")));
+    }
+
+    @Test
+    void combine_keepsBothDifferentTexts() {
+        assertEquals("Appendectomy 2010", PatientDuplicateReviewService.combine(null, "Appendectomy 2010"));
+        assertEquals("Diabetes", PatientDuplicateReviewService.combine("Diabetes", "diabetes"));
+        assertEquals("Diabetes\nHypertension", PatientDuplicateReviewService.combine("Diabetes", "Hypertension"));
+    }
+}
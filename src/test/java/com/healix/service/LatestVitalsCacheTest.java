@@ -0,0 +1,89 @@
+package com.healix.service;
+
+import com.healix.dto.LatestVitalsRow;
+import com.healix.entity.Vitals;
+import com.healix.repository.VitalsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatestVitalsCacheTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2025, 11, 11, 10, 0);
+
+    @Mock
+    private VitalsRepository vitalsRepository;
+
+    private static LatestVitalsRow row(long appointmentId, long vitalsId, LocalDateTime recordedAt) {
+        return new LatestVitalsRow(appointmentId, vitalsId, recordedAt, "Nurse", 98.6, "F", 80, 16.0,
+                120, 80, 98.0, 95.0, 0);
+    }
+
+    @Test
+    void getAll_loadsMissesInOneQueryAndDoesNotCacheAppointmentsWithoutVitals() {
+        LatestVitalsCache cache = new LatestVitalsCache(vitalsRepository, 100, 60_000);
+        when(vitalsRepository.findLatestByAppointmentIdIn(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(row(1, 10, AT), row(1, 11, AT), row(2, 20, AT.minusHours(1))));
+        when(vitalsRepository.findLatestByAppointmentIdIn(List.of(3L))).thenReturn(List.of(row(3, 30, AT)));
+
+        Map<Long, LatestVitalsRow> first = cache.getAll(List.of(1L, 2L, 3L));
+        Map<Long, LatestVitalsRow> second = cache.getAll(List.of(1L, 2L, 3L));
+
+        assertEquals(11L, first.get(1L).getVitalsId());
+        assertEquals(20L, first.get(2L).getVitalsId());
+        assertFalse(first.containsKey(3L));
+        // Vitals recorded in the meantime (on any node) are seen on the next read
+        assertEquals(30L, second.get(3L).getVitalsId());
+        assertEquals(first.get(1L), second.get(1L));
+    }
+
+    @Test
+    void recordedVitals_replaceOnlyOlderEntries() {
+        LatestVitalsCache cache = new LatestVitalsCache(vitalsRepository, 100, 60_000);
+        when(vitalsRepository.findLatestByAppointmentId(1L)).thenReturn(Optional.empty());
+        assertTrue(cache.get(1L).isEmpty());
+
+        cache.recordedAfterCommit(1L, Vitals.builder().id(30L).recordedAt(AT).build());
+        cache.recordedAfterCommit(1L, Vitals.builder().id(31L).recordedAt(AT.minusMinutes(5)).build());
+
+        assertEquals(30L, cache.get(1L).orElseThrow().getVitalsId());
+        verify(vitalsRepository, times(1)).findLatestByAppointmentId(1L);
+    }
+
+    @Test
+    void get_reloadsExpiredEntries() {
+        LatestVitalsCache cache = new LatestVitalsCache(vitalsRepository, 100, 0);
+        when(vitalsRepository.findLatestByAppointmentId(1L))
+                .thenReturn(Optional.of(row(1, 10, AT)), Optional.of(row(1, 12, AT.plusMinutes(1))));
+
+        assertEquals(10L, cache.get(1L).orElseThrow().getVitalsId());
+        assertEquals(12L, cache.get(1L).orElseThrow().getVitalsId());
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsed() {
+        LatestVitalsCache cache = new LatestVitalsCache(vitalsRepository, 2, 60_000);
+        when(vitalsRepository.findLatestByAppointmentId(anyLong()))
+                .thenAnswer(invocation -> Optional.of(row(invocation.getArgument(0), 10, AT)));
+
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(1L);
+        cache.get(3L);
+        cache.get(1L);
+        cache.get(2L);
+
+        verify(vitalsRepository, times(1)).findLatestByAppointmentId(1L);
+        verify(vitalsRepository, times(2)).findLatestByAppointmentId(2L);
+    }
+}
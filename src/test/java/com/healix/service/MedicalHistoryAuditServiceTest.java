@@ -0,0 +1,156 @@
+package com.healix.service;
+
+import com.healix.entity.PatientMedicalHistory;
+import com.healix.entity.PatientMedicalHistoryAudit;
+import com.healix.entity.PatientMedicalHistorySnapshot;
+import com.healix.mapper.PatientMapper;
+import com.healix.repository.PatientMedicalHistoryAuditRepository;
+import com.healix.repository.PatientMedicalHistoryRepository;
+import com.healix.repository.PatientMedicalHistorySnapshotRepository;
+import com.healix.util.CompactStringListConverter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MedicalHistoryAuditServiceTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private PatientMedicalHistoryRepository medicalHistoryRepository;
+    @Mock
+    private PatientMedicalHistoryAuditRepository auditRepository;
+    @Mock
+    private PatientMedicalHistorySnapshotRepository snapshotRepository;
+    @Mock
+    private PatientMapper patientMapper;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MedicalHistoryAuditService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MedicalHistoryAuditService(medicalHistoryRepository, auditRepository, snapshotRepository,
+                patientMapper, jdbcTemplate, entityManager, transactionManager, 20);
+    }
+
+    @Test
+    void recordChange_auditsOnlyChangedFields() {
+        PatientMedicalHistory history = PatientMedicalHistory.builder()
+                .knownAllergies(new CompactStringListConverter().convertToEntityAttribute("~1|10:Penicillin"))
+                .pastSurgeries("Appendectomy 2015")
+                .auditVersion(4)
+                .build();
+        Map<String, String> before = MedicalHistoryAuditService.state(history);
+
+        history.setKnownAllergies(new ArrayList<>(List.of("Penicillin")));
+        history.setDisability("None");
+
+        List<MedicalHistoryAuditService.Delta> deltas = service.recordChange(1L, history, before, 7L, null);
+
+        assertEquals(List.of(new MedicalHistoryAuditService.Delta(MedicalHistoryAuditService.DISABILITY, null, "None")), deltas);
+        assertEquals(5, history.getAuditVersion());
+    }
+
+    @Test
+    void recordChange_leavesVersionAloneWhenNothingChanged() {
+        PatientMedicalHistory history = PatientMedicalHistory.builder().disability("None").auditVersion(2).build();
+
+        assertTrue(service.recordChange(1L, history, MedicalHistoryAuditService.state(history), 7L, null).isEmpty());
+        assertEquals(2, history.getAuditVersion());
+    }
+
+    @Test
+    void getMedicalHistoryAsOf_replaysChangesAfterNearestSnapshot() {
+        when(medicalHistoryRepository.findByPatientId(1L))
+                .thenReturn(Optional.of(PatientMedicalHistory.builder().id(9L).auditVersion(23).build()));
+        when(snapshotRepository.findFirstByPatientIdAndTakenAtLessThanEqualOrderByTakenAtDescHistoryVersionDesc(1L, AT))
+                .thenReturn(Optional.of(PatientMedicalHistorySnapshot.builder()
+                        .historyVersion(20).knownAllergies("~1|10:Penicillin").disability("None").build()));
+        when(auditRepository.findByPatientIdAndHistoryVersionGreaterThanAndChangedAtLessThanEqualOrderByHistoryVersionAscIdAsc(1L, 20, AT))
+                .thenReturn(List.of(
+                        audit(21, MedicalHistoryAuditService.DISABILITY, null),
+                        audit(22, MedicalHistoryAuditService.KNOWN_ALLERGIES, "~2|10:Penicillin7:Peanuts")));
+
+        service.getMedicalHistoryAsOf(1L, AT);
+
+        ArgumentCaptor<PatientMedicalHistory> rebuilt = ArgumentCaptor.forClass(PatientMedicalHistory.class);
+        verify(patientMapper).toMedicalHistoryResponse(rebuilt.capture());
+        assertEquals(9L, rebuilt.getValue().getId());
+        assertEquals(List.of("Penicillin", "Peanuts"), rebuilt.getValue().getKnownAllergies());
+        assertNull(rebuilt.getValue().getDisability());
+    }
+
+    @Test
+    void recordChange_writesChangesOfATransactionInOneBatchBeforeItCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.recordChange(1L, PatientMedicalHistory.builder().disability("None").build(),
+                    MedicalHistoryAuditService.state(null), 7L, null);
+            service.recordChange(2L, PatientMedicalHistory.builder().disability("None").build(),
+                    MedicalHistoryAuditService.state(null), 7L, null);
+            verifyNoInteractions(jdbcTemplate);
+
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(entityManager).flush();
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertEquals(List.of(1L, 2L), rows.getValue().stream().map(row -> row[0]).toList());
+    }
+
+    @Test
+    void recordChange_writesNothingWhenTheTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.recordChange(1L, PatientMedicalHistory.builder().disability("None").build(),
+                    MedicalHistoryAuditService.state(null), 7L, null);
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void recordChange_withoutTransactionWritesAtOnce() {
+        service.recordChange(1L, PatientMedicalHistory.builder().disability("None").build(),
+                MedicalHistoryAuditService.state(null), 7L, null);
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    private static PatientMedicalHistoryAudit audit(int version, String field, String newValue) {
+        return PatientMedicalHistoryAudit.builder().historyVersion(version).fieldChanged(field).newValue(newValue).build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.healix.service;
+
+import com.healix.entity.DropdownLookup;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MedicalTagMatcherTest {
+
+    private static final List<DropdownLookup> CODES = List.of(
+            code(33, "ALLERGY", "PENICILLIN", "Penicillin"),
+            code(35, "ALLERGY", "ASPIRIN", "Aspirin"),
+            code(39, "CHRONIC_CONDITION", "DIABETES", "Diabetes mellitus"),
+            code(43, "CHRONIC_CONDITION", "CKD", "Chronic kidney disease"),
+            code(47, "MEDICATION", "METFORMIN", "Metformin"),
+            code(53, "MEDICATION", "ASPIRIN", "Aspirin"));
+
+    private static DropdownLookup code(long id, String type, String code, String description) {
+        return DropdownLookup.builder().id(id).type(type).code(code).description(description).build();
+    }
+
+    @Test
+    void match_findsCodesAsWholeWordsPerCategory() {
+        MedicalTagMatcher matcher = MedicalTagMatcher.of(CODES);
+
+        Map<Long, MedicalTagMatcher.Code> found = matcher.match(
+                List.of("Penicillin (rash)", "Sulfa"),
+                List.of("Metformin 500mg twice daily", "Aspirin 75mg"),
+                "Type 2 diabetes since 2010; chronic kidney disease stage 3");
+
+        assertEquals(List.of(33L, 47L, 53L, 39L, 43L), List.copyOf(found.keySet()));
+        assertEquals("MEDICATION", found.get(53L).category());
+    }
+
+    @Test
+    void match_ignoresPartialWordsAndOtherCategories() {
+        MedicalTagMatcher matcher = MedicalTagMatcher.of(CODES);
+
+        Map<Long, MedicalTagMatcher.Code> found = matcher.match(
+                List.of("Amoxicillin"), List.of("Glimepiride 1mg"), "Prediabetes; aspirin sensitivity");
+
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    void bitmaps_intersectRequestedCodes() {
+        MedicalTagBitmaps bitmaps = new MedicalTagBitmaps();
+        bitmaps.add(39, 1001);
+        bitmaps.add(39, 1002);
+        bitmaps.add(40, 1002);
+        bitmaps.add(40, 1003);
+
+        BitSet both = bitmaps.matchingAll(List.of(39L, 40L));
+        assertEquals(1, both.cardinality());
+        assertTrue(both.get(1002));
+
+        bitmaps.removePatient(1002);
+        assertTrue(bitmaps.matchingAll(List.of(39L, 40L)).isEmpty());
+        assertTrue(bitmaps.matchingAll(List.of(41L)).isEmpty());
+        assertEquals(2, bitmaps.tagCount());
+    }
+}
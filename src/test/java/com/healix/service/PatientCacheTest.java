@@ -0,0 +1,188 @@
+package com.healix.service;
+
+import com.healix.entity.Patient;
+import com.healix.mapper.PatientMapper;
+import com.healix.model.MedicalHistoryResponse;
+import com.healix.model.PatientResponse;
+import com.healix.repository.AppointmentRepository;
+import com.healix.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PatientCacheTest {
+
+    private static final PatientMapper MAPPER = Mappers.getMapper(PatientMapper.class);
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PatientMapper patientMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(patientRepository.findWithDetailsById(anyLong())).thenAnswer(invocation -> {
+            Patient patient = new Patient();
+            patient.setId(invocation.getArgument(0));
+            patient.setPatientId("SNG" + invocation.getArgument(0));
+            return Optional.of(patient);
+        });
+        when(patientRepository.findWithDetailsByPatientId(anyString())).thenReturn(Optional.empty());
+        when(patientMapper.toResponse(any(Patient.class))).thenAnswer(invocation -> {
+            Patient patient = invocation.getArgument(0);
+            PatientResponse response = new PatientResponse();
+            response.setId(patient.getId());
+            response.setPatientId(patient.getPatientId());
+            response.setFirstName("Rahul");
+            return response;
+        });
+        when(patientMapper.copy(any(PatientResponse.class)))
+                .thenAnswer(invocation -> MAPPER.copy(invocation.<PatientResponse>getArgument(0)));
+    }
+
+    private PatientCache cache(boolean enabled, int maxEntries) {
+        return cache(enabled, maxEntries, 60_000);
+    }
+
+    private PatientCache cache(boolean enabled, int maxEntries, long ttlMillis) {
+        return new PatientCache(patientRepository, appointmentRepository, patientMapper, transactionManager,
+                enabled, maxEntries, 64, 0, ttlMillis);
+    }
+
+    @Test
+    void getById_loadsOnceThenServesFromCacheByEitherKey() {
+        PatientCache cache = cache(true, 100);
+
+        PatientResponse first = cache.getById(1L).orElseThrow();
+        PatientResponse second = cache.getById(1L).orElseThrow();
+        PatientResponse byPatientId = cache.getByPatientId("SNG1").orElseThrow();
+
+        assertEquals(first, second);
+        assertEquals(first, byPatientId);
+        verify(patientRepository, times(1)).findWithDetailsById(1L);
+        verify(patientRepository, never()).findWithDetailsByPatientId(anyString());
+        assertEquals(2, cache.stats().getHits());
+        assertEquals(1, cache.stats().getMisses());
+    }
+
+    @Test
+    void getById_handsOutCopiesWithAgeAsOfToday() {
+        PatientCache cache = cache(true, 100);
+        PatientResponse loaded = cache.getById(1L).orElseThrow();
+        loaded.setFirstName("Changed");
+
+        PatientResponse cached = cache.getById(1L).orElseThrow();
+        cached.setLastName("Changed");
+
+        assertEquals("Rahul", cache.getById(1L).orElseThrow().getFirstName());
+        assertNull(cache.getById(1L).orElseThrow().getLastName());
+        assertNotSame(cached, cache.getById(1L).orElseThrow());
+    }
+
+    @Test
+    void copyOf_isDeepAndRecomputesAge() {
+        PatientResponse patient = new PatientResponse();
+        patient.setDateOfBirth(LocalDate.now().minusYears(30).minusDays(1));
+        patient.setAge(12);
+        MedicalHistoryResponse history = new MedicalHistoryResponse();
+        history.setKnownAllergies(new ArrayList<>(List.of("Penicillin")));
+        patient.setMedicalHistory(history);
+
+        PatientResponse copy = cache(true, 100).copyOf(patient);
+        copy.getMedicalHistory().getKnownAllergies().add("Peanuts");
+        copy.getMedicalHistory().setDisability("None");
+
+        assertEquals(30, copy.getAge());
+        assertEquals(List.of("Penicillin"), history.getKnownAllergies());
+        assertNull(history.getDisability());
+    }
+
+    @Test
+    void getById_reloadsExpiredEntries() {
+        PatientCache cache = cache(true, 100, 0);
+
+        cache.getById(1L);
+        cache.getByPatientId("SNG1");
+
+        verify(patientRepository, times(1)).findWithDetailsById(1L);
+        verify(patientRepository).findWithDetailsByPatientId("SNG1");
+        assertEquals(0, cache.stats().getHits());
+    }
+
+    @Test
+    void invalidate_dropsBothKeys() {
+        PatientCache cache = cache(true, 100);
+        cache.getById(1L);
+
+        cache.invalidate(1L);
+        cache.getByPatientId("SNG1");
+        cache.getById(1L);
+
+        verify(patientRepository, times(2)).findWithDetailsById(1L);
+        verify(patientRepository).findWithDetailsByPatientId("SNG1");
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedBeyondMaxEntries() {
+        PatientCache cache = cache(true, 2);
+        cache.getById(1L);
+        cache.getById(2L);
+        cache.getById(1L);
+
+        cache.getById(3L);
+
+        assertEquals(2, cache.stats().getEntries());
+        assertEquals(1, cache.stats().getEvictions());
+        cache.getById(1L);
+        verify(patientRepository, times(1)).findWithDetailsById(1L);
+        cache.getById(2L);
+        verify(patientRepository, times(2)).findWithDetailsById(2L);
+    }
+
+    @Test
+    void disabledCache_alwaysLoads() {
+        PatientCache cache = cache(false, 100);
+
+        cache.getById(1L);
+        cache.getById(1L);
+
+        verify(patientRepository, times(2)).findWithDetailsById(1L);
+        assertEquals(0, cache.stats().getEntries());
+    }
+
+    @Test
+    void estimateBytes_growsWithRecordSize() {
+        PatientResponse small = new PatientResponse();
+        PatientResponse large = new PatientResponse();
+        large.setAddressLine1("x".repeat(500));
+
+        assertTrue(PatientCache.estimateBytes(large) >= PatientCache.estimateBytes(small) + 1000);
+    }
+}
@@ -0,0 +1,102 @@
+package com.healix.service;
+
+import com.healix.model.Gender;
+import com.healix.model.PatientRegistrationRequest;
+import com.healix.model.PatientResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunked registration against the database: rows that fail on insert, chunk commits and callback indexes.
+ */
+@SpringBootTest
+class PatientChunkRegistrationTest {
+
+    private static final String MOBILE_PREFIX = "61234";
+    private static final int ROWS = 2 * PatientService.REGISTRATION_CHUNK_SIZE + 20;
+    // Two bad rows in the first chunk, one in the second; the third chunk is clean
+    private static final List<Integer> BAD_ROWS = List.of(3, 250, PatientService.REGISTRATION_CHUNK_SIZE + 10);
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("aap@gmail.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("DELETE FROM patients WHERE mobile_number LIKE ?", MOBILE_PREFIX + "%");
+    }
+
+    private int storedCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patients WHERE mobile_number LIKE ?",
+                Integer.class, MOBILE_PREFIX + "%");
+    }
+
+    @Test
+    void registerInChunks_skipsRowsFailingOnInsertAndReportsByRequestIndex() {
+        List<PatientRegistrationRequest> requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            requests.add(PatientRegistrationRequest.builder()
+                    .firstName("Chunk" + i)
+                    .lastName("Patient")
+                    .dateOfBirth(LocalDate.of(1980, 1, 1))
+                    .gender(Gender.FEMALE)
+                    .mobileNumber(MOBILE_PREFIX + "%05d".formatted(i))
+                    .city("Sangli")
+                    // Not six digits: passes screening but breaks the entity's constraints on flush
+                    .pinCode(BAD_ROWS.contains(i) ? "4164" : "416416")
+                    .build());
+        }
+
+        Map<Integer, PatientResponse> succeeded = new TreeMap<>();
+        Map<Integer, Integer> storedAtSuccess = new TreeMap<>();
+        Map<Integer, Exception> failed = new TreeMap<>();
+        patientService.registerInChunks(requests, new PatientService.RegistrationCallback() {
+            @Override
+            public void onSuccess(int index, PatientResponse response) {
+                succeeded.put(index, response);
+                storedAtSuccess.put(index, storedCount());
+            }
+
+            @Override
+            public void onFailure(int index, Exception e) {
+                failed.put(index, e);
+            }
+        });
+
+        assertEquals(BAD_ROWS, List.copyOf(failed.keySet()));
+        assertEquals(ROWS - BAD_ROWS.size(), succeeded.size());
+        succeeded.forEach((index, response) ->
+                assertEquals(requests.get(index).getMobileNumber(), response.getMobileNumber()));
+        assertEquals(ROWS - BAD_ROWS.size(), storedCount());
+
+        // A chunk whose insert fails is registered again row by row, each success reported once its row commits
+        assertEquals(1, storedAtSuccess.get(0));
+        assertEquals(PatientService.REGISTRATION_CHUNK_SIZE - 2,
+                storedAtSuccess.get(PatientService.REGISTRATION_CHUNK_SIZE - 1));
+        // A clean chunk commits at once, and its successes are reported after that
+        assertEquals(ROWS - BAD_ROWS.size(), storedAtSuccess.get(2 * PatientService.REGISTRATION_CHUNK_SIZE));
+    }
+}
@@ -0,0 +1,60 @@
+package com.healix.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientIdAllocatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void nextPatientId_createsMissingCounterInItsOwnTransaction() {
+        when(jdbcTemplate.update(startsWith("UPDATE patient_id_counters"), any(), any(), any())).thenReturn(0, 1);
+        when(jdbcTemplate.update(startsWith("INSERT INTO patient_id_counters"), any(), any(), any())).thenReturn(1);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT MAX"), eq(Long.class), any(), any())).thenReturn(null);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT next_value"), eq(Long.class), any(), any()))
+                .thenReturn(21L);
+
+        String patientId = new PatientIdAllocator(jdbcTemplate, transactionManager, 20).nextPatientId("SNG");
+
+        assertEquals("SNG" + LocalDate.now().getYear() + "001", patientId);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO patient_id_counters"), eq("SNG"), any(), eq(1L));
+        // Reserve, create, reserve again
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void nextPatientId_usesCounterAnotherNodeCreatedFirst() {
+        when(jdbcTemplate.update(startsWith("UPDATE patient_id_counters"), any(), any(), any())).thenReturn(0, 1);
+        when(jdbcTemplate.update(startsWith("INSERT INTO patient_id_counters"), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("uq_patient_id_counter"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT MAX"), eq(Long.class), any(), any())).thenReturn(40L);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT next_value"), eq(Long.class), any(), any()))
+                .thenReturn(61L);
+
+        String patientId = new PatientIdAllocator(jdbcTemplate, transactionManager, 20).nextPatientId("SNG");
+
+        assertEquals("SNG" + LocalDate.now().getYear() + "041", patientId);
+        // Only the failed insert's own transaction rolled back
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
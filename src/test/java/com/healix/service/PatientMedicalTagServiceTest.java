@@ -0,0 +1,181 @@
+package com.healix.service;
+
+import com.healix.dto.CodeSetVersion;
+import com.healix.dto.PatientSummaryRow;
+import com.healix.entity.DropdownLookup;
+import com.healix.entity.PatientMedicalHistory;
+import com.healix.entity.PatientMedicalTag;
+import com.healix.mapper.PatientMapper;
+import com.healix.model.PatientSummary;
+import com.healix.repository.DropdownLookupRepository;
+import com.healix.repository.PatientMedicalTagRepository;
+import com.healix.repository.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PatientMedicalTagServiceTest {
+
+    private static final DropdownLookup PENICILLIN = code(33, "ALLERGY", "PENICILLIN", "Penicillin");
+    private static final DropdownLookup ASPIRIN = code(35, "ALLERGY", "ASPIRIN", "Aspirin");
+    private static final DropdownLookup DIABETES = code(39, "CHRONIC_CONDITION", "DIABETES", "Diabetes mellitus");
+
+    @Mock
+    private PatientMedicalTagRepository tagRepository;
+    @Mock
+    private DropdownLookupRepository dropdownLookupRepository;
+    @Mock
+    private PatientRepository patientRepository;
+    @Mock
+    private PatientMapper patientMapper;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PatientMedicalTagService service;
+
+    private static DropdownLookup code(long id, String type, String code, String description) {
+        return DropdownLookup.builder().id(id).type(type).code(code).description(description).build();
+    }
+
+    private static PatientMedicalHistory history(List<String> allergies, String chronicConditions) {
+        return PatientMedicalHistory.builder()
+                .knownAllergies(new ArrayList<>(allergies))
+                .chronicConditions(chronicConditions)
+                .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new PatientMedicalTagService(tagRepository, dropdownLookupRepository, patientRepository,
+                patientMapper, jdbcTemplate, transactionManager);
+        when(dropdownLookupRepository.findVersionByTypeIn(any())).thenReturn(new CodeSetVersion(3L, 39L, null));
+        when(dropdownLookupRepository.findByTypeInAndActiveTrue(any())).thenReturn(List.of(PENICILLIN, ASPIRIN, DIABETES));
+        when(dropdownLookupRepository.findByTypeAndCode("ALLERGY", "PENICILLIN")).thenReturn(Optional.of(PENICILLIN));
+        when(dropdownLookupRepository.findByTypeAndCode("CHRONIC_CONDITION", "DIABETES")).thenReturn(Optional.of(DIABETES));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void retag_addsAndRemovesTagsForUpdatedHistory() {
+        when(tagRepository.findByPatientId(7L)).thenReturn(List.of(
+                PatientMedicalTag.builder().patientId(7L).codeId(35L).category("ALLERGY").build()));
+        PatientMedicalHistory updated = history(List.of("Penicillin (rash)"), "Type 2 diabetes");
+
+        service.retag(7L, updated);
+
+        verify(tagRepository).deleteByPatientIdAndCodeIdIn(7L, List.of(35L));
+        ArgumentCaptor<List<PatientMedicalTag>> added = ArgumentCaptor.forClass(List.class);
+        verify(tagRepository).saveAll(added.capture());
+        assertEquals(List.of(33L, 39L), added.getValue().stream().map(PatientMedicalTag::getCodeId).toList());
+        assertEquals("CHRONIC_CONDITION", added.getValue().get(1).getCategory());
+        assertNotNull(updated.getTaggedAt());
+    }
+
+    @Test
+    void retag_reusesCompiledCodesUntilTheyChange() {
+        service.retag(7L, history(List.of("Penicillin"), null));
+        service.retag(8L, history(List.of("Aspirin"), null));
+        verify(dropdownLookupRepository, times(1)).findByTypeInAndActiveTrue(any());
+
+        when(dropdownLookupRepository.findVersionByTypeIn(any()))
+                .thenReturn(new CodeSetVersion(3L, 39L, LocalDateTime.of(2026, 1, 5, 10, 0)));
+        service.retag(9L, history(List.of("Penicillin"), null));
+        verify(dropdownLookupRepository, times(2)).findByTypeInAndActiveTrue(any());
+    }
+
+    private void awaitReady() throws InterruptedException {
+        for (int i = 0; i < 500 && (!Boolean.TRUE.equals(service.status().getReady())
+                || Boolean.TRUE.equals(service.status().getRebuilding())); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(service.status().getReady());
+    }
+
+    @Test
+    void findPatients_answersFromBitmapsOnceBuilt() throws InterruptedException {
+        service.startRebuild(false);
+        awaitReady();
+
+        service.retag(7L, history(List.of("Penicillin"), "Diabetes"));
+        service.retag(9L, history(List.of("Penicillin"), null));
+        when(patientRepository.findSummariesByIdIn(List.of(7L))).thenReturn(List.of(
+                new PatientSummaryRow(7L, "SNG7", "Rahul", "Patil", "9876543210", null, null, null)));
+        when(patientMapper.toSummary(any())).thenAnswer(invocation -> {
+            PatientSummaryRow row = invocation.getArgument(0);
+            PatientSummary summary = new PatientSummary();
+            summary.setId(row.getId());
+            return summary;
+        });
+
+        Page<PatientSummary> page = service.findPatients(List.of("penicillin"), List.of("DIABETES"), null, null,
+                PageRequest.of(0, 10));
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals(7L, page.getContent().get(0).getId());
+        verify(patientRepository, never()).findSummariesByMedicalTags(any(), anyLong(), any());
+    }
+
+    @Test
+    void syncChanges_picksUpTagsWrittenByOtherNodes() throws InterruptedException {
+        service.startRebuild(false);
+        awaitReady();
+        service.retag(7L, history(List.of("Penicillin"), null));
+        // Another node since changed patient 7 to aspirin and tagged patient 8 with penicillin
+        when(jdbcTemplate.queryForList(contains("tagged_at >= ?"), any(LocalDateTime.class))).thenReturn(List.of(
+                Map.of("patient_id", 7L, "code_id", 35L), Map.of("patient_id", 8L, "code_id", 33L)));
+        when(tagRepository.count()).thenReturn(2L);
+        when(patientRepository.findSummariesByIdIn(List.of(8L))).thenReturn(List.of(
+                new PatientSummaryRow(8L, "SNG8", "Asha", "Patil", "9876543211", null, null, null)));
+        when(patientMapper.toSummary(any())).thenAnswer(invocation -> {
+            PatientSummary summary = new PatientSummary();
+            summary.setId(invocation.<PatientSummaryRow>getArgument(0).getId());
+            return summary;
+        });
+
+        service.syncChanges();
+
+        Page<PatientSummary> page = service.findPatients(List.of("PENICILLIN"), null, null, null, PageRequest.of(0, 10));
+        assertEquals(List.of(8L), page.getContent().stream().map(PatientSummary::getId).toList());
+        verify(tagRepository, times(1)).streamAllCodePatientPairs();
+    }
+
+    @Test
+    void syncChanges_rebuildsWhenTagCountDiffers() throws InterruptedException {
+        service.startRebuild(false);
+        awaitReady();
+        when(tagRepository.count()).thenReturn(5L);
+
+        service.syncChanges();
+
+        verify(tagRepository, timeout(5000).times(2)).streamAllCodePatientPairs();
+    }
+}
@@ -0,0 +1,166 @@
+package com.healix.service;
+
+import com.healix.model.PatientMergeResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Merging duplicate patients against the database: every record of the merged patient ends up on the survivor,
+ * and the merged patient is gone from the table, the cache and the search index once the merge commits.
+ */
+@SpringBootTest
+class PatientMergeTest {
+
+    private static final long ID_BASE = 9_200_000L;
+    private static final long SURVIVOR = ID_BASE + 1;
+    private static final long MERGED = ID_BASE + 2;
+
+    // Tables re-pointed by a merge
+    private static final List<String> PATIENT_TABLES = List.of("appointments", "prescriptions", "investigation_orders",
+            "vital_readings", "critical_vitals_alerts", "patient_medical_history_audit", "patient_emergency_contacts");
+
+    @Autowired
+    private PatientDuplicateReviewService reviewService;
+
+    @Autowired
+    private PatientCache patientCache;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("aap@gmail.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        for (String table : List.of("critical_vitals_alerts", "vital_readings", "prescriptions", "investigation_orders",
+                "patient_medical_history_audit", "vitals", "appointments")) {
+            String column = table.equals("vitals") ? "id" : "patient_id";
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE " + column + " BETWEEN ? AND ?", ID_BASE, ID_BASE + 10);
+        }
+        jdbcTemplate.update("DELETE FROM patients WHERE id BETWEEN ? AND ?", ID_BASE, ID_BASE + 10);
+        jdbcTemplate.update("DELETE FROM patient_duplicate_candidates WHERE id = ?", ID_BASE);
+        for (long id : List.of(SURVIVOR, MERGED)) {
+            patientSearchIndex.removeAfterCommit(id);
+            patientCache.invalidate(id);
+        }
+    }
+
+    private void seedPatient(long id, String firstName) {
+        jdbcTemplate.update("INSERT INTO patients (id, patient_id, first_name, last_name, date_of_birth, gender, " +
+                "mobile_number, city, pin_code, created_by) VALUES (?, ?, ?, 'Mergetest', DATE '1980-01-01', 'MALE', " +
+                "?, 'Sangli', '416416', 1)", id, "MRG" + id, firstName, String.valueOf(6_200_000_000L + id - ID_BASE));
+        patientSearchIndex.indexAfterCommit(id, "MRG" + id, firstName, "Mergetest",
+                String.valueOf(6_200_000_000L + id - ID_BASE));
+    }
+
+    private void seedInsurance(long id, long patientId) {
+        jdbcTemplate.update("INSERT INTO patient_insurance (id, patient_id, has_insurance, insurance_type, " +
+                "policy_card_number) VALUES (?, ?, TRUE, 'PRIVATE', ?)", id, patientId, "MRG" + id);
+    }
+
+    // One appointment with vitals, a reading, a critical alert, a prescription and an investigation order,
+    // plus an audit row and an emergency contact
+    private void seedRecords(long patientId) {
+        jdbcTemplate.update("INSERT INTO appointments (id, appointment_number, patient_id, appointment_type, " +
+                "appointment_date, appointment_time, duration, physician_id, status) VALUES (?, 'MRG-1', ?, 'OPD', " +
+                "DATE '2025-01-10', TIME '09:00:00', 30, 1, 'COMPLETED')", ID_BASE, patientId);
+        jdbcTemplate.update("INSERT INTO vitals (id, appointment_id, heart_rate, recorded_by) VALUES (?, ?, 165, 1)",
+                ID_BASE, ID_BASE);
+        jdbcTemplate.update("INSERT INTO vital_readings (vitals_id, metric, patient_id, recorded_at, reading_value) " +
+                "VALUES (?, 0, ?, TIMESTAMP '2025-01-10 09:05:00', 165)", ID_BASE, patientId);
+        jdbcTemplate.update("INSERT INTO critical_vitals_alerts (id, patient_id, appointment_id, vitals_id, metrics, " +
+                "findings, recorded_at, raised_at, last_seen_at) VALUES (?, ?, ?, ?, 'HEART_RATE', 'Heart rate 165 bpm', " +
+                "TIMESTAMP '2025-01-10 09:05:00', TIMESTAMP '2025-01-10 09:05:01', TIMESTAMP '2025-01-10 09:05:01')",
+                ID_BASE, patientId, ID_BASE, ID_BASE);
+        jdbcTemplate.update("INSERT INTO prescriptions (id, prescription_number, appointment_id, patient_id, " +
+                "physician_id, prescription_date) VALUES (?, 'MRG-RX-1', ?, ?, 1, DATE '2025-01-10')",
+                ID_BASE, ID_BASE, patientId);
+        jdbcTemplate.update("INSERT INTO investigation_orders (id, order_number, appointment_id, patient_id, " +
+                "ordered_by, order_type, test_name) VALUES (?, 'MRG-INV-1', ?, ?, 1, 'PATHOLOGY', 'CBC')",
+                ID_BASE, ID_BASE, patientId);
+        jdbcTemplate.update("INSERT INTO patient_medical_history_audit (id, patient_id, field_changed, new_value, " +
+                "history_version) VALUES (?, ?, 'known_allergies', 'Penicillin', 1)", ID_BASE, patientId);
+        jdbcTemplate.update("INSERT INTO patient_emergency_contacts (id, patient_id, contact_person_name, " +
+                "relationship, contact_number) VALUES (?, ?, 'Sunita Mergetest', 'SPOUSE', '6299999999')",
+                ID_BASE, patientId);
+    }
+
+    private void seedCandidate() {
+        jdbcTemplate.update("INSERT INTO patient_duplicate_candidates (id, patient_a_id, patient_b_id, score, status) " +
+                "VALUES (?, ?, ?, 90, 'PENDING')", ID_BASE, SURVIVOR, MERGED);
+    }
+
+    private int count(String table, long patientId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE patient_id = ?",
+                Integer.class, patientId);
+    }
+
+    private void awaitSearchIndex() throws InterruptedException {
+        for (int i = 0; i < 500 && !Boolean.TRUE.equals(patientSearchIndex.status().getReady()); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(patientSearchIndex.status().getReady());
+    }
+
+    @Test
+    void merge_movesEverythingToSurvivorAndForgetsMergedPatient() throws InterruptedException {
+        awaitSearchIndex();
+        seedPatient(SURVIVOR, "Ramesh");
+        seedPatient(MERGED, "Rameshh");
+        seedRecords(MERGED);
+        seedInsurance(ID_BASE, MERGED);
+        seedCandidate();
+        assertTrue(patientCache.getById(MERGED).isPresent());
+        assertTrue(patientSearchIndex.search("Rameshh Mergetest", 10).orElseThrow().contains(MERGED));
+
+        PatientMergeResponse response = reviewService.merge(ID_BASE, SURVIVOR);
+
+        for (String table : PATIENT_TABLES) {
+            assertEquals(1, count(table, SURVIVOR), table);
+            assertEquals(0, count(table, MERGED), table);
+        }
+        assertNull(jdbcTemplate.queryForObject("SELECT history_version FROM patient_medical_history_audit WHERE id = ?",
+                Integer.class, ID_BASE));
+        assertEquals(1, count("patient_insurance", SURVIVOR));
+        assertTrue(response.getInsuranceMoved());
+        assertEquals(1, response.getAppointmentsMoved());
+        assertEquals(1, response.getEmergencyContactsMoved());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patients WHERE id = ?", Integer.class, MERGED));
+        assertTrue(patientCache.getById(MERGED).isEmpty());
+        assertFalse(patientSearchIndex.search("Rameshh Mergetest", 10).orElseThrow().contains(MERGED));
+    }
+
+    @Test
+    void merge_keepsSurvivorsOwnInsurance() {
+        seedPatient(SURVIVOR, "Ramesh");
+        seedPatient(MERGED, "Rameshh");
+        seedInsurance(ID_BASE + 1, SURVIVOR);
+        seedInsurance(ID_BASE + 2, MERGED);
+        seedCandidate();
+
+        PatientMergeResponse response = reviewService.merge(ID_BASE, SURVIVOR);
+
+        assertFalse(response.getInsuranceMoved());
+        assertEquals(List.of(ID_BASE + 1), jdbcTemplate.queryForList(
+                "SELECT id FROM patient_insurance WHERE patient_id IN (?, ?)", Long.class, SURVIVOR, MERGED));
+    }
+}
@@ -0,0 +1,56 @@
+package com.healix.service;
+
+import com.healix.dto.PatientMatchCandidate;
+import com.healix.util.PhoneticKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientPhoneticSearchServiceTest {
+
+    private static final LocalDate DOB = LocalDate.of(1985, 3, 15);
+
+    private PatientMatchCandidate candidate(String firstName, String lastName, LocalDate dateOfBirth, String mobile) {
+        return new PatientMatchCandidate(1L, firstName, lastName, PhoneticKey.encode(firstName),
+                PhoneticKey.encode(lastName), dateOfBirth, mobile, "416416");
+    }
+
+    private PatientPhoneticSearchService.Score score(PatientMatchCandidate candidate, String name,
+                                                     LocalDate dateOfBirth, String mobile) {
+        List<String> tokens = List.of(name.split(" "));
+        List<String> keys = tokens.stream().map(PhoneticKey::encode).toList();
+        return PatientPhoneticSearchService.score(candidate, tokens, keys, dateOfBirth, mobile);
+    }
+
+    @Test
+    void score_rewardsSoundAlikeNamesAndExactSpelling() {
+        PatientMatchCandidate rahulPatil = candidate("Rahul", "Patil", DOB, "9876543210");
+
+        PatientPhoneticSearchService.Score exact = score(rahulPatil, "Rahul Patil", null, null);
+        PatientPhoneticSearchService.Score variant = score(rahulPatil, "Rahul Paatil", null, null);
+        PatientPhoneticSearchService.Score surnameOnly = score(rahulPatil, "Paatil", null, null);
+
+        assertEquals(60, exact.total());
+        assertEquals(55, variant.total());
+        assertEquals(25, surnameOnly.total());
+        assertTrue(variant.nameMatch());
+    }
+
+    @Test
+    void score_addsDateOfBirthAndMobileSimilarity() {
+        PatientMatchCandidate rahulPatil = candidate("Rahul", "Patil", DOB, "9876543210");
+
+        PatientPhoneticSearchService.Score all = score(rahulPatil, "Rahul Patil", DOB, "9876543210");
+        PatientPhoneticSearchService.Score near = score(rahulPatil, "Rahul Patil", DOB.plusDays(3), "9123453210");
+
+        assertEquals(100, all.total());
+        assertTrue(all.dateOfBirthMatch());
+        assertTrue(all.mobileMatch());
+        assertEquals(70, near.total());
+        assertFalse(near.dateOfBirthMatch());
+        assertFalse(near.mobileMatch());
+    }
+}
@@ -0,0 +1,217 @@
+package com.healix.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healix.model.PatientResponse;
+import com.healix.model.PatientSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Patient reads must cost a fixed number of SQL statements, whatever the number of patients mapped.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class PatientReadStatementCountTest {
+
+    private static final long ID_BASE = 9_000_000L;
+    private static final int PATIENT_COUNT = 30;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientTimelineService patientTimelineService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() {
+        // Every patient has an emergency contact, insurance with a scheme and a medical history
+        jdbcTemplate.update("INSERT INTO patients (id, patient_id, first_name, last_name, date_of_birth, gender, " +
+                "mobile_number, city, pin_code, created_by) " +
+                "SELECT ? + X, 'CNT' || X, 'Count' || X, 'Patient', DATE '1980-01-01', 'MALE', " +
+                "CAST(7000000000 + X AS VARCHAR), 'Sangli', '416416', 1 FROM SYSTEM_RANGE(1, ?)",
+                ID_BASE, PATIENT_COUNT);
+        jdbcTemplate.update("INSERT INTO patient_emergency_contacts (id, patient_id, contact_person_name, " +
+                "relationship, contact_number) SELECT ? + X, ? + X, 'Contact' || X, 'SPOUSE', " +
+                "CAST(7100000000 + X AS VARCHAR) FROM SYSTEM_RANGE(1, ?)", ID_BASE, ID_BASE, PATIENT_COUNT);
+        jdbcTemplate.update("INSERT INTO patient_insurance (id, patient_id, has_insurance, insurance_type, scheme_id, " +
+                "policy_card_number) SELECT ? + X, ? + X, TRUE, 'GOVERNMENT', 1, 'CNT' || X FROM SYSTEM_RANGE(1, ?)",
+                ID_BASE, ID_BASE, PATIENT_COUNT);
+        jdbcTemplate.update("INSERT INTO patient_medical_history (id, patient_id, known_allergies, current_medications) " +
+                "SELECT ? + X, ? + X, '[\"Dust\"]', '[]' FROM SYSTEM_RANGE(1, ?)", ID_BASE, ID_BASE, PATIENT_COUNT);
+    }
+
+    @Test
+    void getPatientById_isOneStatement() {
+        PatientResponse patient = count(1, () -> patientService.getPatientById(ID_BASE + 1));
+
+        assertEquals(1, patient.getEmergencyContacts().size());
+        assertNotNull(patient.getInsurance().getSchemeName());
+        assertEquals(1, patient.getMedicalHistory().getKnownAllergies().size());
+    }
+
+    @Test
+    void getPatientByPatientId_isOneStatement() {
+        PatientResponse patient = count(1, () -> patientService.getPatientByPatientId("CNT2"));
+
+        assertEquals(ID_BASE + 2, patient.getId());
+        assertNotNull(patient.getInsurance());
+    }
+
+    @Test
+    void getAllPatients_isPageCountAndContactBatch() {
+        // Page (insurance, scheme and history joined) + count + one batch for the page's emergency contacts
+        Page<PatientResponse> page = count(3, () -> patientService.getAllPatients(PageRequest.of(0, 20)));
+
+        assertEquals(20, page.getNumberOfElements());
+        assertTrue(page.getContent().stream().allMatch(patient -> patient.getEmergencyContacts() != null));
+    }
+
+    @Test
+    void getPatientsSlice_isSliceAndContactBatch() {
+        Slice<PatientResponse> slice = count(2, () -> patientService.getPatientsSlice(null, Long.MAX_VALUE, 20));
+
+        assertEquals(20, slice.getNumberOfElements());
+        assertEquals(ID_BASE + PATIENT_COUNT, slice.getContent().get(0).getId());
+        assertNotNull(slice.getContent().get(0).getInsurance());
+    }
+
+    @Test
+    void getPatientSummaries_isPageAndCountWithoutLoadingEntities() {
+        Page<PatientSummary> page = count(2, () -> patientService.getPatientSummaries("Count", PageRequest.of(0, 20)));
+
+        assertEquals(PATIENT_COUNT, page.getTotalElements());
+        assertEquals("CNT" + PATIENT_COUNT, page.getContent().get(0).getPatientId());
+        assertEquals(0, entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getEntityLoadCount());
+    }
+
+    @Test
+    void writeTimeline_isThreeStatementsPerBatch() {
+        int visits = 2 * PatientTimelineService.TIMELINE_BATCH_SIZE + 50;
+        seedVisits(ID_BASE + 1, visits);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Appointments, vitals with symptoms and examinations, for each of the three batches
+        int written = count(9, () -> writeTimeline(ID_BASE + 1, null, PatientTimelineService.MAX_LIMIT, out));
+
+        List<JsonNode> lines = lines(out);
+        assertEquals(visits, written);
+        assertEquals(visits, lines.size());
+        for (int i = 0; i < visits; i++) {
+            assertEquals(ID_BASE + visits - i, lines.get(i).get("appointmentId").asLong(), "line " + i);
+        }
+        assertEquals(1, lines.get(0).get("vitals").size());
+        assertEquals(ID_BASE + visits, lines.get(0).get("examination").get("appointmentId").asLong());
+    }
+
+    @Test
+    void writeTimeline_cursorContinuesAcrossBatchBoundary() {
+        int visits = 2 * PatientTimelineService.TIMELINE_BATCH_SIZE + 50;
+        seedVisits(ID_BASE + 2, visits);
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        writeTimeline(ID_BASE + 2, null, PatientTimelineService.MAX_LIMIT, all);
+        List<JsonNode> expected = lines(all);
+
+        // The first page ends halfway through the second batch; the last visit of the first batch shares its
+        // date with the next one, so the cursor has to break the tie by id
+        int firstPage = PatientTimelineService.TIMELINE_BATCH_SIZE + 50;
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        writeTimeline(ID_BASE + 2, null, firstPage, first);
+        List<JsonNode> firstLines = lines(first);
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        writeTimeline(ID_BASE + 2, firstLines.get(firstPage - 1).get("cursor").asText(), firstPage, rest);
+        ByteArrayOutputStream afterFirstBatch = new ByteArrayOutputStream();
+        writeTimeline(ID_BASE + 2, firstLines.get(PatientTimelineService.TIMELINE_BATCH_SIZE - 1).get("cursor").asText(),
+                1, afterFirstBatch);
+
+        List<JsonNode> paged = new ArrayList<>(firstLines);
+        paged.addAll(lines(rest));
+        assertEquals(ids(expected), ids(paged));
+        assertEquals(expected.get(PatientTimelineService.TIMELINE_BATCH_SIZE).get("appointmentId"),
+                lines(afterFirstBatch).get(0).get("appointmentId"));
+    }
+
+    // Two visits a day, each with vitals (one symptom) and an examination; visit X has id ID_BASE + X
+    private void seedVisits(long patientId, int visits) {
+        jdbcTemplate.update("INSERT INTO appointments (id, appointment_number, patient_id, appointment_type, " +
+                "appointment_date, appointment_time, duration, physician_id, status) " +
+                "SELECT ? + X, 'CNT-' || X, ?, 'OPD', DATEADD('DAY', X / 2, DATE '2020-01-01'), TIME '09:00:00', " +
+                "30, 1, 'COMPLETED' FROM SYSTEM_RANGE(1, ?)", ID_BASE, patientId, visits);
+        jdbcTemplate.update("INSERT INTO vitals (id, appointment_id, heart_rate, recorded_by) " +
+                "SELECT ? + X, ? + X, 72, 1 FROM SYSTEM_RANGE(1, ?)", ID_BASE, ID_BASE, visits);
+        jdbcTemplate.update("INSERT INTO vital_symptoms (vital_id, symptom) SELECT ? + X, 'Cough' FROM SYSTEM_RANGE(1, ?)",
+                ID_BASE, visits);
+        jdbcTemplate.update("INSERT INTO appointment_examination (id, appointment_id, primary_diagnosis, examined_by) " +
+                "SELECT ? + X, ? + X, 'Viral fever', 1 FROM SYSTEM_RANGE(1, ?)", ID_BASE, ID_BASE, visits);
+    }
+
+    private int writeTimeline(Long patientId, String cursor, int limit, ByteArrayOutputStream out) {
+        try {
+            return patientTimelineService.writeTimeline(patientId, cursor, limit, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            try {
+                lines.add(objectMapper.readTree(line));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return lines;
+    }
+
+    private static List<Long> ids(List<JsonNode> lines) {
+        return lines.stream().map(line -> line.get("appointmentId").asLong()).toList();
+    }
+
+    private <T> T count(long expectedStatements, Supplier<T> read) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        T result = read.get();
+
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount(),
+                "SQL statements issued: " + statistics.getPrepareStatementCount());
+        return result;
+    }
+}
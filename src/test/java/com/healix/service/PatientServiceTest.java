@@ -0,0 +1,76 @@
+package com.healix.service;
+
+import com.healix.exception.DuplicateResourceException;
+import com.healix.model.PatientRegistrationRequest;
+import com.healix.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientServiceTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @InjectMocks
+    private PatientService patientService;
+
+    private PatientRegistrationRequest request(String mobile, String aadhar) {
+        PatientRegistrationRequest request = new PatientRegistrationRequest();
+        request.setFirstName("Test");
+        request.setLastName("Patient");
+        request.setMobileNumber(mobile);
+        request.setAadharNumber(aadhar);
+        return request;
+    }
+
+    @Test
+    void screenDuplicates_reportsExistingAndInFileDuplicates() {
+        List<PatientRegistrationRequest> requests = List.of(
+                request("9000000001", "111111111111"),
+                request("9000000002", null),
+                request("9000000001", null),
+                request("9000000003", "111111111111"),
+                request("9000000004", "222222222222"));
+
+        when(patientRepository.findExistingMobileNumbers(anyCollection())).thenReturn(List.of("9000000002"));
+        when(patientRepository.findExistingAadharNumbers(anyCollection())).thenReturn(List.of("222222222222"));
+
+        Map<Integer, DuplicateResourceException> duplicates = patientService.screenDuplicates(requests);
+
+        assertEquals(4, duplicates.size());
+        assertFalse(duplicates.containsKey(0));
+        assertTrue(duplicates.get(1).getMessage().contains("mobileNumber"));
+        assertTrue(duplicates.get(2).getMessage().contains("within upload"));
+        assertTrue(duplicates.get(3).getMessage().contains("aadharNumber"));
+        assertTrue(duplicates.get(4).getMessage().contains("aadharNumber"));
+        verify(patientRepository, never()).existsByMobileNumber(any());
+        verify(patientRepository, never()).existsByAadharNumber(any());
+    }
+
+    @Test
+    void screenDuplicates_queriesInChunks() {
+        List<PatientRegistrationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < PatientService.SCREENING_CHUNK_SIZE + 1; i++) {
+            requests.add(request("%010d".formatted(7_000_000_000L + i), null));
+        }
+        when(patientRepository.findExistingMobileNumbers(anyCollection())).thenReturn(List.of());
+
+        Map<Integer, DuplicateResourceException> duplicates = patientService.screenDuplicates(requests);
+
+        assertTrue(duplicates.isEmpty());
+        verify(patientRepository, times(2)).findExistingMobileNumbers(anyCollection());
+        verify(patientRepository, never()).findExistingAadharNumbers(anyCollection());
+    }
+}
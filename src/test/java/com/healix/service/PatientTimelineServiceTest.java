@@ -0,0 +1,35 @@
+package com.healix.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientTimelineServiceTest {
+
+    @Test
+    void cursor_roundTripsPosition() {
+        PatientTimelineService.Position position = new PatientTimelineService.Position(LocalDate.of(2019, 7, 1), 4321L);
+
+        String cursor = PatientTimelineService.encodeCursor(position);
+
+        assertEquals(position, PatientTimelineService.decodeCursor(cursor));
+        assertFalse(cursor.contains("="));
+    }
+
+    @Test
+    void cursor_missingStartsFromNewest() {
+        PatientTimelineService.Position position = PatientTimelineService.decodeCursor(null);
+
+        assertEquals(Long.MAX_VALUE, position.id());
+        assertTrue(position.date().isAfter(LocalDate.now().plusYears(100)));
+    }
+
+    @Test
+    void cursor_malformedIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PatientTimelineService.decodeCursor("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PatientTimelineService.decodeCursor(
+                PatientTimelineService.encodeCursor(new PatientTimelineService.Position(LocalDate.now(), 1)).substring(2)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.healix.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    private List<Long> ids(String query, int limit) {
+        return index.search(query, limit).stream().map(TrigramIndex.Match::id).toList();
+    }
+
+    @Test
+    void search_matchesSubstringsOfAnyField() {
+        index.put(1, "SNG2025001", "Rahul", "Patil", "9876543210");
+        index.put(2, "SNG2025002", "Priya", "Deshmukh", "9876543211");
+
+        assertEquals(List.of(1L), ids("atil", 10));
+        assertEquals(List.of(2L), ids("DESH", 10));
+        assertEquals(List.of(2L), ids("2025002", 10));
+        assertEquals(List.of(2L, 1L), ids("987654321", 10));
+        assertEquals(List.of(), ids("xyz", 10));
+    }
+
+    @Test
+    void search_confirmsContiguousMatch() {
+        // Contains the trigrams "ram" and "ama" but not the substring "rama"
+        index.put(1, "SNG1", "Ram", "Amar", "9000000001");
+
+        assertEquals(List.of(), ids("rama", 10));
+        assertEquals(List.of(1L), ids("ram a", 10));
+    }
+
+    @Test
+    void search_ranksExactThenPrefixThenWordStartThenSubstring() {
+        index.put(1, "SNG1", "Sampat", "Rao", "9000000001");
+        index.put(2, "SNG2", "Pat", "Kulkarni", "9000000002");
+        index.put(3, "SNG3", "Anil", "Patil", "9000000003");
+        index.put(4, "PAT4", "Meera", "Joshi", "9000000004");
+
+        assertEquals(List.of(4L, 2L, 3L, 1L), ids("pat", 10));
+        assertEquals(List.of(4L, 2L), ids("pat", 2));
+    }
+
+    @Test
+    void put_replacesAndRemoveDropsPreviousTerms() {
+        index.put(1, "SNG1", "Rahul", "Patil", "9000000001");
+        index.put(1, "SNG1", "Rahul", "Pawar", "9000000001");
+
+        assertEquals(List.of(), ids("patil", 10));
+        assertEquals(List.of(1L), ids("pawar", 10));
+
+        index.remove(1);
+
+        assertEquals(List.of(), ids("rahul", 10));
+        assertEquals(0, index.documentCount());
+        assertEquals(0, index.trigramCount());
+    }
+
+    @Test
+    void search_ignoresQueriesShorterThanATrigram() {
+        index.put(1, "SNG1", "Om", "Patil", "9000000001");
+
+        assertEquals(List.of(), ids("om", 10));
+    }
+
+    @Test
+    void search_onlyCommonTrigrams_looksAtNewestCandidatesOnly() {
+        TrigramIndex capped = new TrigramIndex(10);
+        for (long id = 1; id <= 50; id++) {
+            capped.put(id, "SNG2025%03d".formatted(id), "Rahul", id == 1 ? "Patil" : "Pawar", "9%09d".formatted(id));
+        }
+
+        // Every patient has these trigrams; only the newest 10 are ranked
+        assertEquals(List.of(50L, 49L, 48L, 47L, 46L),
+                capped.search("sng2025", 5).stream().map(TrigramIndex.Match::id).toList());
+        // A selective trigram still finds old patients
+        assertEquals(List.of(1L), capped.search("patil", 5).stream().map(TrigramIndex.Match::id).toList());
+        assertFalse(capped.find("sng2025", 100).complete());
+        assertTrue(capped.find("patil", 100).complete());
+    }
+
+    /**
+     * Latency at a few million patients. Run with {@code mvn test -Dbenchmark=true -Dtest=TrigramIndexTest}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_searchLatencyAtThreeMillionPatients() {
+        String[] firstNames = {"Rahul", "Priya", "Sachin", "Sunita", "Vijay", "Anita", "Ganesh", "Kavita", "Mahesh", "Pooja"};
+        String[] lastNames = {"Patil", "Deshmukh", "Pawar", "Jadhav", "Kulkarni", "Shinde", "Joshi", "More", "Chavan", "Gaikwad"};
+        Random random = new Random(42);
+        int patients = 3_000_000;
+        for (int i = 0; i < patients; i++) {
+            index.put(i, "SNG%07d".formatted(i), firstNames[random.nextInt(10)] + random.nextInt(1000),
+                    lastNames[random.nextInt(10)], "%010d".formatted(7_000_000_000L + i));
+        }
+
+        String[] queries = {"patil", "desh", "sachin12", "7000123", "SNG0012", "kulkarni", "ganesh9", "ita"};
+        long[] nanos = new long[2_000];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            index.search(queries[i % queries.length] + (i % 3 == 0 ? "" : String.valueOf(i % 10)), 10);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("[benchmark] trigram search over %d patients: p50 %.2f ms, p99 %.2f ms%n",
+                patients, nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 99 / 100] / 1e6);
+    }
+}
@@ -0,0 +1,72 @@
+package com.healix.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The readings backfill against the database: only vitals without readings are read, and readings that
+ * already exist are left alone.
+ */
+@SpringBootTest
+@Transactional
+class VitalSeriesBackfillTest {
+
+    private static final long ID_BASE = 9_400_000L;
+
+    @Autowired
+    private VitalSeriesService vitalSeriesService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO patients (id, patient_id, first_name, last_name, date_of_birth, gender, " +
+                "mobile_number, city, pin_code, created_by) VALUES (?, 'BKF1', 'Backfill', 'Patient', " +
+                "DATE '1980-01-01', 'MALE', '7300000001', 'Sangli', '416416', 1)", ID_BASE);
+        jdbcTemplate.update("INSERT INTO appointments (id, appointment_number, patient_id, appointment_type, " +
+                "appointment_date, appointment_time, duration, physician_id, status) VALUES (?, 'BKF-1', ?, 'OPD', " +
+                "DATE '2025-01-10', TIME '09:00:00', 30, 1, 'COMPLETED')", ID_BASE, ID_BASE);
+        // Two vitals records with heart rate and SpO2; the second already has its heart rate reading
+        jdbcTemplate.update("INSERT INTO vitals (id, appointment_id, heart_rate, spo2, recorded_by, recorded_at) " +
+                "SELECT ? + X, ?, 70 + X, 98, 1, DATEADD('MINUTE', X, TIMESTAMP '2025-01-10 09:00:00') " +
+                "FROM SYSTEM_RANGE(1, 2)", ID_BASE, ID_BASE);
+        jdbcTemplate.update("INSERT INTO vital_readings (vitals_id, metric, patient_id, recorded_at, reading_value) " +
+                "VALUES (?, 5, ?, TIMESTAMP '2025-01-10 09:02:00', 72)", ID_BASE + 2, ID_BASE);
+    }
+
+    private List<Long> readings(long vitalsId) {
+        return jdbcTemplate.queryForList("SELECT metric FROM vital_readings WHERE vitals_id = ? ORDER BY metric",
+                Long.class, vitalsId);
+    }
+
+    @Test
+    void backfill_addsReadingsOnlyForVitalsWithout() {
+        assertTrue(readings(ID_BASE + 1).isEmpty());
+
+        vitalSeriesService.backfill();
+
+        assertEquals(2, readings(ID_BASE + 1).size());
+        // Already had readings, so it was not selected again
+        assertEquals(1, readings(ID_BASE + 2).size());
+    }
+
+    @Test
+    void backfill_runsAgainWithoutTouchingBackfilledVitals() {
+        vitalSeriesService.backfill();
+        List<Long> backfilled = readings(ID_BASE + 1);
+
+        vitalSeriesService.backfill();
+
+        assertEquals(List.of(5L, 9L), backfilled);
+        assertEquals(backfilled, readings(ID_BASE + 1));
+    }
+}
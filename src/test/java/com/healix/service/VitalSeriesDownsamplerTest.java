@@ -0,0 +1,59 @@
+package com.healix.service;
+
+import com.healix.entity.Vitals;
+import com.healix.enums.VitalMetric;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VitalSeriesDownsamplerTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void points_keepMinMaxAvgPerBucket() {
+        VitalSeriesDownsampler downsampler = new VitalSeriesDownsampler(FROM, FROM.plusDays(10), 5);
+        downsampler.add(FROM.plusHours(1), 120);
+        downsampler.add(FROM.plusHours(30), 140);
+        downsampler.add(FROM.plusDays(6), 150);
+        downsampler.add(FROM.minusHours(1), 999);
+        downsampler.add(FROM.plusDays(10), 999);
+
+        List<VitalSeriesDownsampler.Point> points = downsampler.points();
+
+        assertEquals(2 * 86400, downsampler.bucketSeconds());
+        assertEquals(3, downsampler.readings());
+        assertEquals(2, points.size());
+        assertEquals(new VitalSeriesDownsampler.Point(FROM, 120, 140, 130, 2), points.get(0));
+        assertEquals(new VitalSeriesDownsampler.Point(FROM.plusDays(6), 150, 150, 150, 1), points.get(1));
+    }
+
+    @Test
+    void points_shortRangeUsesOneSecondBuckets() {
+        VitalSeriesDownsampler downsampler = new VitalSeriesDownsampler(FROM, FROM.plusSeconds(3), 300);
+        downsampler.add(FROM.plusSeconds(2), 98);
+
+        assertEquals(1, downsampler.bucketSeconds());
+        assertEquals(List.of(new VitalSeriesDownsampler.Point(FROM.plusSeconds(2), 98, 98, 98, 1)), downsampler.points());
+    }
+
+    @Test
+    void metric_readsTemperatureInFahrenheit() {
+        Vitals vitals = Vitals.builder().temperature(37.0).temperatureUnit("C").heartRate(72).build();
+
+        assertEquals(98.6, VitalMetric.TEMPERATURE.readingOf(vitals), 1e-9);
+        assertEquals(72.0, VitalMetric.HEART_RATE.readingOf(vitals));
+        assertNull(VitalMetric.SPO2.readingOf(vitals));
+    }
+
+    @Test
+    void parseMetrics_rejectsUnknownNames() {
+        assertEquals(List.of(VitalMetric.SYSTOLIC_BP, VitalMetric.DIASTOLIC_BP),
+                List.copyOf(VitalSeriesService.parseMetrics(List.of("systolic_bp", "DIASTOLIC_BP", "SYSTOLIC_BP"))));
+        assertThrows(IllegalArgumentException.class, () -> VitalSeriesService.parseMetrics(List.of("GLUCOSE")));
+        assertThrows(IllegalArgumentException.class, () -> VitalSeriesService.parseMetrics(List.of()));
+    }
+}
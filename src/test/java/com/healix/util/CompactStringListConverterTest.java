@@ -0,0 +1,80 @@
+package com.healix.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactStringListConverterTest {
+
+    private final CompactStringListConverter converter = new CompactStringListConverter();
+
+    @Test
+    void roundTrip_keepsSeparatorsUnicodeAndNulls() {
+        List<String> values = Arrays.asList("Penicillin", "Dose: 5|10 mg", "", null, "पेनिसिलिन", "~2|3:abc");
+
+        String stored = converter.convertToDatabaseColumn(values);
+
+        assertEquals(values, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void emptyList_isStoredAsEmptyCompactList() {
+        assertEquals("~0|", converter.convertToDatabaseColumn(List.of()));
+        assertEquals(List.of(), converter.convertToEntityAttribute("~0|"));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertEquals(List.of(), converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void load_doesNotDecodeUntilRead() {
+        List<String> loaded = converter.convertToEntityAttribute("~2|10:Penicillin7:Peanuts");
+        CompactStringListConverter.LazyList lazy = (CompactStringListConverter.LazyList) loaded;
+
+        assertEquals(2, loaded.size());
+        assertFalse(lazy.isDecoded());
+        assertEquals("~2|10:Penicillin7:Peanuts", converter.convertToDatabaseColumn(loaded));
+
+        assertEquals("Peanuts", loaded.get(1));
+        assertTrue(lazy.isDecoded());
+    }
+
+    @Test
+    void legacyJson_isReadAndReencodedOnWrite() {
+        List<String> loaded = converter.convertToEntityAttribute("[\"Penicillin\", \"Peanuts\"]");
+
+        assertEquals(List.of("Penicillin", "Peanuts"), loaded);
+        assertEquals("~2|10:Penicillin7:Peanuts", converter.convertToDatabaseColumn(loaded));
+    }
+
+    @Test
+    void lazyList_isMutableAndWritesChanges() {
+        List<String> loaded = converter.convertToEntityAttribute("~1|15:Metformin 500mg");
+
+        loaded.add("Amlodipine 5mg");
+        loaded.remove(0);
+
+        assertEquals("~1|14:Amlodipine 5mg", converter.convertToDatabaseColumn(loaded));
+    }
+
+    @Test
+    void equals_comparesStoredTextAndContent() {
+        List<String> first = converter.convertToEntityAttribute("~1|4:Dust");
+        List<String> second = converter.convertToEntityAttribute("~1|4:Dust");
+        List<String> legacy = converter.convertToEntityAttribute("[\"Dust\"]");
+
+        assertEquals(first, second);
+        assertFalse(((CompactStringListConverter.LazyList) first).isDecoded());
+        assertEquals(first, legacy);
+        assertEquals(new ArrayList<>(List.of("Dust")), first);
+        assertNotEquals(first, converter.convertToEntityAttribute("~1|6:Pollen"));
+    }
+
+    @Test
+    void corruptData_readsAsEmpty() {
+        assertEquals(List.of(), CompactStringListConverter.decode("~2|99:short"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.healix.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhoneticKeyTest {
+
+    @Test
+    void encode_groupsCommonSpellingVariants() {
+        assertEquals(PhoneticKey.encode("Patil"), PhoneticKey.encode("Paatil"));
+        assertEquals(PhoneticKey.encode("Patil"), PhoneticKey.encode("PATEEL"));
+        assertEquals(PhoneticKey.encode("Deshmukh"), PhoneticKey.encode("Desmukh"));
+        assertEquals(PhoneticKey.encode("Lakshmi"), PhoneticKey.encode("Laxmi"));
+        assertEquals(PhoneticKey.encode("Sunita"), PhoneticKey.encode("Suneeta"));
+        assertEquals(PhoneticKey.encode("Vijay"), PhoneticKey.encode("Wijay"));
+        assertEquals(PhoneticKey.encode("Mamta"), PhoneticKey.encode("Mamata"));
+    }
+
+    @Test
+    void encode_keepsDifferentNamesApart() {
+        assertNotEquals(PhoneticKey.encode("Patil"), PhoneticKey.encode("Pawar"));
+        assertNotEquals(PhoneticKey.encode("Deshmukh"), PhoneticKey.encode("Deshpande"));
+    }
+
+    @Test
+    void encode_matchesDevanagariWithLatinSpelling() {
+        assertEquals(PhoneticKey.encode("Patil"), PhoneticKey.encode("पाटील"));
+        assertEquals(PhoneticKey.encode("Deshmukh"), PhoneticKey.encode("देशमुख"));
+        assertEquals(PhoneticKey.encode("Mamta"), PhoneticKey.encode("ममता"));
+    }
+
+    @Test
+    void encode_handlesLeadingVowelsAndEmptyInput() {
+        assertEquals("ASK", PhoneticKey.encode("Ashok"));
+        assertEquals(PhoneticKey.encode("Anil"), PhoneticKey.encode("Aneel"));
+        assertNull(PhoneticKey.encode(null));
+        assertNull(PhoneticKey.encode(" 123 "));
+        assertTrue(PhoneticKey.encode("Venkatasubramanian Krishnamurthy").length() <= PhoneticKey.MAX_LENGTH);
+    }
+}
@@ -0,0 +1,74 @@
+package com.healix.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingResourceTest {
+
+    // Writes until it fails, then counts down
+    private static StreamingResource.Body endless(CountDownLatch stopped) {
+        return out -> {
+            try {
+                byte[] chunk = new byte[8192];
+                while (true) {
+                    out.write(chunk);
+                }
+            } finally {
+                stopped.countDown();
+            }
+        };
+    }
+
+    @Test
+    void of_streamsTheBody() throws IOException {
+        Resource resource = StreamingResource.of("test", Duration.ofSeconds(10),
+                out -> out.write("a\nb\n".getBytes(StandardCharsets.UTF_8)));
+
+        try (InputStream in = resource.getInputStream()) {
+            assertEquals("a\nb\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void of_failsTheBodyWhenTheWriterFails() throws IOException {
+        Resource resource = StreamingResource.of("test", Duration.ofSeconds(10), out -> {
+            out.write('a');
+            throw new IOException("database gone");
+        });
+
+        try (InputStream in = resource.getInputStream()) {
+            assertThrows(IOException.class, in::readAllBytes);
+        }
+    }
+
+    @Test
+    void close_stopsAWriterBlockedOnAFullPipe() throws Exception {
+        CountDownLatch stopped = new CountDownLatch(1);
+        Resource resource = StreamingResource.of("test", Duration.ofMinutes(10), endless(stopped));
+        InputStream in = resource.getInputStream();
+        in.readNBytes(100);
+
+        // As when the client goes away mid-response
+        in.close();
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void timeout_stopsAWriterWhoseBodyIsNeverRead() throws Exception {
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        StreamingResource.of("test", Duration.ofMillis(100), endless(stopped));
+
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    }
+}
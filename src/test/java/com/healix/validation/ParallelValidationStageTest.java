@@ -0,0 +1,40 @@
+package com.healix.validation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelValidationStageTest {
+
+    private final ParallelValidationStage stage = new ParallelValidationStage(4);
+
+    @AfterEach
+    void tearDown() {
+        stage.shutdown();
+    }
+
+    @Test
+    void validate_preservesRowOrderAcrossChunks() {
+        List<Integer> rows = IntStream.range(0, ParallelValidationStage.CHUNK_SIZE * 5 + 7).boxed().toList();
+
+        List<String> results = stage.validate(rows, row -> "row-" + row);
+
+        assertEquals(rows.size(), results.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals("row-" + i, results.get(i));
+        }
+    }
+
+    @Test
+    void validate_smallListRunsOnCallingThread() {
+        Thread caller = Thread.currentThread();
+
+        List<Boolean> results = stage.validate(List.of(1, 2, 3), row -> Thread.currentThread() == caller);
+
+        assertEquals(List.of(true, true, true), results);
+    }
+}
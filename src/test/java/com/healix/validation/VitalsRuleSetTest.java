@@ -0,0 +1,133 @@
+package com.healix.validation;
+
+import com.healix.entity.VitalRule;
+import com.healix.enums.VitalRuleMetric;
+import com.healix.enums.VitalRuleSeverity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VitalsRuleSetTest {
+
+    private static final int ADULT = 30 * 12;
+    private static final int INFANT = 6;
+
+    private static VitalRule rule(long id, VitalRuleSeverity severity, VitalRuleMetric metric, String group,
+                                  Double low, boolean lowInclusive, String lowMessage,
+                                  Double high, boolean highInclusive, String highMessage, int sortOrder) {
+        return VitalRule.builder()
+                .id(id)
+                .severity(severity)
+                .metric(metric)
+                .ruleGroup(group)
+                .lowLimit(low)
+                .lowInclusive(lowInclusive)
+                .lowMessage(lowMessage)
+                .highLimit(high)
+                .highInclusive(highInclusive)
+                .highMessage(highMessage)
+                .sortOrder(sortOrder)
+                .build();
+    }
+
+    private static final List<VitalRule> RULES = List.of(
+            rule(1, VitalRuleSeverity.ERROR, VitalRuleMetric.WEIGHT, null,
+                    0.0, true, "Weight must be greater than 0 kg", 500.0, false, "Weight cannot exceed 500 kg", 10),
+            rule(10, VitalRuleSeverity.ERROR, VitalRuleMetric.PULSE_PRESSURE, null,
+                    0.0, true, "Systolic BP must be greater than Diastolic BP", null, false, null, 90),
+            rule(6, VitalRuleSeverity.ERROR, VitalRuleMetric.HEART_RATE, null,
+                    20.0, false, "Heart rate must be at least 20 bpm", 300.0, false, "Heart rate cannot exceed 300 bpm", 50),
+            rule(21, VitalRuleSeverity.WARNING, VitalRuleMetric.HEART_RATE, null,
+                    50.0, false, "Heart rate is below normal range (<50 bpm - Bradycardia)",
+                    120.0, false, "Heart rate is above normal range (>120 bpm - Tachycardia)", 10),
+            rule(22, VitalRuleSeverity.WARNING, VitalRuleMetric.SYSTOLIC_BP, "BLOOD_PRESSURE",
+                    90.0, false, "Blood pressure is low (Hypotension)", 140.0, true, "Blood pressure is high (Hypertension)", 20),
+            rule(23, VitalRuleSeverity.WARNING, VitalRuleMetric.DIASTOLIC_BP, "BLOOD_PRESSURE",
+                    60.0, false, "Blood pressure is low (Hypotension)", 90.0, true, "Blood pressure is high (Hypertension)", 21),
+            rule(25, VitalRuleSeverity.WARNING, VitalRuleMetric.TEMPERATURE_F, null,
+                    97.0, false, "Temperature is below normal (Hypothermia)", 100.4, true, "Temperature indicates fever", 40),
+            rule(35, VitalRuleSeverity.CRITICAL, VitalRuleMetric.TEMPERATURE_F, null, 95.0, false, null, 104.0, false, null, 40),
+            rule(31, VitalRuleSeverity.CRITICAL, VitalRuleMetric.HEART_RATE, null, 40.0, false, null, 150.0, false, null, 10));
+
+    private static double[] readings(Object... metricsAndValues) {
+        double[] readings = new double[VitalRuleMetric.values().length];
+        Arrays.fill(readings, Double.NaN);
+        for (int i = 0; i < metricsAndValues.length; i += 2) {
+            readings[((VitalRuleMetric) metricsAndValues[i]).ordinal()] = ((Number) metricsAndValues[i + 1]).doubleValue();
+        }
+        return readings;
+    }
+
+    @Test
+    void messages_matchLimitsIncludingInclusiveOnes() {
+        VitalsRuleSet rules = VitalsRuleSet.compile(RULES);
+
+        assertEquals(List.of("Weight must be greater than 0 kg"),
+                rules.messages(VitalRuleSeverity.ERROR, readings(VitalRuleMetric.WEIGHT, 0), ADULT));
+        assertEquals(List.of(), rules.messages(VitalRuleSeverity.ERROR, readings(VitalRuleMetric.WEIGHT, 500), ADULT));
+        assertEquals(List.of("Temperature indicates fever"),
+                rules.messages(VitalRuleSeverity.WARNING, readings(VitalRuleMetric.TEMPERATURE_F, 100.4), ADULT));
+        assertEquals(List.of(),
+                rules.messages(VitalRuleSeverity.WARNING, readings(VitalRuleMetric.TEMPERATURE_F, 100.3), ADULT));
+    }
+
+    @Test
+    void messages_comeInSortOrder() {
+        VitalsRuleSet rules = VitalsRuleSet.compile(RULES);
+
+        assertEquals(List.of("Weight must be greater than 0 kg", "Heart rate cannot exceed 300 bpm",
+                        "Systolic BP must be greater than Diastolic BP"),
+                rules.messages(VitalRuleSeverity.ERROR, readings(VitalRuleMetric.PULSE_PRESSURE, -5,
+                        VitalRuleMetric.HEART_RATE, 310, VitalRuleMetric.WEIGHT, -1), ADULT));
+    }
+
+    @Test
+    void groupedRules_needAllReadingsAndGiveOneMessage() {
+        VitalsRuleSet rules = VitalsRuleSet.compile(RULES);
+
+        assertEquals(List.of(), rules.messages(VitalRuleSeverity.WARNING, readings(VitalRuleMetric.SYSTOLIC_BP, 80), ADULT));
+        assertEquals(List.of("Blood pressure is low (Hypotension)"), rules.messages(VitalRuleSeverity.WARNING,
+                readings(VitalRuleMetric.SYSTOLIC_BP, 150, VitalRuleMetric.DIASTOLIC_BP, 55), ADULT));
+        assertEquals(List.of("Blood pressure is high (Hypertension)"), rules.messages(VitalRuleSeverity.WARNING,
+                readings(VitalRuleMetric.SYSTOLIC_BP, 120, VitalRuleMetric.DIASTOLIC_BP, 90), ADULT));
+    }
+
+    @Test
+    void narrowestAgeBandWins() {
+        List<VitalRule> withPediatric = new ArrayList<>(RULES);
+        VitalRule infant = rule(40, VitalRuleSeverity.WARNING, VitalRuleMetric.HEART_RATE, null,
+                100.0, false, "Infant heart rate is low", 160.0, false, "Infant heart rate is high", 10);
+        infant.setMaxAgeMonths(12);
+        withPediatric.add(infant);
+        VitalsRuleSet rules = VitalsRuleSet.compile(withPediatric);
+        double[] heartRate = readings(VitalRuleMetric.HEART_RATE, 140);
+
+        assertEquals(List.of(), rules.messages(VitalRuleSeverity.WARNING, heartRate, INFANT));
+        assertEquals(List.of("Heart rate is above normal range (>120 bpm - Tachycardia)"),
+                rules.messages(VitalRuleSeverity.WARNING, heartRate, ADULT));
+        assertEquals(List.of("Heart rate is above normal range (>120 bpm - Tachycardia)"),
+                rules.messages(VitalRuleSeverity.WARNING, heartRate, VitalsRuleSet.UNKNOWN_AGE));
+        assertEquals(List.of("Infant heart rate is low"),
+                rules.messages(VitalRuleSeverity.WARNING, readings(VitalRuleMetric.HEART_RATE, 90), INFANT));
+    }
+
+    @Test
+    void findings_useMetricFindingKeys() {
+        VitalsRuleSet rules = VitalsRuleSet.compile(RULES);
+
+        assertEquals(List.of("HEART_RATE", "TEMPERATURE"), rules.findings(VitalRuleSeverity.CRITICAL,
+                readings(VitalRuleMetric.TEMPERATURE_F, 105, VitalRuleMetric.HEART_RATE, 35), ADULT));
+    }
+
+    @Test
+    void compile_rejectsInconsistentRules() {
+        VitalRule inverted = rule(50, VitalRuleSeverity.ERROR, VitalRuleMetric.SPO2, null,
+                100.0, false, "low", 0.0, false, "high", 10);
+
+        assertThrows(IllegalArgumentException.class, () -> VitalsRuleSet.compile(List.of(inverted)));
+    }
+}